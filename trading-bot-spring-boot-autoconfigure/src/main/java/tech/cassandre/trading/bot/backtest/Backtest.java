@@ -0,0 +1,242 @@
+package tech.cassandre.trading.bot.backtest;
+
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeServiceInBacktestMode;
+import tech.cassandre.trading.bot.strategy.CassandreStrategyInterface;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Backtest - replays a tick series through a strategy, a position service and a trade service in backtest mode, on
+ * the thread calling {@link #run(TickSeries)}.
+ * <p>
+ * There is no flux, no scheduler and no waiting : the time of the backtest is a {@link VirtualClock} moved by the
+ * ticks. For each tick, in this order :
+ * <ul>
+ *     <li>The trade service receives the tick (open limit orders crossed are filled).</li>
+ *     <li>The position service receives the tick (positions reaching their rules are closed).</li>
+ *     <li>The strategy receives the tick if it requested its currency pair.</li>
+ * </ul>
+ * Order, trade and position updates are queued when they happen and sent after each step, in the order they
+ * happened : trades go to the position service then to the strategy, like with the fluxes. A backtest gives the
+ * same results every time.
+ * <p>
+ * A backtest runs once, with its own services : to replay the same ticks with several strategies, create one backtest
+ * per strategy (the tick series can be shared).
+ */
+public class Backtest extends Base {
+
+    /** Strategy. */
+    private final CassandreStrategyInterface strategy;
+
+    /** Currency pairs requested by the strategy, indexed by currency pair id. */
+    private final boolean[] requestedCurrencyPairs;
+
+    /** Virtual clock. */
+    private final VirtualClock clock = new VirtualClock();
+
+    /** Trade service. */
+    private final TradeServiceInBacktestMode tradeService = new TradeServiceInBacktestMode(clock);
+
+    /** Position service. */
+    private final PositionServiceImplementation positionService;
+
+    /** Updates waiting to be sent. */
+    private final Queue<Runnable> updates = new ArrayDeque<>();
+
+    /** Strategy ticker update. */
+    private final Consumer<TickerDTO> strategyTickerUpdate;
+
+    /** Number of ticks replayed. */
+    private long ticks;
+
+    /** Number of tickers sent to the strategy. */
+    private long dispatchedTickers;
+
+    /** Number of errors raised by the strategy. */
+    private long dispatchErrors;
+
+    /** Duration of the backtest (ns). */
+    private long duration;
+
+    /**
+     * Constructor (default price scales for the position rules).
+     *
+     * @param newStrategy strategy
+     */
+    public Backtest(final CassandreStrategyInterface newStrategy) {
+        this(newStrategy, new CompactTickerConverter());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newStrategy               strategy
+     * @param newCompactTickerConverter converter giving the price scales used for the position rules
+     */
+    public Backtest(final CassandreStrategyInterface newStrategy, final CompactTickerConverter newCompactTickerConverter) {
+        this.strategy = newStrategy;
+        this.strategyTickerUpdate = newStrategy::tickerUpdate;
+        this.requestedCurrencyPairs = new boolean[CurrencyPairDTO.getInstanceCount()];
+        newStrategy.getRequestedCurrencyPairs().forEach(currencyPair -> requestedCurrencyPairs[currencyPair.getId()] = true);
+        this.positionService = new PositionServiceImplementation(tradeService, newCompactTickerConverter);
+
+        // Updates are queued, then sent by the backtest.
+        tradeService.setListeners(order -> updates.add(() -> call(strategy::orderUpdate, order)),
+                trade -> updates.add(() -> {
+                    positionService.tradeUpdate(trade);
+                    call(strategy::tradeUpdate, trade);
+                }));
+        positionService.addPositionListener(position -> updates.add(() -> call(strategy::positionUpdate, position)));
+        newStrategy.setTradeService(tradeService);
+        newStrategy.setPositionService(positionService);
+    }
+
+    /**
+     * Replays a tick series.
+     *
+     * @param tickSeries tick series
+     */
+    public final void run(final TickSeries tickSeries) {
+        final long start = System.nanoTime();
+        final int size = tickSeries.size();
+        for (int i = 0; i < size; i++) {
+            final CompactTickerDTO ticker = tickSeries.getCompactTicker(i);
+            clock.setTime(ticker.getTimestamp());
+            tradeService.tickerUpdate(ticker);
+            sendUpdates();
+            positionService.tickerUpdate(ticker);
+            sendUpdates();
+            final int id = ticker.getCurrencyPair().getId();
+            if (id < requestedCurrencyPairs.length && requestedCurrencyPairs[id]) {
+                call(strategyTickerUpdate, tickSeries.getTicker(i));
+                dispatchedTickers++;
+                sendUpdates();
+            }
+        }
+        ticks += size;
+        duration += System.nanoTime() - start;
+        getLogger().debug("Backtest - {} ticks replayed in {} ms", size, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Sends the updates waiting (including the updates they cause).
+     */
+    private void sendUpdates() {
+        Runnable update = updates.poll();
+        while (update != null) {
+            update.run();
+            update = updates.poll();
+        }
+    }
+
+    /**
+     * Calls the strategy.
+     *
+     * @param callback strategy method
+     * @param value    value
+     * @param <T>      value type
+     */
+    private <T> void call(final Consumer<T> callback, final T value) {
+        try {
+            callback.accept(value);
+        } catch (RuntimeException e) {
+            // Like with the fluxes, an error in the strategy doesn't stop the backtest.
+            dispatchErrors++;
+            getLogger().error("Backtest - Error in strategy : {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Getter for strategy.
+     *
+     * @return strategy
+     */
+    public final CassandreStrategyInterface getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Getter for clock.
+     *
+     * @return clock
+     */
+    public final VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * Getter for tradeService.
+     *
+     * @return tradeService
+     */
+    public final TradeServiceInBacktestMode getTradeService() {
+        return tradeService;
+    }
+
+    /**
+     * Getter for positionService.
+     *
+     * @return positionService
+     */
+    public final PositionServiceImplementation getPositionService() {
+        return positionService;
+    }
+
+    /**
+     * Returns the number of ticks replayed.
+     *
+     * @return ticks
+     */
+    public final long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Returns the number of tickers sent to the strategy.
+     *
+     * @return dispatched tickers
+     */
+    public final long getDispatchedTickers() {
+        return dispatchedTickers;
+    }
+
+    /**
+     * Returns the number of errors raised by the strategy.
+     *
+     * @return dispatch errors
+     */
+    public final long getDispatchErrors() {
+        return dispatchErrors;
+    }
+
+    /**
+     * Returns the time spent replaying ticks.
+     *
+     * @return duration (ms)
+     */
+    public final long getDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(duration);
+    }
+
+    @Override
+    public final String toString() {
+        return "Backtest{"
+                + " ticks=" + ticks
+                + ", dispatchedTickers=" + dispatchedTickers
+                + ", dispatchErrors=" + dispatchErrors
+                + ", orders=" + tradeService.getOrders().size()
+                + ", positions=" + positionService.getPositions().size()
+                + ", duration=" + getDuration()
+                + '}';
+    }
+
+}
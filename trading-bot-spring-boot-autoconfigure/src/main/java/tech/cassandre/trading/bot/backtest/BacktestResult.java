@@ -0,0 +1,206 @@
+package tech.cassandre.trading.bot.backtest;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.util.GainDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+
+/**
+ * Backtest result - gains of the positions closed during a backtest run with some parameters.
+ * <p>
+ * Only closed positions are counted. The total gain is the sum of the gain percentages of the positions ; the maximum
+ * drawdown is the largest fall of this total from its highest value, positions being counted in the order they were
+ * closed.
+ *
+ * @param <P> parameters type
+ */
+public final class BacktestResult<P> {
+
+    /** Parameters of the backtest. */
+    private final P parameters;
+
+    /** Number of positions. */
+    private final int positions;
+
+    /** Number of closed positions. */
+    private final int closedPositions;
+
+    /** Number of closed positions with a gain. */
+    private final int winningPositions;
+
+    /** Sum of the gain percentages of the closed positions. */
+    private final double totalGainPercentage;
+
+    /** Maximum drawdown of the total gain percentage. */
+    private final double maxDrawdownPercentage;
+
+    /** Sum of the gain amounts of the closed positions, by currency. */
+    private final Map<CurrencyDTO, BigDecimal> totalGains;
+
+    /** Number of ticks replayed. */
+    private final long ticks;
+
+    /** Duration of the backtest (ms). */
+    private final long duration;
+
+    /**
+     * Constructor.
+     *
+     * @param newParameters parameters of the backtest
+     * @param backtest      backtest run
+     */
+    BacktestResult(final P newParameters, final Backtest backtest) {
+        this.parameters = newParameters;
+        this.ticks = backtest.getTicks();
+        this.duration = backtest.getDuration();
+        this.positions = backtest.getPositionService().getPositions().size();
+
+        // Closed positions, in the order they were closed.
+        final List<PositionDTO> closed = backtest.getPositionService().getPositions()
+                .stream()
+                .filter(p -> p.getStatus() == CLOSED)
+                .sorted(Comparator.comparing((PositionDTO p) -> p.getCloseTrade().getTimestamp()).thenComparingLong(PositionDTO::getId))
+                .collect(Collectors.toList());
+        this.closedPositions = closed.size();
+
+        int newWinningPositions = 0;
+        double total = 0;
+        double highest = 0;
+        double newMaxDrawdown = 0;
+        final Map<CurrencyDTO, BigDecimal> newTotalGains = new LinkedHashMap<>();
+        for (PositionDTO position : closed) {
+            final GainDTO gain = position.getGain();
+            if (gain.getPercentage() > 0) {
+                newWinningPositions++;
+            }
+            total += gain.getPercentage();
+            highest = Math.max(highest, total);
+            newMaxDrawdown = Math.max(newMaxDrawdown, highest - total);
+            if (gain.getAmount().isValueProvided()) {
+                newTotalGains.merge(gain.getAmount().getCurrency(), gain.getAmount().getValue(), BigDecimal::add);
+            }
+        }
+        this.winningPositions = newWinningPositions;
+        this.totalGainPercentage = total;
+        this.maxDrawdownPercentage = newMaxDrawdown;
+        this.totalGains = Collections.unmodifiableMap(newTotalGains);
+    }
+
+    /**
+     * Returns the comparator ranking results : highest total gain first, then lowest drawdown.
+     *
+     * @param <P> parameters type
+     * @return comparator
+     */
+    public static <P> Comparator<BacktestResult<P>> ranking() {
+        return Comparator.comparingDouble((BacktestResult<P> r) -> r.totalGainPercentage)
+                .reversed()
+                .thenComparingDouble(r -> r.maxDrawdownPercentage);
+    }
+
+    /**
+     * Getter for parameters.
+     *
+     * @return parameters
+     */
+    public P getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Getter for positions.
+     *
+     * @return positions
+     */
+    public int getPositions() {
+        return positions;
+    }
+
+    /**
+     * Getter for closedPositions.
+     *
+     * @return closedPositions
+     */
+    public int getClosedPositions() {
+        return closedPositions;
+    }
+
+    /**
+     * Getter for winningPositions.
+     *
+     * @return winningPositions
+     */
+    public int getWinningPositions() {
+        return winningPositions;
+    }
+
+    /**
+     * Getter for totalGainPercentage.
+     *
+     * @return totalGainPercentage
+     */
+    public double getTotalGainPercentage() {
+        return totalGainPercentage;
+    }
+
+    /**
+     * Getter for maxDrawdownPercentage.
+     *
+     * @return maxDrawdownPercentage
+     */
+    public double getMaxDrawdownPercentage() {
+        return maxDrawdownPercentage;
+    }
+
+    /**
+     * Getter for totalGains.
+     *
+     * @return totalGains
+     */
+    public Map<CurrencyDTO, BigDecimal> getTotalGains() {
+        return totalGains;
+    }
+
+    /**
+     * Getter for ticks.
+     *
+     * @return ticks
+     */
+    public long getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Getter for duration.
+     *
+     * @return duration (ms)
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    @Override
+    public String toString() {
+        return "BacktestResult{"
+                + " parameters=" + parameters
+                + ", positions=" + positions
+                + ", closedPositions=" + closedPositions
+                + ", winningPositions=" + winningPositions
+                + ", totalGainPercentage=" + totalGainPercentage
+                + ", maxDrawdownPercentage=" + maxDrawdownPercentage
+                + ", totalGains=" + totalGains
+                + ", ticks=" + ticks
+                + ", duration=" + duration
+                + '}';
+    }
+
+}
@@ -0,0 +1,120 @@
+package tech.cassandre.trading.bot.backtest;
+
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.strategy.CassandreStrategyInterface;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Backtest sweep - runs one backtest per parameters of a grid, in parallel, and ranks the results.
+ * <p>
+ * Each backtest has its own strategy (created by the strategy factory with the parameters), its own services and its
+ * own clock : nothing is shared between backtests except the tick series, which is only read. Backtests are run by a
+ * fork-join pool created for the sweep, one task per parameters, so the sweep uses all the threads of the pool as long
+ * as there are more parameters than threads.
+ *
+ * @param <P> parameters type
+ */
+public class BacktestSweep<P> extends Base {
+
+    /** Tick series replayed by every backtest. */
+    private final TickSeries tickSeries;
+
+    /** Creates a strategy with parameters. */
+    private final Function<P, CassandreStrategyInterface> strategyFactory;
+
+    /** Compact ticker converter (shared, thread-safe). */
+    private final CompactTickerConverter compactTickerConverter;
+
+    /** Number of backtests run at the same time. */
+    private final int parallelism;
+
+    /**
+     * Constructor (one backtest per available processor, default price scales).
+     *
+     * @param newTickSeries      tick series replayed by every backtest
+     * @param newStrategyFactory creates a strategy with parameters (must return a new strategy at every call)
+     */
+    public BacktestSweep(final TickSeries newTickSeries, final Function<P, CassandreStrategyInterface> newStrategyFactory) {
+        this(newTickSeries, newStrategyFactory, new CompactTickerConverter(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTickSeries             tick series replayed by every backtest
+     * @param newStrategyFactory        creates a strategy with parameters (must return a new strategy at every call)
+     * @param newCompactTickerConverter converter giving the price scales used for the position rules
+     * @param newParallelism            number of backtests run at the same time
+     */
+    public BacktestSweep(final TickSeries newTickSeries,
+                         final Function<P, CassandreStrategyInterface> newStrategyFactory,
+                         final CompactTickerConverter newCompactTickerConverter,
+                         final int newParallelism) {
+        if (newParallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive : " + newParallelism);
+        }
+        this.tickSeries = newTickSeries;
+        this.strategyFactory = newStrategyFactory;
+        this.compactTickerConverter = newCompactTickerConverter;
+        this.parallelism = newParallelism;
+    }
+
+    /**
+     * Runs a backtest for each parameters and returns the results, best first (see {@link BacktestResult#ranking()}).
+     * Results with the same rank keep the order of the parameters.
+     *
+     * @param grid parameters
+     * @return ranked results
+     */
+    public final List<BacktestResult<P>> run(final Collection<P> grid) {
+        final long start = System.nanoTime();
+        final ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            final List<ForkJoinTask<BacktestResult<P>>> tasks = grid.stream()
+                    .map(parameters -> pool.submit(() -> run(parameters)))
+                    .collect(Collectors.toList());
+            final List<BacktestResult<P>> results = tasks.stream()
+                    .map(ForkJoinTask::join)
+                    .sorted(BacktestResult.ranking())
+                    .collect(Collectors.toList());
+            getLogger().info("BacktestSweep - {} backtests of {} ticks run in {} ms with {} threads",
+                    results.size(),
+                    tickSeries.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start),
+                    parallelism);
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs a backtest with parameters.
+     *
+     * @param parameters parameters
+     * @return result
+     */
+    private BacktestResult<P> run(final P parameters) {
+        final Backtest backtest = new Backtest(strategyFactory.apply(parameters), compactTickerConverter);
+        backtest.run(tickSeries);
+        return new BacktestResult<>(parameters, backtest);
+    }
+
+    /**
+     * Getter for parallelism.
+     *
+     * @return parallelism
+     */
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+}
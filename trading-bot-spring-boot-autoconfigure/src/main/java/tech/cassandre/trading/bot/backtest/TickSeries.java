@@ -0,0 +1,153 @@
+package tech.cassandre.trading.bot.backtest;
+
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.repository.TickReader;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Tick series - historical ticks of one or several currency pairs, in memory and sorted by timestamp, replayed by
+ * {@link Backtest}.
+ * <p>
+ * A tick series can't be modified : the same series can be replayed by several backtests at the same time. Ticks are
+ * kept as {@link CompactTickerDTO} and, when the series was created from tickers, as {@link TickerDTO} too. Otherwise,
+ * tickers are created from the compact tickers when a strategy asks for them.
+ */
+public final class TickSeries {
+
+    /** Compact tickers, sorted by timestamp. */
+    private final CompactTickerDTO[] compactTickers;
+
+    /** Tickers, sorted by timestamp (null if created when needed). */
+    private final TickerDTO[] tickers;
+
+    /**
+     * Constructor - sorts the ticks by timestamp (ticks with the same timestamp keep their order).
+     *
+     * @param newCompactTickers compact tickers
+     * @param newTickers        tickers (with null values for the tickers to create when needed)
+     */
+    private TickSeries(final CompactTickerDTO[] newCompactTickers, final TickerDTO[] newTickers) {
+        final Integer[] order = new Integer[newCompactTickers.length];
+        Arrays.setAll(order, i -> i);
+        Arrays.sort(order, Comparator.comparingLong(i -> newCompactTickers[i].getTimestamp()));
+        compactTickers = new CompactTickerDTO[order.length];
+        tickers = new TickerDTO[order.length];
+        for (int i = 0; i < order.length; i++) {
+            compactTickers[i] = newCompactTickers[order[i]];
+            tickers[i] = newTickers[order[i]];
+        }
+    }
+
+    /**
+     * Creates a tick series from tickers (default scales).
+     *
+     * @param tickers tickers
+     * @return tick series
+     */
+    public static TickSeries of(final Collection<TickerDTO> tickers) {
+        return of(tickers, new CompactTickerConverter());
+    }
+
+    /**
+     * Creates a tick series from tickers.
+     *
+     * @param tickers                tickers
+     * @param compactTickerConverter converter giving the scales of the currency pairs
+     * @return tick series
+     */
+    public static TickSeries of(final Collection<TickerDTO> tickers, final CompactTickerConverter compactTickerConverter) {
+        final TickerDTO[] newTickers = tickers.toArray(new TickerDTO[0]);
+        final CompactTickerDTO[] newCompactTickers = new CompactTickerDTO[newTickers.length];
+        for (int i = 0; i < newTickers.length; i++) {
+            newCompactTickers[i] = compactTickerConverter.toCompactTicker(newTickers[i]);
+        }
+        return new TickSeries(newCompactTickers, newTickers);
+    }
+
+    /**
+     * Creates a tick series from compact tickers.
+     *
+     * @param compactTickers compact tickers
+     * @return tick series
+     */
+    public static TickSeries ofCompactTickers(final Collection<CompactTickerDTO> compactTickers) {
+        return new TickSeries(compactTickers.toArray(new CompactTickerDTO[0]), new TickerDTO[compactTickers.size()]);
+    }
+
+    /**
+     * Loads a tick series from the files of a tick recorder.
+     *
+     * @param directory     directory of the tick recorder
+     * @param currencyPairs currency pairs
+     * @param from          first day (included)
+     * @param to            last day (included)
+     * @return tick series
+     */
+    public static TickSeries load(final Path directory, final Collection<CurrencyPairDTO> currencyPairs, final LocalDate from, final LocalDate to) {
+        final List<CompactTickerDTO> compactTickers = new ArrayList<>();
+        for (CurrencyPairDTO currencyPair : currencyPairs) {
+            try (TickReader reader = new TickReader(directory, currencyPair, from, to)) {
+                while (reader.next()) {
+                    compactTickers.add(reader.toCompactTickerDTO());
+                }
+            }
+        }
+        return ofCompactTickers(compactTickers);
+    }
+
+    /**
+     * Returns the number of ticks.
+     *
+     * @return number of ticks
+     */
+    public int size() {
+        return compactTickers.length;
+    }
+
+    /**
+     * Returns a tick as a compact ticker.
+     *
+     * @param index tick index
+     * @return compact ticker
+     */
+    public CompactTickerDTO getCompactTicker(final int index) {
+        return compactTickers[index];
+    }
+
+    /**
+     * Returns a tick as a ticker.
+     *
+     * @param index tick index
+     * @return ticker
+     */
+    public TickerDTO getTicker(final int index) {
+        final TickerDTO ticker = tickers[index];
+        if (ticker != null) {
+            return ticker;
+        }
+        return compactTickers[index].toTickerDTO();
+    }
+
+    @Override
+    public String toString() {
+        if (compactTickers.length == 0) {
+            return "TickSeries{ size=0 }";
+        }
+        return "TickSeries{"
+                + " size=" + compactTickers.length
+                + ", from=" + getTicker(0).getTimestamp()
+                + ", to=" + getTicker(compactTickers.length - 1).getTimestamp()
+                + '}';
+    }
+
+}
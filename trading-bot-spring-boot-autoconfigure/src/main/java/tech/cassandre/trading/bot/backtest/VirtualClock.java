@@ -0,0 +1,85 @@
+package tech.cassandre.trading.bot.backtest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Virtual clock - the time of a backtest, moved forward by the ticks replayed.
+ * <p>
+ * The time only moves forward : setting a time before the current one has no effect.
+ */
+public class VirtualClock extends Clock {
+
+    /** Time zone. */
+    private final ZoneId zone;
+
+    /** Current time (nanoseconds since the epoch). */
+    private long time;
+
+    /**
+     * Constructor (system time zone, as the DTOs).
+     */
+    public VirtualClock() {
+        this(ZoneId.systemDefault(), 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newZone time zone
+     * @param newTime current time (nanoseconds since the epoch)
+     */
+    public VirtualClock(final ZoneId newZone, final long newTime) {
+        this.zone = newZone;
+        this.time = newTime;
+    }
+
+    /**
+     * Returns the current time.
+     *
+     * @return current time (nanoseconds since the epoch)
+     */
+    public final long getTime() {
+        return time;
+    }
+
+    /**
+     * Moves the clock forward.
+     *
+     * @param newTime new time (nanoseconds since the epoch)
+     */
+    public final void setTime(final long newTime) {
+        time = Math.max(time, newTime);
+    }
+
+    @Override
+    public final ZoneId getZone() {
+        return zone;
+    }
+
+    @Override
+    public final Clock withZone(final ZoneId newZone) {
+        return new VirtualClock(newZone, time);
+    }
+
+    @Override
+    public final long millis() {
+        return TimeUnit.NANOSECONDS.toMillis(time);
+    }
+
+    @Override
+    public final Instant instant() {
+        return Instant.ofEpochSecond(0, time);
+    }
+
+    @Override
+    public final String toString() {
+        return "VirtualClock{"
+                + " zone=" + zone
+                + ", time=" + instant()
+                + '}';
+    }
+
+}
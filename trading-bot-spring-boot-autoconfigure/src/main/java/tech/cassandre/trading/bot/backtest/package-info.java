@@ -0,0 +1,4 @@
+/**
+ * Backtest.
+ */
+package tech.cassandre.trading.bot.backtest;
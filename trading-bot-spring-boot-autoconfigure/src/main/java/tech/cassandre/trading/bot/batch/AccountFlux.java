@@ -1,12 +1,13 @@
 package tech.cassandre.trading.bot.batch;
 
+import reactor.core.publisher.FluxSink;
 import tech.cassandre.trading.bot.dto.user.AccountDTO;
 import tech.cassandre.trading.bot.service.UserService;
 import tech.cassandre.trading.bot.util.base.BaseFlux;
+import tech.cassandre.trading.bot.util.cache.ChangeDetectionCache;
 
-import java.util.LinkedHashMap;
+import java.time.Duration;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -14,11 +15,22 @@ import java.util.Set;
  */
 public class AccountFlux extends BaseFlux<AccountDTO> {
 
+    /** Maximum number of accounts kept in previous values. */
+    private static final int MAXIMUM_PREVIOUS_VALUES = 1_000;
+
+    /** Delay after which an account not returned anymore is removed from previous values. */
+    private static final Duration PREVIOUS_VALUES_MAXIMUM_AGE = Duration.ofHours(1);
+
+    /** Estimated size of an account (bytes). */
+    private static final long ESTIMATED_ACCOUNT_SIZE = 2_000;
+
     /** User service. */
     private final UserService userService;
 
     /** Previous values. */
-    private Map<String, AccountDTO> previousValues = new LinkedHashMap<>();
+    private final ChangeDetectionCache<String, AccountDTO> previousValues = new ChangeDetectionCache<>(MAXIMUM_PREVIOUS_VALUES,
+            PREVIOUS_VALUES_MAXIMUM_AGE,
+            ESTIMATED_ACCOUNT_SIZE);
 
     /**
      * Constructor.
@@ -29,6 +41,12 @@ public class AccountFlux extends BaseFlux<AccountDTO> {
         this.userService = newUserService;
     }
 
+    @Override
+    protected final FluxSink.OverflowStrategy getOverflowStrategy() {
+        // Account balances changes must not be lost.
+        return FluxSink.OverflowStrategy.BUFFER;
+    }
+
     @Override
     protected final Set<AccountDTO> getNewValues() {
         getLogger().debug("AccountFlux - Retrieving new values");
@@ -39,22 +57,24 @@ public class AccountFlux extends BaseFlux<AccountDTO> {
             // For each account, we check if there is something new.
             user.getAccounts().forEach((accountId, account) -> {
                 getLogger().debug("AccountFlux - Treating account : {}", accountId);
-                if (previousValues.containsKey(accountId)) {
-                    // If in the previous values, heck the balances.
-                    if (!account.equals(previousValues.get(accountId))) {
-                        getLogger().debug("AccountFlux - Account {} has changed : {}", accountId, account);
-                        newValues.add(account);
-                    }
-                } else {
-                    // Send if it does not exist.
-                    getLogger().debug("AccountFlux - New account : {}", account);
+                // Send if it does not exist or if the balances changed.
+                if (previousValues.update(accountId, account)) {
+                    getLogger().debug("AccountFlux - Account {} has changed : {}", accountId, account);
                     newValues.add(account);
                 }
             });
-            previousValues = user.getAccounts();
         });
         getLogger().debug("AccountFlux - {} account(s) updated", newValues.size());
         return newValues;
     }
 
+    /**
+     * Getter for previousValues (cache metrics).
+     *
+     * @return previousValues
+     */
+    public final ChangeDetectionCache<String, AccountDTO> getPreviousValues() {
+        return previousValues;
+    }
+
 }
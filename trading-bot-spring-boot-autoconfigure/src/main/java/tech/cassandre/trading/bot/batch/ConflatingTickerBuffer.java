@@ -0,0 +1,176 @@
+package tech.cassandre.trading.bot.batch;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Conflating ticker buffer - keeps only the latest ticker of each currency pair until the subscriber asks for it.
+ * <p>
+ * When the subscriber is slower than the ticker flux, a burst on one currency pair only replaces the pending ticker
+ * of this currency pair : pending currency pairs are delivered in the order they became pending, so every currency
+ * pair gets its turn and none of them can starve.
+ * <p>
+ * The queue depth (currency pairs waiting) and the queue latency (time a currency pair waits before being delivered)
+ * are kept.
+ */
+public class ConflatingTickerBuffer extends Base {
+
+    /** Tickers flux. */
+    private final Flux<TickerDTO> source;
+
+    /** Pending tickers (latest one of each currency pair, in the order currency pairs became pending). */
+    private final Map<CurrencyPairDTO, TickerDTO> pendingTickers = new LinkedHashMap<>();
+
+    /** Time when each pending currency pair became pending (ns). */
+    private final Map<CurrencyPairDTO, Long> pendingSince = new HashMap<>();
+
+    /** Number of tickers received. */
+    private final AtomicLong receivedTickers = new AtomicLong();
+
+    /** Number of tickers replaced by a more recent one before being delivered. */
+    private final AtomicLong conflatedTickers = new AtomicLong();
+
+    /** Number of tickers delivered. */
+    private final AtomicLong deliveredTickers = new AtomicLong();
+
+    /** Total queue latency of delivered tickers (ns). */
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    /** Maximum queue latency (ns). */
+    private final AtomicLong maximumLatency = new AtomicLong();
+
+    /** Sink of the subscriber. */
+    private FluxSink<TickerDTO> sink;
+
+    /**
+     * Constructor.
+     *
+     * @param newSource ticker flux
+     */
+    public ConflatingTickerBuffer(final Flux<TickerDTO> newSource) {
+        this.source = newSource;
+    }
+
+    /**
+     * Returns the conflated flux (only one subscriber is supported).
+     *
+     * @return flux
+     */
+    public final Flux<TickerDTO> getFlux() {
+        return Flux.create(newSink -> {
+            synchronized (pendingTickers) {
+                sink = newSink;
+            }
+            final Disposable subscription = source.subscribe(this::add);
+            newSink.onRequest(n -> drain());
+            newSink.onDispose(subscription);
+        }, FluxSink.OverflowStrategy.BUFFER);
+    }
+
+    /**
+     * Adds a ticker to the pending tickers.
+     *
+     * @param ticker ticker
+     */
+    private void add(final TickerDTO ticker) {
+        receivedTickers.incrementAndGet();
+        synchronized (pendingTickers) {
+            if (pendingTickers.put(ticker.getCurrencyPair(), ticker) != null) {
+                conflatedTickers.incrementAndGet();
+            } else {
+                pendingSince.put(ticker.getCurrencyPair(), System.nanoTime());
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Delivers pending tickers as long as the subscriber asks for them.
+     */
+    private void drain() {
+        synchronized (pendingTickers) {
+            final Iterator<TickerDTO> iterator = pendingTickers.values().iterator();
+            while (sink != null && sink.requestedFromDownstream() > 0 && iterator.hasNext()) {
+                final TickerDTO ticker = iterator.next();
+                iterator.remove();
+                final long latency = System.nanoTime() - pendingSince.remove(ticker.getCurrencyPair());
+                totalLatency.addAndGet(latency);
+                maximumLatency.accumulateAndGet(latency, Math::max);
+                deliveredTickers.incrementAndGet();
+                sink.next(ticker);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of currency pairs with a pending ticker.
+     *
+     * @return pending tickers
+     */
+    public final int getPendingTickers() {
+        synchronized (pendingTickers) {
+            return pendingTickers.size();
+        }
+    }
+
+    /**
+     * Returns the number of tickers received.
+     *
+     * @return received tickers
+     */
+    public final long getReceivedTickers() {
+        return receivedTickers.get();
+    }
+
+    /**
+     * Returns the number of tickers replaced by a more recent one before being delivered.
+     *
+     * @return conflated tickers
+     */
+    public final long getConflatedTickers() {
+        return conflatedTickers.get();
+    }
+
+    /**
+     * Returns the number of tickers delivered.
+     *
+     * @return delivered tickers
+     */
+    public final long getDeliveredTickers() {
+        return deliveredTickers.get();
+    }
+
+    /**
+     * Returns the average time a currency pair waits before its ticker is delivered.
+     *
+     * @return average latency (ms)
+     */
+    public final long getAverageLatency() {
+        final long delivered = deliveredTickers.get();
+        if (delivered == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalLatency.get() / delivered);
+    }
+
+    /**
+     * Returns the maximum time a currency pair waited before its ticker was delivered.
+     *
+     * @return maximum latency (ms)
+     */
+    public final long getMaximumLatency() {
+        return TimeUnit.NANOSECONDS.toMillis(maximumLatency.get());
+    }
+
+}
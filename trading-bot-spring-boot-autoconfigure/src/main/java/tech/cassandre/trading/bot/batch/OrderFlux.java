@@ -1,24 +1,43 @@
 package tech.cassandre.trading.bot.batch;
 
+import reactor.core.publisher.FluxSink;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseFlux;
+import tech.cassandre.trading.bot.util.cache.ChangeDetectionCache;
 
-import java.util.LinkedHashMap;
+import java.time.Duration;
 import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * Order flux - push {@link OrderDTO}.
  */
 public class OrderFlux extends BaseFlux<OrderDTO> {
 
+    /** Maximum number of orders kept in previous values. */
+    private static final int MAXIMUM_PREVIOUS_VALUES = 10_000;
+
+    /** Delay after which an order not open anymore is removed from previous values. */
+    private static final Duration PREVIOUS_VALUES_MAXIMUM_AGE = Duration.ofHours(1);
+
+    /** Estimated size of an order (bytes). */
+    private static final long ESTIMATED_ORDER_SIZE = 600;
+
     /** Trade service. */
     private final TradeService tradeService;
 
+    /** Listeners called with the ids of the open orders after each poll. */
+    private final List<Consumer<Set<String>>> openOrdersListeners = new CopyOnWriteArrayList<>();
+
     /** Previous values. */
-    private final Map<String, OrderDTO> previousValues = new LinkedHashMap<>();
+    private final ChangeDetectionCache<String, OrderDTO> previousValues = new ChangeDetectionCache<>(MAXIMUM_PREVIOUS_VALUES,
+            PREVIOUS_VALUES_MAXIMUM_AGE,
+            ESTIMATED_ORDER_SIZE);
 
     /**
      * Constructor.
@@ -29,24 +48,51 @@ public class OrderFlux extends BaseFlux<OrderDTO> {
         this.tradeService = newTradeService;
     }
 
+    @Override
+    protected final FluxSink.OverflowStrategy getOverflowStrategy() {
+        // Order updates must not be lost.
+        return FluxSink.OverflowStrategy.BUFFER;
+    }
+
     @Override
     protected final Set<OrderDTO> getNewValues() {
         getLogger().debug("OrderFlux - Retrieving new values");
         Set<OrderDTO> newValues = new LinkedHashSet<>();
+        final Set<OrderDTO> openOrders = tradeService.getOpenOrders();
 
         // Finding which order has been updated.
-        tradeService.getOpenOrders().forEach(order -> {
+        openOrders.forEach(order -> {
             getLogger().debug("OrderFlux - Treating order : {}", order.getId());
-            OrderDTO existingOrder = previousValues.get(order.getId());
             // If it does not exist or something changed, we do it.
-            if (existingOrder == null || !existingOrder.equals(order)) {
+            if (previousValues.update(order.getId(), order)) {
                 getLogger().debug("OrderFlux - Order {} has changed : {}", order.getId(), order);
-                previousValues.put(order.getId(), order);
                 newValues.add(order);
             }
         });
         getLogger().debug("OrderFlux - {} order(s) updated", newValues.size());
+        if (!openOrdersListeners.isEmpty()) {
+            final Set<String> openOrderIds = openOrders.stream().map(OrderDTO::getId).collect(Collectors.toSet());
+            openOrdersListeners.forEach(openOrdersListener -> openOrdersListener.accept(openOrderIds));
+        }
         return newValues;
     }
 
+    /**
+     * Adds a listener called with the ids of the open orders after each poll.
+     *
+     * @param openOrdersListener open orders listener
+     */
+    public final void addOpenOrdersListener(final Consumer<Set<String>> openOrdersListener) {
+        openOrdersListeners.add(openOrdersListener);
+    }
+
+    /**
+     * Getter for previousValues (cache metrics).
+     *
+     * @return previousValues
+     */
+    public final ChangeDetectionCache<String, OrderDTO> getPreviousValues() {
+        return previousValues;
+    }
+
 }
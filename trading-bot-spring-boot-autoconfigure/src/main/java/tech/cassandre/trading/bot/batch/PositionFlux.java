@@ -1,25 +1,52 @@
 package tech.cassandre.trading.bot.batch;
 
+import reactor.core.publisher.FluxSink;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
 import tech.cassandre.trading.bot.service.PositionService;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
 import tech.cassandre.trading.bot.util.base.BaseFlux;
+import tech.cassandre.trading.bot.util.cache.ChangeDetectionCache;
 
-import java.util.LinkedHashMap;
+import java.time.Duration;
 import java.util.LinkedHashSet;
-import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * Position flux - push {@link PositionDTO}.
+ * <p>
+ * With {@link PositionServiceImplementation}, the flux is a position listener : each status change is queued and the
+ * positions changed are emitted at the next update. The flux only holds the changes not emitted yet and an update
+ * never goes through the archived positions. Positions restored at startup are emitted on their next status change.
+ * <p>
+ * With other position services, all the positions are retrieved at every update and compared with the previous values.
  */
 public class PositionFlux extends BaseFlux<PositionDTO> {
 
+    /** Maximum number of positions kept in previous values. */
+    private static final int MAXIMUM_PREVIOUS_VALUES = 10_000;
+
+    /** Delay after which a position not returned anymore is removed from previous values. */
+    private static final Duration PREVIOUS_VALUES_MAXIMUM_AGE = Duration.ofHours(1);
+
+    /** Estimated size of a position status (bytes). */
+    private static final long ESTIMATED_POSITION_STATUS_SIZE = 16;
+
     /** Position service. */
     private final PositionService positionService;
 
-    /** Previous values. */
-    private final Map<Long, PositionStatusDTO> previousValues = new LinkedHashMap<>();
+    /** True if the position service notifies the flux of each status change. */
+    private final boolean listening;
+
+    /** Positions changed since the last update (position service notifying the flux). */
+    private final Queue<PositionDTO> changedPositions = new ConcurrentLinkedQueue<>();
+
+    /** Previous values (position service polled). */
+    private final ChangeDetectionCache<Long, PositionStatusDTO> previousValues = new ChangeDetectionCache<>(MAXIMUM_PREVIOUS_VALUES,
+            PREVIOUS_VALUES_MAXIMUM_AGE,
+            ESTIMATED_POSITION_STATUS_SIZE);
 
     /**
      * Constructor.
@@ -28,6 +55,25 @@ public class PositionFlux extends BaseFlux<PositionDTO> {
      */
     public PositionFlux(final PositionService newPositionService) {
         this.positionService = newPositionService;
+        this.listening = newPositionService instanceof PositionServiceImplementation;
+        if (listening) {
+            ((PositionServiceImplementation) newPositionService).addPositionListener(this::positionUpdate);
+        }
+    }
+
+    @Override
+    protected final FluxSink.OverflowStrategy getOverflowStrategy() {
+        // Position status changes must not be lost.
+        return FluxSink.OverflowStrategy.BUFFER;
+    }
+
+    /**
+     * Method called by the position service after each position status change.
+     *
+     * @param position position
+     */
+    public final void positionUpdate(final PositionDTO position) {
+        changedPositions.add(position);
     }
 
     @Override
@@ -35,19 +81,46 @@ public class PositionFlux extends BaseFlux<PositionDTO> {
         getLogger().debug("PositionFlux - Retrieving new values");
         Set<PositionDTO> newValues = new LinkedHashSet<>();
 
-        // Finding which positions has been updated.
-        positionService.getPositions().forEach(position -> {
-            getLogger().debug("PositionFlux - Treating position : {}", position.getId());
-            PositionStatusDTO previousPosition = previousValues.get(position.getId());
-            if (previousPosition == null || !previousPosition.equals(position.getStatus())) {
+        if (listening) {
+            // Positions changed since the last update (a position changed several times is emitted once).
+            PositionDTO position = changedPositions.poll();
+            while (position != null) {
                 getLogger().debug("PositionFlux - Flux {} has changed : {}", position.getId(), position);
-                previousValues.put(position.getId(), position.getStatus());
                 newValues.add(position);
+                position = changedPositions.poll();
             }
-        });
+        } else {
+            // Finding which positions has been updated.
+            positionService.getPositions()
+                    .forEach(position -> {
+                        getLogger().debug("PositionFlux - Treating position : {}", position.getId());
+                        if (previousValues.update(position.getId(), position.getStatus())) {
+                            getLogger().debug("PositionFlux - Flux {} has changed : {}", position.getId(), position);
+                            newValues.add(position);
+                        }
+                    });
+        }
 
         getLogger().debug("PositionFlux - {} position(s) updated", newValues.size());
         return newValues;
     }
 
+    /**
+     * Returns the number of position changes waiting for the next update.
+     *
+     * @return changed positions
+     */
+    public final int getChangedPositions() {
+        return changedPositions.size();
+    }
+
+    /**
+     * Getter for previousValues (cache metrics, position service polled).
+     *
+     * @return previousValues
+     */
+    public final ChangeDetectionCache<Long, PositionStatusDTO> getPreviousValues() {
+        return previousValues;
+    }
+
 }
@@ -5,30 +5,42 @@ import tech.cassandre.trading.bot.service.MarketService;
 import tech.cassandre.trading.bot.util.base.BaseFlux;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Ticker flux - push {@link TickerDTO}.
+ * At every update, the tickers of all the requested currency pairs are retrieved concurrently (the market service
+ * rate limit still applies) and the new ones are emitted as a batch, in the order currency pairs were requested.
  */
 public class TickerFlux extends BaseFlux<TickerDTO> {
 
+    /** Default number of tickers retrieved in parallel. */
+    public static final int DEFAULT_PARALLELISM = 8;
+
     /** Market service. */
     private final MarketService marketService;
 
-    /** Requested tickers. */
-    private final List<CurrencyPairDTO> requestedCurrencyPairs = new LinkedList<>();
+    /** Number of tickers retrieved in parallel. */
+    private final int parallelism;
+
+    /** Executor used to retrieve tickers. */
+    private final ExecutorService executor;
 
-    /** Last requested currency pair. */
-    private CurrencyPairDTO lastRequestedCurrencyPairs = null;
+    /** Requested tickers (updated by the market data source, read by the polling thread). */
+    private final CopyOnWriteArrayList<CurrencyPairDTO> requestedCurrencyPairs = new CopyOnWriteArrayList<>();
 
-    /** Previous values. */
-    private final Map<CurrencyPairDTO, TickerDTO> previousValues = new LinkedHashMap<>();
+    /** Previous values, indexed by currency pair id (only used by the polling thread). */
+    private TickerDTO[] previousValues = new TickerDTO[0];
 
     /**
      * Constructor.
@@ -36,7 +48,24 @@ public class TickerFlux extends BaseFlux<TickerDTO> {
      * @param newMarketService market service.
      */
     public TickerFlux(final MarketService newMarketService) {
+        this(newMarketService, DEFAULT_PARALLELISM);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newMarketService market service.
+     * @param newParallelism   number of tickers retrieved in parallel.
+     */
+    public TickerFlux(final MarketService newMarketService, final int newParallelism) {
         this.marketService = newMarketService;
+        this.parallelism = Math.max(1, newParallelism);
+        final AtomicInteger threadCounter = new AtomicInteger(1);
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cassandre-ticker-" + threadCounter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
     }
 
     /**
@@ -45,54 +74,51 @@ public class TickerFlux extends BaseFlux<TickerDTO> {
      * @param newRequestedCurrencyPairs new list of requested currency pairs.
      */
     public void updateRequestedCurrencyPairs(final Set<CurrencyPairDTO> newRequestedCurrencyPairs) {
-        requestedCurrencyPairs.addAll(newRequestedCurrencyPairs);
-        requestedCurrencyPairs.forEach(cp -> previousValues.put(cp, null));
+        newRequestedCurrencyPairs.forEach(requestedCurrencyPairs::addIfAbsent);
     }
 
     @Override
     protected final Set<TickerDTO> getNewValues() {
         getLogger().debug("TickerFlux - Retrieving new values");
         Set<TickerDTO> newValues = new LinkedHashSet<>();
-        getCurrencyPairToTreat()
-                .flatMap(marketService::getTicker)
-                .ifPresent(t -> {
-                    if (!t.equals(previousValues.get(t.getCurrencyPair()))) {
-                        getLogger().debug("TickerFlux - New ticker received : {}", t);
-                        previousValues.replace(t.getCurrencyPair(), t);
-                        newValues.add(t);
-                    }
-                });
+        if (executor.isShutdown()) {
+            // The application is stopping.
+            return newValues;
+        }
+
+        // Retrieving all the tickers of this cycle in parallel.
+        final List<CompletableFuture<Optional<TickerDTO>>> tickers = new ArrayList<>();
+        requestedCurrencyPairs.forEach(cp -> tickers.add(CompletableFuture.supplyAsync(() -> marketService.getTicker(cp), executor)));
+
+        // Keeping the new ones in the order currency pairs were requested.
+        tickers.forEach(ticker -> ticker.join().ifPresent(t -> {
+            final int id = t.getCurrencyPair().getId();
+            if (id >= previousValues.length) {
+                previousValues = Arrays.copyOf(previousValues, CurrencyPairDTO.getInstanceCount());
+            }
+            if (!t.equals(previousValues[id])) {
+                getLogger().debug("TickerFlux - New ticker received : {}", t);
+                previousValues[id] = t;
+                newValues.add(t);
+            }
+        }));
         return newValues;
     }
 
     /**
-     * Returns the next currency pair to test.
-     *
-     * @return currency pair to treat.
+     * Stops the threads retrieving tickers (the next updates retrieve nothing).
      */
-    private Optional<CurrencyPairDTO> getCurrencyPairToTreat() {
-        final CurrencyPairDTO nextCurrencyPairToTreat;
+    public final void stop() {
+        executor.shutdownNow();
+    }
 
-        // No currency pairs required.
-        if (requestedCurrencyPairs.isEmpty()) {
-            return Optional.empty();
-        }
-        if (lastRequestedCurrencyPairs == null) {
-            // If none has been retrieved.
-            nextCurrencyPairToTreat = requestedCurrencyPairs.get(0);
-        } else {
-            // We get the position of the last requested currency pair.
-            int position = requestedCurrencyPairs.indexOf(lastRequestedCurrencyPairs);
-            if (position == requestedCurrencyPairs.size() - 1) {
-                // We are at the last of the list, go back to first element.
-                nextCurrencyPairToTreat = requestedCurrencyPairs.get(0);
-            } else {
-                // We take the next one.
-                nextCurrencyPairToTreat = requestedCurrencyPairs.get(position + 1);
-            }
-        }
-        lastRequestedCurrencyPairs = nextCurrencyPairToTreat;
-        return Optional.of(nextCurrencyPairToTreat);
+    /**
+     * Getter for parallelism.
+     *
+     * @return parallelism
+     */
+    public final int getParallelism() {
+        return parallelism;
     }
 
 }
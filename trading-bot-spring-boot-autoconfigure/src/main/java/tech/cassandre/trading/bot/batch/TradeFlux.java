@@ -1,12 +1,13 @@
 package tech.cassandre.trading.bot.batch;
 
+import reactor.core.publisher.FluxSink;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.util.base.BaseFlux;
+import tech.cassandre.trading.bot.util.cache.ChangeDetectionCache;
 
-import java.util.LinkedHashMap;
+import java.time.Duration;
 import java.util.LinkedHashSet;
-import java.util.Map;
 import java.util.Set;
 
 /**
@@ -14,11 +15,22 @@ import java.util.Set;
  */
 public class TradeFlux extends BaseFlux<TradeDTO> {
 
+    /** Maximum number of trades kept in previous values. */
+    private static final int MAXIMUM_PREVIOUS_VALUES = 10_000;
+
+    /** Delay after which a trade is removed from previous values (the trade service only returns new trades). */
+    private static final Duration PREVIOUS_VALUES_MAXIMUM_AGE = Duration.ofHours(1);
+
+    /** Estimated size of a trade (bytes). */
+    private static final long ESTIMATED_TRADE_SIZE = 600;
+
     /** Trade service. */
     private final TradeService tradeService;
 
     /** Previous values. */
-    private final Map<String, TradeDTO> previousValues = new LinkedHashMap<>();
+    private final ChangeDetectionCache<String, TradeDTO> previousValues = new ChangeDetectionCache<>(MAXIMUM_PREVIOUS_VALUES,
+            PREVIOUS_VALUES_MAXIMUM_AGE,
+            ESTIMATED_TRADE_SIZE);
 
     /**
      * Constructor.
@@ -29,18 +41,22 @@ public class TradeFlux extends BaseFlux<TradeDTO> {
         this.tradeService = newTradeService;
     }
 
+    @Override
+    protected final FluxSink.OverflowStrategy getOverflowStrategy() {
+        // Trades must not be lost.
+        return FluxSink.OverflowStrategy.BUFFER;
+    }
+
     @Override
     protected final Set<TradeDTO> getNewValues() {
         getLogger().debug("TradeFlux - Retrieving new values");
         Set<TradeDTO> newValues = new LinkedHashSet<>();
 
         // Finding which trades has been updated.
-        tradeService.getTrades().forEach(trade -> {
+        tradeService.getNewTrades().forEach(trade -> {
             getLogger().debug("TradeFlux - Treating trade : {}", trade.getId());
-            TradeDTO existingTrade = previousValues.get(trade.getId());
-            if (existingTrade == null || !existingTrade.equals(trade)) {
+            if (previousValues.update(trade.getId(), trade)) {
                 getLogger().debug("TradeFlux - Trade {} has changed : {}", trade.getId(), trade);
-                previousValues.put(trade.getId(), trade);
                 newValues.add(trade);
             }
         });
@@ -48,4 +64,13 @@ public class TradeFlux extends BaseFlux<TradeDTO> {
         return newValues;
     }
 
+    /**
+     * Getter for previousValues (cache metrics).
+     *
+     * @return previousValues
+     */
+    public final ChangeDetectionCache<String, TradeDTO> getPreviousValues() {
+        return previousValues;
+    }
+
 }
@@ -5,6 +5,9 @@ import org.knowm.xchange.ExchangeFactory;
 import org.knowm.xchange.ExchangeSpecification;
 import org.knowm.xchange.service.account.AccountService;
 import org.knowm.xchange.service.marketdata.MarketDataService;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -14,24 +17,49 @@ import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.PositionFlux;
 import tech.cassandre.trading.bot.batch.TickerFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.repository.TickRecorder;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
 import tech.cassandre.trading.bot.service.ExchangeService;
 import tech.cassandre.trading.bot.service.ExchangeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.service.MarketDataSource;
+import tech.cassandre.trading.bot.service.MarketDataSourceInPollingMode;
 import tech.cassandre.trading.bot.service.MarketService;
 import tech.cassandre.trading.bot.service.MarketServiceXChangeImplementation;
+import tech.cassandre.trading.bot.service.OrderBatchEndpoint;
+import tech.cassandre.trading.bot.service.PersistenceService;
 import tech.cassandre.trading.bot.service.PositionService;
 import tech.cassandre.trading.bot.service.PositionServiceImplementation;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.service.TradeServiceInDryMode;
+import tech.cassandre.trading.bot.service.TradeServiceWithOrderBatching;
 import tech.cassandre.trading.bot.service.TradeServiceXChangeImplementation;
 import tech.cassandre.trading.bot.service.UserService;
 import tech.cassandre.trading.bot.service.UserServiceXChangeImplementation;
+import tech.cassandre.trading.bot.strategy.StrategyOwnership;
 import tech.cassandre.trading.bot.util.base.BaseConfiguration;
+import tech.cassandre.trading.bot.util.base.BaseTradeService;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
 import tech.cassandre.trading.bot.util.exception.ConfigurationException;
 import tech.cassandre.trading.bot.util.parameters.ExchangeParameters;
+import tech.cassandre.trading.bot.util.parameters.FluxParameters;
+import tech.cassandre.trading.bot.util.parameters.OrderParameters;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters;
+import tech.cassandre.trading.bot.util.parameters.RateLimitParameters;
+import tech.cassandre.trading.bot.util.parameters.StrategyParameters;
+import tech.cassandre.trading.bot.util.parameters.TickRecorderParameters;
+import tech.cassandre.trading.bot.util.ratelimit.AccountRateLimit;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+import tech.cassandre.trading.bot.util.scheduler.AdaptivePolling;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.List;
 import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ExchangeConfiguration configures the exchange connection.
@@ -39,7 +67,13 @@ import java.util.StringJoiner;
 @Configuration
 @EnableConfigurationProperties({ExchangeParameters.class,
         ExchangeParameters.Modes.class,
-        ExchangeParameters.Rates.class})
+        ExchangeParameters.Rates.class,
+        FluxParameters.class,
+        OrderParameters.class,
+        PersistenceParameters.class,
+        RateLimitParameters.class,
+        StrategyParameters.class,
+        TickRecorderParameters.class})
 public class ExchangeAutoConfiguration extends BaseConfiguration {
 
     /** XChange user sandbox parameter. */
@@ -51,9 +85,30 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
     /** Unauthorized http status code. */
     public static final int UNAUTHORIZED_STATUS_CODE = 401;
 
+    /** Maximum time waited for the updates not stored yet when stopping (ms). */
+    private static final long PERSISTENCE_SHUTDOWN_TIMEOUT = 10_000;
+
     /** Exchange parameters. */
     private final ExchangeParameters exchangeParameters;
 
+    /** Flux parameters. */
+    private final FluxParameters fluxParameters;
+
+    /** Order parameters. */
+    private final OrderParameters orderParameters;
+
+    /** Rate limit parameters. */
+    private final RateLimitParameters rateLimitParameters;
+
+    /** Persistence parameters. */
+    private final PersistenceParameters persistenceParameters;
+
+    /** Tick recorder parameters. */
+    private final TickRecorderParameters tickRecorderParameters;
+
+    /** Order batch endpoint (optional). */
+    private final ObjectProvider<OrderBatchEndpoint> orderBatchEndpoint;
+
     /** Exchange service. */
     private ExchangeService exchangeService;
 
@@ -69,6 +124,12 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
     /** Position service. */
     private PositionService positionService;
 
+    /** Persistence service (null if persistence is disabled or not created yet). */
+    private PersistenceService persistenceService;
+
+    /** Tick recorder (null if ticks are not recorded or if it's not created yet). */
+    private TickRecorder tickRecorder;
+
     /** Account flux. */
     private AccountFlux accountFlux;
 
@@ -84,13 +145,34 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
     /** Position flux. */
     private PositionFlux positionFlux;
 
+    /** Owners of orders and positions. */
+    private final StrategyOwnership strategyOwnership = new StrategyOwnership();
+
     /**
      * Constructor.
      *
-     * @param newExchangeParameters exchange parameters
+     * @param newExchangeParameters  exchange parameters
+     * @param newFluxParameters      flux parameters
+     * @param newOrderParameters     order parameters
+     * @param newRateLimitParameters   rate limit parameters
+     * @param newPersistenceParameters persistence parameters
+     * @param newTickRecorderParameters tick recorder parameters
+     * @param newOrderBatchEndpoint    order batch endpoint (optional)
      */
-    public ExchangeAutoConfiguration(final ExchangeParameters newExchangeParameters) {
+    public ExchangeAutoConfiguration(final ExchangeParameters newExchangeParameters,
+                                     final FluxParameters newFluxParameters,
+                                     final OrderParameters newOrderParameters,
+                                     final RateLimitParameters newRateLimitParameters,
+                                     final PersistenceParameters newPersistenceParameters,
+                                     final TickRecorderParameters newTickRecorderParameters,
+                                     final ObjectProvider<OrderBatchEndpoint> newOrderBatchEndpoint) {
         this.exchangeParameters = newExchangeParameters;
+        this.fluxParameters = newFluxParameters;
+        this.orderParameters = newOrderParameters;
+        this.rateLimitParameters = newRateLimitParameters;
+        this.persistenceParameters = newPersistenceParameters;
+        this.tickRecorderParameters = newTickRecorderParameters;
+        this.orderBatchEndpoint = newOrderBatchEndpoint;
     }
 
     /**
@@ -98,6 +180,9 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
      */
     @PostConstruct
     public void configure() {
+        getLogger().info("ExchangeConfiguration - {} currencies registered in {} ms",
+                CurrencyDTO.getAvailableCurrencyCodes().size(),
+                CurrencyDTO.getInitializationDuration().toMillis());
         try {
             // Instantiate exchange.
             @SuppressWarnings("rawtypes")
@@ -122,32 +207,85 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
             long accountRate = getRateValue(exchangeParameters.getRates().getAccount());
             long tickerRate = getRateValue(exchangeParameters.getRates().getTicker());
             long tradeRate = getRateValue(exchangeParameters.getRates().getTrade());
+            long metaDataRate = getRateValue(exchangeParameters.getRates().getMetadata());
+
+            // Rate limiters (the account budget is shared by all services).
+            final AccountRateLimit accountRateLimit = new AccountRateLimit(rateLimitParameters.getAccountLimit(),
+                    getRateValue(rateLimitParameters.getAccountPeriod()));
+            final RateLimiter accountRateLimiter = getRateLimiter(accountRate, accountRateLimit);
+            final RateLimiter tickerRateLimiter = getRateLimiter(tickerRate, accountRateLimit);
+            // Metadata is refreshed once per rate, but the refresh still counts in the account budget.
+            final RateLimiter metaDataRateLimiter = getRateLimiter(metaDataRate, accountRateLimit);
 
             // Creates Cassandre services.
             TradeServiceInDryMode tradeServiceInDryMode = null;
+            final PositionServiceImplementation positionServiceImplementation;
+            BaseTradeService tradeServiceForOrderListeners = null;
             if (!exchangeParameters.getModes().isDry()) {
                 // Normal mode.
-                exchangeService = new ExchangeServiceXChangeImplementation(xChangeExchange);
-                userService = new UserServiceXChangeImplementation(accountRate, xChangeAccountService);
-                marketService = new MarketServiceXChangeImplementation(tickerRate, xChangeMarketDataService);
-                tradeService = new TradeServiceXChangeImplementation(tradeRate, xChangeTradeService);
-                positionService = new PositionServiceImplementation(tradeService);
+                exchangeService = new ExchangeServiceXChangeImplementation(metaDataRateLimiter, xChangeExchange, Duration.ofMillis(metaDataRate));
+                userService = new UserServiceXChangeImplementation(accountRateLimiter, xChangeAccountService);
+                marketService = new MarketServiceXChangeImplementation(tickerRateLimiter, xChangeMarketDataService);
+                final TradeServiceXChangeImplementation tradeServiceXChangeImplementation = new TradeServiceXChangeImplementation(getRateLimiter(tradeRate, accountRateLimit), xChangeTradeService);
+                tradeServiceForOrderListeners = tradeServiceXChangeImplementation;
+                tradeServiceXChangeImplementation.setOrderConcurrency(orderParameters.getConcurrency());
+                tradeService = tradeServiceXChangeImplementation;
+                if (orderParameters.getBatchWindow() > 0) {
+                    // Orders sent within the batch window are grouped (the batch endpoint is retrieved when needed).
+                    tradeService = new TradeServiceWithOrderBatching(tradeServiceXChangeImplementation,
+                            orderBatchEndpoint::getIfAvailable,
+                            Duration.ofMillis(orderParameters.getBatchWindow()),
+                            orderParameters.getBatchSize(),
+                            orderParameters.getConcurrency());
+                }
+                positionServiceImplementation = new PositionServiceImplementation(strategyOwnership.getTradeService(tradeService), new CompactTickerConverter(exchangeService));
             } else {
                 // Dry mode.
-                exchangeService = new ExchangeServiceXChangeImplementation(xChangeExchange);
-                userService = new UserServiceXChangeImplementation(accountRate, xChangeAccountService);
-                marketService = new MarketServiceXChangeImplementation(tickerRate, xChangeMarketDataService);
-                tradeServiceInDryMode = new TradeServiceInDryMode();
+                exchangeService = new ExchangeServiceXChangeImplementation(metaDataRateLimiter, xChangeExchange, Duration.ofMillis(metaDataRate));
+                userService = new UserServiceXChangeImplementation(accountRateLimiter, xChangeAccountService);
+                marketService = new MarketServiceXChangeImplementation(tickerRateLimiter, xChangeMarketDataService);
+                final CompactTickerConverter compactTickerConverter = new CompactTickerConverter(exchangeService);
+                tradeServiceInDryMode = new TradeServiceInDryMode(compactTickerConverter);
+                tradeServiceInDryMode.setOrderConcurrency(orderParameters.getConcurrency());
                 this.tradeService = tradeServiceInDryMode;
-                positionService = new PositionServiceImplementation(tradeService);
+                positionServiceImplementation = new PositionServiceImplementation(strategyOwnership.getTradeService(tradeService), compactTickerConverter);
             }
+            positionService = positionServiceImplementation;
+            // Owners are recorded before the position flux is notified.
+            positionServiceImplementation.addPositionListener(strategyOwnership::positionUpdate);
 
             // Creates Cassandre flux.
             accountFlux = new AccountFlux(userService);
-            tickerFlux = new TickerFlux(marketService);
+            tickerFlux = new TickerFlux(marketService, fluxParameters.getTickerParallelism());
             orderFlux = new OrderFlux(tradeService);
             tradeFlux = new TradeFlux(tradeService);
             positionFlux = new PositionFlux(positionService);
+            orderFlux.addOpenOrdersListener(strategyOwnership::openOrdersUpdate);
+
+            // Flux overflow strategies.
+            accountFlux.setOverflowStrategy(fluxParameters.getAccountOverflowStrategy(), fluxParameters.getBufferSize());
+            tickerFlux.setOverflowStrategy(fluxParameters.getTickerOverflowStrategy(), fluxParameters.getBufferSize());
+            orderFlux.setOverflowStrategy(fluxParameters.getOrderOverflowStrategy(), fluxParameters.getBufferSize());
+            tradeFlux.setOverflowStrategy(fluxParameters.getTradeOverflowStrategy(), fluxParameters.getBufferSize());
+            positionFlux.setOverflowStrategy(fluxParameters.getPositionOverflowStrategy(), fluxParameters.getBufferSize());
+
+            // Adaptive polling - account and order polls skipped give their tokens to the ticker flux, orders sent wake them up.
+            // In dry mode, orders are simulated : only the account flux polls the exchange and orders don't change it.
+            if (fluxParameters.getMaximumPollingBackoff() > 1) {
+                final AdaptivePolling accountPolling = new AdaptivePolling("account",
+                        fluxParameters.getMaximumPollingBackoff(),
+                        () -> tickerRateLimiter.addTokens(accountRateLimiter.getWeight(RateLimitedEndpoint.ACCOUNT)));
+                accountFlux.setAdaptivePolling(accountPolling);
+                if (tradeServiceForOrderListeners != null) {
+                    final RateLimiter tradeRateLimiter = tradeServiceForOrderListeners.getRateLimiter();
+                    final AdaptivePolling orderPolling = new AdaptivePolling("order",
+                            fluxParameters.getMaximumPollingBackoff(),
+                            () -> tickerRateLimiter.addTokens(tradeRateLimiter.getWeight(RateLimitedEndpoint.OPEN_ORDERS)));
+                    orderFlux.setAdaptivePolling(orderPolling);
+                    tradeServiceForOrderListeners.addOrderListener(accountPolling::wakeUp);
+                    tradeServiceForOrderListeners.addOrderListener(orderPolling::wakeUp);
+                }
+            }
 
             // Force login to check credentials.
             xChangeAccountService.getAccountInfo();
@@ -185,6 +323,36 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
         }
     }
 
+    /**
+     * Stops the ticker and order batching threads, writes the updates not stored yet and closes the tick files.
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (tickerFlux != null) {
+            tickerFlux.stop();
+        }
+        if (tradeService instanceof TradeServiceWithOrderBatching) {
+            ((TradeServiceWithOrderBatching) tradeService).dispose();
+        }
+        if (persistenceService != null) {
+            persistenceService.close(PERSISTENCE_SHUTDOWN_TIMEOUT);
+        }
+        if (tickRecorder != null) {
+            tickRecorder.close();
+        }
+    }
+
+    /**
+     * Returns a service rate limiter.
+     *
+     * @param rate             rate in ms
+     * @param accountRateLimit account rate limit
+     * @return rate limiter
+     */
+    private RateLimiter getRateLimiter(final long rate, final AccountRateLimit accountRateLimit) {
+        return new RateLimiter(rate, rateLimitParameters.getBurst(), rateLimitParameters.getWeights(), accountRateLimit);
+    }
+
     /**
      * Returns the XChange class based on the exchange name.
      *
@@ -204,39 +372,6 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
                 .concat(xChangeCLassSuffix);                                            // Adding exchange (Exchange).
     }
 
-    /**
-     * Return rate value.
-     *
-     * @param stringValue string value
-     * @return long value (ms)
-     */
-    private static long getRateValue(final String stringValue) {
-        if (isNumeric(stringValue)) {
-            return Long.parseLong(stringValue);
-        } else {
-            return Duration.parse(stringValue).toMillis();
-        }
-    }
-
-    /**
-     * Returns true if a string is a number.
-     *
-     * @param string string to test
-     * @return true if numeric
-     */
-    private static boolean isNumeric(final String string) {
-        // null or empty
-        if (string == null || string.length() == 0) {
-            return false;
-        }
-        for (char c : string.toCharArray()) {
-            if (!Character.isDigit(c)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Getter for exchangeService.
      *
@@ -277,6 +412,54 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
         return tradeService;
     }
 
+    /**
+     * Restores the positions stored by the persistence service.
+     *
+     * @param positionServiceImplementation position service
+     */
+    private void restorePositions(final PositionServiceImplementation positionServiceImplementation) {
+        final long start = System.nanoTime();
+        final List<PositionDTO> positions = persistenceService.loadPositions();
+        positionServiceImplementation.restorePositions(positions, persistenceService.loadTradesByOrderId(positions), persistenceService);
+        getLogger().info("ExchangeConfiguration - Positions restored in {} ms", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Persistence service (if enabled) - orders and trades are written behind the fluxes, positions on each status
+     * change. The stored positions are restored and reconciled with the open orders when the service is created.
+     * The service is closed by {@link #shutdown()}, once the fluxes are stopped.
+     *
+     * @return persistenceService
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(prefix = "cassandre.trading.bot.persistence", name = "enabled")
+    public PersistenceService getPersistenceService() {
+        persistenceService = new PersistenceService(Paths.get(persistenceParameters.getDirectory()),
+                persistenceParameters.getQueueCapacity(),
+                persistenceParameters.getBatchSize(),
+                persistenceParameters.getFsyncPolicy(),
+                persistenceParameters.getSnapshotRecords());
+        final PositionServiceImplementation positionServiceImplementation = (PositionServiceImplementation) positionService;
+        positionServiceImplementation.addPositionListener(persistenceService::positionUpdate);
+        getLogger().info("ExchangeConfiguration - Positions, orders and trades stored in {}", persistenceParameters.getDirectory());
+        restorePositions(positionServiceImplementation);
+        return persistenceService;
+    }
+
+    /**
+     * Tick recorder (if enabled) - ticks are recorded with the scales of the exchange metadata.
+     * The recorder is closed by {@link #shutdown()}, once the ticker flux is stopped.
+     *
+     * @return tickRecorder
+     */
+    @Bean(destroyMethod = "")
+    @ConditionalOnProperty(prefix = "cassandre.trading.bot.tick-recorder", name = "enabled")
+    public TickRecorder getTickRecorder() {
+        tickRecorder = new TickRecorder(Paths.get(tickRecorderParameters.getDirectory()), new CompactTickerConverter(exchangeService));
+        getLogger().info("ExchangeConfiguration - Ticks recorded in {}", tickRecorderParameters.getDirectory());
+        return tickRecorder;
+    }
+
     /**
      * Getter for accountFlux.
      *
@@ -297,6 +480,18 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
         return tickerFlux;
     }
 
+    /**
+     * Returns the market data source feeding the ticker flux (polling by default).
+     *
+     * @param newTickerFlux ticker flux
+     * @return marketDataSource
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public MarketDataSource getMarketDataSource(final TickerFlux newTickerFlux) {
+        return new MarketDataSourceInPollingMode(newTickerFlux);
+    }
+
     /**
      * Getter for orderFlux.
      *
@@ -327,6 +522,16 @@ public class ExchangeAutoConfiguration extends BaseConfiguration {
         return positionService;
     }
 
+    /**
+     * Getter for strategyOwnership.
+     *
+     * @return strategyOwnership
+     */
+    @Bean
+    public StrategyOwnership getStrategyOwnership() {
+        return strategyOwnership;
+    }
+
     /**
      * Getter for positionFlux.
      *
@@ -2,30 +2,42 @@ package tech.cassandre.trading.bot.configuration;
 
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import tech.cassandre.trading.bot.batch.AccountFlux;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.PositionFlux;
-import tech.cassandre.trading.bot.batch.TickerFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.service.MarketDataSource;
+import tech.cassandre.trading.bot.util.base.BaseConfiguration;
+import tech.cassandre.trading.bot.util.parameters.ExchangeParameters;
+import tech.cassandre.trading.bot.util.scheduler.FluxScheduler;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
 
 /**
  * ScheduleAutoConfiguration configures the flux calls.
+ * Each flux is updated by its own scheduler, at the rate configured in {@link ExchangeParameters.Rates}.
  */
 @Configuration
 @Profile("!schedule-disabled")
-@EnableScheduling
-public class ScheduleAutoConfiguration {
+public class ScheduleAutoConfiguration extends BaseConfiguration {
 
-    /** Position update delay. */
+    /** Delay before the first update. */
     private static final long ONE_SECOND = 1_000;
 
+    /** Exchange parameters. */
+    private final ExchangeParameters exchangeParameters;
+
     /** Account flux. */
     private final AccountFlux accountFlux;
 
-    /** Ticker flux. */
-    private final TickerFlux tickerFlux;
+    /** Market data source. */
+    private final MarketDataSource marketDataSource;
 
     /** Order flux. */
     private final OrderFlux orderFlux;
@@ -36,65 +48,69 @@ public class ScheduleAutoConfiguration {
     /** Position flux. */
     private final PositionFlux positionFlux;
 
+    /** Flux schedulers. */
+    private final List<FluxScheduler> fluxSchedulers = new LinkedList<>();
+
     /**
      * Constructor.
      *
-     * @param newAccountFlux  account flux
-     * @param newTickerFlux   ticker flux
-     * @param newOrderFlux    order flux
-     * @param newTradeFlux    trade flux
-     * @param newPositionFlux position flux
+     * @param newExchangeParameters exchange parameters
+     * @param newAccountFlux        account flux
+     * @param newMarketDataSource   market data source
+     * @param newOrderFlux          order flux
+     * @param newTradeFlux          trade flux
+     * @param newPositionFlux       position flux
      */
-    public ScheduleAutoConfiguration(final AccountFlux newAccountFlux,
-                                     final TickerFlux newTickerFlux,
+    public ScheduleAutoConfiguration(final ExchangeParameters newExchangeParameters,
+                                     final AccountFlux newAccountFlux,
+                                     final MarketDataSource newMarketDataSource,
                                      final OrderFlux newOrderFlux,
                                      final TradeFlux newTradeFlux,
                                      final PositionFlux newPositionFlux) {
+        this.exchangeParameters = newExchangeParameters;
         this.accountFlux = newAccountFlux;
-        this.tickerFlux = newTickerFlux;
+        this.marketDataSource = newMarketDataSource;
         this.orderFlux = newOrderFlux;
         this.tradeFlux = newTradeFlux;
         this.positionFlux = newPositionFlux;
     }
 
     /**
-     * Recurrent calls the account flux.
-     */
-    @Scheduled(fixedDelay = 1, initialDelay = ONE_SECOND)
-    public void setupAccountFlux() {
-        accountFlux.update();
-    }
-
-    /**
-     * Recurrent calls the ticker flux.
-     */
-    @Scheduled(fixedDelay = 1, initialDelay = ONE_SECOND)
-    public void setupTickerFlux() {
-        tickerFlux.update();
-    }
-
-    /**
-     * Recurrent calls the order flux.
+     * Starts the flux schedulers.
      */
-    @Scheduled(fixedDelay = 1, initialDelay = ONE_SECOND)
-    public void setupOrderFlux() {
-        orderFlux.update();
+    @PostConstruct
+    public void configure() {
+        final ExchangeParameters.Rates rates = exchangeParameters.getRates();
+        fluxSchedulers.add(new FluxScheduler("account", getRateValue(rates.getAccount()), accountFlux::update));
+        // In streaming mode, tickers are pushed by the market data source.
+        if (marketDataSource.isPolling()) {
+            fluxSchedulers.add(new FluxScheduler("ticker", getRateValue(rates.getTicker()), marketDataSource::update));
+        }
+        fluxSchedulers.add(new FluxScheduler("order", getRateValue(rates.getTrade()), orderFlux::update));
+        fluxSchedulers.add(new FluxScheduler("trade", getRateValue(rates.getTrade()), tradeFlux::update));
+        fluxSchedulers.add(new FluxScheduler("position", getRateValue(rates.getPosition()), positionFlux::update));
+        fluxSchedulers.forEach(fluxScheduler -> fluxScheduler.start(ONE_SECOND));
     }
 
     /**
-     * Recurrent calls the trade flux.
+     * Stops the flux schedulers.
      */
-    @Scheduled(fixedDelay = 1, initialDelay = ONE_SECOND)
-    public void setupTradeFlux() {
-        tradeFlux.update();
+    @PreDestroy
+    public void shutdown() {
+        fluxSchedulers.forEach(fluxScheduler -> getLogger().info("ScheduleAutoConfiguration - {}", fluxScheduler));
+        Stream.of(accountFlux.getAdaptivePolling(), orderFlux.getAdaptivePolling())
+                .filter(Objects::nonNull)
+                .forEach(adaptivePolling -> getLogger().info("ScheduleAutoConfiguration - {}", adaptivePolling));
+        fluxSchedulers.forEach(FluxScheduler::stop);
     }
 
     /**
-     * Recurrent calls the position flux.
+     * Getter for fluxSchedulers (cycle duration and overrun metrics of each flux).
+     *
+     * @return fluxSchedulers
      */
-    @Scheduled(fixedDelay = ONE_SECOND, initialDelay = ONE_SECOND)
-    public void setPositionFlux() {
-        positionFlux.update();
+    public List<FluxScheduler> getFluxSchedulers() {
+        return Collections.unmodifiableList(fluxSchedulers);
     }
 
 }
@@ -1,9 +1,13 @@
 package tech.cassandre.trading.bot.configuration;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Configuration;
 import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
 import tech.cassandre.trading.bot.batch.AccountFlux;
+import tech.cassandre.trading.bot.batch.ConflatingTickerBuffer;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.PositionFlux;
 import tech.cassandre.trading.bot.batch.TickerFlux;
@@ -13,20 +17,35 @@ import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.dto.user.AccountDTO;
+import tech.cassandre.trading.bot.repository.TickRecorder;
+import tech.cassandre.trading.bot.service.MarketDataSource;
+import tech.cassandre.trading.bot.service.PersistenceService;
 import tech.cassandre.trading.bot.service.PositionService;
 import tech.cassandre.trading.bot.service.TradeService;
 import tech.cassandre.trading.bot.service.TradeServiceInDryMode;
 import tech.cassandre.trading.bot.strategy.CassandreStrategy;
 import tech.cassandre.trading.bot.strategy.CassandreStrategyInterface;
+import tech.cassandre.trading.bot.strategy.StrategyOwnership;
+import tech.cassandre.trading.bot.strategy.StrategyRunner;
 import tech.cassandre.trading.bot.util.base.BaseConfiguration;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 import tech.cassandre.trading.bot.util.exception.ConfigurationException;
+import tech.cassandre.trading.bot.util.parameters.StrategyParameters;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.StringJoiner;
 
 /**
- * StrategyAutoConfiguration configures the strategy.
+ * StrategyAutoConfiguration configures the strategies.
+ * All the strategies run in the same process and share the fluxes, the market data source requests the union of
+ * the currency pairs they require. Orders, trades and positions are only sent to the strategy that created them.
  */
 @Configuration
 public class StrategyAutoConfiguration extends BaseConfiguration {
@@ -40,6 +59,9 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
     /** Position service. */
     private final PositionService positionService;
 
+    /** Market data source. */
+    private final MarketDataSource marketDataSource;
+
     /** Account flux. */
     private final AccountFlux accountFlux;
 
@@ -55,39 +77,69 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
     /** Position flux. */
     private final PositionFlux positionFlux;
 
+    /** Owners of orders and positions. */
+    private final StrategyOwnership strategyOwnership;
+
+    /** Persistence service (optional). */
+    private final ObjectProvider<PersistenceService> persistenceService;
+
+    /** Tick recorder (optional). */
+    private final ObjectProvider<TickRecorder> tickRecorder;
+
+    /** Strategy parameters. */
+    private final StrategyParameters strategyParameters;
+
+    /** Strategy runners. */
+    private final List<StrategyRunner> strategyRunners = new LinkedList<>();
+
     /**
      * Constructor.
      *
      * @param newApplicationContext application context
      * @param newTradeService       trade service
      * @param newPositionService    position service
+     * @param newMarketDataSource   market data source
      * @param newAccountFlux        account flux
      * @param newTickerFlux         ticker flux
      * @param newOrderFlux          order flux
      * @param newTradeFlux          trade flux
      * @param newPositionFlux       position flux
+     * @param newStrategyOwnership  owners of orders and positions
+     * @param newPersistenceService persistence service (optional)
+     * @param newTickRecorder       tick recorder (optional)
+     * @param newStrategyParameters strategy parameters
      */
     @SuppressWarnings("checkstyle:ParameterNumber")
     public StrategyAutoConfiguration(final ApplicationContext newApplicationContext,
                                      final TradeService newTradeService,
                                      final PositionService newPositionService,
+                                     final MarketDataSource newMarketDataSource,
                                      final AccountFlux newAccountFlux,
                                      final TickerFlux newTickerFlux,
                                      final OrderFlux newOrderFlux,
                                      final TradeFlux newTradeFlux,
-                                     final PositionFlux newPositionFlux) {
+                                     final PositionFlux newPositionFlux,
+                                     final StrategyOwnership newStrategyOwnership,
+                                     final ObjectProvider<PersistenceService> newPersistenceService,
+                                     final ObjectProvider<TickRecorder> newTickRecorder,
+                                     final StrategyParameters newStrategyParameters) {
         this.applicationContext = newApplicationContext;
         this.tradeService = newTradeService;
         this.positionService = newPositionService;
+        this.marketDataSource = newMarketDataSource;
         this.accountFlux = newAccountFlux;
         this.tickerFlux = newTickerFlux;
         this.orderFlux = newOrderFlux;
         this.tradeFlux = newTradeFlux;
         this.positionFlux = newPositionFlux;
+        this.strategyOwnership = newStrategyOwnership;
+        this.persistenceService = newPersistenceService;
+        this.tickRecorder = newTickRecorder;
+        this.strategyParameters = newStrategyParameters;
     }
 
     /**
-     * Search for the strategy and runs it.
+     * Search for the strategies and runs them.
      */
     @PostConstruct
     public void configure() {
@@ -104,74 +156,123 @@ public class StrategyAutoConfiguration extends BaseConfiguration {
                     "You must have one class with @Strategy");
         }
 
-        // Check if there are several strategies.
-        if (strategyBeans.size() > 1) {
-            getLogger().error("Several strategies found");
-            strategyBeans.forEach((s, o) -> getLogger().error(" - " + s));
-            throw new ConfigurationException("Several strategies found",
-                    "Cassandre trading bot only supports one strategy at a time (@Strategy)");
+        // Check if the strategies extend CassandreStrategy.
+        for (Object o : strategyBeans.values()) {
+            if (!(o instanceof CassandreStrategyInterface)) {
+                throw new ConfigurationException("Your strategy doesn't extend BasicCassandreStrategy or BasicTa4jCassandreStrategy",
+                        o.getClass() + " must extend BasicCassandreStrategy or BasicTa4jCassandreStrategy");
+            }
         }
 
-        // Check if the strategy extends CassandreStrategy.
-        Object o = strategyBeans.values().iterator().next();
-        if (!(o instanceof CassandreStrategyInterface)) {
-            throw new ConfigurationException("Your strategy doesn't extend BasicCassandreStrategy or BasicTa4jCassandreStrategy",
-                    o.getClass() + " must extend BasicCassandreStrategy or BasicTa4jCassandreStrategy");
-        }
+        // Persistence service (created first, as it restores the stored positions).
+        final PersistenceService persistence = persistenceService.getIfAvailable();
 
         // =============================================================================================================
-        // Getting strategy information.
-        CassandreStrategyInterface strategy = (CassandreStrategyInterface) o;
-
-        // Displaying strategy name.
-        CassandreStrategy cassandreStrategyAnnotation = o.getClass().getAnnotation(CassandreStrategy.class);
-        getLogger().info("StrategyConfiguration - Running strategy '{}'", cassandreStrategyAnnotation.name());
+        // Setting up strategies - each one only receives the updates of its orders and positions.
+        final Set<CurrencyPairDTO> requestedCurrencyPairs = new LinkedHashSet<>();
+        strategyBeans.values().forEach(o -> {
+            CassandreStrategyInterface strategy = (CassandreStrategyInterface) o;
 
-        // Displaying requested currency pairs.
-        StringJoiner currencyPairList = new StringJoiner(", ");
-        strategy.getRequestedCurrencyPairs()
-                .forEach(currencyPair -> currencyPairList.add(currencyPair.toString()));
-        getLogger().info("StrategyConfiguration - The strategy requires the following currency pair(s) : " + currencyPairList);
+            // Displaying strategy name.
+            CassandreStrategy cassandreStrategyAnnotation = o.getClass().getAnnotation(CassandreStrategy.class);
+            getLogger().info("StrategyConfiguration - Running strategy '{}'", cassandreStrategyAnnotation.name());
 
-        // =============================================================================================================
-        // Setting up strategy.
+            // Displaying requested currency pairs.
+            StringJoiner currencyPairList = new StringJoiner(", ");
+            strategy.getRequestedCurrencyPairs()
+                    .forEach(currencyPair -> currencyPairList.add(currencyPair.toString()));
+            getLogger().info("StrategyConfiguration - The strategy requires the following currency pair(s) : " + currencyPairList);
+            requestedCurrencyPairs.addAll(strategy.getRequestedCurrencyPairs());
 
-        // Setting services.
-        strategy.setTradeService(tradeService);
-        strategy.setPositionService(positionService);
+            // Setting services.
+            strategy.setTradeService(strategyOwnership.getTradeService(cassandreStrategyAnnotation.name(), tradeService));
+            strategy.setPositionService(strategyOwnership.getPositionService(cassandreStrategyAnnotation.name(), positionService));
+            strategyRunners.add(new StrategyRunner(cassandreStrategyAnnotation.name(),
+                    strategy,
+                    strategyParameters.getDispatchMode(),
+                    strategyOwnership));
+        });
 
-        // Account flux.
+        // =============================================================================================================
+        // Subscribing strategies and services to the shared fluxes.
         final ConnectableFlux<AccountDTO> connectableAccountFlux = accountFlux.getFlux().publish();
-        connectableAccountFlux.subscribe(strategy::accountUpdate);
-        connectableAccountFlux.connect();
-
-        // Position flux.
         final ConnectableFlux<PositionDTO> connectablePositionFlux = positionFlux.getFlux().publish();
-        connectablePositionFlux.subscribe(strategy::positionUpdate);
-        connectablePositionFlux.connect();
-
-        // Order flux.
         final ConnectableFlux<OrderDTO> connectableOrderFlux = orderFlux.getFlux().publish();
-        connectableOrderFlux.subscribe(strategy::orderUpdate);
-        connectableOrderFlux.connect();
-
-        // Trade flux to strategy.
         final ConnectableFlux<TradeDTO> connectableTradeFlux = tradeFlux.getFlux().publish();
-        connectableTradeFlux.subscribe(strategy::tradeUpdate);              // For strategy.
-        connectableTradeFlux.subscribe(positionService::tradeUpdate);       // For position service.
-        connectableTradeFlux.connect();
-
-        // Ticker flux.
-        tickerFlux.updateRequestedCurrencyPairs(strategy.getRequestedCurrencyPairs());
         final ConnectableFlux<TickerDTO> connectableTickerFlux = tickerFlux.getFlux().publish();
-        connectableTickerFlux.subscribe(strategy::tickerUpdate);            // For strategy.
-        connectableTickerFlux.subscribe(positionService::tickerUpdate);     // For position service.
+
+        // Strategies (each strategy receives the tickers of its currency pairs, according to the dispatch mode).
+        strategyRunners.forEach(strategyRunner -> strategyRunner.start(connectableAccountFlux,
+                connectablePositionFlux,
+                connectableOrderFlux,
+                connectableTradeFlux,
+                connectableTickerFlux));
+        // Once dispatched to the strategies, the owners of closed positions are removed.
+        connectablePositionFlux.subscribe(strategyOwnership::positionDispatched);
+
+        // Persistence service - trades are queued before the position they change (positions are queued by the service).
+        if (persistence != null) {
+            connectableOrderFlux.subscribe(persistence::orderUpdate);
+            connectableTradeFlux.subscribe(persistence::tradeUpdate);
+        }
+
+        // Tick recorder - every tick, not conflated (recording a tick is a copy in a memory-mapped file).
+        final TickRecorder recorder = tickRecorder.getIfAvailable();
+        if (recorder != null) {
+            connectableTickerFlux.subscribe(recorder::tickerUpdate);
+        }
+
+        // Position service.
+        connectableTradeFlux.subscribe(positionService::tradeUpdate);
+        getConflatedTickerFlux(connectableTickerFlux, "position").subscribe(positionService::tickerUpdate);
+
         // if in dry mode, we send the ticker to the dry mode.
         if (tradeService instanceof TradeServiceInDryMode) {
             connectableTickerFlux.subscribe(((TradeServiceInDryMode) tradeService)::tickerUpdate);
         }
 
+        connectableAccountFlux.connect();
+        connectablePositionFlux.connect();
+        connectableOrderFlux.connect();
+        connectableTradeFlux.connect();
         connectableTickerFlux.connect();
+
+        // Market data source (started once the ticker flux is connected as streaming sources push tickers at once).
+        marketDataSource.start(requestedCurrencyPairs);
+    }
+
+    /**
+     * Stops the market data source, then the strategies.
+     */
+    @PreDestroy
+    public void shutdown() {
+        // Streaming sources push tickers from their own threads - stopped first so nothing reaches stopped strategies.
+        marketDataSource.stop();
+        strategyRunners.forEach(strategyRunner -> getLogger().info("StrategyConfiguration - {}", strategyRunner));
+        strategyRunners.forEach(StrategyRunner::stop);
+    }
+
+    /**
+     * Getter for strategyRunners (dispatch metrics of each strategy).
+     *
+     * @return strategyRunners
+     */
+    public List<StrategyRunner> getStrategyRunners() {
+        return Collections.unmodifiableList(strategyRunners);
+    }
+
+    /**
+     * Returns a ticker flux conflated by currency pair and delivered, one ticker at a time, on a dedicated thread.
+     * A slow subscriber never blocks the ticker flux and every currency pair gets its turn.
+     *
+     * @param source ticker flux
+     * @param name   subscriber name
+     * @return conflated ticker flux
+     */
+    private Flux<TickerDTO> getConflatedTickerFlux(final Flux<TickerDTO> source, final String name) {
+        return new ConflatingTickerBuffer(source)
+                .getFlux()
+                .publishOn(Schedulers.newSingle("cassandre-" + name + "-tickers", true), 1);
     }
 
 }
@@ -0,0 +1,302 @@
+package tech.cassandre.trading.bot.domain;
+
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Order - stored state of an {@link tech.cassandre.trading.bot.dto.trade.OrderDTO}.
+ */
+public class Order {
+
+    /** An identifier set by the exchange that uniquely identifies the order. */
+    private String id;
+
+    /** Order type i.e. bid or ask. */
+    private OrderTypeDTO type;
+
+    /** Amount to be ordered / amount that was ordered. */
+    private BigDecimal originalAmount;
+
+    /** The currency pair. */
+    private String currencyPair;
+
+    /** Any applicable user reference. */
+    private String userReference;
+
+    /** The timestamp on the order. */
+    private ZonedDateTime timestamp;
+
+    /** Status of order during its lifecycle. */
+    private OrderStatusDTO status;
+
+    /** Amount to be ordered / amount that has been matched against order on the order book/filled. */
+    private BigDecimal cumulativeAmount;
+
+    /** Weighted average price of the fills in the order. */
+    private BigDecimal averagePrice;
+
+    /** The total of the fees incurred for all transactions related to this order. */
+    private BigDecimal fee;
+
+    /** The leverage to use for margin related to this order. */
+    private String leverage;
+
+    /** Limit price. */
+    private BigDecimal limitPrice;
+
+    /**
+     * Getter for id.
+     *
+     * @return id
+     */
+    public final String getId() {
+        return id;
+    }
+
+    /**
+     * Setter for id.
+     *
+     * @param newId the id to set
+     */
+    public final void setId(final String newId) {
+        id = newId;
+    }
+
+    /**
+     * Getter for type.
+     *
+     * @return type
+     */
+    public final OrderTypeDTO getType() {
+        return type;
+    }
+
+    /**
+     * Setter for type.
+     *
+     * @param newType the type to set
+     */
+    public final void setType(final OrderTypeDTO newType) {
+        type = newType;
+    }
+
+    /**
+     * Getter for originalAmount.
+     *
+     * @return originalAmount
+     */
+    public final BigDecimal getOriginalAmount() {
+        return originalAmount;
+    }
+
+    /**
+     * Setter for originalAmount.
+     *
+     * @param newOriginalAmount the originalAmount to set
+     */
+    public final void setOriginalAmount(final BigDecimal newOriginalAmount) {
+        originalAmount = newOriginalAmount;
+    }
+
+    /**
+     * Getter for currencyPair.
+     *
+     * @return currencyPair
+     */
+    public final String getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Setter for currencyPair.
+     *
+     * @param newCurrencyPair the currencyPair to set
+     */
+    public final void setCurrencyPair(final String newCurrencyPair) {
+        currencyPair = newCurrencyPair;
+    }
+
+    /**
+     * Getter for userReference.
+     *
+     * @return userReference
+     */
+    public final String getUserReference() {
+        return userReference;
+    }
+
+    /**
+     * Setter for userReference.
+     *
+     * @param newUserReference the userReference to set
+     */
+    public final void setUserReference(final String newUserReference) {
+        userReference = newUserReference;
+    }
+
+    /**
+     * Getter for timestamp.
+     *
+     * @return timestamp
+     */
+    public final ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Setter for timestamp.
+     *
+     * @param newTimestamp the timestamp to set
+     */
+    public final void setTimestamp(final ZonedDateTime newTimestamp) {
+        timestamp = newTimestamp;
+    }
+
+    /**
+     * Getter for status.
+     *
+     * @return status
+     */
+    public final OrderStatusDTO getStatus() {
+        return status;
+    }
+
+    /**
+     * Setter for status.
+     *
+     * @param newStatus the status to set
+     */
+    public final void setStatus(final OrderStatusDTO newStatus) {
+        status = newStatus;
+    }
+
+    /**
+     * Getter for cumulativeAmount.
+     *
+     * @return cumulativeAmount
+     */
+    public final BigDecimal getCumulativeAmount() {
+        return cumulativeAmount;
+    }
+
+    /**
+     * Setter for cumulativeAmount.
+     *
+     * @param newCumulativeAmount the cumulativeAmount to set
+     */
+    public final void setCumulativeAmount(final BigDecimal newCumulativeAmount) {
+        cumulativeAmount = newCumulativeAmount;
+    }
+
+    /**
+     * Getter for averagePrice.
+     *
+     * @return averagePrice
+     */
+    public final BigDecimal getAveragePrice() {
+        return averagePrice;
+    }
+
+    /**
+     * Setter for averagePrice.
+     *
+     * @param newAveragePrice the averagePrice to set
+     */
+    public final void setAveragePrice(final BigDecimal newAveragePrice) {
+        averagePrice = newAveragePrice;
+    }
+
+    /**
+     * Getter for fee.
+     *
+     * @return fee
+     */
+    public final BigDecimal getFee() {
+        return fee;
+    }
+
+    /**
+     * Setter for fee.
+     *
+     * @param newFee the fee to set
+     */
+    public final void setFee(final BigDecimal newFee) {
+        fee = newFee;
+    }
+
+    /**
+     * Getter for leverage.
+     *
+     * @return leverage
+     */
+    public final String getLeverage() {
+        return leverage;
+    }
+
+    /**
+     * Setter for leverage.
+     *
+     * @param newLeverage the leverage to set
+     */
+    public final void setLeverage(final String newLeverage) {
+        leverage = newLeverage;
+    }
+
+    /**
+     * Getter for limitPrice.
+     *
+     * @return limitPrice
+     */
+    public final BigDecimal getLimitPrice() {
+        return limitPrice;
+    }
+
+    /**
+     * Setter for limitPrice.
+     *
+     * @param newLimitPrice the limitPrice to set
+     */
+    public final void setLimitPrice(final BigDecimal newLimitPrice) {
+        limitPrice = newLimitPrice;
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Order that = (Order) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public final String toString() {
+        return "Order{"
+                + " id='" + id + '\''
+                + ", type=" + type
+                + ", originalAmount=" + originalAmount
+                + ", currencyPair='" + currencyPair + '\''
+                + ", userReference='" + userReference + '\''
+                + ", timestamp=" + timestamp
+                + ", status=" + status
+                + ", cumulativeAmount=" + cumulativeAmount
+                + ", averagePrice=" + averagePrice
+                + ", fee=" + fee
+                + ", leverage='" + leverage + '\''
+                + ", limitPrice=" + limitPrice
+                + '}';
+    }
+
+}
@@ -0,0 +1,213 @@
+package tech.cassandre.trading.bot.domain;
+
+import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
+
+import java.util.Objects;
+
+/**
+ * Position - stored state of a {@link tech.cassandre.trading.bot.dto.position.PositionDTO}.
+ * <p>
+ * Trades are stored apart, the position only keeps the ids of its opening and closing trades.
+ */
+public class Position {
+
+    /** An identifier that uniquely identifies the position. */
+    private long id;
+
+    /** Position status. */
+    private PositionStatusDTO status;
+
+    /** Stop gain percentage (null if not set). */
+    private Float stopGainPercentage;
+
+    /** Stop loss percentage (null if not set). */
+    private Float stopLossPercentage;
+
+    /** The order id that opened the position. */
+    private String openOrderId;
+
+    /** The trade that opened the position (null if not opened yet). */
+    private String openTradeId;
+
+    /** The order id that closed the position (null if not closing yet). */
+    private String closeOrderId;
+
+    /** The trade that closed the position (null if not closed yet). */
+    private String closeTradeId;
+
+    /**
+     * Getter for id.
+     *
+     * @return id
+     */
+    public final long getId() {
+        return id;
+    }
+
+    /**
+     * Setter for id.
+     *
+     * @param newId the id to set
+     */
+    public final void setId(final long newId) {
+        id = newId;
+    }
+
+    /**
+     * Getter for status.
+     *
+     * @return status
+     */
+    public final PositionStatusDTO getStatus() {
+        return status;
+    }
+
+    /**
+     * Setter for status.
+     *
+     * @param newStatus the status to set
+     */
+    public final void setStatus(final PositionStatusDTO newStatus) {
+        status = newStatus;
+    }
+
+    /**
+     * Getter for stopGainPercentage.
+     *
+     * @return stopGainPercentage
+     */
+    public final Float getStopGainPercentage() {
+        return stopGainPercentage;
+    }
+
+    /**
+     * Setter for stopGainPercentage.
+     *
+     * @param newStopGainPercentage the stopGainPercentage to set
+     */
+    public final void setStopGainPercentage(final Float newStopGainPercentage) {
+        stopGainPercentage = newStopGainPercentage;
+    }
+
+    /**
+     * Getter for stopLossPercentage.
+     *
+     * @return stopLossPercentage
+     */
+    public final Float getStopLossPercentage() {
+        return stopLossPercentage;
+    }
+
+    /**
+     * Setter for stopLossPercentage.
+     *
+     * @param newStopLossPercentage the stopLossPercentage to set
+     */
+    public final void setStopLossPercentage(final Float newStopLossPercentage) {
+        stopLossPercentage = newStopLossPercentage;
+    }
+
+    /**
+     * Getter for openOrderId.
+     *
+     * @return openOrderId
+     */
+    public final String getOpenOrderId() {
+        return openOrderId;
+    }
+
+    /**
+     * Setter for openOrderId.
+     *
+     * @param newOpenOrderId the openOrderId to set
+     */
+    public final void setOpenOrderId(final String newOpenOrderId) {
+        openOrderId = newOpenOrderId;
+    }
+
+    /**
+     * Getter for openTradeId.
+     *
+     * @return openTradeId
+     */
+    public final String getOpenTradeId() {
+        return openTradeId;
+    }
+
+    /**
+     * Setter for openTradeId.
+     *
+     * @param newOpenTradeId the openTradeId to set
+     */
+    public final void setOpenTradeId(final String newOpenTradeId) {
+        openTradeId = newOpenTradeId;
+    }
+
+    /**
+     * Getter for closeOrderId.
+     *
+     * @return closeOrderId
+     */
+    public final String getCloseOrderId() {
+        return closeOrderId;
+    }
+
+    /**
+     * Setter for closeOrderId.
+     *
+     * @param newCloseOrderId the closeOrderId to set
+     */
+    public final void setCloseOrderId(final String newCloseOrderId) {
+        closeOrderId = newCloseOrderId;
+    }
+
+    /**
+     * Getter for closeTradeId.
+     *
+     * @return closeTradeId
+     */
+    public final String getCloseTradeId() {
+        return closeTradeId;
+    }
+
+    /**
+     * Setter for closeTradeId.
+     *
+     * @param newCloseTradeId the closeTradeId to set
+     */
+    public final void setCloseTradeId(final String newCloseTradeId) {
+        closeTradeId = newCloseTradeId;
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Position that = (Position) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public final String toString() {
+        return "Position{"
+                + " id=" + id
+                + ", status=" + status
+                + ", stopGainPercentage=" + stopGainPercentage
+                + ", stopLossPercentage=" + stopLossPercentage
+                + ", openOrderId='" + openOrderId + '\''
+                + ", openTradeId='" + openTradeId + '\''
+                + ", closeOrderId='" + closeOrderId + '\''
+                + ", closeTradeId='" + closeTradeId + '\''
+                + '}';
+    }
+
+}
@@ -0,0 +1,235 @@
+package tech.cassandre.trading.bot.domain;
+
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+
+/**
+ * Trade - stored state of a {@link tech.cassandre.trading.bot.dto.trade.TradeDTO}.
+ */
+public class Trade {
+
+    /** An identifier set by the exchange that uniquely identifies the trade. */
+    private String id;
+
+    /** The id of the order responsible for execution of this trade. */
+    private String orderId;
+
+    /** A bid or a ask. */
+    private OrderTypeDTO type;
+
+    /** Amount that was ordered. */
+    private BigDecimal originalAmount;
+
+    /** The currency pair. */
+    private String currencyPair;
+
+    /** The price. */
+    private BigDecimal price;
+
+    /** The timestamp of the trade. */
+    private ZonedDateTime timestamp;
+
+    /** The fee amount that was charged by the exchange for this trade. */
+    private BigDecimal feeAmount;
+
+    /** The fee currency. */
+    private String feeCurrency;
+
+    /**
+     * Getter for id.
+     *
+     * @return id
+     */
+    public final String getId() {
+        return id;
+    }
+
+    /**
+     * Setter for id.
+     *
+     * @param newId the id to set
+     */
+    public final void setId(final String newId) {
+        id = newId;
+    }
+
+    /**
+     * Getter for orderId.
+     *
+     * @return orderId
+     */
+    public final String getOrderId() {
+        return orderId;
+    }
+
+    /**
+     * Setter for orderId.
+     *
+     * @param newOrderId the orderId to set
+     */
+    public final void setOrderId(final String newOrderId) {
+        orderId = newOrderId;
+    }
+
+    /**
+     * Getter for type.
+     *
+     * @return type
+     */
+    public final OrderTypeDTO getType() {
+        return type;
+    }
+
+    /**
+     * Setter for type.
+     *
+     * @param newType the type to set
+     */
+    public final void setType(final OrderTypeDTO newType) {
+        type = newType;
+    }
+
+    /**
+     * Getter for originalAmount.
+     *
+     * @return originalAmount
+     */
+    public final BigDecimal getOriginalAmount() {
+        return originalAmount;
+    }
+
+    /**
+     * Setter for originalAmount.
+     *
+     * @param newOriginalAmount the originalAmount to set
+     */
+    public final void setOriginalAmount(final BigDecimal newOriginalAmount) {
+        originalAmount = newOriginalAmount;
+    }
+
+    /**
+     * Getter for currencyPair.
+     *
+     * @return currencyPair
+     */
+    public final String getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Setter for currencyPair.
+     *
+     * @param newCurrencyPair the currencyPair to set
+     */
+    public final void setCurrencyPair(final String newCurrencyPair) {
+        currencyPair = newCurrencyPair;
+    }
+
+    /**
+     * Getter for price.
+     *
+     * @return price
+     */
+    public final BigDecimal getPrice() {
+        return price;
+    }
+
+    /**
+     * Setter for price.
+     *
+     * @param newPrice the price to set
+     */
+    public final void setPrice(final BigDecimal newPrice) {
+        price = newPrice;
+    }
+
+    /**
+     * Getter for timestamp.
+     *
+     * @return timestamp
+     */
+    public final ZonedDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Setter for timestamp.
+     *
+     * @param newTimestamp the timestamp to set
+     */
+    public final void setTimestamp(final ZonedDateTime newTimestamp) {
+        timestamp = newTimestamp;
+    }
+
+    /**
+     * Getter for feeAmount.
+     *
+     * @return feeAmount
+     */
+    public final BigDecimal getFeeAmount() {
+        return feeAmount;
+    }
+
+    /**
+     * Setter for feeAmount.
+     *
+     * @param newFeeAmount the feeAmount to set
+     */
+    public final void setFeeAmount(final BigDecimal newFeeAmount) {
+        feeAmount = newFeeAmount;
+    }
+
+    /**
+     * Getter for feeCurrency.
+     *
+     * @return feeCurrency
+     */
+    public final String getFeeCurrency() {
+        return feeCurrency;
+    }
+
+    /**
+     * Setter for feeCurrency.
+     *
+     * @param newFeeCurrency the feeCurrency to set
+     */
+    public final void setFeeCurrency(final String newFeeCurrency) {
+        feeCurrency = newFeeCurrency;
+    }
+
+    @Override
+    public final boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final Trade that = (Trade) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public final int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public final String toString() {
+        return "Trade{"
+                + " id='" + id + '\''
+                + ", orderId='" + orderId + '\''
+                + ", type=" + type
+                + ", originalAmount=" + originalAmount
+                + ", currencyPair='" + currencyPair + '\''
+                + ", price=" + price
+                + ", timestamp=" + timestamp
+                + ", feeAmount=" + feeAmount
+                + ", feeCurrency='" + feeCurrency + '\''
+                + '}';
+    }
+
+}
@@ -0,0 +1,640 @@
+package tech.cassandre.trading.bot.dto.market;
+
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DTO representing a stock ticker with fixed point values - the compact form of {@link TickerDTO} used on the tick
+ * hot path.
+ * <p>
+ * Each value is stored in a long as an unscaled value : prices (open, last, bid, ask, high, low, vwap) with the price
+ * scale of the currency pair, volumes and amounts (volume, quote volume, bid size, ask size) with its amount scale.
+ * For example, with a price scale of 2, a price of 12.34 is stored as 1234. A field without value is set to
+ * {@link #NO_VALUE} and the timestamp is stored in nanoseconds since the epoch.
+ * <p>
+ * Prices and amounts of a currency pair can then be compared without creating any object.
+ */
+public final class CompactTickerDTO {
+
+    /** Value of a field without value. */
+    public static final long NO_VALUE = Long.MIN_VALUE;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO currencyPair;
+
+    /** Number of decimals of prices. */
+    private final int priceScale;
+
+    /** Number of decimals of amounts. */
+    private final int amountScale;
+
+    /** The opening price is the first trade price that was recorded during the day’s trading. */
+    private final long open;
+
+    /** Last trade field is the price set during the last trade. */
+    private final long last;
+
+    /** The bid price shown represents the highest bid price. */
+    private final long bid;
+
+    /** The ask price shown represents the lowest bid price. */
+    private final long ask;
+
+    /** The day’s high price. */
+    private final long high;
+
+    /** The day’s low price. */
+    private final long low;
+
+    /** Volume-weighted average price (VWAP). */
+    private final long vwap;
+
+    /** Volume is the number of shares or contracts traded. */
+    private final long volume;
+
+    /** Quote volume. */
+    private final long quoteVolume;
+
+    /** The bid size represents the quantity of a security that investors are willing to purchase at a specified bid price. */
+    private final long bidSize;
+
+    /** The ask size represents the quantity of a security that investors are willing to sell at a specified selling price. */
+    private final long askSize;
+
+    /** Information timestamp (nanoseconds since the epoch). */
+    private final long timestamp;
+
+    /**
+     * Builder constructor.
+     *
+     * @param builder Builder.
+     */
+    private CompactTickerDTO(final CompactTickerDTO.Builder builder) {
+        this.currencyPair = builder.currencyPair;
+        this.priceScale = builder.priceScale;
+        this.amountScale = builder.amountScale;
+        this.open = builder.open;
+        this.last = builder.last;
+        this.bid = builder.bid;
+        this.ask = builder.ask;
+        this.high = builder.high;
+        this.low = builder.low;
+        this.vwap = builder.vwap;
+        this.volume = builder.volume;
+        this.quoteVolume = builder.quoteVolume;
+        this.bidSize = builder.bidSize;
+        this.askSize = builder.askSize;
+        this.timestamp = builder.timestamp;
+    }
+
+    /**
+     * Returns builder.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Converts a ticker to a compact ticker - prices and amounts with more decimals than their scale are rounded.
+     * Auxiliary values (open, high, low, vwap, volumes and sizes) that don't fit in a long with their scale are set to
+     * {@link #NO_VALUE}.
+     *
+     * @param ticker         ticker
+     * @param newPriceScale  number of decimals of prices
+     * @param newAmountScale number of decimals of amounts
+     * @return compact ticker
+     * @throws ArithmeticException if the last, bid or ask price doesn't fit in a long with the price scale
+     */
+    public static CompactTickerDTO fromTickerDTO(final TickerDTO ticker, final int newPriceScale, final int newAmountScale) {
+        return getPricesBuilder(ticker, newPriceScale, newAmountScale)
+                .open(toAuxiliaryUnscaledValue(ticker.getOpen(), newPriceScale))
+                .high(toAuxiliaryUnscaledValue(ticker.getHigh(), newPriceScale))
+                .low(toAuxiliaryUnscaledValue(ticker.getLow(), newPriceScale))
+                .vwap(toAuxiliaryUnscaledValue(ticker.getVwap(), newPriceScale))
+                .volume(toAuxiliaryUnscaledValue(ticker.getVolume(), newAmountScale))
+                .quoteVolume(toAuxiliaryUnscaledValue(ticker.getQuoteVolume(), newAmountScale))
+                .bidSize(toAuxiliaryUnscaledValue(ticker.getBidSize(), newAmountScale))
+                .askSize(toAuxiliaryUnscaledValue(ticker.getAskSize(), newAmountScale))
+                .create();
+    }
+
+    /**
+     * Converts the prices of a ticker to a compact ticker - only last, bid and ask prices are converted, the other
+     * values are set to {@link #NO_VALUE}. Used on the hot path by the services only comparing prices. Prices with more
+     * decimals than the price scale are rounded (half even) : comparisons that must be exact use the ticker.
+     *
+     * @param ticker         ticker
+     * @param newPriceScale  number of decimals of prices
+     * @param newAmountScale number of decimals of amounts
+     * @return compact ticker with last, bid and ask prices
+     * @throws ArithmeticException if the last, bid or ask price doesn't fit in a long with the price scale
+     */
+    public static CompactTickerDTO fromTickerDTOPrices(final TickerDTO ticker, final int newPriceScale, final int newAmountScale) {
+        return getPricesBuilder(ticker, newPriceScale, newAmountScale).create();
+    }
+
+    /**
+     * Returns a builder with the currency pair, scales, timestamp, last, bid and ask prices of a ticker.
+     *
+     * @param ticker         ticker
+     * @param newPriceScale  number of decimals of prices
+     * @param newAmountScale number of decimals of amounts
+     * @return builder
+     */
+    private static Builder getPricesBuilder(final TickerDTO ticker, final int newPriceScale, final int newAmountScale) {
+        final Instant instant = ticker.getTimestamp().toInstant();
+        return builder()
+                .currencyPair(ticker.getCurrencyPair())
+                .priceScale(newPriceScale)
+                .amountScale(newAmountScale)
+                .last(toUnscaledValue(ticker.getLast(), newPriceScale, RoundingMode.HALF_EVEN))
+                .bid(toUnscaledValue(ticker.getBid(), newPriceScale, RoundingMode.HALF_EVEN))
+                .ask(toUnscaledValue(ticker.getAsk(), newPriceScale, RoundingMode.HALF_EVEN))
+                .timestamp(TimeUnit.SECONDS.toNanos(instant.getEpochSecond()) + instant.getNano());
+    }
+
+    /**
+     * Returns the unscaled value of an auxiliary value, rounded.
+     *
+     * @param value value (can be null)
+     * @param scale scale
+     * @return unscaled value ({@link #NO_VALUE} if value is null or doesn't fit in a long with this scale)
+     */
+    private static long toAuxiliaryUnscaledValue(final BigDecimal value, final int scale) {
+        try {
+            return toUnscaledValue(value, scale, RoundingMode.HALF_EVEN);
+        } catch (ArithmeticException e) {
+            return NO_VALUE;
+        }
+    }
+
+    /**
+     * Converts this compact ticker to a ticker.
+     *
+     * @return ticker
+     */
+    public TickerDTO toTickerDTO() {
+        return TickerDTO.builder()
+                .currencyPair(currencyPair)
+                .open(toBigDecimal(open, priceScale))
+                .last(toBigDecimal(last, priceScale))
+                .bid(toBigDecimal(bid, priceScale))
+                .ask(toBigDecimal(ask, priceScale))
+                .high(toBigDecimal(high, priceScale))
+                .low(toBigDecimal(low, priceScale))
+                .vwap(toBigDecimal(vwap, priceScale))
+                .volume(toBigDecimal(volume, amountScale))
+                .quoteVolume(toBigDecimal(quoteVolume, amountScale))
+                .bidSize(toBigDecimal(bidSize, amountScale))
+                .askSize(toBigDecimal(askSize, amountScale))
+                .timestamp(new Date(TimeUnit.NANOSECONDS.toMillis(timestamp)))
+                .create();
+    }
+
+    /**
+     * Returns the unscaled value of a decimal number with a scale.
+     *
+     * @param value        value (can be null)
+     * @param scale        scale
+     * @param roundingMode rounding mode used if the value has more decimals than the scale
+     * @return unscaled value ({@link #NO_VALUE} if value is null)
+     * @throws ArithmeticException if the value doesn't fit in a long with this scale
+     */
+    public static long toUnscaledValue(final BigDecimal value, final int scale, final RoundingMode roundingMode) {
+        if (value == null) {
+            return NO_VALUE;
+        }
+        final long unscaledValue = value.setScale(scale, roundingMode).unscaledValue().longValueExact();
+        if (unscaledValue == NO_VALUE) {
+            throw new ArithmeticException("Value out of range : " + value);
+        }
+        return unscaledValue;
+    }
+
+    /**
+     * Returns the decimal number of an unscaled value, without trailing zeros in its decimals.
+     *
+     * @param unscaledValue unscaled value
+     * @param scale         scale
+     * @return value (null if unscaled value is {@link #NO_VALUE})
+     */
+    public static BigDecimal toBigDecimal(final long unscaledValue, final int scale) {
+        if (unscaledValue == NO_VALUE) {
+            return null;
+        }
+        final BigDecimal value = BigDecimal.valueOf(unscaledValue, scale).stripTrailingZeros();
+        if (value.scale() < 0) {
+            return value.setScale(0);
+        }
+        return value;
+    }
+
+    /**
+     * Getter for currencyPair.
+     *
+     * @return currencyPair
+     */
+    public CurrencyPairDTO getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Getter for priceScale.
+     *
+     * @return priceScale
+     */
+    public int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Getter for amountScale.
+     *
+     * @return amountScale
+     */
+    public int getAmountScale() {
+        return amountScale;
+    }
+
+    /**
+     * Getter for open.
+     *
+     * @return open
+     */
+    public long getOpen() {
+        return open;
+    }
+
+    /**
+     * Getter for last.
+     *
+     * @return last
+     */
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * Getter for bid.
+     *
+     * @return bid
+     */
+    public long getBid() {
+        return bid;
+    }
+
+    /**
+     * Getter for ask.
+     *
+     * @return ask
+     */
+    public long getAsk() {
+        return ask;
+    }
+
+    /**
+     * Getter for high.
+     *
+     * @return high
+     */
+    public long getHigh() {
+        return high;
+    }
+
+    /**
+     * Getter for low.
+     *
+     * @return low
+     */
+    public long getLow() {
+        return low;
+    }
+
+    /**
+     * Getter for vwap.
+     *
+     * @return vwap
+     */
+    public long getVwap() {
+        return vwap;
+    }
+
+    /**
+     * Getter for volume.
+     *
+     * @return volume
+     */
+    public long getVolume() {
+        return volume;
+    }
+
+    /**
+     * Getter for quoteVolume.
+     *
+     * @return quoteVolume
+     */
+    public long getQuoteVolume() {
+        return quoteVolume;
+    }
+
+    /**
+     * Getter for bidSize.
+     *
+     * @return bidSize
+     */
+    public long getBidSize() {
+        return bidSize;
+    }
+
+    /**
+     * Getter for askSize.
+     *
+     * @return askSize
+     */
+    public long getAskSize() {
+        return askSize;
+    }
+
+    /**
+     * Getter for timestamp.
+     *
+     * @return timestamp (nanoseconds since the epoch)
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CompactTickerDTO that = (CompactTickerDTO) o;
+        return timestamp == that.timestamp
+                && Objects.equals(currencyPair, that.currencyPair);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currencyPair, timestamp);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTickerDTO{"
+                + " currencyPair=" + currencyPair
+                + ", priceScale=" + priceScale
+                + ", amountScale=" + amountScale
+                + ", open=" + open
+                + ", last=" + last
+                + ", bid=" + bid
+                + ", ask=" + ask
+                + ", high=" + high
+                + ", low=" + low
+                + ", vwap=" + vwap
+                + ", volume=" + volume
+                + ", quoteVolume=" + quoteVolume
+                + ", bidSize=" + bidSize
+                + ", askSize=" + askSize
+                + ", timestamp=" + timestamp
+                + '}';
+    }
+
+    /**
+     * Builder.
+     */
+    public static final class Builder {
+
+        /** Currency pair. */
+        private CurrencyPairDTO currencyPair;
+
+        /** Number of decimals of prices. */
+        private int priceScale;
+
+        /** Number of decimals of amounts. */
+        private int amountScale;
+
+        /** Open. */
+        private long open = NO_VALUE;
+
+        /** Last. */
+        private long last = NO_VALUE;
+
+        /** Bid. */
+        private long bid = NO_VALUE;
+
+        /** Ask. */
+        private long ask = NO_VALUE;
+
+        /** High. */
+        private long high = NO_VALUE;
+
+        /** Low. */
+        private long low = NO_VALUE;
+
+        /** Volume-weighted average price. */
+        private long vwap = NO_VALUE;
+
+        /** Volume. */
+        private long volume = NO_VALUE;
+
+        /** Quote volume. */
+        private long quoteVolume = NO_VALUE;
+
+        /** Bid size. */
+        private long bidSize = NO_VALUE;
+
+        /** Ask size. */
+        private long askSize = NO_VALUE;
+
+        /** Timestamp (nanoseconds since the epoch). */
+        private long timestamp;
+
+        /**
+         * Currency pair.
+         *
+         * @param newCurrencyPair currency pair
+         * @return builder
+         */
+        public Builder currencyPair(final CurrencyPairDTO newCurrencyPair) {
+            this.currencyPair = newCurrencyPair;
+            return this;
+        }
+
+        /**
+         * Price scale.
+         *
+         * @param newPriceScale number of decimals of prices
+         * @return builder
+         */
+        public Builder priceScale(final int newPriceScale) {
+            this.priceScale = newPriceScale;
+            return this;
+        }
+
+        /**
+         * Amount scale.
+         *
+         * @param newAmountScale number of decimals of amounts
+         * @return builder
+         */
+        public Builder amountScale(final int newAmountScale) {
+            this.amountScale = newAmountScale;
+            return this;
+        }
+
+        /**
+         * Open.
+         *
+         * @param newOpen unscaled open price
+         * @return builder
+         */
+        public Builder open(final long newOpen) {
+            this.open = newOpen;
+            return this;
+        }
+
+        /**
+         * Last.
+         *
+         * @param newLast unscaled last price
+         * @return builder
+         */
+        public Builder last(final long newLast) {
+            this.last = newLast;
+            return this;
+        }
+
+        /**
+         * Bid.
+         *
+         * @param newBid unscaled bid price
+         * @return builder
+         */
+        public Builder bid(final long newBid) {
+            this.bid = newBid;
+            return this;
+        }
+
+        /**
+         * Ask.
+         *
+         * @param newAsk unscaled ask price
+         * @return builder
+         */
+        public Builder ask(final long newAsk) {
+            this.ask = newAsk;
+            return this;
+        }
+
+        /**
+         * High.
+         *
+         * @param newHigh unscaled high price
+         * @return builder
+         */
+        public Builder high(final long newHigh) {
+            this.high = newHigh;
+            return this;
+        }
+
+        /**
+         * Low.
+         *
+         * @param newLow unscaled low price
+         * @return builder
+         */
+        public Builder low(final long newLow) {
+            this.low = newLow;
+            return this;
+        }
+
+        /**
+         * Vwap.
+         *
+         * @param newVwap unscaled volume-weighted average price
+         * @return builder
+         */
+        public Builder vwap(final long newVwap) {
+            this.vwap = newVwap;
+            return this;
+        }
+
+        /**
+         * Volume.
+         *
+         * @param newVolume unscaled volume
+         * @return builder
+         */
+        public Builder volume(final long newVolume) {
+            this.volume = newVolume;
+            return this;
+        }
+
+        /**
+         * Quote volume.
+         *
+         * @param newQuoteVolume unscaled quote volume
+         * @return builder
+         */
+        public Builder quoteVolume(final long newQuoteVolume) {
+            this.quoteVolume = newQuoteVolume;
+            return this;
+        }
+
+        /**
+         * Bid size.
+         *
+         * @param newBidSize unscaled bid size
+         * @return builder
+         */
+        public Builder bidSize(final long newBidSize) {
+            this.bidSize = newBidSize;
+            return this;
+        }
+
+        /**
+         * Ask size.
+         *
+         * @param newAskSize unscaled ask size
+         * @return builder
+         */
+        public Builder askSize(final long newAskSize) {
+            this.askSize = newAskSize;
+            return this;
+        }
+
+        /**
+         * Timestamp.
+         *
+         * @param newTimestamp nanoseconds since the epoch
+         * @return builder
+         */
+        public Builder timestamp(final long newTimestamp) {
+            this.timestamp = newTimestamp;
+            return this;
+        }
+
+        /**
+         * Creates compact ticker.
+         *
+         * @return compact ticker
+         */
+        public CompactTickerDTO create() {
+            return new CompactTickerDTO(this);
+        }
+
+    }
+
+}
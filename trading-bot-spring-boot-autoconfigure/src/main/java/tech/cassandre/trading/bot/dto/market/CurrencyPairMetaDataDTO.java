@@ -0,0 +1,303 @@
+package tech.cassandre.trading.bot.dto.market;
+
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * DTO representing the metadata of a currency pair on the exchange - precision, order amount limits and fees.
+ * Fields are null when the exchange doesn't give the information.
+ */
+public final class CurrencyPairMetaDataDTO {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO currencyPair;
+
+    /** Number of decimals of the price. */
+    private final Integer priceScale;
+
+    /** Number of decimals of the amount (base currency). */
+    private final Integer baseScale;
+
+    /** Minimum order amount. */
+    private final BigDecimal minimumAmount;
+
+    /** Maximum order amount. */
+    private final BigDecimal maximumAmount;
+
+    /** Order amounts must be a multiple of this step. */
+    private final BigDecimal amountStepSize;
+
+    /** Trading fee. */
+    private final BigDecimal tradingFee;
+
+    /** Fee tiers (sorted by begin quantity). */
+    private final List<FeeTierDTO> feeTiers;
+
+    /**
+     * Builder constructor.
+     *
+     * @param builder Builder.
+     */
+    private CurrencyPairMetaDataDTO(final CurrencyPairMetaDataDTO.Builder builder) {
+        this.currencyPair = builder.currencyPair;
+        this.priceScale = builder.priceScale;
+        this.baseScale = builder.baseScale;
+        this.minimumAmount = builder.minimumAmount;
+        this.maximumAmount = builder.maximumAmount;
+        this.amountStepSize = builder.amountStepSize;
+        this.tradingFee = builder.tradingFee;
+        this.feeTiers = List.copyOf(builder.feeTiers);
+    }
+
+    /**
+     * Returns builder.
+     *
+     * @return builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Getter for currencyPair.
+     *
+     * @return currencyPair
+     */
+    public CurrencyPairDTO getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Getter for priceScale.
+     *
+     * @return priceScale
+     */
+    public Integer getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Getter for baseScale.
+     *
+     * @return baseScale
+     */
+    public Integer getBaseScale() {
+        return baseScale;
+    }
+
+    /**
+     * Getter for minimumAmount.
+     *
+     * @return minimumAmount
+     */
+    public BigDecimal getMinimumAmount() {
+        return minimumAmount;
+    }
+
+    /**
+     * Getter for maximumAmount.
+     *
+     * @return maximumAmount
+     */
+    public BigDecimal getMaximumAmount() {
+        return maximumAmount;
+    }
+
+    /**
+     * Getter for amountStepSize.
+     *
+     * @return amountStepSize
+     */
+    public BigDecimal getAmountStepSize() {
+        return amountStepSize;
+    }
+
+    /**
+     * Getter for tradingFee.
+     *
+     * @return tradingFee
+     */
+    public BigDecimal getTradingFee() {
+        return tradingFee;
+    }
+
+    /**
+     * Getter for feeTiers.
+     *
+     * @return feeTiers
+     */
+    public List<FeeTierDTO> getFeeTiers() {
+        return feeTiers;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final CurrencyPairMetaDataDTO that = (CurrencyPairMetaDataDTO) o;
+        return Objects.equals(currencyPair, that.currencyPair)
+                && Objects.equals(priceScale, that.priceScale)
+                && Objects.equals(baseScale, that.baseScale)
+                && Objects.equals(minimumAmount, that.minimumAmount)
+                && Objects.equals(maximumAmount, that.maximumAmount)
+                && Objects.equals(amountStepSize, that.amountStepSize)
+                && Objects.equals(tradingFee, that.tradingFee)
+                && Objects.equals(feeTiers, that.feeTiers);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(currencyPair, priceScale, baseScale, minimumAmount, maximumAmount, amountStepSize, tradingFee, feeTiers);
+    }
+
+    @Override
+    public String toString() {
+        return "CurrencyPairMetaDataDTO{"
+                + " currencyPair=" + currencyPair
+                + ", priceScale=" + priceScale
+                + ", baseScale=" + baseScale
+                + ", minimumAmount=" + minimumAmount
+                + ", maximumAmount=" + maximumAmount
+                + ", amountStepSize=" + amountStepSize
+                + ", tradingFee=" + tradingFee
+                + ", feeTiers=" + feeTiers
+                + '}';
+    }
+
+    /**
+     * Builder.
+     */
+    public static final class Builder {
+
+        /** Currency pair. */
+        private CurrencyPairDTO currencyPair;
+
+        /** Number of decimals of the price. */
+        private Integer priceScale;
+
+        /** Number of decimals of the amount (base currency). */
+        private Integer baseScale;
+
+        /** Minimum order amount. */
+        private BigDecimal minimumAmount;
+
+        /** Maximum order amount. */
+        private BigDecimal maximumAmount;
+
+        /** Order amounts must be a multiple of this step. */
+        private BigDecimal amountStepSize;
+
+        /** Trading fee. */
+        private BigDecimal tradingFee;
+
+        /** Fee tiers. */
+        private List<FeeTierDTO> feeTiers = Collections.emptyList();
+
+        /**
+         * Currency pair.
+         *
+         * @param newCurrencyPair currency pair
+         * @return builder
+         */
+        public Builder currencyPair(final CurrencyPairDTO newCurrencyPair) {
+            this.currencyPair = newCurrencyPair;
+            return this;
+        }
+
+        /**
+         * Price scale.
+         *
+         * @param newPriceScale number of decimals of the price
+         * @return builder
+         */
+        public Builder priceScale(final Integer newPriceScale) {
+            this.priceScale = newPriceScale;
+            return this;
+        }
+
+        /**
+         * Base scale.
+         *
+         * @param newBaseScale number of decimals of the amount
+         * @return builder
+         */
+        public Builder baseScale(final Integer newBaseScale) {
+            this.baseScale = newBaseScale;
+            return this;
+        }
+
+        /**
+         * Minimum amount.
+         *
+         * @param newMinimumAmount minimum order amount
+         * @return builder
+         */
+        public Builder minimumAmount(final BigDecimal newMinimumAmount) {
+            this.minimumAmount = newMinimumAmount;
+            return this;
+        }
+
+        /**
+         * Maximum amount.
+         *
+         * @param newMaximumAmount maximum order amount
+         * @return builder
+         */
+        public Builder maximumAmount(final BigDecimal newMaximumAmount) {
+            this.maximumAmount = newMaximumAmount;
+            return this;
+        }
+
+        /**
+         * Amount step size.
+         *
+         * @param newAmountStepSize amount step size
+         * @return builder
+         */
+        public Builder amountStepSize(final BigDecimal newAmountStepSize) {
+            this.amountStepSize = newAmountStepSize;
+            return this;
+        }
+
+        /**
+         * Trading fee.
+         *
+         * @param newTradingFee trading fee
+         * @return builder
+         */
+        public Builder tradingFee(final BigDecimal newTradingFee) {
+            this.tradingFee = newTradingFee;
+            return this;
+        }
+
+        /**
+         * Fee tiers.
+         *
+         * @param newFeeTiers fee tiers
+         * @return builder
+         */
+        public Builder feeTiers(final List<FeeTierDTO> newFeeTiers) {
+            this.feeTiers = newFeeTiers;
+            return this;
+        }
+
+        /**
+         * Creates currency pair metadata.
+         *
+         * @return currency pair metadata
+         */
+        public CurrencyPairMetaDataDTO create() {
+            return new CurrencyPairMetaDataDTO(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,88 @@
+package tech.cassandre.trading.bot.dto.market;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+/**
+ * DTO representing a fee tier - fees applied once the traded volume reaches the beginning quantity.
+ */
+public final class FeeTierDTO {
+
+    /** Volume from which the tier applies. */
+    private final BigDecimal beginQuantity;
+
+    /** Maker fee (limit orders adding liquidity). */
+    private final BigDecimal makerFee;
+
+    /** Taker fee (orders removing liquidity). */
+    private final BigDecimal takerFee;
+
+    /**
+     * Constructor.
+     *
+     * @param newBeginQuantity volume from which the tier applies
+     * @param newMakerFee      maker fee
+     * @param newTakerFee      taker fee
+     */
+    public FeeTierDTO(final BigDecimal newBeginQuantity, final BigDecimal newMakerFee, final BigDecimal newTakerFee) {
+        this.beginQuantity = newBeginQuantity;
+        this.makerFee = newMakerFee;
+        this.takerFee = newTakerFee;
+    }
+
+    /**
+     * Getter for beginQuantity.
+     *
+     * @return beginQuantity
+     */
+    public BigDecimal getBeginQuantity() {
+        return beginQuantity;
+    }
+
+    /**
+     * Getter for makerFee.
+     *
+     * @return makerFee
+     */
+    public BigDecimal getMakerFee() {
+        return makerFee;
+    }
+
+    /**
+     * Getter for takerFee.
+     *
+     * @return takerFee
+     */
+    public BigDecimal getTakerFee() {
+        return takerFee;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final FeeTierDTO that = (FeeTierDTO) o;
+        return Objects.equals(beginQuantity, that.beginQuantity)
+                && Objects.equals(makerFee, that.makerFee)
+                && Objects.equals(takerFee, that.takerFee);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(beginQuantity, makerFee, takerFee);
+    }
+
+    @Override
+    public String toString() {
+        return "FeeTierDTO{"
+                + " beginQuantity=" + beginQuantity
+                + ", makerFee=" + makerFee
+                + ", takerFee=" + takerFee
+                + '}';
+    }
+
+}
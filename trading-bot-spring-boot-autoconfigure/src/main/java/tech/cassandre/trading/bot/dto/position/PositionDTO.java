@@ -1,5 +1,6 @@
 package tech.cassandre.trading.bot.dto.position;
 
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.dto.util.GainDTO;
@@ -9,7 +10,9 @@ import tech.cassandre.trading.bot.util.exception.PositionException;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static tech.cassandre.trading.bot.dto.market.CompactTickerDTO.NO_VALUE;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
 import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
@@ -18,14 +21,17 @@ import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
 /**
  * DTO representing a position.
  * A position is the amount of a security, commodity or currency which is owned by an individual, dealer, institution, or other fiscal entity.
+ * <p>
+ * A position is updated by the strategy, ticker and trade threads : its status goes from OPENING to OPENED, CLOSING
+ * and CLOSED with compare and set operations, without locks.
  */
 public class PositionDTO {
 
     /** An identifier that uniquely identifies the position. */
     private final long id;
 
-    /** Position status. */
-    private PositionStatusDTO status = OPENING;
+    /** Position state (status, trades, close order id and trigger prices) - replaced as a whole on each transition. */
+    private final AtomicReference<State> state = new AtomicReference<>(State.OPENING_STATE);
 
     /** Position rules. */
     private final PositionRulesDTO rules;
@@ -33,14 +39,8 @@ public class PositionDTO {
     /** The order id that opened the position. */
     private final String openOrderId;
 
-    /** The trade that opened the position. */
-    private TradeDTO openTrade;
-
-    /** The order id that closed the position. */
-    private String closeOrderId;
-
-    /** The trade that closed the position. */
-    private TradeDTO closeTrade;
+    /** Trigger prices as unscaled values, for the last scale asked (replaced when the state or the scale changes). */
+    private volatile UnscaledTriggers unscaledTriggers;
 
     /** Percentage. */
     private static final int ONE_HUNDRED = 100;
@@ -62,35 +62,83 @@ public class PositionDTO {
     }
 
     /**
-     * Setter for closeOrderId.
+     * Setter for closeOrderId (status goes from OPENED to CLOSING).
      *
      * @param newCloseOrderId the closeOrderId to set
      */
     public final void setCloseOrderId(final String newCloseOrderId) {
-        // This method should only be called when in status OPENED.
-        if (status != OPENED) {
-            throw new PositionException("Impossible to set close order id for position " + id);
-        }
-        status = CLOSING;
-        closeOrderId = newCloseOrderId;
+        State current;
+        do {
+            current = state.get();
+            // This method should only be called when in status OPENED.
+            if (current.status != OPENED) {
+                throw new PositionException("Impossible to set close order id for position " + id);
+            }
+        } while (!state.compareAndSet(current, current.closing(newCloseOrderId)));
     }
 
     /**
      * Method called by on every trade update.
      *
      * @param trade trade
+     * @return true if the trade changed the position status
+     */
+    public boolean tradeUpdate(final TradeDTO trade) {
+        State current;
+        State next;
+        do {
+            current = state.get();
+            if (current.status == OPENING && trade.getOrderId().equals(openOrderId)) {
+                // If status is OPENING and the trade for the open order arrives ==> status = OPENED.
+                next = current.opened(trade, getStopGainPrice(trade), getStopLossPrice(trade));
+            } else if (current.status == CLOSING && trade.getOrderId().equals(current.closeOrderId)) {
+                // If status is CLOSING and the trade for the close order arrives ==> status = CLOSED.
+                next = current.closed(trade);
+            } else {
+                return false;
+            }
+        } while (!state.compareAndSet(current, next));
+        return true;
+    }
+
+    /**
+     * Computes the price triggering the stop gain rule from the open trade price.
+     *
+     * @param trade open trade
+     * @return stop gain price (null if there is no stop gain rule)
      */
-    public void tradeUpdate(final TradeDTO trade) {
-        // If status is OPENING and the trade for the open order arrives ==> status = OPENED.
-        if (trade.getOrderId().equals(openOrderId) && status == OPENING) {
-            openTrade = trade;
-            status = OPENED;
+    private BigDecimal getStopGainPrice(final TradeDTO trade) {
+        // How trigger prices are computed ?
+        //  - Bought 10 ETH with a price of 5, stop gain at 20% and stop loss at 10%.
+        //  - Stop gain price = 5 * (1 + 20/100) = 6.
+        //  - Stop loss price = 5 * (1 - 10/100) = 4.5.
+        if (trade.getPrice() != null && rules.isStopGainPercentageSet()) {
+            return trade.getPrice().multiply(BigDecimal.ONE.add(toRatio(rules.getStopGainPercentage())));
         }
-        // If status is CLOSING and the trade for the close order arrives ==> status = CLOSED.
-        if (trade.getOrderId().equals(closeOrderId) && status == CLOSING) {
-            closeTrade = trade;
-            status = CLOSED;
+        return null;
+    }
+
+    /**
+     * Computes the price triggering the stop loss rule from the open trade price.
+     *
+     * @param trade open trade
+     * @return stop loss price (null if there is no stop loss rule)
+     */
+    private BigDecimal getStopLossPrice(final TradeDTO trade) {
+        if (trade.getPrice() != null && rules.isStopLossPercentageSet()) {
+            return trade.getPrice().multiply(BigDecimal.ONE.subtract(toRatio(rules.getStopLossPercentage())));
         }
+        return null;
+    }
+
+    /**
+     * Converts a percentage to a ratio.
+     *
+     * @param percentage percentage
+     * @return ratio
+     */
+    private static BigDecimal toRatio(final float percentage) {
+        return new BigDecimal(Float.toString(percentage)).divide(BigDecimal.valueOf(ONE_HUNDRED));
     }
 
     /**
@@ -100,23 +148,55 @@ public class PositionDTO {
      * @return true if the rules says the position should be closed.
      */
     public boolean shouldBeClosed(final TickerDTO ticker) {
+        final State current = state.get();
         // The status must be OPENED to be closed.
         // The currency pair of the ticker must be the same than the currency pair of the open trade.
-        if (status != OPENED || !ticker.getCurrencyPair().equals(openTrade.getCurrencyPair())) {
+        if (current.status != OPENED || !ticker.getCurrencyPair().equals(current.openTrade.getCurrencyPair()) || ticker.getAsk() == null) {
             return false;
         } else {
-            // How gain calculation works ?
-            //  - Bought 10 ETH with a price of 5 -> Amount of 50.
-            //  - Sold 10 ETH with a price of 6 -> Amount of 60.
-            //  Gain = (6-5)/5 = 20%.
-            float gain = (ticker.getAsk().subtract(openTrade.getPrice()))
-                    .divide(openTrade.getPrice(), BIGINTEGER_SCALE, RoundingMode.FLOOR)
-                    .floatValue() * ONE_HUNDRED;
+            // Check with max gain and max lost trigger prices.
+            return current.stopGainPrice != null && ticker.getAsk().compareTo(current.stopGainPrice) >= 0
+                    || current.stopLossPrice != null && ticker.getAsk().compareTo(current.stopLossPrice) <= 0;
+        }
+    }
 
-            // Check with max gain and max lost rules.
-            return rules.isStopGainPercentageSet() && gain >= rules.getStopGainPercentage()
-                    || rules.isStopLossPercentageSet() && gain <= -rules.getStopLossPercentage();
+    /**
+     * Returns true if the position should be closed - same rules as {@link #shouldBeClosed(TickerDTO)}, computed
+     * on unscaled values.
+     *
+     * @param ticker compact ticker
+     * @return true if the rules says the position should be closed.
+     */
+    public final boolean shouldBeClosed(final CompactTickerDTO ticker) {
+        final State current = state.get();
+        if (current.status != OPENED || !ticker.getCurrencyPair().equals(current.openTrade.getCurrencyPair()) || ticker.getAsk() == NO_VALUE) {
+            return false;
         }
+        final UnscaledTriggers triggers = getUnscaledTriggers(current, ticker.getPriceScale());
+        return triggers.stopGainPrice != NO_VALUE && ticker.getAsk() >= triggers.stopGainPrice
+                || triggers.stopLossPrice != NO_VALUE && ticker.getAsk() <= triggers.stopLossPrice;
+    }
+
+    /**
+     * Returns the trigger prices of a state as unscaled values.
+     * The stop gain price is rounded up and the stop loss price down : a price with this scale crosses the rounded
+     * trigger if and only if it crosses the exact one.
+     *
+     * @param current state
+     * @param scale   scale
+     * @return unscaled trigger prices
+     */
+    private UnscaledTriggers getUnscaledTriggers(final State current, final int scale) {
+        final UnscaledTriggers triggers = unscaledTriggers;
+        if (triggers != null && triggers.state == current && triggers.scale == scale) {
+            return triggers;
+        }
+        final UnscaledTriggers newTriggers = new UnscaledTriggers(current,
+                scale,
+                CompactTickerDTO.toUnscaledValue(current.stopGainPrice, scale, RoundingMode.CEILING),
+                CompactTickerDTO.toUnscaledValue(current.stopLossPrice, scale, RoundingMode.FLOOR));
+        unscaledTriggers = newTriggers;
+        return newTriggers;
     }
 
     /**
@@ -126,7 +206,10 @@ public class PositionDTO {
      * @return gain
      */
     public GainDTO getGain() {
-        if (status == CLOSED) {
+        final State current = state.get();
+        if (current.status == CLOSED) {
+            final TradeDTO openTrade = current.openTrade;
+            final TradeDTO closeTrade = current.closeTrade;
             // Gain calculation for currency pair : ETH-BTC
             // The first listed currency of a currency pair is called the base currency.
             // The second currency is called the quote currency.
@@ -171,7 +254,16 @@ public class PositionDTO {
      * @return status
      */
     public final PositionStatusDTO getStatus() {
-        return status;
+        return state.get().status;
+    }
+
+    /**
+     * Getter for rules.
+     *
+     * @return rules
+     */
+    public final PositionRulesDTO getRules() {
+        return rules;
     }
 
     /**
@@ -180,7 +272,7 @@ public class PositionDTO {
      * @return openTrade
      */
     public final TradeDTO getOpenTrade() {
-        return openTrade;
+        return state.get().openTrade;
     }
 
     /**
@@ -189,7 +281,45 @@ public class PositionDTO {
      * @return closeTrade
      */
     public final TradeDTO getCloseTrade() {
-        return closeTrade;
+        return state.get().closeTrade;
+    }
+
+    /**
+     * Getter for stopGainPrice.
+     *
+     * @return price triggering the stop gain rule (null if not opened or no stop gain rule)
+     */
+    public final BigDecimal getStopGainPrice() {
+        return state.get().stopGainPrice;
+    }
+
+    /**
+     * Getter for stopLossPrice.
+     *
+     * @return price triggering the stop loss rule (null if not opened or no stop loss rule)
+     */
+    public final BigDecimal getStopLossPrice() {
+        return state.get().stopLossPrice;
+    }
+
+    /**
+     * Returns the stop gain price as an unscaled value (rounded up).
+     *
+     * @param scale scale
+     * @return unscaled stop gain price ({@link CompactTickerDTO#NO_VALUE} if not opened or no stop gain rule)
+     */
+    public final long getStopGainPrice(final int scale) {
+        return getUnscaledTriggers(state.get(), scale).stopGainPrice;
+    }
+
+    /**
+     * Returns the stop loss price as an unscaled value (rounded down).
+     *
+     * @param scale scale
+     * @return unscaled stop loss price ({@link CompactTickerDTO#NO_VALUE} if not opened or no stop loss rule)
+     */
+    public final long getStopLossPrice(final int scale) {
+        return getUnscaledTriggers(state.get(), scale).stopLossPrice;
     }
 
     /**
@@ -207,7 +337,7 @@ public class PositionDTO {
      * @return closeOrderId
      */
     public final String getCloseOrderId() {
-        return closeOrderId;
+        return state.get().closeOrderId;
     }
 
     @Override
@@ -219,7 +349,7 @@ public class PositionDTO {
             return false;
         }
         PositionDTO that = (PositionDTO) o;
-        return id == that.id && status == that.status;
+        return id == that.id && getStatus() == that.getStatus();
     }
 
     @Override
@@ -229,14 +359,134 @@ public class PositionDTO {
 
     @Override
     public final String toString() {
+        final State current = state.get();
         return "PositionDTO{"
                 + " id=" + id
-                + ", status=" + status
+                + ", status=" + current.status
                 + ", openOrderId='" + openOrderId + '\''
-                + ", openTrade=" + openTrade
-                + ", closeOrderId='" + closeOrderId + '\''
-                + ", closeTrade=" + closeTrade
+                + ", openTrade=" + current.openTrade
+                + ", closeOrderId='" + current.closeOrderId + '\''
+                + ", closeTrade=" + current.closeTrade
                 + '}';
     }
 
+    /**
+     * Immutable position state - a transition creates a new state, published with a compare and set.
+     */
+    private static final class State {
+
+        /** Initial state. */
+        private static final State OPENING_STATE = new State(OPENING, null, null, null, null, null);
+
+        /** Position status. */
+        private final PositionStatusDTO status;
+
+        /** The trade that opened the position. */
+        private final TradeDTO openTrade;
+
+        /** Price at or above which the stop gain rule closes the position (computed when the position is opened). */
+        private final BigDecimal stopGainPrice;
+
+        /** Price at or below which the stop loss rule closes the position (computed when the position is opened). */
+        private final BigDecimal stopLossPrice;
+
+        /** The order id that closed the position. */
+        private final String closeOrderId;
+
+        /** The trade that closed the position. */
+        private final TradeDTO closeTrade;
+
+        /**
+         * Constructor.
+         *
+         * @param newStatus        status
+         * @param newOpenTrade     open trade
+         * @param newStopGainPrice stop gain price
+         * @param newStopLossPrice stop loss price
+         * @param newCloseOrderId  close order id
+         * @param newCloseTrade    close trade
+         */
+        @SuppressWarnings("checkstyle:ParameterNumber")
+        private State(final PositionStatusDTO newStatus,
+                      final TradeDTO newOpenTrade,
+                      final BigDecimal newStopGainPrice,
+                      final BigDecimal newStopLossPrice,
+                      final String newCloseOrderId,
+                      final TradeDTO newCloseTrade) {
+            this.status = newStatus;
+            this.openTrade = newOpenTrade;
+            this.stopGainPrice = newStopGainPrice;
+            this.stopLossPrice = newStopLossPrice;
+            this.closeOrderId = newCloseOrderId;
+            this.closeTrade = newCloseTrade;
+        }
+
+        /**
+         * Returns the OPENED state.
+         *
+         * @param newOpenTrade     open trade
+         * @param newStopGainPrice stop gain price
+         * @param newStopLossPrice stop loss price
+         * @return state
+         */
+        private State opened(final TradeDTO newOpenTrade, final BigDecimal newStopGainPrice, final BigDecimal newStopLossPrice) {
+            return new State(OPENED, newOpenTrade, newStopGainPrice, newStopLossPrice, null, null);
+        }
+
+        /**
+         * Returns the CLOSING state.
+         *
+         * @param newCloseOrderId close order id
+         * @return state
+         */
+        private State closing(final String newCloseOrderId) {
+            return new State(CLOSING, openTrade, stopGainPrice, stopLossPrice, newCloseOrderId, null);
+        }
+
+        /**
+         * Returns the CLOSED state.
+         *
+         * @param newCloseTrade close trade
+         * @return state
+         */
+        private State closed(final TradeDTO newCloseTrade) {
+            return new State(CLOSED, openTrade, stopGainPrice, stopLossPrice, closeOrderId, newCloseTrade);
+        }
+
+    }
+
+    /**
+     * Trigger prices of a state as unscaled values.
+     */
+    private static final class UnscaledTriggers {
+
+        /** State the trigger prices come from. */
+        private final State state;
+
+        /** Scale. */
+        private final int scale;
+
+        /** Unscaled stop gain price. */
+        private final long stopGainPrice;
+
+        /** Unscaled stop loss price. */
+        private final long stopLossPrice;
+
+        /**
+         * Constructor.
+         *
+         * @param newState         state
+         * @param newScale         scale
+         * @param newStopGainPrice unscaled stop gain price
+         * @param newStopLossPrice unscaled stop loss price
+         */
+        private UnscaledTriggers(final State newState, final int newScale, final long newStopGainPrice, final long newStopLossPrice) {
+            this.state = newState;
+            this.scale = newScale;
+            this.stopGainPrice = newStopGainPrice;
+            this.stopLossPrice = newStopLossPrice;
+        }
+
+    }
+
 }
@@ -0,0 +1,43 @@
+package tech.cassandre.trading.bot.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Entity repository - stores entities by id, a saved entity replaces the previous one with the same id.
+ *
+ * @param <T> entity type
+ */
+public interface EntityRepository<T> {
+
+    /**
+     * Saves entities (written together).
+     *
+     * @param entities entities
+     */
+    void saveAll(Collection<T> entities);
+
+    /**
+     * Returns an entity.
+     *
+     * @param id entity id
+     * @return entity
+     */
+    Optional<T> findById(String id);
+
+    /**
+     * Returns all the entities, in the order of their first save.
+     *
+     * @return entities
+     */
+    List<T> findAll();
+
+    /**
+     * Returns the number of entities.
+     *
+     * @return number of entities
+     */
+    long count();
+
+}
@@ -0,0 +1,728 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity repository stored in an append-only journal and a snapshot.
+ * <p>
+ * Each save appends the entities to the journal, one length-prefixed record per entity, flushes the journal once and
+ * forces it to the disk according to the {@link FsyncPolicy}. Every snapshot records, the entities are compacted in
+ * a snapshot (written aside then renamed) and the journal restarts empty.
+ * <p>
+ * When the repository is created, the snapshot then the journal are read and the last record of each id wins. A
+ * record truncated by a crash is removed from the journal. The last record of each entity is kept in memory so reads
+ * never touch the files : records are decoded when read (each read returns a new instance), so the records replaced
+ * in the journal are never decoded and an entity takes a few dozen bytes instead of its objects.
+ *
+ * @param <T> entity type
+ */
+public abstract class FileEntityRepository<T> extends Base implements EntityRepository<T>, Closeable {
+
+    /** Default number of journal records between two snapshots. */
+    public static final long DEFAULT_SNAPSHOT_RECORDS = 100_000;
+
+    /** Snapshot file suffix. */
+    public static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    /** File header ("CASS"). */
+    private static final int MAGIC_NUMBER = 0x43415353;
+
+    /** File format version. */
+    private static final int FORMAT_VERSION = 1;
+
+    /** Header size (bytes). */
+    private static final int HEADER_SIZE = 8;
+
+    /** Size of a record length (bytes). */
+    private static final int RECORD_LENGTH_SIZE = 4;
+
+    /** Maximum size of a record (bytes). */
+    private static final int MAXIMUM_RECORD_SIZE = 1024 * 1024;
+
+    /** File buffer size (bytes). */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Delay between two fsync with the periodic policy (ns). */
+    private static final long FSYNC_PERIOD = TimeUnit.SECONDS.toNanos(1);
+
+    /** Null big decimal. */
+    private static final byte NULL_VALUE = 0;
+
+    /** Big decimal with an unscaled value fitting in a long. */
+    private static final byte LONG_VALUE = 1;
+
+    /** Big decimal with a big unscaled value. */
+    private static final byte BIG_VALUE = 2;
+
+    /** Zones by id (parsing a zone id is slow). */
+    private static final Map<String, ZoneId> ZONES = new ConcurrentHashMap<>();
+
+    /** Values of the fields with few different values (currency pairs, currencies...) - one instance per value. */
+    private static final Map<String, String> SHARED_STRINGS = new ConcurrentHashMap<>();
+
+    /** Journal file. */
+    private final Path file;
+
+    /** Snapshot file. */
+    private final Path snapshotFile;
+
+    /** Fsync policy. */
+    private final FsyncPolicy fsyncPolicy;
+
+    /** Number of journal records written before a snapshot. */
+    private final long snapshotRecords;
+
+    /** Last record of each entity, by id. */
+    private final Map<String, byte[]> records = new LinkedHashMap<>();
+
+    /** Buffer used to serialize a record. */
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+
+    /** Output serializing a record in the record buffer. */
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+
+    /** Stream reading a record. */
+    private final RecordInputStream recordInputStream = new RecordInputStream();
+
+    /** Input decoding a record from the record stream. */
+    private final DataInputStream recordInput = new DataInputStream(recordInputStream);
+
+    /** Journal channel. */
+    private final FileChannel channel;
+
+    /** Journal output. */
+    private final DataOutputStream output;
+
+    /** Number of records in the journal. */
+    private long journalRecords;
+
+    /** Number of snapshots written. */
+    private long snapshots;
+
+    /** Last time the journal was forced to the disk (ns). */
+    private long lastFsync = System.nanoTime();
+
+    /** Time spent loading the files (ns). */
+    private final long loadDuration;
+
+    /**
+     * Constructor - journal forced to the disk every second.
+     *
+     * @param newFile journal file
+     */
+    public FileEntityRepository(final Path newFile) {
+        this(newFile, FsyncPolicy.PERIODIC, DEFAULT_SNAPSHOT_RECORDS);
+    }
+
+    /**
+     * Constructor - loads the entities stored in the snapshot and in the journal.
+     *
+     * @param newFile            journal file
+     * @param newFsyncPolicy     fsync policy
+     * @param newSnapshotRecords number of journal records written before a snapshot
+     */
+    public FileEntityRepository(final Path newFile, final FsyncPolicy newFsyncPolicy, final long newSnapshotRecords) {
+        this.file = newFile;
+        this.snapshotFile = newFile.resolveSibling(newFile.getFileName() + SNAPSHOT_SUFFIX);
+        this.fsyncPolicy = newFsyncPolicy;
+        this.snapshotRecords = newSnapshotRecords;
+        try {
+            if (newFile.getParent() != null) {
+                Files.createDirectories(newFile.getParent());
+            }
+
+            // Loading the snapshot then the journal.
+            final long start = System.nanoTime();
+            if (Files.exists(snapshotFile)) {
+                load(snapshotFile);
+            }
+            long journalSize = 0;
+            if (Files.exists(newFile)) {
+                journalSize = load(newFile);
+            }
+            loadDuration = System.nanoTime() - start;
+
+            // The invalid end of the journal is removed, new records are appended after the last valid one.
+            channel = FileChannel.open(newFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            if (journalSize < channel.size()) {
+                getLogger().warn("FileEntityRepository - {} bytes removed at the end of {}", channel.size() - journalSize, newFile);
+                channel.truncate(journalSize);
+            }
+            channel.position(journalSize);
+            output = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+            if (journalSize == 0) {
+                writeHeader(output);
+                output.flush();
+            }
+            getLogger().info("FileEntityRepository - {} entities loaded from {} in {} ms ({} journal records)",
+                    records.size(),
+                    newFile,
+                    TimeUnit.NANOSECONDS.toMillis(loadDuration),
+                    journalRecords);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to open " + newFile, e);
+        }
+    }
+
+    /**
+     * Returns the id of an entity.
+     *
+     * @param entity entity
+     * @return id
+     */
+    protected abstract String getId(T entity);
+
+    /**
+     * Writes an entity.
+     *
+     * @param entity entity
+     * @param out    output
+     * @throws IOException write error
+     */
+    protected abstract void write(T entity, DataOutput out) throws IOException;
+
+    /**
+     * Reads an entity.
+     *
+     * @param in input
+     * @return entity
+     * @throws IOException read error
+     */
+    protected abstract T read(DataInput in) throws IOException;
+
+    /**
+     * Reads the id of an entity, without the rest of the entity (the id is the first field written).
+     *
+     * @param in input
+     * @return id
+     * @throws IOException read error
+     */
+    protected abstract String readId(DataInput in) throws IOException;
+
+    /**
+     * Reads the entities stored in a file.
+     *
+     * @param source snapshot or journal
+     * @return size of the valid part of the file (bytes)
+     * @throws IOException read error
+     */
+    private long load(final Path source) throws IOException {
+        final boolean journal = source.equals(file);
+        long validSize;
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ)) {
+            // The buffer holds the largest record, records are read in place.
+            final ByteBuffer buffer = ByteBuffer.allocate(MAXIMUM_RECORD_SIZE);
+            buffer.flip();
+            if (!fill(in, buffer, HEADER_SIZE)) {
+                // File created without its header (crash at creation).
+                return 0;
+            }
+            if (buffer.getInt() != MAGIC_NUMBER || buffer.getInt() != FORMAT_VERSION) {
+                throw new IOException("Unknown file format : " + source);
+            }
+            validSize = HEADER_SIZE;
+            while (fill(in, buffer, RECORD_LENGTH_SIZE)) {
+                final int length = buffer.getInt();
+                if (length < 0 || length > MAXIMUM_RECORD_SIZE) {
+                    getLogger().warn("FileEntityRepository - Invalid record in {}, the end of the file is ignored", source);
+                    break;
+                }
+                if (!fill(in, buffer, length)) {
+                    // Last record truncated.
+                    break;
+                }
+                final byte[] record = new byte[length];
+                buffer.get(record);
+                recordInputStream.setRecord(record, length);
+                records.put(readId(recordInput), record);
+                validSize += RECORD_LENGTH_SIZE + length;
+                if (journal) {
+                    journalRecords++;
+                }
+            }
+        }
+        return validSize;
+    }
+
+    /**
+     * Reads the file until the buffer holds a number of bytes.
+     *
+     * @param in     file
+     * @param buffer buffer (ready to be read)
+     * @param size   number of bytes needed
+     * @return false if the end of the file was reached before
+     * @throws IOException read error
+     */
+    private static boolean fill(final FileChannel in, final ByteBuffer buffer, final int size) throws IOException {
+        if (buffer.remaining() >= size) {
+            return true;
+        }
+        buffer.compact();
+        try {
+            while (buffer.position() < size) {
+                if (in.read(buffer) < 0) {
+                    return false;
+                }
+            }
+            return true;
+        } finally {
+            buffer.flip();
+        }
+    }
+
+    /**
+     * Writes the file header.
+     *
+     * @param out output
+     * @throws IOException write error
+     */
+    private static void writeHeader(final DataOutput out) throws IOException {
+        out.writeInt(MAGIC_NUMBER);
+        out.writeInt(FORMAT_VERSION);
+    }
+
+    /**
+     * Writes a record (length and content).
+     *
+     * @param record record
+     * @param out    output
+     * @throws IOException write error
+     */
+    private static void writeRecord(final byte[] record, final DataOutputStream out) throws IOException {
+        out.writeInt(record.length);
+        out.write(record);
+    }
+
+    /**
+     * Encodes an entity.
+     *
+     * @param entity entity
+     * @return record
+     * @throws IOException write error
+     */
+    private byte[] encode(final T entity) throws IOException {
+        recordBuffer.reset();
+        write(entity, recordOutput);
+        return recordBuffer.toByteArray();
+    }
+
+    /**
+     * Decodes a record.
+     *
+     * @param record record
+     * @return entity
+     */
+    private T decode(final byte[] record) {
+        recordInputStream.setRecord(record, record.length);
+        try {
+            return read(recordInput);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to read a record of " + file, e);
+        }
+    }
+
+    @Override
+    public final synchronized void saveAll(final Collection<T> newEntities) {
+        try {
+            for (T entity : newEntities) {
+                final byte[] record = encode(entity);
+                writeRecord(record, output);
+                records.put(getId(entity), record);
+            }
+            output.flush();
+            journalRecords += newEntities.size();
+            if (journalRecords >= snapshotRecords) {
+                snapshot();
+            } else if (fsyncPolicy == FsyncPolicy.BATCH
+                    || (fsyncPolicy == FsyncPolicy.PERIODIC && System.nanoTime() - lastFsync >= FSYNC_PERIOD)) {
+                fsync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to write in " + file, e);
+        }
+    }
+
+    /**
+     * Compacts the entities in a new snapshot and restarts the journal.
+     */
+    public final synchronized void snapshot() {
+        final long start = System.nanoTime();
+        final Path temporaryFile = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel snapshotChannel = FileChannel.open(temporaryFile,
+                    StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(snapshotChannel), BUFFER_SIZE));
+                writeHeader(out);
+                for (byte[] record : records.values()) {
+                    writeRecord(record, out);
+                }
+                out.flush();
+                snapshotChannel.force(true);
+            }
+            Files.move(temporaryFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            // The journal restarts (after a crash here, its records are read again after the snapshot, in the same order).
+            output.flush();
+            channel.truncate(0);
+            channel.position(0);
+            writeHeader(output);
+            output.flush();
+            fsync();
+            getLogger().debug("FileEntityRepository - {} entities and {} journal records compacted in {} ms",
+                    records.size(),
+                    journalRecords,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            journalRecords = 0;
+            snapshots++;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to write the snapshot of " + file, e);
+        }
+    }
+
+    /**
+     * Forces the journal to the disk.
+     *
+     * @throws IOException write error
+     */
+    private void fsync() throws IOException {
+        channel.force(false);
+        lastFsync = System.nanoTime();
+    }
+
+    @Override
+    public final synchronized Optional<T> findById(final String id) {
+        return Optional.ofNullable(records.get(id)).map(this::decode);
+    }
+
+    @Override
+    public final synchronized List<T> findAll() {
+        final List<T> entities = new ArrayList<>(records.size());
+        records.values().forEach(record -> entities.add(decode(record)));
+        return entities;
+    }
+
+    /**
+     * Returns the entities whose record is accepted by a filter, in the order of their first save - the other records
+     * are not decoded.
+     *
+     * @param filter filter reading the first fields of a record
+     * @return entities
+     */
+    public final synchronized List<T> findAll(final RecordFilter filter) {
+        final List<T> entities = new ArrayList<>();
+        try {
+            for (byte[] record : records.values()) {
+                recordInputStream.setRecord(record, record.length);
+                if (filter.accept(recordInput)) {
+                    entities.add(decode(record));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to read a record of " + file, e);
+        }
+        return entities;
+    }
+
+    /**
+     * Returns the ids of the entities, in the order of their first save.
+     *
+     * @return ids
+     */
+    public final synchronized List<String> findAllIds() {
+        return new ArrayList<>(records.keySet());
+    }
+
+    @Override
+    public final synchronized long count() {
+        return records.size();
+    }
+
+    @Override
+    public final synchronized void close() {
+        try {
+            output.flush();
+            if (fsyncPolicy != FsyncPolicy.NEVER) {
+                fsync();
+            }
+            output.close();
+        } catch (IOException e) {
+            getLogger().error("FileEntityRepository - Error closing {} : {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Getter for file.
+     *
+     * @return file
+     */
+    public final Path getFile() {
+        return file;
+    }
+
+    /**
+     * Getter for snapshotFile.
+     *
+     * @return snapshotFile
+     */
+    public final Path getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Returns the number of records in the journal (written since the last snapshot).
+     *
+     * @return journal records
+     */
+    public final synchronized long getJournalRecords() {
+        return journalRecords;
+    }
+
+    /**
+     * Returns the number of snapshots written since the repository was created.
+     *
+     * @return snapshots
+     */
+    public final synchronized long getSnapshots() {
+        return snapshots;
+    }
+
+    /**
+     * Returns the time spent loading the snapshot and the journal.
+     *
+     * @return load duration (ns)
+     */
+    public final long getLoadDuration() {
+        return loadDuration;
+    }
+
+    /**
+     * Writes a string that can be null.
+     *
+     * @param value value
+     * @param out   output
+     * @throws IOException write error
+     */
+    protected static void writeString(final String value, final DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string that can be null.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException read error
+     */
+    protected static String readString(final DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            return in.readUTF();
+        }
+        return null;
+    }
+
+    /**
+     * Reads a string that can be null and that has few different values (currency pair, currency...) : all the
+     * entities loaded share the same instance, instead of keeping one copy per entity.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException read error
+     */
+    protected static String readSharedString(final DataInput in) throws IOException {
+        final String value = readString(in);
+        if (value != null) {
+            return SHARED_STRINGS.computeIfAbsent(value, v -> v);
+        }
+        return null;
+    }
+
+    /**
+     * Writes a big decimal that can be null (scale and unscaled value).
+     *
+     * @param value value
+     * @param out   output
+     * @throws IOException write error
+     */
+    protected static void writeBigDecimal(final BigDecimal value, final DataOutput out) throws IOException {
+        if (value == null) {
+            out.writeByte(NULL_VALUE);
+        } else if (value.unscaledValue().bitLength() < Long.SIZE) {
+            out.writeByte(LONG_VALUE);
+            out.writeInt(value.scale());
+            out.writeLong(value.unscaledValue().longValue());
+        } else {
+            final byte[] unscaledValue = value.unscaledValue().toByteArray();
+            out.writeByte(BIG_VALUE);
+            out.writeInt(value.scale());
+            out.writeInt(unscaledValue.length);
+            out.write(unscaledValue);
+        }
+    }
+
+    /**
+     * Reads a big decimal that can be null.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException read error
+     */
+    protected static BigDecimal readBigDecimal(final DataInput in) throws IOException {
+        final byte type = in.readByte();
+        if (type == NULL_VALUE) {
+            return null;
+        }
+        final int scale = in.readInt();
+        if (type == LONG_VALUE) {
+            return BigDecimal.valueOf(in.readLong(), scale);
+        }
+        final byte[] unscaledValue = new byte[in.readInt()];
+        in.readFully(unscaledValue);
+        return new BigDecimal(new BigInteger(unscaledValue), scale);
+    }
+
+    /**
+     * Writes a date that can be null (instant and zone).
+     *
+     * @param value value
+     * @param out   output
+     * @throws IOException write error
+     */
+    protected static void writeZonedDateTime(final ZonedDateTime value, final DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value.toEpochSecond());
+            out.writeInt(value.getNano());
+            out.writeUTF(value.getZone().getId());
+        }
+    }
+
+    /**
+     * Reads a date that can be null.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException read error
+     */
+    protected static ZonedDateTime readZonedDateTime(final DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            final Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            return ZonedDateTime.ofInstant(instant, ZONES.computeIfAbsent(in.readUTF(), ZoneId::of));
+        }
+        return null;
+    }
+
+    /**
+     * Writes an enum value that can be null.
+     *
+     * @param value value
+     * @param out   output
+     * @param <E>   enum type
+     * @throws IOException write error
+     */
+    protected static <E extends Enum<E>> void writeEnum(final E value, final DataOutput out) throws IOException {
+        if (value != null) {
+            writeString(value.name(), out);
+        } else {
+            writeString(null, out);
+        }
+    }
+
+    /**
+     * Reads an enum value that can be null.
+     *
+     * @param in       input
+     * @param enumType enum type
+     * @param <E>      enum type
+     * @return value
+     * @throws IOException read error
+     */
+    protected static <E extends Enum<E>> E readEnum(final DataInput in, final Class<E> enumType) throws IOException {
+        final String value = readString(in);
+        if (value != null) {
+            return Enum.valueOf(enumType, value);
+        }
+        return null;
+    }
+
+    /**
+     * Record filter - reads the first fields of a record to decide if the entity is decoded.
+     */
+    @FunctionalInterface
+    public interface RecordFilter {
+
+        /**
+         * Returns true if the entity must be decoded.
+         *
+         * @param in input positioned at the start of the record
+         * @return true to decode the entity
+         * @throws IOException read error
+         */
+        boolean accept(DataInput in) throws IOException;
+
+    }
+
+    /**
+     * Input stream reading a record - reused for all the records of a file.
+     */
+    private static final class RecordInputStream extends ByteArrayInputStream {
+
+        /**
+         * Constructor.
+         */
+        private RecordInputStream() {
+            super(new byte[0]);
+        }
+
+        /**
+         * Sets the record to read.
+         *
+         * @param newRecord record buffer
+         * @param newLength record length
+         */
+        private void setRecord(final byte[] newRecord, final int newLength) {
+            buf = newRecord;
+            pos = 0;
+            count = newLength;
+            mark = 0;
+        }
+
+    }
+
+}
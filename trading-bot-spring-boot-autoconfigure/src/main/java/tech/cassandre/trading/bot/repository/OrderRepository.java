@@ -0,0 +1,82 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Order repository.
+ */
+public final class OrderRepository extends FileEntityRepository<Order> {
+
+    /**
+     * Constructor.
+     *
+     * @param newFile journal file
+     */
+    public OrderRepository(final Path newFile) {
+        super(newFile);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newFile            journal file
+     * @param newFsyncPolicy     fsync policy
+     * @param newSnapshotRecords number of journal records written before a snapshot
+     */
+    public OrderRepository(final Path newFile, final FsyncPolicy newFsyncPolicy, final long newSnapshotRecords) {
+        super(newFile, newFsyncPolicy, newSnapshotRecords);
+    }
+
+    @Override
+    protected String getId(final Order entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected void write(final Order entity, final DataOutput out) throws IOException {
+        writeString(entity.getId(), out);
+        writeEnum(entity.getType(), out);
+        writeBigDecimal(entity.getOriginalAmount(), out);
+        writeString(entity.getCurrencyPair(), out);
+        writeString(entity.getUserReference(), out);
+        writeZonedDateTime(entity.getTimestamp(), out);
+        writeEnum(entity.getStatus(), out);
+        writeBigDecimal(entity.getCumulativeAmount(), out);
+        writeBigDecimal(entity.getAveragePrice(), out);
+        writeBigDecimal(entity.getFee(), out);
+        writeString(entity.getLeverage(), out);
+        writeBigDecimal(entity.getLimitPrice(), out);
+    }
+
+    @Override
+    protected String readId(final DataInput in) throws IOException {
+        return readString(in);
+    }
+
+    @Override
+    protected Order read(final DataInput in) throws IOException {
+        final Order order = new Order();
+        order.setId(readString(in));
+        order.setType(readEnum(in, OrderTypeDTO.class));
+        order.setOriginalAmount(readBigDecimal(in));
+        order.setCurrencyPair(readSharedString(in));
+        order.setUserReference(readString(in));
+        order.setTimestamp(readZonedDateTime(in));
+        order.setStatus(readEnum(in, OrderStatusDTO.class));
+        order.setCumulativeAmount(readBigDecimal(in));
+        order.setAveragePrice(readBigDecimal(in));
+        order.setFee(readBigDecimal(in));
+        order.setLeverage(readSharedString(in));
+        order.setLimitPrice(readBigDecimal(in));
+        return order;
+    }
+
+}
@@ -0,0 +1,123 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.domain.Position;
+import tech.cassandre.trading.bot.dto.position.PositionStatusDTO;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Position repository (ids are the position ids as strings).
+ */
+public final class PositionRepository extends FileEntityRepository<Position> {
+
+    /**
+     * Constructor.
+     *
+     * @param newFile journal file
+     */
+    public PositionRepository(final Path newFile) {
+        super(newFile);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newFile            journal file
+     * @param newFsyncPolicy     fsync policy
+     * @param newSnapshotRecords number of journal records written before a snapshot
+     */
+    public PositionRepository(final Path newFile, final FsyncPolicy newFsyncPolicy, final long newSnapshotRecords) {
+        super(newFile, newFsyncPolicy, newSnapshotRecords);
+    }
+
+    /**
+     * Returns the positions whose stored status is not CLOSED - closed positions are not decoded.
+     *
+     * @return positions not closed
+     */
+    public List<Position> findAllNotClosed() {
+        return findAll(in -> {
+            in.readLong();
+            return readEnum(in, PositionStatusDTO.class) != PositionStatusDTO.CLOSED;
+        });
+    }
+
+    /**
+     * Returns the highest position id stored - positions are not decoded.
+     *
+     * @return position id (0 if there is none)
+     */
+    public long getLastPositionId() {
+        return findAllIds().stream().mapToLong(Long::parseLong).max().orElse(0);
+    }
+
+    @Override
+    protected String getId(final Position entity) {
+        return Long.toString(entity.getId());
+    }
+
+    @Override
+    protected void write(final Position entity, final DataOutput out) throws IOException {
+        out.writeLong(entity.getId());
+        writeEnum(entity.getStatus(), out);
+        writePercentage(entity.getStopGainPercentage(), out);
+        writePercentage(entity.getStopLossPercentage(), out);
+        writeString(entity.getOpenOrderId(), out);
+        writeString(entity.getOpenTradeId(), out);
+        writeString(entity.getCloseOrderId(), out);
+        writeString(entity.getCloseTradeId(), out);
+    }
+
+    @Override
+    protected String readId(final DataInput in) throws IOException {
+        return Long.toString(in.readLong());
+    }
+
+    @Override
+    protected Position read(final DataInput in) throws IOException {
+        final Position position = new Position();
+        position.setId(in.readLong());
+        position.setStatus(readEnum(in, PositionStatusDTO.class));
+        position.setStopGainPercentage(readPercentage(in));
+        position.setStopLossPercentage(readPercentage(in));
+        position.setOpenOrderId(readString(in));
+        position.setOpenTradeId(readString(in));
+        position.setCloseOrderId(readString(in));
+        position.setCloseTradeId(readString(in));
+        return position;
+    }
+
+    /**
+     * Writes a percentage that can be null.
+     *
+     * @param value value
+     * @param out   output
+     * @throws IOException write error
+     */
+    private static void writePercentage(final Float value, final DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeFloat(value);
+        }
+    }
+
+    /**
+     * Reads a percentage that can be null.
+     *
+     * @param in input
+     * @return value
+     * @throws IOException read error
+     */
+    private static Float readPercentage(final DataInput in) throws IOException {
+        if (in.readBoolean()) {
+            return in.readFloat();
+        }
+        return null;
+    }
+
+}
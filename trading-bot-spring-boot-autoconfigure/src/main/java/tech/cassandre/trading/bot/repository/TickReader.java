@@ -0,0 +1,430 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static tech.cassandre.trading.bot.repository.TickRecorder.AMOUNT_SCALE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.ASK;
+import static tech.cassandre.trading.bot.repository.TickRecorder.ASK_SIZE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.BID;
+import static tech.cassandre.trading.bot.repository.TickRecorder.BID_SIZE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.BYTE_ORDER;
+import static tech.cassandre.trading.bot.repository.TickRecorder.FILE_EXTENSION;
+import static tech.cassandre.trading.bot.repository.TickRecorder.FORMAT_VERSION;
+import static tech.cassandre.trading.bot.repository.TickRecorder.HEADER_SIZE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.HIGH;
+import static tech.cassandre.trading.bot.repository.TickRecorder.LAST;
+import static tech.cassandre.trading.bot.repository.TickRecorder.LOW;
+import static tech.cassandre.trading.bot.repository.TickRecorder.MAGIC_NUMBER;
+import static tech.cassandre.trading.bot.repository.TickRecorder.OPEN;
+import static tech.cassandre.trading.bot.repository.TickRecorder.PRICE_SCALE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.QUOTE_VOLUME;
+import static tech.cassandre.trading.bot.repository.TickRecorder.RECORD_SIZE;
+import static tech.cassandre.trading.bot.repository.TickRecorder.REGION_RECORDS;
+import static tech.cassandre.trading.bot.repository.TickRecorder.TIMESTAMP;
+import static tech.cassandre.trading.bot.repository.TickRecorder.VOLUME;
+import static tech.cassandre.trading.bot.repository.TickRecorder.VWAP;
+
+/**
+ * Tick reader - iterates over the ticks of a currency pair recorded by {@link TickRecorder}.
+ * <p>
+ * The reader is a cursor : {@link #next()} moves to the next tick and the getters return the values of the current
+ * tick directly from the memory-mapped files, without creating any object. {@link #toCompactTickerDTO()} and
+ * {@link #toTickerDTO()} create the DTO of the current tick when needed.
+ * <pre>
+ * try (TickReader reader = new TickReader(directory, currencyPair)) {
+ *     while (reader.next()) {
+ *         long last = reader.getLast();
+ *     }
+ * }
+ * </pre>
+ * Files are read by day, the ticks of a day in the order they were recorded.
+ */
+public class TickReader implements Closeable {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO currencyPair;
+
+    /** Files to read. */
+    private final List<Path> files;
+
+    /** Index of the next file to read. */
+    private int nextFile;
+
+    /** Current file. */
+    private FileChannel channel;
+
+    /** Number of records in the current file. */
+    private long records;
+
+    /** Number of records of the current file already mapped. */
+    private long mappedRecords;
+
+    /** Current region. */
+    private MappedByteBuffer region;
+
+    /** Offset of the current record in the current region. */
+    private int offset;
+
+    /** Number of ticks read. */
+    private long readTicks;
+
+    /**
+     * Constructor - reads all the ticks of a currency pair.
+     *
+     * @param directory       directory of the tick recorder
+     * @param newCurrencyPair currency pair
+     */
+    public TickReader(final Path directory, final CurrencyPairDTO newCurrencyPair) {
+        this(directory, newCurrencyPair, LocalDate.MIN, LocalDate.MAX);
+    }
+
+    /**
+     * Constructor - reads the ticks of a currency pair between two days (UTC).
+     *
+     * @param directory       directory of the tick recorder
+     * @param newCurrencyPair currency pair
+     * @param from            first day (included)
+     * @param to              last day (included)
+     */
+    public TickReader(final Path directory, final CurrencyPairDTO newCurrencyPair, final LocalDate from, final LocalDate to) {
+        this(newCurrencyPair, getFiles(TickRecorder.getDirectory(directory, newCurrencyPair), from, to));
+    }
+
+    /**
+     * Constructor - reads the ticks of files.
+     *
+     * @param newCurrencyPair currency pair
+     * @param newFiles        files (in reading order)
+     */
+    public TickReader(final CurrencyPairDTO newCurrencyPair, final List<Path> newFiles) {
+        this.currencyPair = newCurrencyPair;
+        this.files = newFiles;
+    }
+
+    /**
+     * Moves to the next tick.
+     *
+     * @return true if there is a tick, false if all ticks were read
+     */
+    public final boolean next() {
+        try {
+            while (region == null || !region.hasRemaining()) {
+                if (!nextRegion()) {
+                    return false;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to read " + files.get(nextFile - 1), e);
+        }
+        offset = region.position();
+        region.position(offset + RECORD_SIZE);
+        readTicks++;
+        return true;
+    }
+
+    /**
+     * Maps the next region of the current file or of the next files.
+     *
+     * @return false if there are no more records
+     * @throws IOException read error
+     */
+    private boolean nextRegion() throws IOException {
+        region = null;
+        while (channel == null || mappedRecords == records) {
+            closeChannel();
+            if (nextFile == files.size()) {
+                return false;
+            }
+            final Path file = files.get(nextFile++);
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+            records = countRecords(channel, file);
+            mappedRecords = 0;
+        }
+        final long regionRecords = Math.min(REGION_RECORDS, records - mappedRecords);
+        region = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + mappedRecords * RECORD_SIZE, regionRecords * RECORD_SIZE);
+        region.order(BYTE_ORDER);
+        mappedRecords += regionRecords;
+        return true;
+    }
+
+    /**
+     * Getter for currencyPair.
+     *
+     * @return currencyPair
+     */
+    public final CurrencyPairDTO getCurrencyPair() {
+        return currencyPair;
+    }
+
+    /**
+     * Returns the timestamp of the current tick.
+     *
+     * @return timestamp (nanoseconds since the epoch)
+     */
+    public final long getTimestamp() {
+        return region.getLong(offset + TIMESTAMP);
+    }
+
+    /**
+     * Returns the price scale of the current tick.
+     *
+     * @return price scale
+     */
+    public final int getPriceScale() {
+        return region.getInt(offset + PRICE_SCALE);
+    }
+
+    /**
+     * Returns the amount scale of the current tick.
+     *
+     * @return amount scale
+     */
+    public final int getAmountScale() {
+        return region.getInt(offset + AMOUNT_SCALE);
+    }
+
+    /**
+     * Returns the open price of the current tick.
+     *
+     * @return unscaled open price
+     */
+    public final long getOpen() {
+        return region.getLong(offset + OPEN);
+    }
+
+    /**
+     * Returns the last price of the current tick.
+     *
+     * @return unscaled last price
+     */
+    public final long getLast() {
+        return region.getLong(offset + LAST);
+    }
+
+    /**
+     * Returns the bid of the current tick.
+     *
+     * @return unscaled bid
+     */
+    public final long getBid() {
+        return region.getLong(offset + BID);
+    }
+
+    /**
+     * Returns the ask of the current tick.
+     *
+     * @return unscaled ask
+     */
+    public final long getAsk() {
+        return region.getLong(offset + ASK);
+    }
+
+    /**
+     * Returns the high of the current tick.
+     *
+     * @return unscaled high
+     */
+    public final long getHigh() {
+        return region.getLong(offset + HIGH);
+    }
+
+    /**
+     * Returns the low of the current tick.
+     *
+     * @return unscaled low
+     */
+    public final long getLow() {
+        return region.getLong(offset + LOW);
+    }
+
+    /**
+     * Returns the volume weighted average price of the current tick.
+     *
+     * @return unscaled vwap
+     */
+    public final long getVwap() {
+        return region.getLong(offset + VWAP);
+    }
+
+    /**
+     * Returns the volume of the current tick.
+     *
+     * @return unscaled volume
+     */
+    public final long getVolume() {
+        return region.getLong(offset + VOLUME);
+    }
+
+    /**
+     * Returns the quote volume of the current tick.
+     *
+     * @return unscaled quote volume
+     */
+    public final long getQuoteVolume() {
+        return region.getLong(offset + QUOTE_VOLUME);
+    }
+
+    /**
+     * Returns the bid size of the current tick.
+     *
+     * @return unscaled bid size
+     */
+    public final long getBidSize() {
+        return region.getLong(offset + BID_SIZE);
+    }
+
+    /**
+     * Returns the ask size of the current tick.
+     *
+     * @return unscaled ask size
+     */
+    public final long getAskSize() {
+        return region.getLong(offset + ASK_SIZE);
+    }
+
+    /**
+     * Returns the number of ticks read.
+     *
+     * @return read ticks
+     */
+    public final long getReadTicks() {
+        return readTicks;
+    }
+
+    /**
+     * Creates the compact ticker of the current tick.
+     *
+     * @return compact ticker
+     */
+    public final CompactTickerDTO toCompactTickerDTO() {
+        return CompactTickerDTO.builder()
+                .currencyPair(currencyPair)
+                .priceScale(getPriceScale())
+                .amountScale(getAmountScale())
+                .open(getOpen())
+                .last(getLast())
+                .bid(getBid())
+                .ask(getAsk())
+                .high(getHigh())
+                .low(getLow())
+                .vwap(getVwap())
+                .volume(getVolume())
+                .quoteVolume(getQuoteVolume())
+                .bidSize(getBidSize())
+                .askSize(getAskSize())
+                .timestamp(getTimestamp())
+                .create();
+    }
+
+    /**
+     * Creates the ticker of the current tick.
+     *
+     * @return ticker
+     */
+    public final TickerDTO toTickerDTO() {
+        return toCompactTickerDTO().toTickerDTO();
+    }
+
+    @Override
+    public final void close() {
+        region = null;
+        try {
+            closeChannel();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        nextFile = files.size();
+    }
+
+    /**
+     * Closes the current file.
+     *
+     * @throws IOException close error
+     */
+    private void closeChannel() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Returns the tick files of a currency pair directory between two days, sorted by day.
+     *
+     * @param directory currency pair directory
+     * @param from      first day (included)
+     * @param to        last day (included)
+     * @return files
+     */
+    private static List<Path> getFiles(final Path directory, final LocalDate from, final LocalDate to) {
+        if (!Files.isDirectory(directory)) {
+            return Collections.emptyList();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(FILE_EXTENSION))
+                    .filter(file -> {
+                        final String name = file.getFileName().toString();
+                        final LocalDate day = LocalDate.parse(name.substring(0, name.length() - FILE_EXTENSION.length()));
+                        return !day.isBefore(from) && !day.isAfter(to);
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Impossible to list " + directory, e);
+        }
+    }
+
+    /**
+     * Checks the header of a tick file and returns its number of records.
+     * <p>
+     * Records are written in memory-mapped regions filled with zeros and the timestamp of a record is written last :
+     * the records are followed by a record with a timestamp of 0 or by the end of the file. The first record with a
+     * timestamp of 0 is searched by dichotomy.
+     *
+     * @param channel file
+     * @param file    file path
+     * @return number of records
+     * @throws IOException read error or unknown file format
+     */
+    static long countRecords(final FileChannel channel, final Path file) throws IOException {
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+        if (channel.read(header, 0) < HEADER_SIZE
+                || header.getInt(0) != MAGIC_NUMBER
+                || header.getInt(Integer.BYTES) != FORMAT_VERSION
+                || header.getInt(2 * Integer.BYTES) != RECORD_SIZE) {
+            throw new IOException("Unknown file format : " + file);
+        }
+        final ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES).order(BYTE_ORDER);
+        long low = 0;
+        long high = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+        while (low < high) {
+            final long middle = (low + high) >>> 1;
+            timestamp.clear();
+            channel.read(timestamp, HEADER_SIZE + middle * RECORD_SIZE + TIMESTAMP);
+            if (timestamp.getLong(0) == 0) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low;
+    }
+
+}
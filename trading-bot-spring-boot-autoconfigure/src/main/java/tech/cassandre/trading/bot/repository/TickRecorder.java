@@ -0,0 +1,392 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tick recorder - appends every tick to a binary file per currency pair and per day (UTC).
+ * <p>
+ * Files are named {@code <directory>/<BASE>-<QUOTE>/<yyyy-MM-dd>.ticks}. After a header, each tick is a fixed size
+ * record : timestamp (nanoseconds since the epoch), price scale, amount scale, then the unscaled values of
+ * {@link CompactTickerDTO} (open, last, bid, ask, high, low, vwap, volume, quote volume, bid size, ask size - see
+ * {@link #RECORD_SIZE}). Records are written in memory-mapped regions of the files : recording a compact ticker with
+ * {@link #record(CompactTickerDTO)} only copies longs in memory, without allocation and without system call. Tickers
+ * received from the fluxes by {@link #tickerUpdate(TickerDTO)} are converted first, and this conversion allocates the
+ * compact ticker. A record with a timestamp of 0 marks the end of the records (regions are mapped ahead and filled
+ * with zeros), the unused part of a file is removed when it's closed.
+ * <p>
+ * Once closed, the recorder doesn't record anything : ticks received later are counted as failed.
+ * <p>
+ * Files are read with {@link TickReader}.
+ */
+public class TickRecorder extends Base implements Closeable {
+
+    /** File extension. */
+    public static final String FILE_EXTENSION = ".ticks";
+
+    /** File header ("TICK"). */
+    public static final int MAGIC_NUMBER = 0x5449434B;
+
+    /** File format version. */
+    public static final int FORMAT_VERSION = 1;
+
+    /** Header size : magic number, format version, record size and a reserved int (bytes). */
+    public static final int HEADER_SIZE = 16;
+
+    /** Timestamp offset in a record. */
+    public static final int TIMESTAMP = 0;
+
+    /** Price scale offset in a record. */
+    public static final int PRICE_SCALE = 8;
+
+    /** Amount scale offset in a record. */
+    public static final int AMOUNT_SCALE = 12;
+
+    /** Open offset in a record. */
+    public static final int OPEN = 16;
+
+    /** Last offset in a record. */
+    public static final int LAST = 24;
+
+    /** Bid offset in a record. */
+    public static final int BID = 32;
+
+    /** Ask offset in a record. */
+    public static final int ASK = 40;
+
+    /** High offset in a record. */
+    public static final int HIGH = 48;
+
+    /** Low offset in a record. */
+    public static final int LOW = 56;
+
+    /** Vwap offset in a record. */
+    public static final int VWAP = 64;
+
+    /** Volume offset in a record. */
+    public static final int VOLUME = 72;
+
+    /** Quote volume offset in a record. */
+    public static final int QUOTE_VOLUME = 80;
+
+    /** Bid size offset in a record. */
+    public static final int BID_SIZE = 88;
+
+    /** Ask size offset in a record. */
+    public static final int ASK_SIZE = 96;
+
+    /** Byte order of the files. */
+    public static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    /** Record size (bytes). */
+    public static final int RECORD_SIZE = 104;
+
+    /** Number of records in a mapped region. */
+    public static final int REGION_RECORDS = 64 * 1024;
+
+    /** Size of a mapped region (bytes). */
+    public static final long REGION_SIZE = (long) REGION_RECORDS * RECORD_SIZE;
+
+    /** Separator between the base and the quote currency in directory names. */
+    private static final String CURRENCY_PAIR_SEPARATOR = "-";
+
+    /** Nanoseconds in a day. */
+    private static final long NANOSECONDS_PER_DAY = TimeUnit.DAYS.toNanos(1);
+
+    /** Directory. */
+    private final Path directory;
+
+    /** Converter used for tickers. */
+    private final CompactTickerConverter compactTickerConverter;
+
+    /** Open files, indexed by currency pair id. */
+    private TickFile[] files = new TickFile[0];
+
+    /** Number of ticks recorded. */
+    private long recordedTicks;
+
+    /** Number of ticks not recorded (error). */
+    private long failedTicks;
+
+    /** True once closed. */
+    private boolean closed;
+
+    /**
+     * Constructor.
+     *
+     * @param newDirectory              directory
+     * @param newCompactTickerConverter converter used for tickers (scales of the currency pairs)
+     */
+    public TickRecorder(final Path newDirectory, final CompactTickerConverter newCompactTickerConverter) {
+        this.directory = newDirectory;
+        this.compactTickerConverter = newCompactTickerConverter;
+    }
+
+    /**
+     * Method called by streams on every ticker update - converts the ticker to a compact ticker (allocated) and
+     * records it.
+     *
+     * @param ticker ticker
+     */
+    public final void tickerUpdate(final TickerDTO ticker) {
+        try {
+            record(compactTickerConverter.toCompactTicker(ticker));
+        } catch (ArithmeticException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Records a compact ticker - no allocation, except when a file or a region is opened.
+     *
+     * @param ticker compact ticker
+     */
+    public final synchronized void record(final CompactTickerDTO ticker) {
+        if (closed) {
+            // Ticks received during the shutdown - no file is opened again.
+            failedTicks++;
+            return;
+        }
+        if (ticker.getTimestamp() <= 0) {
+            // A timestamp of 0 marks the end of the records.
+            fail("invalid timestamp " + ticker.getTimestamp());
+            return;
+        }
+        final int id = ticker.getCurrencyPair().getId();
+        if (id >= files.length) {
+            files = Arrays.copyOf(files, Math.max(id + 1, CurrencyPairDTO.getInstanceCount()));
+        }
+        TickFile file = files[id];
+        final long day = Math.floorDiv(ticker.getTimestamp(), NANOSECONDS_PER_DAY);
+        try {
+            if (file == null || file.day != day) {
+                // First tick of the day (or a late tick of another day).
+                if (file != null) {
+                    file.close();
+                }
+                file = new TickFile(getFile(directory, ticker.getCurrencyPair(), LocalDate.ofEpochDay(day)), day);
+                files[id] = file;
+            }
+            file.append(ticker);
+            recordedTicks++;
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
+    }
+
+    /**
+     * Counts a ticker that could not be recorded.
+     *
+     * @param reason reason
+     */
+    private synchronized void fail(final String reason) {
+        getLogger().error("TickRecorder - Ticker not recorded : {}", reason);
+        failedTicks++;
+    }
+
+    /**
+     * Forces the recorded ticks to the disk.
+     */
+    public final synchronized void flush() {
+        Arrays.stream(files).filter(Objects::nonNull).forEach(TickFile::flush);
+    }
+
+    @Override
+    public final synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (int i = 0; i < files.length; i++) {
+            if (files[i] != null) {
+                try {
+                    files[i].close();
+                } catch (IOException e) {
+                    getLogger().error("TickRecorder - Error closing {} : {}", files[i].path, e.getMessage());
+                }
+                files[i] = null;
+            }
+        }
+        getLogger().info("TickRecorder - {} ticks recorded in {} ({} failed)", recordedTicks, directory, failedTicks);
+    }
+
+    /**
+     * Returns the file of a currency pair and a day.
+     *
+     * @param directory    directory
+     * @param currencyPair currency pair
+     * @param day          day (UTC)
+     * @return file
+     */
+    public static Path getFile(final Path directory, final CurrencyPairDTO currencyPair, final LocalDate day) {
+        return getDirectory(directory, currencyPair).resolve(day + FILE_EXTENSION);
+    }
+
+    /**
+     * Returns the directory of a currency pair.
+     *
+     * @param directory    directory
+     * @param currencyPair currency pair
+     * @return currency pair directory
+     */
+    public static Path getDirectory(final Path directory, final CurrencyPairDTO currencyPair) {
+        return directory.resolve(currencyPair.getBaseCurrency() + CURRENCY_PAIR_SEPARATOR + currencyPair.getQuoteCurrency());
+    }
+
+    /**
+     * Getter for directory.
+     *
+     * @return directory
+     */
+    public final Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Returns the number of ticks recorded.
+     *
+     * @return recorded ticks
+     */
+    public final synchronized long getRecordedTicks() {
+        return recordedTicks;
+    }
+
+    /**
+     * Returns the number of ticks that could not be recorded.
+     *
+     * @return failed ticks
+     */
+    public final synchronized long getFailedTicks() {
+        return failedTicks;
+    }
+
+    /**
+     * File of a currency pair and a day, open for writing.
+     */
+    private static final class TickFile {
+
+        /** Path. */
+        private final Path path;
+
+        /** Day (days since the epoch). */
+        private final long day;
+
+        /** Channel. */
+        private final FileChannel channel;
+
+        /** Current region. */
+        private MappedByteBuffer region;
+
+        /** Position of the current region in the file. */
+        private long regionPosition;
+
+        /** Number of records in the file. */
+        private long records;
+
+        /**
+         * Constructor - opens (or creates) the file and maps the region following the last record.
+         *
+         * @param newPath path
+         * @param newDay  day (days since the epoch)
+         * @throws IOException error
+         */
+        private TickFile(final Path newPath, final long newDay) throws IOException {
+            this.path = newPath;
+            this.day = newDay;
+            Files.createDirectories(newPath.getParent());
+            this.channel = FileChannel.open(newPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.size() < HEADER_SIZE) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(BYTE_ORDER);
+                header.putInt(MAGIC_NUMBER).putInt(FORMAT_VERSION).putInt(RECORD_SIZE).putInt(0).flip();
+                channel.write(header, 0);
+            } else {
+                records = TickReader.countRecords(channel, newPath);
+            }
+            map(HEADER_SIZE + records * RECORD_SIZE);
+        }
+
+        /**
+         * Maps a region.
+         *
+         * @param position position of the region in the file
+         * @throws IOException error
+         */
+        private void map(final long position) throws IOException {
+            region = channel.map(FileChannel.MapMode.READ_WRITE, position, REGION_SIZE);
+            region.order(BYTE_ORDER);
+            regionPosition = position;
+        }
+
+        /**
+         * Appends a record - the timestamp is written last, so an incomplete record is not read.
+         *
+         * @param ticker compact ticker
+         * @throws IOException error
+         */
+        private void append(final CompactTickerDTO ticker) throws IOException {
+            if (region.remaining() < RECORD_SIZE) {
+                region.force();
+                map(regionPosition + REGION_SIZE);
+            }
+            final MappedByteBuffer buffer = region;
+            final int offset = buffer.position();
+            buffer.putInt(offset + PRICE_SCALE, ticker.getPriceScale());
+            buffer.putInt(offset + AMOUNT_SCALE, ticker.getAmountScale());
+            buffer.putLong(offset + OPEN, ticker.getOpen());
+            buffer.putLong(offset + LAST, ticker.getLast());
+            buffer.putLong(offset + BID, ticker.getBid());
+            buffer.putLong(offset + ASK, ticker.getAsk());
+            buffer.putLong(offset + HIGH, ticker.getHigh());
+            buffer.putLong(offset + LOW, ticker.getLow());
+            buffer.putLong(offset + VWAP, ticker.getVwap());
+            buffer.putLong(offset + VOLUME, ticker.getVolume());
+            buffer.putLong(offset + QUOTE_VOLUME, ticker.getQuoteVolume());
+            buffer.putLong(offset + BID_SIZE, ticker.getBidSize());
+            buffer.putLong(offset + ASK_SIZE, ticker.getAskSize());
+            buffer.putLong(offset + TIMESTAMP, ticker.getTimestamp());
+            buffer.position(offset + RECORD_SIZE);
+            records++;
+        }
+
+        /**
+         * Forces the current region to the disk.
+         */
+        private void flush() {
+            region.force();
+        }
+
+        /**
+         * Closes the file - the part of the file mapped ahead is removed.
+         *
+         * @throws IOException error
+         */
+        private void close() throws IOException {
+            region.force();
+            region = null;
+            try {
+                channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            } finally {
+                channel.close();
+            }
+        }
+
+    }
+
+}
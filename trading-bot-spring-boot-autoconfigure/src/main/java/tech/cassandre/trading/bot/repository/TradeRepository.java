@@ -0,0 +1,75 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.domain.Trade;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Trade repository.
+ */
+public final class TradeRepository extends FileEntityRepository<Trade> {
+
+    /**
+     * Constructor.
+     *
+     * @param newFile journal file
+     */
+    public TradeRepository(final Path newFile) {
+        super(newFile);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newFile            journal file
+     * @param newFsyncPolicy     fsync policy
+     * @param newSnapshotRecords number of journal records written before a snapshot
+     */
+    public TradeRepository(final Path newFile, final FsyncPolicy newFsyncPolicy, final long newSnapshotRecords) {
+        super(newFile, newFsyncPolicy, newSnapshotRecords);
+    }
+
+    @Override
+    protected String getId(final Trade entity) {
+        return entity.getId();
+    }
+
+    @Override
+    protected void write(final Trade entity, final DataOutput out) throws IOException {
+        writeString(entity.getId(), out);
+        writeString(entity.getOrderId(), out);
+        writeEnum(entity.getType(), out);
+        writeBigDecimal(entity.getOriginalAmount(), out);
+        writeString(entity.getCurrencyPair(), out);
+        writeBigDecimal(entity.getPrice(), out);
+        writeZonedDateTime(entity.getTimestamp(), out);
+        writeBigDecimal(entity.getFeeAmount(), out);
+        writeString(entity.getFeeCurrency(), out);
+    }
+
+    @Override
+    protected String readId(final DataInput in) throws IOException {
+        return readString(in);
+    }
+
+    @Override
+    protected Trade read(final DataInput in) throws IOException {
+        final Trade trade = new Trade();
+        trade.setId(readString(in));
+        trade.setOrderId(readString(in));
+        trade.setType(readEnum(in, OrderTypeDTO.class));
+        trade.setOriginalAmount(readBigDecimal(in));
+        trade.setCurrencyPair(readSharedString(in));
+        trade.setPrice(readBigDecimal(in));
+        trade.setTimestamp(readZonedDateTime(in));
+        trade.setFeeAmount(readBigDecimal(in));
+        trade.setFeeCurrency(readSharedString(in));
+        return trade;
+    }
+
+}
@@ -0,0 +1,398 @@
+package tech.cassandre.trading.bot.repository;
+
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Write-behind queue - entities are saved by a dedicated thread, in batches.
+ * <p>
+ * {@link #save(EntityRepository, Object)} only puts the entity in a bounded queue : the caller never waits for a disk
+ * write. The writer thread takes up to batch size entities at a time and saves them with one
+ * {@link EntityRepository#saveAll(java.util.Collection)} per repository, in the order they were queued.
+ * <p>
+ * When the queue is full, the caller waits for a free slot (back-pressure) : entities are never lost. Metrics are kept
+ * for the queue : size, maximum size reached, number of saves that had to wait and total time waited.
+ * <p>
+ * Saves hold a read lock while they queue their entity and {@link #close(long)} takes the write lock to stop the
+ * queue : once closed, no entity can be queued, so every entity queued is written (or counted as failed).
+ */
+public class WriteBehindQueue extends Base {
+
+    /** Default queue capacity. */
+    public static final int DEFAULT_CAPACITY = 10_000;
+
+    /** Default batch size. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Time waited for an entity by the writer thread before checking if it must stop (ms). */
+    private static final long POLL_TIMEOUT = 100;
+
+    /** Queue. */
+    private final BlockingQueue<PendingWrite> queue;
+
+    /** Capacity. */
+    private final int capacity;
+
+    /** Maximum number of entities in a batch. */
+    private final int batchSize;
+
+    /** Writer thread. */
+    private final Thread writer;
+
+    /** True until the queue is closed. */
+    private volatile boolean running = true;
+
+    /** Lock - read lock held by saves, write lock taken to close the queue. */
+    private final ReadWriteLock closeLock = new ReentrantReadWriteLock();
+
+    /** Number of entities queued. */
+    private final AtomicLong queuedEntities = new AtomicLong();
+
+    /** Number of entities written (or failed). */
+    private final AtomicLong processedEntities = new AtomicLong();
+
+    /** Number of entities that could not be written. */
+    private final AtomicLong failedEntities = new AtomicLong();
+
+    /** Number of batches written. */
+    private final AtomicLong batches = new AtomicLong();
+
+    /** Maximum number of entities in the queue. */
+    private final AtomicLong maximumQueueSize = new AtomicLong();
+
+    /** Number of saves that waited for a free slot. */
+    private final AtomicLong blockedSaves = new AtomicLong();
+
+    /** Total time waited for a free slot (ns). */
+    private final AtomicLong totalBlockedTime = new AtomicLong();
+
+    /** Total time spent writing batches (ns). */
+    private final AtomicLong totalWriteDuration = new AtomicLong();
+
+    /**
+     * Constructor with default capacity and batch size.
+     */
+    public WriteBehindQueue() {
+        this(DEFAULT_CAPACITY, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newCapacity  queue capacity
+     * @param newBatchSize maximum number of entities in a batch
+     */
+    public WriteBehindQueue(final int newCapacity, final int newBatchSize) {
+        this.capacity = newCapacity;
+        this.batchSize = newBatchSize;
+        this.queue = new ArrayBlockingQueue<>(newCapacity);
+        this.writer = new Thread(this::write, "cassandre-write-behind");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Queues an entity to be saved - only waits if the queue is full.
+     *
+     * @param repository repository
+     * @param entity     entity
+     * @param <T>        entity type
+     */
+    @SuppressWarnings("unchecked")
+    public final <T> void save(final EntityRepository<T> repository, final T entity) {
+        final PendingWrite pendingWrite = new PendingWrite((EntityRepository<Object>) repository, entity);
+        closeLock.readLock().lock();
+        try {
+            if (!running) {
+                getLogger().error("WriteBehindQueue - Queue closed, entity not saved : {}", entity);
+                return;
+            }
+            queuedEntities.incrementAndGet();
+            if (!queue.offer(pendingWrite) && !put(pendingWrite)) {
+                getLogger().error("WriteBehindQueue - Interrupted, entity not saved : {}", entity);
+                synchronized (this) {
+                    failedEntities.incrementAndGet();
+                    processedEntities.incrementAndGet();
+                    notifyAll();
+                }
+                return;
+            }
+            maximumQueueSize.accumulateAndGet(queue.size(), Math::max);
+        } finally {
+            closeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Waits for a free slot in the queue (back-pressure).
+     *
+     * @param pendingWrite entity waiting to be written
+     * @return true if the entity was queued, false if interrupted or if the writer thread stopped
+     */
+    private boolean put(final PendingWrite pendingWrite) {
+        blockedSaves.incrementAndGet();
+        final long start = System.nanoTime();
+        try {
+            while (!queue.offer(pendingWrite, POLL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                if (!writer.isAlive()) {
+                    // Nobody will free a slot.
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } finally {
+            totalBlockedTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Writer thread loop.
+     */
+    private void write() {
+        final List<PendingWrite> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                final PendingWrite first = queue.poll(POLL_TIMEOUT, TimeUnit.MILLISECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, batchSize - 1);
+                    writeBatch(batch);
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes a batch - one save per repository.
+     *
+     * @param batch batch
+     */
+    private void writeBatch(final List<PendingWrite> batch) {
+        final long start = System.nanoTime();
+        final Map<EntityRepository<Object>, List<Object>> entitiesByRepository = new LinkedHashMap<>();
+        batch.forEach(pendingWrite -> entitiesByRepository.computeIfAbsent(pendingWrite.repository, r -> new LinkedList<>()).add(pendingWrite.entity));
+        entitiesByRepository.forEach((repository, entities) -> {
+            try {
+                repository.saveAll(entities);
+            } catch (RuntimeException e) {
+                getLogger().error("WriteBehindQueue - {} entities not saved : {}", entities.size(), e.getMessage());
+                failedEntities.addAndGet(entities.size());
+            }
+        });
+        totalWriteDuration.addAndGet(System.nanoTime() - start);
+        batches.incrementAndGet();
+        synchronized (this) {
+            processedEntities.addAndGet(batch.size());
+            notifyAll();
+        }
+    }
+
+    /**
+     * Waits until all the entities queued before this call are written.
+     *
+     * @param timeout timeout (ms)
+     * @return true if all entities are written, false if the timeout was reached
+     * @throws InterruptedException if interrupted
+     */
+    public final synchronized boolean flush(final long timeout) throws InterruptedException {
+        final long target = queuedEntities.get();
+        final long deadline = System.currentTimeMillis() + timeout;
+        while (processedEntities.get() < target) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return false;
+            }
+            wait(remaining);
+        }
+        return true;
+    }
+
+    /**
+     * Stops the queue once all the queued entities are written - entities saved after this call are rejected.
+     * If the writer thread stopped before writing all the queued entities, they are written by the calling thread.
+     *
+     * @param timeout timeout (ms)
+     * @throws InterruptedException if interrupted
+     */
+    public final void close(final long timeout) throws InterruptedException {
+        closeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            closeLock.writeLock().unlock();
+        }
+        writer.join(timeout);
+        if (!writer.isAlive()) {
+            // Entities left by an interrupted writer thread.
+            final List<PendingWrite> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        }
+        getLogger().info("WriteBehindQueue - {}", this);
+    }
+
+    /**
+     * Getter for capacity.
+     *
+     * @return capacity
+     */
+    public final int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Getter for batchSize.
+     *
+     * @return batchSize
+     */
+    public final int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Returns the number of entities waiting in the queue.
+     *
+     * @return queue size
+     */
+    public final int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * Returns the maximum number of entities waiting in the queue since the start.
+     *
+     * @return maximum queue size
+     */
+    public final long getMaximumQueueSize() {
+        return maximumQueueSize.get();
+    }
+
+    /**
+     * Returns the number of entities queued.
+     *
+     * @return queued entities
+     */
+    public final long getQueuedEntities() {
+        return queuedEntities.get();
+    }
+
+    /**
+     * Returns the number of entities written.
+     *
+     * @return written entities
+     */
+    public final long getWrittenEntities() {
+        return processedEntities.get() - failedEntities.get();
+    }
+
+    /**
+     * Returns the number of entities that could not be written.
+     *
+     * @return failed entities
+     */
+    public final long getFailedEntities() {
+        return failedEntities.get();
+    }
+
+    /**
+     * Returns the number of batches written.
+     *
+     * @return batches
+     */
+    public final long getBatches() {
+        return batches.get();
+    }
+
+    /**
+     * Returns the number of saves that waited because the queue was full.
+     *
+     * @return blocked saves
+     */
+    public final long getBlockedSaves() {
+        return blockedSaves.get();
+    }
+
+    /**
+     * Returns the total time waited by saves because the queue was full.
+     *
+     * @return total blocked time (ns)
+     */
+    public final long getTotalBlockedTime() {
+        return totalBlockedTime.get();
+    }
+
+    /**
+     * Returns the average duration of a batch write.
+     *
+     * @return average write duration (ns)
+     */
+    public final long getAverageWriteDuration() {
+        final long writtenBatches = batches.get();
+        if (writtenBatches == 0) {
+            return 0;
+        }
+        return totalWriteDuration.get() / writtenBatches;
+    }
+
+    @Override
+    public final String toString() {
+        return "WriteBehindQueue{"
+                + " capacity=" + capacity
+                + ", batchSize=" + batchSize
+                + ", queueSize=" + getQueueSize()
+                + ", maximumQueueSize=" + getMaximumQueueSize()
+                + ", queuedEntities=" + getQueuedEntities()
+                + ", writtenEntities=" + getWrittenEntities()
+                + ", failedEntities=" + getFailedEntities()
+                + ", batches=" + getBatches()
+                + ", averageWriteDuration=" + getAverageWriteDuration()
+                + ", blockedSaves=" + getBlockedSaves()
+                + ", totalBlockedTime=" + getTotalBlockedTime()
+                + '}';
+    }
+
+    /**
+     * Entity waiting to be written.
+     */
+    private static final class PendingWrite {
+
+        /** Repository. */
+        private final EntityRepository<Object> repository;
+
+        /** Entity. */
+        private final Object entity;
+
+        /**
+         * Constructor.
+         *
+         * @param newRepository repository
+         * @param newEntity     entity
+         */
+        private PendingWrite(final EntityRepository<Object> newRepository, final Object newEntity) {
+            this.repository = newRepository;
+            this.entity = newEntity;
+        }
+
+    }
+
+}
@@ -0,0 +1,151 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.CurrencyPairMetaDataDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compact ticker converter - converts tickers to {@link CompactTickerDTO} with the price and amount scales of their
+ * currency pair.
+ * <p>
+ * Scales are taken from the exchange metadata the first time a currency pair is converted and kept for the life of
+ * the converter. Without exchange service or metadata, {@link #DEFAULT_SCALE} is used.
+ */
+public class CompactTickerConverter extends Base {
+
+    /** Default scale (the smallest bitcoin unit). */
+    public static final int DEFAULT_SCALE = 8;
+
+    /** Exchange service (null to use default scales). */
+    private final ExchangeService exchangeService;
+
+    /** Scales by currency pair. */
+    private final Map<CurrencyPairDTO, Scales> scales = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor using default scales.
+     */
+    public CompactTickerConverter() {
+        this(null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newExchangeService exchange service
+     */
+    public CompactTickerConverter(final ExchangeService newExchangeService) {
+        this.exchangeService = newExchangeService;
+    }
+
+    /**
+     * Converts a ticker to a compact ticker.
+     *
+     * @param ticker ticker
+     * @return compact ticker
+     */
+    public final CompactTickerDTO toCompactTicker(final TickerDTO ticker) {
+        final Scales currencyPairScales = getScales(ticker.getCurrencyPair());
+        return CompactTickerDTO.fromTickerDTO(ticker, currencyPairScales.priceScale, currencyPairScales.amountScale);
+    }
+
+    /**
+     * Converts the last, bid and ask prices of a ticker to a compact ticker (the other values are not converted).
+     *
+     * @param ticker ticker
+     * @return compact ticker with prices only
+     */
+    public final CompactTickerDTO toCompactTickerPrices(final TickerDTO ticker) {
+        final Scales currencyPairScales = getScales(ticker.getCurrencyPair());
+        return CompactTickerDTO.fromTickerDTOPrices(ticker, currencyPairScales.priceScale, currencyPairScales.amountScale);
+    }
+
+    /**
+     * Returns the price scale of a currency pair.
+     *
+     * @param currencyPair currency pair
+     * @return price scale
+     */
+    public final int getPriceScale(final CurrencyPairDTO currencyPair) {
+        return getScales(currencyPair).priceScale;
+    }
+
+    /**
+     * Returns the amount scale of a currency pair.
+     *
+     * @param currencyPair currency pair
+     * @return amount scale
+     */
+    public final int getAmountScale(final CurrencyPairDTO currencyPair) {
+        return getScales(currencyPair).amountScale;
+    }
+
+    /**
+     * Returns the scales of a currency pair, retrieving them from the exchange metadata the first time.
+     *
+     * @param currencyPair currency pair
+     * @return scales
+     */
+    private Scales getScales(final CurrencyPairDTO currencyPair) {
+        final Scales currencyPairScales = scales.get(currencyPair);
+        if (currencyPairScales != null) {
+            return currencyPairScales;
+        }
+        return scales.computeIfAbsent(currencyPair, cp -> {
+            final Optional<CurrencyPairMetaDataDTO> metaData = getMetaData(cp);
+            final Scales newScales = new Scales(metaData.map(CurrencyPairMetaDataDTO::getPriceScale).orElse(DEFAULT_SCALE),
+                    metaData.map(CurrencyPairMetaDataDTO::getBaseScale).orElse(DEFAULT_SCALE));
+            getLogger().debug("CompactTickerConverter - {} scales : {} for prices, {} for amounts", cp, newScales.priceScale, newScales.amountScale);
+            return newScales;
+        });
+    }
+
+    /**
+     * Returns the metadata of a currency pair.
+     *
+     * @param currencyPair currency pair
+     * @return metadata (empty if not available)
+     */
+    private Optional<CurrencyPairMetaDataDTO> getMetaData(final CurrencyPairDTO currencyPair) {
+        if (exchangeService == null) {
+            return Optional.empty();
+        }
+        try {
+            return exchangeService.getCurrencyPairMetaData(currencyPair);
+        } catch (RuntimeException e) {
+            getLogger().warn("CompactTickerConverter - Metadata of {} not available, default scales used : {}", currencyPair, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Price and amount scales of a currency pair.
+     */
+    private static final class Scales {
+
+        /** Number of decimals of prices. */
+        private final int priceScale;
+
+        /** Number of decimals of amounts. */
+        private final int amountScale;
+
+        /**
+         * Constructor.
+         *
+         * @param newPriceScale  number of decimals of prices
+         * @param newAmountScale number of decimals of amounts
+         */
+        private Scales(final int newPriceScale, final int newAmountScale) {
+            this.priceScale = newPriceScale;
+            this.amountScale = newAmountScale;
+        }
+
+    }
+
+}
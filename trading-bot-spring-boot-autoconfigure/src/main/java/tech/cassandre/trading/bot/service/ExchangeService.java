@@ -1,7 +1,9 @@
 package tech.cassandre.trading.bot.service;
 
+import tech.cassandre.trading.bot.dto.market.CurrencyPairMetaDataDTO;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 
+import java.util.Optional;
 import java.util.Set;
 
 /**
@@ -12,8 +14,16 @@ public interface ExchangeService {
     /**
      * Get the list of available currency pairs for trading.
      *
-     * @return list of currency pairs
+     * @return list of currency pairs (immutable)
      */
     Set<CurrencyPairDTO> getAvailableCurrencyPairs();
 
+    /**
+     * Get the metadata of a currency pair (precision, minimum and maximum amounts, fees) - the exchange isn't called.
+     *
+     * @param currencyPair currency pair
+     * @return currency pair metadata (empty if the currency pair is not available)
+     */
+    Optional<CurrencyPairMetaDataDTO> getCurrencyPairMetaData(CurrencyPairDTO currencyPair);
+
 }
@@ -1,44 +1,234 @@
 package tech.cassandre.trading.bot.service;
 
 import org.knowm.xchange.Exchange;
+import org.knowm.xchange.dto.meta.CurrencyPairMetaData;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.dto.market.CurrencyPairMetaDataDTO;
+import tech.cassandre.trading.bot.dto.market.FeeTierDTO;
 import tech.cassandre.trading.bot.util.base.BaseService;
 import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
 
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.METADATA;
 
 /**
  * Exchange service - XChange implementation.
+ * <p>
+ * Exchange metadata is mapped once and kept in an immutable snapshot : lookups don't call the exchange. When the
+ * snapshot is older than the time to live, the next lookup triggers a refresh in the background and gets the current
+ * snapshot until the new one is ready. The refresh waits for the rate limiter (METADATA weight) like any other call.
  */
 public class ExchangeServiceXChangeImplementation extends BaseService implements ExchangeService {
 
+    /** Default metadata time to live. */
+    public static final Duration DEFAULT_META_DATA_TTL = Duration.ofHours(1);
+
     /** XChange service. */
     private final Exchange exchange;
 
+    /** Metadata time to live (ms). */
+    private final long metaDataTtl;
+
+    /** Clock. */
+    private final Clock clock;
+
+    /** Metadata snapshot (null before the first lookup). */
+    private volatile MetaData metaData;
+
+    /** True while the metadata is refreshed. */
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
     /**
      * Constructor.
      *
      * @param newExchange exchange
      */
     public ExchangeServiceXChangeImplementation(final Exchange newExchange) {
+        this(newExchange, DEFAULT_META_DATA_TTL, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newExchange    exchange
+     * @param newMetaDataTtl metadata time to live
+     */
+    public ExchangeServiceXChangeImplementation(final Exchange newExchange, final Duration newMetaDataTtl) {
+        this(newExchange, newMetaDataTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newExchange    exchange
+     * @param newMetaDataTtl metadata time to live
+     * @param newClock       clock
+     */
+    public ExchangeServiceXChangeImplementation(final Exchange newExchange, final Duration newMetaDataTtl, final Clock newClock) {
+        this(new RateLimiter(1), newExchange, newMetaDataTtl, newClock);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter rate limiter
+     * @param newExchange    exchange
+     * @param newMetaDataTtl metadata time to live
+     */
+    public ExchangeServiceXChangeImplementation(final RateLimiter newRateLimiter, final Exchange newExchange, final Duration newMetaDataTtl) {
+        this(newRateLimiter, newExchange, newMetaDataTtl, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter rate limiter
+     * @param newExchange    exchange
+     * @param newMetaDataTtl metadata time to live
+     * @param newClock       clock
+     */
+    public ExchangeServiceXChangeImplementation(final RateLimiter newRateLimiter, final Exchange newExchange, final Duration newMetaDataTtl, final Clock newClock) {
+        super(newRateLimiter);
         this.exchange = newExchange;
+        this.metaDataTtl = newMetaDataTtl.toMillis();
+        this.clock = newClock;
     }
 
     @Override
     public final Set<CurrencyPairDTO> getAvailableCurrencyPairs() {
+        return getMetaData().currencyPairs;
+    }
+
+    @Override
+    public final Optional<CurrencyPairMetaDataDTO> getCurrencyPairMetaData(final CurrencyPairDTO currencyPair) {
+        return getMetaData().currencyPairsMetaData.getOrDefault(currencyPair, Optional.empty());
+    }
+
+    /**
+     * Returns the metadata snapshot - loaded at the first call, refreshed in the background once expired.
+     *
+     * @return metadata snapshot
+     */
+    private MetaData getMetaData() {
+        final MetaData current = metaData;
+        if (current == null) {
+            synchronized (this) {
+                if (metaData == null) {
+                    metaData = loadMetaData();
+                }
+                return metaData;
+            }
+        }
+        if (clock.millis() - current.loadTime >= metaDataTtl && refreshing.compareAndSet(false, true)) {
+            Schedulers.boundedElastic().schedule(this::refreshMetaData);
+        }
+        return current;
+    }
+
+    /**
+     * Reloads the metadata from the exchange - if it fails, the current snapshot is kept until the next expiry.
+     */
+    private void refreshMetaData() {
+        getLogger().debug("ExchangeService - Refreshing exchange metadata");
+        try {
+            getRateLimiter().acquire(METADATA);
+            exchange.remoteInit();
+            metaData = loadMetaData();
+        } catch (Exception e) {
+            getLogger().error("ExchangeService - Error refreshing exchange metadata : {}", e.getMessage());
+            metaData = new MetaData(metaData.currencyPairsMetaData, clock.millis());
+        } finally {
+            refreshing.set(false);
+        }
+    }
+
+    /**
+     * Maps the exchange metadata.
+     *
+     * @return metadata snapshot
+     */
+    private MetaData loadMetaData() {
         getLogger().debug("ExchangeService - Retrieving available currency pairs");
-        Set<CurrencyPairDTO> availableCurrencyPairs = new LinkedHashSet<>();
+        final Map<CurrencyPairDTO, Optional<CurrencyPairMetaDataDTO>> currencyPairsMetaData = new LinkedHashMap<>();
         exchange.getExchangeMetaData()
                 .getCurrencyPairs()
                 .forEach((currencyPair, currencyPairMetaData) -> {
                     CurrencyDTO base = getMapper().mapToCurrencyDTO(currencyPair.base);
                     CurrencyDTO counter = getMapper().mapToCurrencyDTO(currencyPair.counter);
-                    CurrencyPairDTO cp = new CurrencyPairDTO(base, counter);
-                    availableCurrencyPairs.add(cp);
+                    CurrencyPairDTO cp = CurrencyPairDTO.getInstance(base, counter);
+                    currencyPairsMetaData.put(cp, Optional.of(getCurrencyPairMetaDataDTO(cp, currencyPairMetaData)));
                     getLogger().debug("ExchangeService - Adding currency pair {} ", cp);
                 });
-        return availableCurrencyPairs;
+        return new MetaData(currencyPairsMetaData, clock.millis());
+    }
+
+    /**
+     * Returns the metadata DTO of a currency pair.
+     *
+     * @param currencyPair         currency pair
+     * @param currencyPairMetaData XChange currency pair metadata (can be null)
+     * @return currency pair metadata DTO
+     */
+    private CurrencyPairMetaDataDTO getCurrencyPairMetaDataDTO(final CurrencyPairDTO currencyPair, final CurrencyPairMetaData currencyPairMetaData) {
+        final CurrencyPairMetaDataDTO.Builder builder = CurrencyPairMetaDataDTO.builder().currencyPair(currencyPair);
+        if (currencyPairMetaData != null) {
+            builder.priceScale(currencyPairMetaData.getPriceScale())
+                    .baseScale(currencyPairMetaData.getBaseScale())
+                    .minimumAmount(currencyPairMetaData.getMinimumAmount())
+                    .maximumAmount(currencyPairMetaData.getMaximumAmount())
+                    .amountStepSize(currencyPairMetaData.getAmountStepSize())
+                    .tradingFee(currencyPairMetaData.getTradingFee());
+            if (currencyPairMetaData.getFeeTiers() != null) {
+                builder.feeTiers(Arrays.stream(currencyPairMetaData.getFeeTiers())
+                        .filter(feeTier -> feeTier != null && feeTier.fee != null)
+                        .map(feeTier -> new FeeTierDTO(feeTier.beginQuantity, feeTier.fee.getMakerFee(), feeTier.fee.getTakerFee()))
+                        .sorted(Comparator.comparing(FeeTierDTO::getBeginQuantity, Comparator.nullsFirst(Comparator.naturalOrder())))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return builder.create();
+    }
+
+    /**
+     * Immutable metadata snapshot.
+     */
+    private static final class MetaData {
+
+        /** Available currency pairs. */
+        private final Set<CurrencyPairDTO> currencyPairs;
+
+        /** Metadata per currency pair. */
+        private final Map<CurrencyPairDTO, Optional<CurrencyPairMetaDataDTO>> currencyPairsMetaData;
+
+        /** Time of the load (ms). */
+        private final long loadTime;
+
+        /**
+         * Constructor.
+         *
+         * @param newCurrencyPairsMetaData metadata per currency pair
+         * @param newLoadTime              time of the load (ms)
+         */
+        private MetaData(final Map<CurrencyPairDTO, Optional<CurrencyPairMetaDataDTO>> newCurrencyPairsMetaData, final long newLoadTime) {
+            this.currencyPairs = Collections.unmodifiableSet(new LinkedHashSet<>(newCurrencyPairsMetaData.keySet()));
+            this.currencyPairsMetaData = Collections.unmodifiableMap(new LinkedHashMap<>(newCurrencyPairsMetaData));
+            this.loadTime = newLoadTime;
+        }
+
     }
 
 }
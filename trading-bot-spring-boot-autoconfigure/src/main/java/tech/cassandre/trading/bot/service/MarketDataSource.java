@@ -0,0 +1,40 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.Set;
+
+/**
+ * Market data source - feeds the ticker flux with the tickers of the requested currency pairs.
+ * <p>
+ * By default, Cassandre uses {@link MarketDataSourceInPollingMode} (tickers are retrieved by the scheduler).
+ * To receive tickers as soon as the exchange publishes them, declare a {@link MarketDataSourceInStreamingMode} bean
+ * connected to your exchange stream.
+ */
+public interface MarketDataSource {
+
+    /**
+     * Starts feeding the ticker flux with the tickers of the requested currency pairs.
+     *
+     * @param currencyPairs requested currency pairs
+     */
+    void start(Set<CurrencyPairDTO> currencyPairs);
+
+    /**
+     * Method executed by the scheduler - only used by polling sources.
+     */
+    void update();
+
+    /**
+     * Returns true if the tickers must be retrieved by the scheduler.
+     *
+     * @return true if the source is polling
+     */
+    boolean isPolling();
+
+    /**
+     * Stops feeding the ticker flux.
+     */
+    void stop();
+
+}
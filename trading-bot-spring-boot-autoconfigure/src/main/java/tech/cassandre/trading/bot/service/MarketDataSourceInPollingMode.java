@@ -0,0 +1,53 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.Set;
+
+/**
+ * Market data source in polling mode - the scheduler asks the ticker flux to retrieve tickers from the market service.
+ */
+public class MarketDataSourceInPollingMode extends Base implements MarketDataSource {
+
+    /** Ticker flux. */
+    private final TickerFlux tickerFlux;
+
+    /** True if started. */
+    private volatile boolean started = false;
+
+    /**
+     * Constructor.
+     *
+     * @param newTickerFlux ticker flux
+     */
+    public MarketDataSourceInPollingMode(final TickerFlux newTickerFlux) {
+        this.tickerFlux = newTickerFlux;
+    }
+
+    @Override
+    public final void start(final Set<CurrencyPairDTO> currencyPairs) {
+        getLogger().debug("MarketDataSourceInPollingMode - Polling {}", currencyPairs);
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        started = true;
+    }
+
+    @Override
+    public final void update() {
+        if (started) {
+            tickerFlux.update();
+        }
+    }
+
+    @Override
+    public final boolean isPolling() {
+        return true;
+    }
+
+    @Override
+    public final void stop() {
+        started = false;
+    }
+
+}
@@ -0,0 +1,87 @@
+package tech.cassandre.trading.bot.service;
+
+import org.reactivestreams.Publisher;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.util.retry.Retry;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Market data source in streaming mode - tickers published by the exchange stream are pushed straight into the
+ * ticker flux, without waiting for the scheduler.
+ * <p>
+ * The exchange stream is a function returning a publisher of tickers for the requested currency pairs (for example,
+ * a websocket connection). Tickers of other currency pairs and tickers already received are ignored. If the stream
+ * fails or is closed by the exchange, the source reconnects after {@link #RECONNECTION_DELAY}.
+ */
+public class MarketDataSourceInStreamingMode extends Base implements MarketDataSource {
+
+    /** Delay before reconnecting to the exchange stream. */
+    public static final Duration RECONNECTION_DELAY = Duration.ofSeconds(1);
+
+    /** Ticker flux. */
+    private final TickerFlux tickerFlux;
+
+    /** Exchange stream. */
+    private final Function<Set<CurrencyPairDTO>, Publisher<TickerDTO>> exchangeStream;
+
+    /** Last tickers received. */
+    private final Map<CurrencyPairDTO, TickerDTO> lastTickers = new ConcurrentHashMap<>();
+
+    /** Subscription to the exchange stream. */
+    private Disposable subscription;
+
+    /**
+     * Constructor.
+     *
+     * @param newTickerFlux     ticker flux
+     * @param newExchangeStream exchange stream
+     */
+    public MarketDataSourceInStreamingMode(final TickerFlux newTickerFlux,
+                                           final Function<Set<CurrencyPairDTO>, Publisher<TickerDTO>> newExchangeStream) {
+        this.tickerFlux = newTickerFlux;
+        this.exchangeStream = newExchangeStream;
+    }
+
+    @Override
+    public final synchronized void start(final Set<CurrencyPairDTO> currencyPairs) {
+        getLogger().debug("MarketDataSourceInStreamingMode - Streaming {}", currencyPairs);
+        stop();
+        subscription = Flux.defer(() -> exchangeStream.apply(currencyPairs))
+                .doOnError(throwable -> getLogger().error("MarketDataSourceInStreamingMode - Stream error : {}", throwable.getMessage()))
+                .retryWhen(Retry.fixedDelay(Long.MAX_VALUE, RECONNECTION_DELAY))
+                .doOnComplete(() -> getLogger().info("MarketDataSourceInStreamingMode - Stream closed by the exchange"))
+                .repeatWhen(completions -> completions.delayElements(RECONNECTION_DELAY))
+                .filter(t -> currencyPairs.contains(t.getCurrencyPair()))
+                .filter(t -> !t.equals(lastTickers.put(t.getCurrencyPair(), t)))
+                .subscribe(tickerFlux::emitValue);
+    }
+
+    @Override
+    public final void update() {
+        // Tickers are pushed by the exchange stream.
+    }
+
+    @Override
+    public final boolean isPolling() {
+        return false;
+    }
+
+    @Override
+    public final synchronized void stop() {
+        if (subscription != null) {
+            subscription.dispose();
+            subscription = null;
+        }
+    }
+
+}
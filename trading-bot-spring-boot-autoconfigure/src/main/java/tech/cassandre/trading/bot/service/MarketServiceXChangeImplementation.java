@@ -6,12 +6,15 @@ import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.util.base.BaseService;
 import tech.cassandre.trading.bot.util.dto.CurrencyAmountDTO;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.TICKER;
 
 /**
  * Market service - XChange implementation.
@@ -21,8 +24,8 @@ public class MarketServiceXChangeImplementation extends BaseService implements M
     /** XChange service. */
     private final MarketDataService marketDataService;
 
-    /** Last tickers received. */
-    private final Map<CurrencyPairDTO, TickerDTO> lastTickers = new LinkedHashMap<>();
+    /** Last tickers received (tickers can be retrieved in parallel). */
+    private final Map<CurrencyPairDTO, TickerDTO> lastTickers = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -31,22 +34,34 @@ public class MarketServiceXChangeImplementation extends BaseService implements M
      * @param newMarketDataService market data service
      */
     public MarketServiceXChangeImplementation(final long rate, final MarketDataService newMarketDataService) {
-        super(rate);
+        this(new RateLimiter(rate), newMarketDataService);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter       rate limiter
+     * @param newMarketDataService market data service
+     */
+    public MarketServiceXChangeImplementation(final RateLimiter newRateLimiter, final MarketDataService newMarketDataService) {
+        super(newRateLimiter);
         this.marketDataService = newMarketDataService;
     }
 
     @Override
     public final Optional<TickerDTO> getTicker(final CurrencyPairDTO currencyPair) {
         try {
-            // Consume a token from the token bucket.
-            // If a token is not available this method will block until the refill adds one to the bucket.
-            getBucket().asScheduler().consume(1);
+            // Consume the endpoint weight from the service and account buckets.
+            // If tokens are not available this method will block until the refill adds them to the buckets.
+            getRateLimiter().acquire(TICKER);
 
             getLogger().debug("MarketService - Getting ticker for {}", currencyPair);
             CurrencyPair cp = new CurrencyPair(currencyPair.getBaseCurrency().getCode(), currencyPair.getQuoteCurrency().getCode());
             TickerDTO t = getMapper().mapToTickerDTO(marketDataService.getTicker(cp));
             getLogger().debug("MarketService - Retrieved value is : {}", t);
-            lastTickers.put(currencyPair, t);
+            if (t != null) {
+                lastTickers.put(currencyPair, t);
+            }
             return Optional.ofNullable(t);
         } catch (IOException e) {
             getLogger().error("MarketService - Error retrieving ticker about {} : {}", currencyPair, e.getMessage());
@@ -0,0 +1,43 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Order batch endpoint - places or cancels several orders with one request to the exchange.
+ * <p>
+ * XChange doesn't expose batch endpoints : if your exchange has some, declare a bean implementing this interface and
+ * set cassandre.trading.bot.order.batch-window, orders sent within the window are then grouped. Without this bean,
+ * grouped orders are sent in parallel, one request per order.
+ */
+public interface OrderBatchEndpoint {
+
+    /**
+     * Returns the maximum number of orders accepted by one request.
+     *
+     * @return maximum batch size
+     */
+    int getMaximumBatchSize();
+
+    /**
+     * Places orders - each order has a type, a currency pair, an amount and a limit price (null for market orders).
+     *
+     * @param orders orders
+     * @return order results (order id or error), in the same order as the orders
+     * @throws IOException if the request fails
+     */
+    List<OrderCreationResultDTO> placeOrders(List<OrderDTO> orders) throws IOException;
+
+    /**
+     * Cancels orders.
+     *
+     * @param orderIds order ids
+     * @return true for each cancelled order, in the same order as the order ids
+     * @throws IOException if the request fails
+     */
+    List<Boolean> cancelOrders(List<String> orderIds) throws IOException;
+
+}
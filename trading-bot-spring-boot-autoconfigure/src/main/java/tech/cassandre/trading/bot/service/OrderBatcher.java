@@ -0,0 +1,226 @@
+package tech.cassandre.trading.bot.service;
+
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.publisher.UnicastProcessor;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.concurrent.Queues;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+
+/**
+ * Order batcher - groups the requests submitted within a window (or until the batch is full) and sends them with one
+ * call to the exchange when it's supported (split according to the maximum batch size of the exchange), one call per
+ * request in parallel otherwise.
+ * <p>
+ * A batch failure fails all its requests : requests are not sent again one by one as the exchange may have processed
+ * some of them. Once the batcher is stopped, requests (including the ones waiting for their batch) fail.
+ *
+ * @param <T> request type
+ * @param <R> result type
+ */
+abstract class OrderBatcher<T, R> extends Base {
+
+    /** Maximum number of batches waiting for an I/O thread. */
+    private static final int BATCH_QUEUE_SIZE = 10_000;
+
+    /** Time to live of an idle I/O thread (seconds). */
+    private static final int BATCH_THREAD_TTL = 60;
+
+    /** Pending requests sink. */
+    private final FluxSink<PendingRequest<T, R>> pendingRequests;
+
+    /** Scheduler sending batches. */
+    private final Scheduler batchScheduler;
+
+    /** Scheduler closing batch windows. */
+    private final Scheduler windowScheduler;
+
+    /** Batches waiting for an I/O thread. */
+    private final Set<List<PendingRequest<T, R>>> scheduledBatches = ConcurrentHashMap.newKeySet();
+
+    /** Lock ordering submissions and stop. */
+    private final Object submissionLock = new Object();
+
+    /** True once the batcher is stopped (guarded by submissionLock). */
+    private boolean stopped;
+
+    /**
+     * Constructor.
+     *
+     * @param name             batcher name
+     * @param window           time waited for other requests after the first one
+     * @param maximumBatchSize maximum number of requests in a batch
+     * @param concurrency      maximum number of batches sent at the same time
+     */
+    OrderBatcher(final String name, final Duration window, final int maximumBatchSize, final int concurrency) {
+        final UnicastProcessor<PendingRequest<T, R>> processor = UnicastProcessor.create(Queues.<PendingRequest<T, R>>unboundedMultiproducer().get());
+        this.pendingRequests = processor.sink();
+        this.batchScheduler = Schedulers.newBoundedElastic(concurrency, BATCH_QUEUE_SIZE, "cassandre-" + name, BATCH_THREAD_TTL, true);
+        this.windowScheduler = Schedulers.newSingle("cassandre-" + name + "-window", true);
+        processor.bufferTimeout(maximumBatchSize, window, windowScheduler)
+                .subscribe(this::dispatch);
+    }
+
+    /**
+     * Stops the threads of the batcher (requests submitted afterwards fail).
+     */
+    final void dispose() {
+        // Requests submitted before are flushed in a last batch, the ones submitted afterwards fail.
+        synchronized (submissionLock) {
+            stopped = true;
+            pendingRequests.complete();
+        }
+        windowScheduler.dispose();
+        batchScheduler.dispose();
+        final Exception e = new IllegalStateException("Order batcher stopped");
+        scheduledBatches.forEach(batch -> failBatch(batch, e));
+    }
+
+    /**
+     * Submits a request - it's sent with the next batch once the result is subscribed.
+     *
+     * @param request request
+     * @return result
+     */
+    final Mono<R> submit(final T request) {
+        return Mono.create(sink -> {
+            synchronized (submissionLock) {
+                if (!stopped) {
+                    pendingRequests.next(new PendingRequest<>(request, sink));
+                    return;
+                }
+            }
+            sink.success(getErrorResult(new IllegalStateException("Order batcher stopped")));
+        });
+    }
+
+    /**
+     * Sends a batch of requests.
+     *
+     * @param batch batch
+     */
+    private void dispatch(final List<PendingRequest<T, R>> batch) {
+        final int maximumBatchSize = getMaximumBatchSize();
+        if (batch.size() > 1 && maximumBatchSize > 1) {
+            for (int i = 0; i < batch.size(); i += maximumBatchSize) {
+                final List<PendingRequest<T, R>> subBatch = batch.subList(i, Math.min(batch.size(), i + maximumBatchSize));
+                scheduledBatches.add(subBatch);
+                try {
+                    batchScheduler.schedule(() -> sendBatch(subBatch));
+                } catch (RejectedExecutionException e) {
+                    failBatch(subBatch, e);
+                }
+            }
+        } else {
+            batch.forEach(pendingRequest -> send(pendingRequest.request).subscribe(pendingRequest.sink::success, pendingRequest.sink::error));
+        }
+    }
+
+    /**
+     * Sends a batch of requests with one call and completes each request with its result.
+     *
+     * @param batch batch
+     */
+    private void sendBatch(final List<PendingRequest<T, R>> batch) {
+        if (!scheduledBatches.remove(batch)) {
+            // Already failed by dispose().
+            return;
+        }
+        try {
+            final List<R> results = send(batch.stream().map(pendingRequest -> pendingRequest.request).collect(Collectors.toList()));
+            if (results.size() != batch.size()) {
+                throw new IOException(results.size() + " results received for " + batch.size() + " requests");
+            }
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).sink.success(results.get(i));
+            }
+        } catch (Exception e) {
+            getLogger().error("OrderBatcher - Error sending a batch of {} requests : {}", batch.size(), e.getMessage());
+            batch.forEach(pendingRequest -> pendingRequest.sink.success(getErrorResult(e)));
+        }
+    }
+
+    /**
+     * Fails the requests of a batch that was not sent.
+     *
+     * @param batch batch
+     * @param e     exception
+     */
+    private void failBatch(final List<PendingRequest<T, R>> batch, final Exception e) {
+        if (scheduledBatches.remove(batch)) {
+            getLogger().error("OrderBatcher - Batch of {} requests not sent : {}", batch.size(), e.getMessage());
+            batch.forEach(pendingRequest -> pendingRequest.sink.success(getErrorResult(e)));
+        }
+    }
+
+    /**
+     * Returns the maximum number of requests the exchange accepts with one call.
+     *
+     * @return maximum batch size (0 if batches are not supported)
+     */
+    abstract int getMaximumBatchSize();
+
+    /**
+     * Sends several requests with one call.
+     *
+     * @param requests requests
+     * @return results, in the same order as the requests
+     * @throws IOException          if the call fails
+     * @throws InterruptedException if interrupted while waiting for the rate limiter
+     */
+    abstract List<R> send(List<T> requests) throws IOException, InterruptedException;
+
+    /**
+     * Sends one request.
+     *
+     * @param request request
+     * @return result
+     */
+    abstract Mono<R> send(T request);
+
+    /**
+     * Returns the result of a request whose batch failed.
+     *
+     * @param e exception
+     * @return result
+     */
+    abstract R getErrorResult(Exception e);
+
+    /**
+     * A request waiting for its batch.
+     *
+     * @param <T> request type
+     * @param <R> result type
+     */
+    private static final class PendingRequest<T, R> {
+
+        /** Request. */
+        private final T request;
+
+        /** Result sink. */
+        private final MonoSink<R> sink;
+
+        /**
+         * Constructor.
+         *
+         * @param newRequest request
+         * @param newSink    result sink
+         */
+        private PendingRequest(final T newRequest, final MonoSink<R> newSink) {
+            this.request = newRequest;
+            this.sink = newSink;
+        }
+
+    }
+
+}
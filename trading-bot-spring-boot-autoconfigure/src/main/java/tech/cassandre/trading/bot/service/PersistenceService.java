@@ -0,0 +1,397 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.domain.Position;
+import tech.cassandre.trading.bot.domain.Trade;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.repository.FileEntityRepository;
+import tech.cassandre.trading.bot.repository.OrderRepository;
+import tech.cassandre.trading.bot.repository.PositionRepository;
+import tech.cassandre.trading.bot.repository.TradeRepository;
+import tech.cassandre.trading.bot.repository.WriteBehindQueue;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+
+/**
+ * Persistence service - stores positions, orders and trades in their repositories through a write-behind queue.
+ * <p>
+ * Updates are converted to domain objects in the caller thread and written later by the queue : the fluxes feeding
+ * this service never wait for the disk, unless the queue is full.
+ * <p>
+ * Each repository is a journal compacted in a snapshot : at startup, positions are rebuilt from the positions and
+ * trades stored (see {@link #loadPositions()}). Closed positions are not rebuilt : they stay encoded in their
+ * repository, as orders and trades, and are decoded when read through the {@link PositionArchive} methods.
+ */
+public class PersistenceService extends Base implements PositionArchive {
+
+    /** Separator of the stored currency pairs. */
+    private static final String CURRENCY_PAIR_SEPARATOR = "/";
+
+    /** Position repository file name. */
+    public static final String POSITIONS_FILE = "positions.dat";
+
+    /** Order repository file name. */
+    public static final String ORDERS_FILE = "orders.dat";
+
+    /** Trade repository file name. */
+    public static final String TRADES_FILE = "trades.dat";
+
+    /** Position repository. */
+    private final PositionRepository positionRepository;
+
+    /** Order repository. */
+    private final OrderRepository orderRepository;
+
+    /** Trade repository. */
+    private final TradeRepository tradeRepository;
+
+    /** Write-behind queue. */
+    private final WriteBehindQueue writeBehindQueue;
+
+    /**
+     * Constructor - journals forced to the disk every second.
+     *
+     * @param newDirectory     directory of the repository files
+     * @param newQueueCapacity write-behind queue capacity
+     * @param newBatchSize     maximum number of entities written in a batch
+     */
+    public PersistenceService(final Path newDirectory, final int newQueueCapacity, final int newBatchSize) {
+        this(newDirectory, newQueueCapacity, newBatchSize, FsyncPolicy.PERIODIC, FileEntityRepository.DEFAULT_SNAPSHOT_RECORDS);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newDirectory       directory of the repository files
+     * @param newQueueCapacity   write-behind queue capacity
+     * @param newBatchSize       maximum number of entities written in a batch
+     * @param newFsyncPolicy     fsync policy of the journals
+     * @param newSnapshotRecords number of journal records written before a snapshot
+     */
+    public PersistenceService(final Path newDirectory,
+                              final int newQueueCapacity,
+                              final int newBatchSize,
+                              final FsyncPolicy newFsyncPolicy,
+                              final long newSnapshotRecords) {
+        this.positionRepository = new PositionRepository(newDirectory.resolve(POSITIONS_FILE), newFsyncPolicy, newSnapshotRecords);
+        this.orderRepository = new OrderRepository(newDirectory.resolve(ORDERS_FILE), newFsyncPolicy, newSnapshotRecords);
+        this.tradeRepository = new TradeRepository(newDirectory.resolve(TRADES_FILE), newFsyncPolicy, newSnapshotRecords);
+        this.writeBehindQueue = new WriteBehindQueue(newQueueCapacity, newBatchSize);
+    }
+
+    /**
+     * Method called when a position is updated.
+     *
+     * @param position position
+     */
+    public final void positionUpdate(final PositionDTO position) {
+        writeBehindQueue.save(positionRepository, toPosition(position));
+    }
+
+    /**
+     * Method called when an order is updated.
+     *
+     * @param order order
+     */
+    public final void orderUpdate(final OrderDTO order) {
+        writeBehindQueue.save(orderRepository, toOrder(order));
+    }
+
+    /**
+     * Method called when a trade is received.
+     *
+     * @param trade trade
+     */
+    public final void tradeUpdate(final TradeDTO trade) {
+        writeBehindQueue.save(tradeRepository, toTrade(trade));
+    }
+
+    /**
+     * Writes the queued updates and closes the repositories.
+     *
+     * @param timeout maximum time waited for the queued updates (ms)
+     */
+    public final void close(final long timeout) {
+        try {
+            writeBehindQueue.close(timeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            getLogger().error("PersistenceService - Interrupted while writing updates");
+        }
+        positionRepository.close();
+        orderRepository.close();
+        tradeRepository.close();
+    }
+
+    /**
+     * Rebuilds the stored positions that are not closed - each position goes through its stored status changes, with
+     * its stored trades. A position whose trade is not stored stays in the previous status, waiting for the trade.
+     * <p>
+     * Closed positions are not decoded : a position is only stored as CLOSED after its trades (they are queued first).
+     *
+     * @return positions not closed
+     */
+    public final List<PositionDTO> loadPositions() {
+        return positionRepository.findAllNotClosed()
+                .stream()
+                .map(this::toPositionDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public final Optional<PositionDTO> findById(final long id) {
+        return positionRepository.findById(Long.toString(id))
+                .filter(position -> position.getStatus() == CLOSED)
+                .map(this::toPositionDTO);
+    }
+
+    @Override
+    public final List<PositionDTO> findAll() {
+        return positionRepository.findAll()
+                .stream()
+                .filter(position -> position.getStatus() == CLOSED)
+                .map(this::toPositionDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public final long getLastPositionId() {
+        return positionRepository.getLastPositionId();
+    }
+
+    /**
+     * Returns the stored trades of the orders the positions are waiting for, by order id (the first trade of each
+     * order). Only those trades are converted : they are used to reconcile the positions with the exchange.
+     *
+     * @param positions positions
+     * @return trades by order id
+     */
+    public final Map<String, TradeDTO> loadTradesByOrderId(final Collection<PositionDTO> positions) {
+        final Set<String> orderIds = new HashSet<>();
+        positions.forEach(position -> {
+            if (position.getStatus() == OPENING) {
+                orderIds.add(position.getOpenOrderId());
+            }
+            if (position.getStatus() == CLOSING) {
+                orderIds.add(position.getCloseOrderId());
+            }
+        });
+        final Map<String, TradeDTO> trades = new HashMap<>();
+        if (!orderIds.isEmpty()) {
+            tradeRepository.findAll()
+                    .stream()
+                    .filter(trade -> orderIds.contains(trade.getOrderId()))
+                    .forEach(trade -> trades.putIfAbsent(trade.getOrderId(), toTradeDTO(trade)));
+        }
+        return trades;
+    }
+
+    /**
+     * Converts a stored position.
+     *
+     * @param source position
+     * @return position
+     */
+    private PositionDTO toPositionDTO(final Position source) {
+        final PositionRulesDTO.Builder rules = PositionRulesDTO.builder();
+        if (source.getStopGainPercentage() != null) {
+            rules.stopGainPercentage(source.getStopGainPercentage());
+        }
+        if (source.getStopLossPercentage() != null) {
+            rules.stopLossPercentage(source.getStopLossPercentage());
+        }
+        final PositionDTO position = new PositionDTO(source.getId(), source.getOpenOrderId(), rules.create());
+        final Optional<Trade> openTrade = findTrade(source.getOpenTradeId());
+        if (openTrade.isPresent()) {
+            position.tradeUpdate(toTradeDTO(openTrade.get()));
+            if (source.getCloseOrderId() != null) {
+                position.setCloseOrderId(source.getCloseOrderId());
+                findTrade(source.getCloseTradeId()).ifPresent(closeTrade -> position.tradeUpdate(toTradeDTO(closeTrade)));
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Finds a stored trade.
+     *
+     * @param id trade id (null if the position has no trade)
+     * @return trade
+     */
+    private Optional<Trade> findTrade(final String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return tradeRepository.findById(id);
+    }
+
+    /**
+     * Converts a stored trade.
+     *
+     * @param source trade
+     * @return trade
+     */
+    public static TradeDTO toTradeDTO(final Trade source) {
+        final TradeDTO.Builder trade = TradeDTO.builder()
+                .id(source.getId())
+                .orderId(source.getOrderId())
+                .type(source.getType())
+                .originalAmount(source.getOriginalAmount())
+                .price(source.getPrice())
+                .timestamp(source.getTimestamp())
+                .feeAmount(source.getFeeAmount());
+        if (source.getCurrencyPair() != null) {
+            trade.currencyPair(toCurrencyPair(source.getCurrencyPair()));
+        }
+        if (source.getFeeCurrency() != null) {
+            trade.feeCurrency(CurrencyDTO.getInstance(source.getFeeCurrency()));
+        }
+        return trade.create();
+    }
+
+    /**
+     * Converts a stored currency pair (base currency/quote currency).
+     *
+     * @param currencyPair currency pair
+     * @return currency pair
+     */
+    private static CurrencyPairDTO toCurrencyPair(final String currencyPair) {
+        final int separator = currencyPair.indexOf(CURRENCY_PAIR_SEPARATOR);
+        return CurrencyPairDTO.getInstance(currencyPair.substring(0, separator), currencyPair.substring(separator + 1));
+    }
+
+    /**
+     * Converts a position.
+     *
+     * @param source position
+     * @return domain position
+     */
+    public static Position toPosition(final PositionDTO source) {
+        final Position position = new Position();
+        position.setId(source.getId());
+        position.setStatus(source.getStatus());
+        final PositionRulesDTO rules = source.getRules();
+        if (rules.isStopGainPercentageSet()) {
+            position.setStopGainPercentage(rules.getStopGainPercentage());
+        }
+        if (rules.isStopLossPercentageSet()) {
+            position.setStopLossPercentage(rules.getStopLossPercentage());
+        }
+        position.setOpenOrderId(source.getOpenOrderId());
+        position.setCloseOrderId(source.getCloseOrderId());
+        if (source.getOpenTrade() != null) {
+            position.setOpenTradeId(source.getOpenTrade().getId());
+        }
+        if (source.getCloseTrade() != null) {
+            position.setCloseTradeId(source.getCloseTrade().getId());
+        }
+        return position;
+    }
+
+    /**
+     * Converts an order.
+     *
+     * @param source order
+     * @return domain order
+     */
+    public static Order toOrder(final OrderDTO source) {
+        final Order order = new Order();
+        order.setId(source.getId());
+        order.setType(source.getType());
+        order.setOriginalAmount(source.getOriginalAmount());
+        if (source.getCurrencyPair() != null) {
+            order.setCurrencyPair(source.getCurrencyPair().toString());
+        }
+        order.setUserReference(source.getUserReference());
+        order.setTimestamp(source.getTimestamp());
+        order.setStatus(source.getStatus());
+        order.setCumulativeAmount(source.getCumulativeAmount());
+        order.setAveragePrice(source.getAveragePrice());
+        order.setFee(source.getFee());
+        order.setLeverage(source.getLeverage());
+        order.setLimitPrice(source.getLimitPrice());
+        return order;
+    }
+
+    /**
+     * Converts a trade.
+     *
+     * @param source trade
+     * @return domain trade
+     */
+    public static Trade toTrade(final TradeDTO source) {
+        final Trade trade = new Trade();
+        trade.setId(source.getId());
+        trade.setOrderId(source.getOrderId());
+        trade.setType(source.getType());
+        trade.setOriginalAmount(source.getOriginalAmount());
+        if (source.getCurrencyPair() != null) {
+            trade.setCurrencyPair(source.getCurrencyPair().toString());
+        }
+        trade.setPrice(source.getPrice());
+        trade.setTimestamp(source.getTimestamp());
+        if (source.getFee() != null) {
+            trade.setFeeAmount(source.getFee().getValue());
+            if (source.getFee().getCurrency() != null) {
+                trade.setFeeCurrency(source.getFee().getCurrency().getCode());
+            }
+        }
+        return trade;
+    }
+
+    /**
+     * Getter for positionRepository.
+     *
+     * @return positionRepository
+     */
+    public final PositionRepository getPositionRepository() {
+        return positionRepository;
+    }
+
+    /**
+     * Getter for orderRepository.
+     *
+     * @return orderRepository
+     */
+    public final OrderRepository getOrderRepository() {
+        return orderRepository;
+    }
+
+    /**
+     * Getter for tradeRepository.
+     *
+     * @return tradeRepository
+     */
+    public final TradeRepository getTradeRepository() {
+        return tradeRepository;
+    }
+
+    /**
+     * Getter for writeBehindQueue (back-pressure metrics).
+     *
+     * @return writeBehindQueue
+     */
+    public final WriteBehindQueue getWriteBehindQueue() {
+        return writeBehindQueue;
+    }
+
+}
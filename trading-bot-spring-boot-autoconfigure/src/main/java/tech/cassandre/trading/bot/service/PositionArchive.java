@@ -0,0 +1,36 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Position archive - closed positions kept encoded outside the position service (for example, by the persistence
+ * service after a restart) and decoded when read : each read returns a new instance.
+ */
+public interface PositionArchive {
+
+    /**
+     * Returns a closed position.
+     *
+     * @param id position id
+     * @return position (empty if the position is unknown or not closed)
+     */
+    Optional<PositionDTO> findById(long id);
+
+    /**
+     * Returns all the closed positions.
+     *
+     * @return positions
+     */
+    List<PositionDTO> findAll();
+
+    /**
+     * Returns the highest id of the archived positions.
+     *
+     * @return position id (0 if there is none)
+     */
+    long getLastPositionId();
+
+}
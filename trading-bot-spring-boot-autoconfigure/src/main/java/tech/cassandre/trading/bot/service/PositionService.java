@@ -1,5 +1,6 @@
 package tech.cassandre.trading.bot.service;
 
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
@@ -48,6 +49,13 @@ public interface PositionService {
      */
     void tickerUpdate(TickerDTO ticker);
 
+    /**
+     * Method called at every ticker update, with a compact ticker.
+     *
+     * @param ticker compact ticker
+     */
+    void tickerUpdate(CompactTickerDTO ticker);
+
     /**
      * Method called by streams on every trade update.
      *
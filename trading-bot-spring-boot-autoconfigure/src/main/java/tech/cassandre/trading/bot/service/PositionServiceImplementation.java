@@ -1,55 +1,144 @@
 package tech.cassandre.trading.bot.service;
 
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
 import tech.cassandre.trading.bot.dto.position.PositionDTO;
 import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
 import tech.cassandre.trading.bot.util.base.BaseService;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 
 import java.math.BigDecimal;
-import java.util.LinkedHashMap;
+import java.math.RoundingMode;
+import java.util.Collection;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static tech.cassandre.trading.bot.dto.market.CompactTickerDTO.NO_VALUE;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
 
 /**
  * Position service implementation.
+ * <p>
+ * Positions are indexed so the cost of a ticker or of a trade doesn't grow with the number of positions ever created :
+ * <ul>
+ *     <li>opened positions are sorted by stop trigger prices for each currency pair - a ticker only touches the
+ *     positions whose stop gain or stop loss price it crossed.</li>
+ *     <li>open positions are indexed by their open and close order ids - a trade is matched in constant time.</li>
+ *     <li>closed positions are archived - they leave both indexes and are only kept by id.</li>
+ * </ul>
+ * Closed positions restored after a restart are not rebuilt : they are read from a {@link PositionArchive}.
+ * <p>
+ * Positions are created by strategies, closed by tickers and updated by trades, each from its own thread : all the
+ * structures are concurrent and position status changes are atomic so those three paths run in parallel without locks.
+ * A ticker claims a position by removing it from the trigger index, so a position is never closed twice.
+ * <p>
+ * Sell orders closing positions are sent asynchronously : the positions triggered by a ticker are closed in parallel
+ * and the ticker thread doesn't wait for the exchange.
+ * <p>
+ * Tickers are checked as {@link CompactTickerDTO} : trigger prices are compared as unscaled longs, with the price scale
+ * of each currency pair. An ask price with more decimals than this scale is never rounded to a trigger it didn't reach :
+ * the positions it may have triggered are checked with the exact price.
+ * <p>
+ * Position listeners are called after each position status change, on the thread making the change. Positions stored
+ * before a restart are restored with {@link #restorePositions(Collection, Map)}.
  */
 public class PositionServiceImplementation extends BaseService implements PositionService {
 
+    /** Maximum number of unmatched trades kept. */
+    private static final int UNMATCHED_TRADES_CAPACITY = 10_000;
+
     /** Position counter. */
     private final AtomicInteger positionCounter = new AtomicInteger(1);
 
-    /** List of positions. */
-    private final Map<Long, PositionDTO> positions = new LinkedHashMap<>();
+    /** Positions by id (open and archived). */
+    private final Map<Long, PositionDTO> positions = new ConcurrentSkipListMap<>();
+
+    /** Opened positions (the ones that can be closed) sorted by trigger prices, by currency pair. */
+    private final Map<CurrencyPairDTO, PositionTriggerIndex> triggerIndexes = new ConcurrentHashMap<>();
+
+    /** Open positions by order id (open and close orders). */
+    private final Map<String, PositionDTO> openPositionsByOrderId = new ConcurrentHashMap<>();
+
+    /** Trades received for an unknown order id, by order id (the position may not be registered yet). */
+    private final Map<String, TradeDTO> unmatchedTrades = new ConcurrentHashMap<>();
+
+    /** Order ids of unmatched trades, oldest first. */
+    private final Queue<String> unmatchedOrderIds = new ConcurrentLinkedQueue<>();
+
+    /** Closed positions restored, decoded when read (null if none). */
+    private volatile PositionArchive positionArchive;
+
+    /** Listeners called after each position status change. */
+    private final List<Consumer<PositionDTO>> positionListeners = new CopyOnWriteArrayList<>();
 
     /** Trade service. */
     private final TradeService tradeService;
 
+    /** Compact ticker converter. */
+    private final CompactTickerConverter compactTickerConverter;
+
     /**
-     * Constructor.
+     * Constructor (default price scales).
      *
      * @param newTradeService trade service
      */
     public PositionServiceImplementation(final TradeService newTradeService) {
+        this(newTradeService, new CompactTickerConverter());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService            trade service
+     * @param newCompactTickerConverter compact ticker converter
+     */
+    public PositionServiceImplementation(final TradeService newTradeService, final CompactTickerConverter newCompactTickerConverter) {
         this.tradeService = newTradeService;
+        this.compactTickerConverter = newCompactTickerConverter;
     }
 
     @Override
     public final Set<PositionDTO> getPositions() {
         getLogger().debug("PositionService - Retrieving all positions");
-        return new LinkedHashSet<>(positions.values());
+        final PositionArchive currentPositionArchive = positionArchive;
+        if (currentPositionArchive == null) {
+            return new LinkedHashSet<>(positions.values());
+        }
+        final Map<Long, PositionDTO> allPositions = new TreeMap<>();
+        currentPositionArchive.findAll().forEach(p -> allPositions.put(p.getId(), p));
+        allPositions.putAll(positions);
+        return new LinkedHashSet<>(allPositions.values());
     }
 
     @Override
     public final Optional<PositionDTO> getPositionById(final long id) {
         getLogger().debug("PositionService - Retrieving position {}", id);
-        return Optional.ofNullable(positions.get(id));
+        final PositionDTO p = positions.get(id);
+        final PositionArchive currentPositionArchive = positionArchive;
+        if (p == null && currentPositionArchive != null) {
+            return currentPositionArchive.findById(id);
+        }
+        return Optional.ofNullable(p);
     }
 
     @Override
@@ -63,6 +152,8 @@ public class PositionServiceImplementation extends BaseService implements Positi
             // Creates the position.
             PositionDTO p = new PositionDTO(positionCounter.getAndIncrement(), orderCreationResult.getOrderId(), rules);
             positions.put(p.getId(), p);
+            notifyPositionListeners(p);
+            registerOrderId(p.getOpenOrderId(), p);
             getLogger().debug("PositionService - Position {} opened with order {}", p.getId(), orderCreationResult.getOrderId());
 
             // Creates the result.
@@ -76,20 +167,276 @@ public class PositionServiceImplementation extends BaseService implements Positi
 
     @Override
     public final void tickerUpdate(final TickerDTO ticker) {
-        positions.values().stream()
-                .filter(p -> p.shouldBeClosed(ticker))
-                .forEach(p -> {
-                    final OrderCreationResultDTO orderCreationResult = tradeService.createSellMarketOrder(ticker.getCurrencyPair(), p.getOpenTrade().getOriginalAmount());
-                    if (orderCreationResult.isSuccessful()) {
-                        p.setCloseOrderId(orderCreationResult.getOrderId());
-                        getLogger().debug("PositionService - Position {} closed with order {}", p.getId(), orderCreationResult.getOrderId());
-                    }
-                });
+        final PositionTriggerIndex triggerIndex = triggerIndexes.get(ticker.getCurrencyPair());
+        if (triggerIndex != null && ticker.getAsk() != null) {
+            try {
+                if (isOnScale(ticker.getAsk(), triggerIndex.getPriceScale())) {
+                    // Only the prices are compared with the position triggers.
+                    tickerUpdate(compactTickerConverter.toCompactTickerPrices(ticker));
+                } else {
+                    // Rounded, the ask price could reach a trigger the exact price didn't reach.
+                    closePositions(triggerIndex,
+                            ticker.getCurrencyPair(),
+                            getTriggeredPositions(triggerIndex, ticker.getAsk()),
+                            p -> p.shouldBeClosed(ticker));
+                }
+            } catch (ArithmeticException e) {
+                // An exception would cancel the ticker subscription.
+                getLogger().error("PositionService - Ticker ignored, price out of range : {}", ticker);
+            }
+        }
+    }
+
+    @Override
+    public final void tickerUpdate(final CompactTickerDTO ticker) {
+        final PositionTriggerIndex triggerIndex = triggerIndexes.get(ticker.getCurrencyPair());
+        if (triggerIndex != null && ticker.getAsk() != NO_VALUE) {
+            final Set<PositionDTO> triggeredPositions;
+            if (ticker.getPriceScale() <= triggerIndex.getPriceScale()) {
+                triggeredPositions = triggerIndex.getTriggeredPositions(getAsk(ticker, triggerIndex.getPriceScale()));
+            } else {
+                // More decimals than the trigger prices : the ask price is not rounded.
+                triggeredPositions = getTriggeredPositions(triggerIndex, CompactTickerDTO.toBigDecimal(ticker.getAsk(), ticker.getPriceScale()));
+            }
+            closePositions(triggerIndex, ticker.getCurrencyPair(), triggeredPositions, p -> p.shouldBeClosed(ticker));
+        }
+    }
+
+    /**
+     * Closes the triggered positions that should be closed.
+     *
+     * @param triggerIndex       trigger index of the currency pair
+     * @param currencyPair       currency pair
+     * @param triggeredPositions positions whose trigger may have been crossed
+     * @param shouldBeClosed     returns true if a position should be closed
+     */
+    private void closePositions(final PositionTriggerIndex triggerIndex,
+                                final CurrencyPairDTO currencyPair,
+                                final Set<PositionDTO> triggeredPositions,
+                                final Predicate<PositionDTO> shouldBeClosed) {
+        triggeredPositions.stream()
+                .filter(shouldBeClosed)
+                // Only the thread removing the position from the index closes it.
+                .filter(triggerIndex::remove)
+                .forEach(p -> tradeService.createSellMarketOrderAsync(currencyPair, p.getOpenTrade().getOriginalAmount())
+                        .subscribe(orderCreationResult -> {
+                            if (orderCreationResult.isSuccessful()) {
+                                p.setCloseOrderId(orderCreationResult.getOrderId());
+                                notifyPositionListeners(p);
+                                registerOrderId(orderCreationResult.getOrderId(), p);
+                                getLogger().debug("PositionService - Position {} closed with order {}", p.getId(), orderCreationResult.getOrderId());
+                            } else {
+                                // The position stays opened and will be closed by a next ticker.
+                                triggerIndex.add(p);
+                            }
+                        }, throwable -> {
+                            getLogger().error("PositionService - Position {} closing failure : {}", p.getId(), throwable.getMessage());
+                            triggerIndex.add(p);
+                        }));
+    }
+
+    /**
+     * Returns the positions whose trigger may have been crossed by an ask price with more decimals than the trigger
+     * prices : stop gains crossed by the price rounded up, stop losses crossed by the price rounded down. They must be
+     * checked with the exact price.
+     *
+     * @param triggerIndex trigger index
+     * @param ask          ask price
+     * @return positions to check
+     */
+    private static Set<PositionDTO> getTriggeredPositions(final PositionTriggerIndex triggerIndex, final BigDecimal ask) {
+        final int priceScale = triggerIndex.getPriceScale();
+        final Set<PositionDTO> triggeredPositions = triggerIndex.getTriggeredPositions(CompactTickerDTO.toUnscaledValue(ask, priceScale, RoundingMode.CEILING));
+        triggeredPositions.addAll(triggerIndex.getTriggeredPositions(CompactTickerDTO.toUnscaledValue(ask, priceScale, RoundingMode.FLOOR)));
+        return triggeredPositions;
+    }
+
+    /**
+     * Returns true if a price has no more decimals than a scale.
+     *
+     * @param price price
+     * @param scale scale
+     * @return true if the price is exact with this scale
+     */
+    private static boolean isOnScale(final BigDecimal price, final int scale) {
+        return price.scale() <= scale || price.stripTrailingZeros().scale() <= scale;
+    }
+
+    /**
+     * Returns the ask price of a ticker with a price scale (at least the scale of the ticker).
+     *
+     * @param ticker     compact ticker
+     * @param priceScale price scale
+     * @return unscaled ask price
+     */
+    private static long getAsk(final CompactTickerDTO ticker, final int priceScale) {
+        if (ticker.getPriceScale() == priceScale) {
+            return ticker.getAsk();
+        }
+        return CompactTickerDTO.toUnscaledValue(CompactTickerDTO.toBigDecimal(ticker.getAsk(), ticker.getPriceScale()), priceScale, RoundingMode.UNNECESSARY);
     }
 
     @Override
     public final void tradeUpdate(final TradeDTO trade) {
-        positions.values().forEach(p -> p.tradeUpdate(trade));
+        PositionDTO p = openPositionsByOrderId.get(trade.getOrderId());
+        if (p == null) {
+            // The trade may arrive before the order creation returns : it's kept until its order id is registered.
+            keepUnmatchedTrade(trade);
+            p = openPositionsByOrderId.get(trade.getOrderId());
+            if (p == null || !unmatchedTrades.remove(trade.getOrderId(), trade)) {
+                return;
+            }
+        }
+        if (p.tradeUpdate(trade)) {
+            notifyPositionListeners(p);
+            index(p);
+        }
+    }
+
+    /**
+     * Indexes a position according to its status.
+     *
+     * @param p position
+     */
+    private void index(final PositionDTO p) {
+        if (p.getStatus() == OPENED) {
+            triggerIndexes.computeIfAbsent(p.getOpenTrade().getCurrencyPair(), cp -> new PositionTriggerIndex(compactTickerConverter.getPriceScale(cp))).add(p);
+        }
+        if (p.getStatus() == CLOSED) {
+            // Closed positions are archived.
+            openPositionsByOrderId.remove(p.getOpenOrderId());
+            openPositionsByOrderId.remove(p.getCloseOrderId());
+            getLogger().debug("PositionService - Position {} archived", p.getId());
+        }
+    }
+
+    /**
+     * Restores the positions stored before a restart and reconciles them with the orders still open on the exchange.
+     * <p>
+     * Opening and closing positions whose order is not open anymore are updated with the trade stored for this order,
+     * if any - otherwise, they wait for the trade as usual. Position listeners are only called for those updates.
+     *
+     * @param restoredPositions positions
+     * @param storedTrades      trades stored, by order id
+     */
+    public final void restorePositions(final Collection<PositionDTO> restoredPositions, final Map<String, TradeDTO> storedTrades) {
+        restorePositions(restoredPositions, storedTrades, null);
+    }
+
+    /**
+     * Restores the positions stored before a restart, closed positions being read from an archive, and reconciles
+     * them with the orders still open on the exchange.
+     *
+     * @param restoredPositions  positions not closed
+     * @param storedTrades       trades stored, by order id
+     * @param newPositionArchive closed positions (null if none)
+     */
+    public final void restorePositions(final Collection<PositionDTO> restoredPositions,
+                                       final Map<String, TradeDTO> storedTrades,
+                                       final PositionArchive newPositionArchive) {
+        if (newPositionArchive != null) {
+            positionArchive = newPositionArchive;
+            positionCounter.accumulateAndGet((int) newPositionArchive.getLastPositionId() + 1, Math::max);
+        }
+        restoredPositions.forEach(p -> {
+            positions.put(p.getId(), p);
+            positionCounter.accumulateAndGet((int) p.getId() + 1, Math::max);
+            if (p.getStatus() == OPENING || p.getStatus() == OPENED) {
+                openPositionsByOrderId.put(p.getOpenOrderId(), p);
+            }
+            if (p.getStatus() == CLOSING) {
+                openPositionsByOrderId.put(p.getOpenOrderId(), p);
+                openPositionsByOrderId.put(p.getCloseOrderId(), p);
+            }
+            if (p.getStatus() == OPENED) {
+                index(p);
+            }
+        });
+
+        // Reconciliation with the open orders.
+        final Set<String> openOrderIds;
+        try {
+            openOrderIds = tradeService.getOpenOrders()
+                    .stream()
+                    .map(OrderDTO::getId)
+                    .collect(Collectors.toSet());
+        } catch (RuntimeException e) {
+            getLogger().error("PositionService - Open orders not available, positions not reconciled : {}", e.getMessage());
+            return;
+        }
+        final List<PositionDTO> waitingPositions = restoredPositions.stream()
+                .filter(p -> p.getStatus() == OPENING || p.getStatus() == CLOSING)
+                .collect(Collectors.toList());
+        int updatedPositions = 0;
+        for (PositionDTO p : waitingPositions) {
+            String orderId = p.getOpenOrderId();
+            if (p.getStatus() == CLOSING) {
+                orderId = p.getCloseOrderId();
+            }
+            if (!openOrderIds.contains(orderId)) {
+                final TradeDTO trade = storedTrades.get(orderId);
+                if (trade != null) {
+                    tradeUpdate(trade);
+                    updatedPositions++;
+                } else {
+                    getLogger().warn("PositionService - Order {} of position {} is not open anymore, waiting for its trade", orderId, p.getId());
+                }
+            }
+        }
+        getLogger().info("PositionService - {} positions restored, {} waiting for an order, {} updated with stored trades",
+                restoredPositions.size(),
+                waitingPositions.size(),
+                updatedPositions);
+    }
+
+    /**
+     * Adds a listener called after each position status change.
+     *
+     * @param positionListener position listener
+     */
+    public final void addPositionListener(final Consumer<PositionDTO> positionListener) {
+        positionListeners.add(positionListener);
+    }
+
+    /**
+     * Calls the position listeners.
+     *
+     * @param p position
+     */
+    private void notifyPositionListeners(final PositionDTO p) {
+        positionListeners.forEach(positionListener -> positionListener.accept(p));
+    }
+
+    /**
+     * Registers an order id of a position and applies the trade received before the registration (if any).
+     *
+     * @param orderId order id
+     * @param p       position
+     */
+    private void registerOrderId(final String orderId, final PositionDTO p) {
+        openPositionsByOrderId.put(orderId, p);
+        final TradeDTO trade = unmatchedTrades.remove(orderId);
+        if (trade != null) {
+            tradeUpdate(trade);
+        }
+    }
+
+    /**
+     * Keeps a trade whose order id is unknown (the oldest unmatched trades are forgotten).
+     *
+     * @param trade trade
+     */
+    private void keepUnmatchedTrade(final TradeDTO trade) {
+        if (unmatchedTrades.put(trade.getOrderId(), trade) == null) {
+            unmatchedOrderIds.add(trade.getOrderId());
+        }
+        while (unmatchedTrades.size() > UNMATCHED_TRADES_CAPACITY) {
+            final String orderId = unmatchedOrderIds.poll();
+            if (orderId == null) {
+                break;
+            }
+            unmatchedTrades.remove(orderId);
+        }
     }
 
 }
@@ -0,0 +1,166 @@
+package tech.cassandre.trading.bot.service;
+
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Stop trigger index - the opened positions of a currency pair sorted by the prices triggering their rules.
+ * <p>
+ * Stop gain triggers are crossed by prices at or above them, stop loss triggers by prices at or below them : a ticker
+ * only touches the positions whose trigger was actually crossed. Trigger prices are unscaled values with the price
+ * scale of the currency pair (see {@link tech.cassandre.trading.bot.dto.market.CompactTickerDTO}).
+ * <p>
+ * The index is lock free and can be read and updated by several threads at the same time. Removing a position
+ * succeeds for one thread only, this is how a thread claims a position before closing it.
+ */
+class PositionTriggerIndex {
+
+    /** Price scale. */
+    private final int priceScale;
+
+    /** Positions by stop gain price. */
+    private final NavigableMap<TriggerKey, PositionDTO> stopGainTriggers = new ConcurrentSkipListMap<>();
+
+    /** Positions by stop loss price. */
+    private final NavigableMap<TriggerKey, PositionDTO> stopLossTriggers = new ConcurrentSkipListMap<>();
+
+    /** Indexed positions. */
+    private final Map<Long, PositionDTO> positions = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param newPriceScale price scale of the currency pair
+     */
+    PositionTriggerIndex(final int newPriceScale) {
+        this.priceScale = newPriceScale;
+    }
+
+    /**
+     * Adds an opened position (positions without stop rules are ignored as they can't be triggered).
+     *
+     * @param p position
+     */
+    void add(final PositionDTO p) {
+        if (p.getStopGainPrice() != null || p.getStopLossPrice() != null) {
+            // The position is visible to readers of the trigger maps only once it's indexed.
+            positions.put(p.getId(), p);
+            if (p.getStopGainPrice() != null) {
+                stopGainTriggers.put(new TriggerKey(p.getStopGainPrice(priceScale), p.getId()), p);
+            }
+            if (p.getStopLossPrice() != null) {
+                stopLossTriggers.put(new TriggerKey(p.getStopLossPrice(priceScale), p.getId()), p);
+            }
+        }
+    }
+
+    /**
+     * Removes a position.
+     *
+     * @param p position
+     * @return true if the position was indexed and removed by this call
+     */
+    boolean remove(final PositionDTO p) {
+        if (positions.remove(p.getId()) != null) {
+            if (p.getStopGainPrice() != null) {
+                stopGainTriggers.remove(new TriggerKey(p.getStopGainPrice(priceScale), p.getId()));
+            }
+            if (p.getStopLossPrice() != null) {
+                stopLossTriggers.remove(new TriggerKey(p.getStopLossPrice(priceScale), p.getId()));
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the positions whose stop gain or stop loss trigger is crossed by a price.
+     *
+     * @param price unscaled price
+     * @return triggered positions
+     */
+    Set<PositionDTO> getTriggeredPositions(final long price) {
+        final Set<PositionDTO> triggeredPositions = new LinkedHashSet<>();
+        triggeredPositions.addAll(stopGainTriggers.headMap(new TriggerKey(price, Long.MAX_VALUE), true).values());
+        triggeredPositions.addAll(stopLossTriggers.tailMap(new TriggerKey(price, Long.MIN_VALUE), true).values());
+        return triggeredPositions;
+    }
+
+    /**
+     * Getter for priceScale.
+     *
+     * @return priceScale
+     */
+    int getPriceScale() {
+        return priceScale;
+    }
+
+    /**
+     * Returns true if no position is indexed.
+     *
+     * @return true if empty
+     */
+    boolean isEmpty() {
+        return positions.isEmpty();
+    }
+
+    /**
+     * Trigger key - a trigger price and the position id (several positions can share the same price).
+     */
+    private static final class TriggerKey implements Comparable<TriggerKey> {
+
+        /** Hash multiplier. */
+        private static final int HASH_MULTIPLIER = 31;
+
+        /** Unscaled trigger price. */
+        private final long price;
+
+        /** Position id. */
+        private final long positionId;
+
+        /**
+         * Constructor.
+         *
+         * @param newPrice      unscaled trigger price
+         * @param newPositionId position id
+         */
+        private TriggerKey(final long newPrice, final long newPositionId) {
+            this.price = newPrice;
+            this.positionId = newPositionId;
+        }
+
+        @Override
+        public int compareTo(final TriggerKey o) {
+            final int comparison = Long.compare(price, o.price);
+            if (comparison != 0) {
+                return comparison;
+            }
+            return Long.compare(positionId, o.positionId);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final TriggerKey that = (TriggerKey) o;
+            return price == that.price && positionId == that.positionId;
+        }
+
+        @Override
+        public int hashCode() {
+            return HASH_MULTIPLIER * Long.hashCode(price) + Long.hashCode(positionId);
+        }
+
+    }
+
+}
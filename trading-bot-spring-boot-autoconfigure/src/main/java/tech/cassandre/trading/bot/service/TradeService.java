@@ -1,5 +1,6 @@
 package tech.cassandre.trading.bot.service;
 
+import reactor.core.publisher.Mono;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
@@ -11,6 +12,8 @@ import java.util.Set;
 
 /**
  * Service giving information about orders and allowing you to create new orders.
+ * Orders can be created and cancelled asynchronously : the call returns at once and the exchange is called on a bounded
+ * pool of I/O threads when the result is subscribed.
  */
 public interface TradeService {
 
@@ -52,6 +55,44 @@ public interface TradeService {
      */
     OrderCreationResultDTO createSellLimitOrder(CurrencyPairDTO currencyPair, BigDecimal amount, BigDecimal limitPrice);
 
+    /**
+     * Creates a buy market order asynchronously.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    Mono<OrderCreationResultDTO> createBuyMarketOrderAsync(CurrencyPairDTO currencyPair, BigDecimal amount);
+
+    /**
+     * Creates a sell market order asynchronously.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @return order result (order id or error)
+     */
+    Mono<OrderCreationResultDTO> createSellMarketOrderAsync(CurrencyPairDTO currencyPair, BigDecimal amount);
+
+    /**
+     * Creates a buy limit order asynchronously.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the highest acceptable price
+     * @return order result (order id or error)
+     */
+    Mono<OrderCreationResultDTO> createBuyLimitOrderAsync(CurrencyPairDTO currencyPair, BigDecimal amount, BigDecimal limitPrice);
+
+    /**
+     * Creates a sell limit order asynchronously.
+     *
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   the lowest acceptable price
+     * @return order result (order id or error)
+     */
+    Mono<OrderCreationResultDTO> createSellLimitOrderAsync(CurrencyPairDTO currencyPair, BigDecimal amount, BigDecimal limitPrice);
+
     /**
      * Get an open order by its id.
      *
@@ -75,6 +116,14 @@ public interface TradeService {
      */
     boolean cancelOrder(String orderId);
 
+    /**
+     * Cancel order asynchronously.
+     *
+     * @param orderId order id
+     * @return true if cancelled
+     */
+    Mono<Boolean> cancelOrderAsync(String orderId);
+
     /**
      * Get last week trades.
      *
@@ -82,4 +131,12 @@ public interface TradeService {
      */
     Set<TradeDTO> getTrades();
 
+    /**
+     * Get the trades not returned yet by a previous call (last week trades at the first call).
+     * Used by the trade flux to only retrieve new trades.
+     *
+     * @return new trades
+     */
+    Set<TradeDTO> getNewTrades();
+
 }
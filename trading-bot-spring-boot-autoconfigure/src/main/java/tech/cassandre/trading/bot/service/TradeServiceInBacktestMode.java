@@ -0,0 +1,334 @@
+package tech.cassandre.trading.bot.service;
+
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static tech.cassandre.trading.bot.dto.market.CompactTickerDTO.NO_VALUE;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.CANCELED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.NEW;
+
+/**
+ * Trade service in backtest mode - orders are filled with the last tickers received, at the time of a clock.
+ * <p>
+ * Market orders are filled at once : buy orders at the ask, sell orders at the bid (at the last price if there is no
+ * ask or bid). Limit orders are filled at once at the same price if it's better than their limit price, otherwise they
+ * stay open until a ticker crosses their limit price and are filled at this limit price. Orders and trades are sent to
+ * the listeners when they are created or updated.
+ * <p>
+ * No thread is used, asynchronous methods run when subscribed : a backtest gives the same results every time. This
+ * service is not thread-safe, each backtest has its own.
+ */
+public class TradeServiceInBacktestMode extends Base implements TradeService {
+
+    /** Clock giving the time of orders and trades. */
+    private final Clock clock;
+
+    /** Last tickers received, indexed by currency pair id. */
+    private CompactTickerDTO[] lastTickers = new CompactTickerDTO[0];
+
+    /** Orders (by creation). */
+    private final Map<String, OrderDTO> orders = new LinkedHashMap<>();
+
+    /** Open limit orders (by creation). */
+    private final Map<String, OrderDTO> openOrders = new LinkedHashMap<>();
+
+    /** Trades (by creation). */
+    private final Map<String, TradeDTO> trades = new LinkedHashMap<>();
+
+    /** Order listener. */
+    private Consumer<OrderDTO> orderListener = order -> { };
+
+    /** Trade listener. */
+    private Consumer<TradeDTO> tradeListener = trade -> { };
+
+    /** Order counter. */
+    private long orderCounter;
+
+    /** Trade counter. */
+    private long tradeCounter;
+
+    /**
+     * Constructor.
+     *
+     * @param newClock clock giving the time of orders and trades
+     */
+    public TradeServiceInBacktestMode(final Clock newClock) {
+        this.clock = newClock;
+    }
+
+    /**
+     * Sets the listeners called on every order and trade update.
+     *
+     * @param newOrderListener order listener
+     * @param newTradeListener trade listener
+     */
+    public final void setListeners(final Consumer<OrderDTO> newOrderListener, final Consumer<TradeDTO> newTradeListener) {
+        this.orderListener = newOrderListener;
+        this.tradeListener = newTradeListener;
+    }
+
+    /**
+     * Method called at every ticker update - fills the open limit orders crossed by the ticker.
+     *
+     * @param ticker compact ticker
+     */
+    public final void tickerUpdate(final CompactTickerDTO ticker) {
+        final int id = ticker.getCurrencyPair().getId();
+        if (id >= lastTickers.length) {
+            lastTickers = Arrays.copyOf(lastTickers, Math.max(id + 1, CurrencyPairDTO.getInstanceCount()));
+        }
+        lastTickers[id] = ticker;
+        if (!openOrders.isEmpty()) {
+            final List<OrderDTO> filledOrders = new ArrayList<>();
+            for (Iterator<OrderDTO> iterator = openOrders.values().iterator(); iterator.hasNext();) {
+                final OrderDTO order = iterator.next();
+                if (order.getCurrencyPair().equals(ticker.getCurrencyPair())) {
+                    final BigDecimal price = getPrice(order.getType(), ticker);
+                    if (price != null && isCrossed(order, price)) {
+                        iterator.remove();
+                        filledOrders.add(order);
+                    }
+                }
+            }
+            filledOrders.forEach(order -> fill(order, order.getLimitPrice()));
+        }
+    }
+
+    @Override
+    public final OrderCreationResultDTO createBuyMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createOrder(OrderTypeDTO.BID, currencyPair, amount, null);
+    }
+
+    @Override
+    public final OrderCreationResultDTO createSellMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createOrder(OrderTypeDTO.ASK, currencyPair, amount, null);
+    }
+
+    @Override
+    public final OrderCreationResultDTO createBuyLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createOrder(OrderTypeDTO.BID, currencyPair, amount, limitPrice);
+    }
+
+    @Override
+    public final OrderCreationResultDTO createSellLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createOrder(OrderTypeDTO.ASK, currencyPair, amount, limitPrice);
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return Mono.fromCallable(() -> createBuyMarketOrder(currencyPair, amount));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return Mono.fromCallable(() -> createSellMarketOrder(currencyPair, amount));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return Mono.fromCallable(() -> createBuyLimitOrder(currencyPair, amount, limitPrice));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return Mono.fromCallable(() -> createSellLimitOrder(currencyPair, amount, limitPrice));
+    }
+
+    @Override
+    public final Optional<OrderDTO> getOpenOrderByOrderId(final String orderId) {
+        return Optional.ofNullable(openOrders.get(orderId));
+    }
+
+    @Override
+    public final Set<OrderDTO> getOpenOrders() {
+        return new LinkedHashSet<>(openOrders.values());
+    }
+
+    @Override
+    public final boolean cancelOrder(final String orderId) {
+        final OrderDTO order = openOrders.remove(orderId);
+        if (order == null) {
+            return false;
+        }
+        update(getOrder(order, CANCELED, null));
+        return true;
+    }
+
+    @Override
+    public final Mono<Boolean> cancelOrderAsync(final String orderId) {
+        return Mono.fromCallable(() -> cancelOrder(orderId));
+    }
+
+    @Override
+    public final Set<TradeDTO> getTrades() {
+        return new LinkedHashSet<>(trades.values());
+    }
+
+    @Override
+    public final Set<TradeDTO> getNewTrades() {
+        // In backtest mode, trades are directly sent to the listener when created.
+        return Collections.emptySet();
+    }
+
+    /**
+     * Returns all the orders created.
+     *
+     * @return orders
+     */
+    public final List<OrderDTO> getOrders() {
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Creates an order - filled at once if it's a market order or if its limit price is crossed by the last ticker.
+     *
+     * @param type         order type
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   limit price (null for a market order)
+     * @return order creation result
+     */
+    private OrderCreationResultDTO createOrder(final OrderTypeDTO type, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        final int id = currencyPair.getId();
+        if (id >= lastTickers.length || lastTickers[id] == null) {
+            return new OrderCreationResultDTO("Ticker not found", new Exception("Ticker not found"));
+        }
+        final BigDecimal price = getPrice(type, lastTickers[id]);
+        if (price == null) {
+            return new OrderCreationResultDTO("No price for " + currencyPair, new Exception("No price for " + currencyPair));
+        }
+        orderCounter++;
+        final OrderDTO order = OrderDTO.builder()
+                .id("BACKTEST_ORDER_".concat(String.format("%09d", orderCounter)))
+                .currencyPair(currencyPair)
+                .type(type)
+                .status(NEW)
+                .originalAmount(amount)
+                .limitPrice(limitPrice)
+                .timestamp(ZonedDateTime.now(clock))
+                .create();
+        if (limitPrice == null || isCrossed(order, price)) {
+            fill(order, price);
+        } else {
+            // The order waits for a ticker crossing its limit price.
+            openOrders.put(order.getId(), order);
+            update(order);
+        }
+        return new OrderCreationResultDTO(order.getId());
+    }
+
+    /**
+     * Returns the price at which an order of this type is filled with a ticker.
+     *
+     * @param type   order type
+     * @param ticker compact ticker
+     * @return price (null if the ticker has no price)
+     */
+    private static BigDecimal getPrice(final OrderTypeDTO type, final CompactTickerDTO ticker) {
+        long price = ticker.getBid();
+        if (type == OrderTypeDTO.BID) {
+            price = ticker.getAsk();
+        }
+        if (price == NO_VALUE) {
+            price = ticker.getLast();
+        }
+        return CompactTickerDTO.toBigDecimal(price, ticker.getPriceScale());
+    }
+
+    /**
+     * Returns true if the price of a limit order is crossed by a price - the order can be filled.
+     *
+     * @param order limit order
+     * @param price price
+     * @return true if crossed
+     */
+    private static boolean isCrossed(final OrderDTO order, final BigDecimal price) {
+        if (order.getType() == OrderTypeDTO.BID) {
+            return price.compareTo(order.getLimitPrice()) <= 0;
+        }
+        return price.compareTo(order.getLimitPrice()) >= 0;
+    }
+
+    /**
+     * Fills an order and creates its trade.
+     *
+     * @param order order
+     * @param price price
+     */
+    private void fill(final OrderDTO order, final BigDecimal price) {
+        update(getOrder(order, FILLED, price));
+        tradeCounter++;
+        final TradeDTO trade = TradeDTO.builder()
+                .id("BACKTEST_TRADE_".concat(String.format("%09d", tradeCounter)))
+                .orderId(order.getId())
+                .currencyPair(order.getCurrencyPair())
+                .type(order.getType())
+                .originalAmount(order.getOriginalAmount())
+                .price(price)
+                .timestamp(ZonedDateTime.now(clock))
+                .feeAmount(BigDecimal.ZERO)
+                .feeCurrency(order.getCurrencyPair().getBaseCurrency())
+                .create();
+        trades.put(trade.getId(), trade);
+        tradeListener.accept(trade);
+    }
+
+    /**
+     * Returns an order with a new status.
+     *
+     * @param order  order
+     * @param status new status
+     * @param price  average price (null if not filled)
+     * @return updated order
+     */
+    private OrderDTO getOrder(final OrderDTO order, final OrderStatusDTO status, final BigDecimal price) {
+        OrderDTO.Builder builder = OrderDTO.builder()
+                .id(order.getId())
+                .currencyPair(order.getCurrencyPair())
+                .type(order.getType())
+                .status(status)
+                .originalAmount(order.getOriginalAmount())
+                .limitPrice(order.getLimitPrice())
+                .timestamp(order.getTimestamp());
+        if (price != null) {
+            builder = builder.cumulativeAmount(order.getOriginalAmount())
+                    .averagePrice(price)
+                    .fee(BigDecimal.ZERO);
+        }
+        return builder.create();
+    }
+
+    /**
+     * Stores an order and sends it to the listener.
+     *
+     * @param order order
+     */
+    private void update(final OrderDTO order) {
+        orders.put(order.getId(), order);
+        orderListener.accept(order);
+    }
+
+}
@@ -2,20 +2,24 @@ package tech.cassandre.trading.bot.service;
 
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.TradeFlux;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
 import tech.cassandre.trading.bot.dto.market.TickerDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.util.base.BaseTradeService;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 
 import java.math.BigDecimal;
 import java.time.ZonedDateTime;
-import java.util.LinkedHashMap;
+import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -23,8 +27,10 @@ import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
 
 /**
  * Trade service in dry mode.
+ * Asynchronous orders are created in parallel : tickers, orders and trades are kept in concurrent maps.
+ * Last tickers are kept as {@link CompactTickerDTO} : the fill price is only converted when an order is created.
  */
-public class TradeServiceInDryMode implements TradeService {
+public class TradeServiceInDryMode extends BaseTradeService {
 
     /** Waiting time before sending orders and flux to flux. */
     private static final long WAITING_TIME = 3000L;
@@ -42,13 +48,32 @@ public class TradeServiceInDryMode implements TradeService {
     private TradeFlux tradeFlux;
 
     /** Last received tickers. */
-    private final Map<CurrencyPairDTO, TickerDTO> lastTickers = new LinkedHashMap<>();
+    private final Map<CurrencyPairDTO, CompactTickerDTO> lastTickers = new ConcurrentHashMap<>();
 
-    /** Orders. */
-    private final Map<String, OrderDTO> orders = new LinkedHashMap<>();
+    /** Compact ticker converter. */
+    private final CompactTickerConverter compactTickerConverter;
 
-    /** The trades owned by the user. */
-    private final Map<String, TradeDTO> trades = new LinkedHashMap<>();
+    /**
+     * Constructor (default price scales).
+     */
+    public TradeServiceInDryMode() {
+        this(new CompactTickerConverter());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newCompactTickerConverter compact ticker converter
+     */
+    public TradeServiceInDryMode(final CompactTickerConverter newCompactTickerConverter) {
+        this.compactTickerConverter = newCompactTickerConverter;
+    }
+
+    /** Orders (sorted by id, so by creation). */
+    private final Map<String, OrderDTO> orders = new ConcurrentSkipListMap<>();
+
+    /** The trades owned by the user (sorted by id, so by creation). */
+    private final Map<String, TradeDTO> trades = new ConcurrentSkipListMap<>();
 
     /**
      * Set dependencies.
@@ -72,18 +97,19 @@ public class TradeServiceInDryMode implements TradeService {
      */
     private OrderCreationResultDTO createMarketOrder(final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount) {
         // We retrieve the last pricing from tickers.
-        TickerDTO t = lastTickers.get(currencyPair);
+        CompactTickerDTO t = lastTickers.get(currencyPair);
 
         // We create the order.
         if (t != null) {
             // We create and send the order.
+            final BigDecimal price = CompactTickerDTO.toBigDecimal(t.getBid(), t.getPriceScale());
             final String orderId = getNextOrderNumber();
             final OrderDTO order = OrderDTO.builder()
                     .id(orderId)
                     .currencyPair(currencyPair)
                     .type(orderTypeDTO)
                     .status(FILLED)
-                    .averagePrice(t.getBid())
+                    .averagePrice(price)
                     .originalAmount(amount)
                     .fee(new BigDecimal("0"))
                     .timestamp(ZonedDateTime.now())
@@ -98,7 +124,7 @@ public class TradeServiceInDryMode implements TradeService {
                     .currencyPair(currencyPair)
                     .type(orderTypeDTO)
                     .originalAmount(amount)
-                    .price(t.getBid())
+                    .price(price)
                     .timestamp(ZonedDateTime.now())
                     .feeAmount(new BigDecimal("0"))
                     .feeCurrency(currencyPair.getBaseCurrency())
@@ -167,6 +193,12 @@ public class TradeServiceInDryMode implements TradeService {
         return new LinkedHashSet<>(trades.values());
     }
 
+    @Override
+    public final Set<TradeDTO> getNewTrades() {
+        // In dry mode, trades are directly sent to the trade flux when created.
+        return Collections.emptySet();
+    }
+
     /**
      * Returns next order number.
      *
@@ -191,6 +223,21 @@ public class TradeServiceInDryMode implements TradeService {
      * @param ticker ticker
      */
     public void tickerUpdate(final TickerDTO ticker) {
+        try {
+            // Only the prices are used to fill orders.
+            tickerUpdate(compactTickerConverter.toCompactTickerPrices(ticker));
+        } catch (ArithmeticException e) {
+            // An exception would cancel the ticker subscription.
+            getLogger().error("TradeService - Ticker ignored, price out of range : {}", ticker);
+        }
+    }
+
+    /**
+     * Method called at every ticker update, with a compact ticker.
+     *
+     * @param ticker compact ticker
+     */
+    public void tickerUpdate(final CompactTickerDTO ticker) {
         lastTickers.put(ticker.getCurrencyPair(), ticker);
     }
 
@@ -0,0 +1,271 @@
+package tech.cassandre.trading.bot.service;
+
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.base.BaseTradeService;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_BATCH_CANCELLATION;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_BATCH_CREATION;
+
+/**
+ * Trade service with order batching - orders created or cancelled within a small window are grouped and sent with
+ * the batch endpoint of the exchange ({@link OrderBatchEndpoint}) or, if there is none, in parallel.
+ * <p>
+ * Blocking order methods wait for the batch of the order, the other methods are delegated to the trade service. A batch
+ * call waits for the rate limiter of the trade service (ORDER_BATCH_CREATION and ORDER_BATCH_CANCELLATION weights) and
+ * the order listeners of the trade service are called after each batch.
+ */
+public class TradeServiceWithOrderBatching extends Base implements TradeService {
+
+    /** Trade service. */
+    private final BaseTradeService tradeService;
+
+    /** Order batch endpoint (null if the exchange has no batch endpoint). */
+    private final Supplier<OrderBatchEndpoint> orderBatchEndpoint;
+
+    /** Order creations batcher. */
+    private final OrderBatcher<OrderDTO, OrderCreationResultDTO> orderCreations;
+
+    /** Order cancellations batcher. */
+    private final OrderBatcher<String, Boolean> orderCancellations;
+
+    /**
+     * Constructor.
+     *
+     * @param newTradeService       trade service
+     * @param newOrderBatchEndpoint order batch endpoint (returning null if the exchange has no batch endpoint)
+     * @param newBatchWindow        time waited for other orders after the first one
+     * @param newMaximumBatchSize   maximum number of orders in a batch
+     * @param newConcurrency        maximum number of batches sent at the same time
+     */
+    public TradeServiceWithOrderBatching(final BaseTradeService newTradeService,
+                                         final Supplier<OrderBatchEndpoint> newOrderBatchEndpoint,
+                                         final Duration newBatchWindow,
+                                         final int newMaximumBatchSize,
+                                         final int newConcurrency) {
+        this.tradeService = newTradeService;
+        this.orderBatchEndpoint = newOrderBatchEndpoint;
+        this.orderCreations = new OrderCreationBatcher(newBatchWindow, newMaximumBatchSize, newConcurrency);
+        this.orderCancellations = new OrderCancellationBatcher(newBatchWindow, newMaximumBatchSize, newConcurrency);
+    }
+
+    /**
+     * Creates an order through the batcher.
+     *
+     * @param orderTypeDTO order type
+     * @param currencyPair currency pair
+     * @param amount       amount
+     * @param limitPrice   limit price (null for market orders)
+     * @return order result (order id or error)
+     */
+    private Mono<OrderCreationResultDTO> createOrder(final OrderTypeDTO orderTypeDTO, final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return orderCreations.submit(OrderDTO.builder()
+                .type(orderTypeDTO)
+                .currencyPair(currencyPair)
+                .originalAmount(amount)
+                .limitPrice(limitPrice)
+                .create());
+    }
+
+    @Override
+    public final OrderCreationResultDTO createBuyMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createBuyMarketOrderAsync(currencyPair, amount).toFuture().join();
+    }
+
+    @Override
+    public final OrderCreationResultDTO createSellMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createSellMarketOrderAsync(currencyPair, amount).toFuture().join();
+    }
+
+    @Override
+    public final OrderCreationResultDTO createBuyLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createBuyLimitOrderAsync(currencyPair, amount, limitPrice).toFuture().join();
+    }
+
+    @Override
+    public final OrderCreationResultDTO createSellLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createSellLimitOrderAsync(currencyPair, amount, limitPrice).toFuture().join();
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createOrder(OrderTypeDTO.BID, currencyPair, amount, null);
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return createOrder(OrderTypeDTO.ASK, currencyPair, amount, null);
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createOrder(OrderTypeDTO.BID, currencyPair, amount, limitPrice);
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return createOrder(OrderTypeDTO.ASK, currencyPair, amount, limitPrice);
+    }
+
+    @Override
+    public final Optional<OrderDTO> getOpenOrderByOrderId(final String orderId) {
+        return tradeService.getOpenOrderByOrderId(orderId);
+    }
+
+    @Override
+    public final Set<OrderDTO> getOpenOrders() {
+        return tradeService.getOpenOrders();
+    }
+
+    @Override
+    public final boolean cancelOrder(final String orderId) {
+        return cancelOrderAsync(orderId).toFuture().join();
+    }
+
+    @Override
+    public final Mono<Boolean> cancelOrderAsync(final String orderId) {
+        return orderCancellations.submit(orderId);
+    }
+
+    @Override
+    public final Set<TradeDTO> getTrades() {
+        return tradeService.getTrades();
+    }
+
+    @Override
+    public final Set<TradeDTO> getNewTrades() {
+        return tradeService.getNewTrades();
+    }
+
+    /**
+     * Stops the threads sending batches.
+     */
+    public final void dispose() {
+        orderCreations.dispose();
+        orderCancellations.dispose();
+    }
+
+    /**
+     * Returns the maximum number of orders accepted by the order batch endpoint.
+     *
+     * @return maximum batch size (0 if the exchange has no batch endpoint)
+     */
+    private int getMaximumBatchSize() {
+        final OrderBatchEndpoint endpoint = orderBatchEndpoint.get();
+        if (endpoint == null) {
+            return 0;
+        }
+        return endpoint.getMaximumBatchSize();
+    }
+
+    /**
+     * Order creations batcher.
+     */
+    private final class OrderCreationBatcher extends OrderBatcher<OrderDTO, OrderCreationResultDTO> {
+
+        /**
+         * Constructor.
+         *
+         * @param window           time waited for other orders after the first one
+         * @param maximumBatchSize maximum number of orders in a batch
+         * @param concurrency      maximum number of batches sent at the same time
+         */
+        private OrderCreationBatcher(final Duration window, final int maximumBatchSize, final int concurrency) {
+            super("order-creations", window, maximumBatchSize, concurrency);
+        }
+
+        @Override
+        int getMaximumBatchSize() {
+            return TradeServiceWithOrderBatching.this.getMaximumBatchSize();
+        }
+
+        @Override
+        List<OrderCreationResultDTO> send(final List<OrderDTO> orders) throws IOException, InterruptedException {
+            getLogger().debug("TradeService - Sending a batch of {} orders", orders.size());
+            tradeService.getRateLimiter().acquire(ORDER_BATCH_CREATION);
+            try {
+                return orderBatchEndpoint.get().placeOrders(orders);
+            } finally {
+                tradeService.notifyOrderListeners();
+            }
+        }
+
+        @Override
+        Mono<OrderCreationResultDTO> send(final OrderDTO order) {
+            if (order.getType() == OrderTypeDTO.BID && order.getLimitPrice() == null) {
+                return tradeService.createBuyMarketOrderAsync(order.getCurrencyPair(), order.getOriginalAmount());
+            }
+            if (order.getType() == OrderTypeDTO.BID) {
+                return tradeService.createBuyLimitOrderAsync(order.getCurrencyPair(), order.getOriginalAmount(), order.getLimitPrice());
+            }
+            if (order.getLimitPrice() == null) {
+                return tradeService.createSellMarketOrderAsync(order.getCurrencyPair(), order.getOriginalAmount());
+            }
+            return tradeService.createSellLimitOrderAsync(order.getCurrencyPair(), order.getOriginalAmount(), order.getLimitPrice());
+        }
+
+        @Override
+        OrderCreationResultDTO getErrorResult(final Exception e) {
+            return new OrderCreationResultDTO("TradeService - Error sending a batch of orders : " + e.getMessage(), e);
+        }
+
+    }
+
+    /**
+     * Order cancellations batcher.
+     */
+    private final class OrderCancellationBatcher extends OrderBatcher<String, Boolean> {
+
+        /**
+         * Constructor.
+         *
+         * @param window           time waited for other cancellations after the first one
+         * @param maximumBatchSize maximum number of cancellations in a batch
+         * @param concurrency      maximum number of batches sent at the same time
+         */
+        private OrderCancellationBatcher(final Duration window, final int maximumBatchSize, final int concurrency) {
+            super("order-cancellations", window, maximumBatchSize, concurrency);
+        }
+
+        @Override
+        int getMaximumBatchSize() {
+            return TradeServiceWithOrderBatching.this.getMaximumBatchSize();
+        }
+
+        @Override
+        List<Boolean> send(final List<String> orderIds) throws IOException, InterruptedException {
+            getLogger().debug("TradeService - Cancelling a batch of {} orders", orderIds.size());
+            tradeService.getRateLimiter().acquire(ORDER_BATCH_CANCELLATION);
+            try {
+                return orderBatchEndpoint.get().cancelOrders(orderIds);
+            } finally {
+                tradeService.notifyOrderListeners();
+            }
+        }
+
+        @Override
+        Mono<Boolean> send(final String orderId) {
+            return tradeService.cancelOrderAsync(orderId);
+        }
+
+        @Override
+        Boolean getErrorResult(final Exception e) {
+            return false;
+        }
+
+    }
+
+}
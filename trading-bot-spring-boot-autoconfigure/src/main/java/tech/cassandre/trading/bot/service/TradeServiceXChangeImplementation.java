@@ -8,25 +8,54 @@ import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderDTO;
 import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
 import tech.cassandre.trading.bot.dto.trade.TradeDTO;
-import tech.cassandre.trading.bot.util.base.BaseService;
+import tech.cassandre.trading.bot.util.base.BaseTradeService;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
 
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.Clock;
 import java.util.Collections;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.OPEN_ORDERS;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_CANCELLATION;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_CREATION;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.TRADES;
+
 /**
  * Trade service - XChange implementation.
  */
-public class TradeServiceXChangeImplementation extends BaseService implements TradeService {
+public class TradeServiceXChangeImplementation extends BaseTradeService {
+
+    /** Overlap between two trade history queries (trades can be published late by the exchange). */
+    private static final long TRADE_HISTORY_OVERLAP = 60_000L;
+
+    /** Number of trade ids kept to avoid returning twice the trades of the overlap. */
+    private static final int DEDUPLICATION_WINDOW_SIZE = 10_000;
 
     /** XChange service. */
     private final org.knowm.xchange.service.trade.TradeService tradeService;
 
+    /** Clock giving the end time of trade history queries. */
+    private final Clock clock;
+
+    /** End time of the last successful getNewTrades() query - null before the first one. */
+    private Date lastQueryEndTime;
+
+    /** Ids of the most recent trades returned by getNewTrades(). */
+    private final Map<String, Boolean> lastTradeIds = new LinkedHashMap<String, Boolean>() {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Boolean> eldest) {
+            return size() > DEDUPLICATION_WINDOW_SIZE;
+        }
+    };
+
     /**
      * Constructor.
      *
@@ -34,8 +63,32 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
      * @param newTradeService market data service
      */
     public TradeServiceXChangeImplementation(final long rate, final org.knowm.xchange.service.trade.TradeService newTradeService) {
-        super(rate);
+        this(new RateLimiter(rate), newTradeService);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter  rate limiter
+     * @param newTradeService market data service
+     */
+    public TradeServiceXChangeImplementation(final RateLimiter newRateLimiter, final org.knowm.xchange.service.trade.TradeService newTradeService) {
+        this(newRateLimiter, newTradeService, Clock.systemDefaultZone());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter  rate limiter
+     * @param newTradeService market data service
+     * @param newClock        clock giving the end time of trade history queries
+     */
+    public TradeServiceXChangeImplementation(final RateLimiter newRateLimiter,
+                                             final org.knowm.xchange.service.trade.TradeService newTradeService,
+                                             final Clock newClock) {
+        super(newRateLimiter);
         this.tradeService = newTradeService;
+        this.clock = newClock;
     }
 
     /**
@@ -52,8 +105,10 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
             MarketOrder m = new MarketOrder(getMapper().mapToOrderType(orderTypeDTO), amount, getCurrencyPair(currencyPair));
             getLogger().debug("TradeService - Sending market order : {} - {} - {}", orderTypeDTO, currencyPair, amount);
 
-            // Sending the order.
+            // Sending the order (served before the polling calls waiting for tokens).
+            getRateLimiter().acquire(ORDER_CREATION);
             final OrderCreationResultDTO result = new OrderCreationResultDTO(tradeService.placeMarketOrder(m));
+            notifyOrderListeners();
             getLogger().debug("TradeService - Order created : {}", result);
             return result;
         } catch (Exception e) {
@@ -77,8 +132,10 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
             LimitOrder l = new LimitOrder(getMapper().mapToOrderType(orderTypeDTO), amount, getCurrencyPair(currencyPair), null, null, limitPrice);
             getLogger().debug("TradeService - Sending market order : {} - {} - {}", orderTypeDTO, currencyPair, amount);
 
-            // Sending the order.
+            // Sending the order (served before the polling calls waiting for tokens).
+            getRateLimiter().acquire(ORDER_CREATION);
             final OrderCreationResultDTO result = new OrderCreationResultDTO(tradeService.placeLimitOrder(l));
+            notifyOrderListeners();
             getLogger().debug("TradeService - Order creation result : {}", result);
             return result;
         } catch (Exception e) {
@@ -123,9 +180,9 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
     public final Set<OrderDTO> getOpenOrders() {
         getLogger().debug("TradeService - Getting open orders from exchange");
         try {
-            // Consume a token from the token bucket.
-            // If a token is not available this method will block until the refill adds one to the bucket.
-            getBucket().asScheduler().consume(1);
+            // Consume the endpoint weight from the service and account buckets.
+            // If tokens are not available this method will block until the refill adds them to the buckets.
+            getRateLimiter().acquire(OPEN_ORDERS);
 
             Set<OrderDTO> results = new LinkedHashSet<>();
             tradeService.getOpenOrders()
@@ -147,8 +204,11 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
         getLogger().debug("TradeService - Canceling order {}", orderId);
         if (orderId != null) {
             try {
-                getLogger().debug("TradeService - Successfully canceled order {}", orderId);
-                return tradeService.cancelOrder(orderId);
+                getRateLimiter().acquire(ORDER_CANCELLATION);
+                final boolean cancelled = tradeService.cancelOrder(orderId);
+                getLogger().debug("TradeService - Cancel order {} result : {}", orderId, cancelled);
+                notifyOrderListeners();
+                return cancelled;
             } catch (Exception e) {
                 getLogger().error("Error canceling order {} : {}", orderId, e.getMessage());
                 return false;
@@ -163,15 +223,15 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
     public final Set<TradeDTO> getTrades() {
         getLogger().debug("TradeService - Getting trades from exchange");
         try {
-            // Consume a token from the token bucket.
-            // If a token is not available this method will block until the refill adds one to the bucket.
-            getBucket().asScheduler().consume(1);
+            // Consume the endpoint weight from the service and account buckets.
+            // If tokens are not available this method will block until the refill adds them to the buckets.
+            getRateLimiter().acquire(TRADES);
 
             // Query 1 week of trades.
             Set<TradeDTO> results = new LinkedHashSet<>();
             TradeHistoryParamsAll params = new TradeHistoryParamsAll();
-            Date startDate = DateUtils.addWeeks(new Date(), -1);
-            Date endDate = new Date();
+            Date endDate = Date.from(clock.instant());
+            Date startDate = DateUtils.addWeeks(endDate, -1);
             params.setStartTime(startDate);
             params.setEndTime(endDate);
             tradeService.getTradeHistory(params)
@@ -188,4 +248,41 @@ public class TradeServiceXChangeImplementation extends BaseService implements Tr
         }
     }
 
+    @Override
+    public final synchronized Set<TradeDTO> getNewTrades() {
+        getLogger().debug("TradeService - Getting new trades from exchange");
+        try {
+            // Consume the endpoint weight from the service and account buckets.
+            // If tokens are not available this method will block until the refill adds them to the buckets.
+            getRateLimiter().acquire(TRADES);
+
+            // Query 1 week of trades the first time, then only the trades since the end of the last query.
+            Set<TradeDTO> results = new LinkedHashSet<>();
+            TradeHistoryParamsAll params = new TradeHistoryParamsAll();
+            final Date endTime = Date.from(clock.instant());
+            if (lastQueryEndTime == null) {
+                params.setStartTime(DateUtils.addWeeks(endTime, -1));
+            } else {
+                params.setStartTime(new Date(lastQueryEndTime.getTime() - TRADE_HISTORY_OVERLAP));
+            }
+            params.setEndTime(endTime);
+            tradeService.getTradeHistory(params)
+                    .getUserTrades()
+                    .stream()
+                    .filter(userTrade -> lastTradeIds.put(userTrade.getId(), Boolean.TRUE) == null)
+                    .forEach(userTrade -> results.add(getMapper().mapToTradeDTO(userTrade)));
+
+            // The query succeeded : the next one starts from its end time, even if no trade was returned.
+            lastQueryEndTime = endTime;
+            getLogger().debug("TradeService - {} new trade(s) found", results.size());
+            return results;
+        } catch (IOException e) {
+            getLogger().error("TradeService - Error retrieving new trades : {}", e.getMessage());
+            return Collections.emptySet();
+        } catch (InterruptedException e) {
+            getLogger().error("TradeService - InterruptedException : {}", e.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
 }
@@ -2,10 +2,13 @@ package tech.cassandre.trading.bot.service;
 
 import tech.cassandre.trading.bot.dto.user.UserDTO;
 import tech.cassandre.trading.bot.util.base.BaseService;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
 
 import java.io.IOException;
 import java.util.Optional;
 
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ACCOUNT;
+
 /**
  * Account service - XChange implementation.
  */
@@ -21,16 +24,26 @@ public class UserServiceXChangeImplementation extends BaseService implements Use
      * @param newXChangeAccountService xchange account service
      */
     public UserServiceXChangeImplementation(final long rate, final org.knowm.xchange.service.account.AccountService newXChangeAccountService) {
-        super(rate);
+        this(new RateLimiter(rate), newXChangeAccountService);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newRateLimiter           rate limiter
+     * @param newXChangeAccountService xchange account service
+     */
+    public UserServiceXChangeImplementation(final RateLimiter newRateLimiter, final org.knowm.xchange.service.account.AccountService newXChangeAccountService) {
+        super(newRateLimiter);
         this.xChangeAccountService = newXChangeAccountService;
     }
 
     @Override
     public final Optional<UserDTO> getUser() {
         try {
-            // Consume a token from the token bucket.
-            // If a token is not available this method will block until the refill adds one to the bucket.
-            getBucket().asScheduler().consume(1);
+            // Consume the endpoint weight from the service and account buckets.
+            // If tokens are not available this method will block until the refill adds them to the buckets.
+            getRateLimiter().acquire(ACCOUNT);
 
             getLogger().debug("UserService - Retrieving account information");
             final UserDTO user = getMapper().mapToUserDTO(xChangeAccountService.getAccountInfo());
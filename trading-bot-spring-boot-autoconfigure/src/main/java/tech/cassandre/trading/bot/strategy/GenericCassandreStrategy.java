@@ -12,12 +12,15 @@ import tech.cassandre.trading.bot.util.dto.CurrencyAmountDTO;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 
 import java.math.BigDecimal;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
 
 /**
  * Generic Cassandre strategy.
+ * The maps of received values are synchronized as, with a bounded elastic dispatch, tickers of different currency
+ * pairs are received in parallel with the other updates (iterating over a map requires synchronizing on it).
  */
 public abstract class GenericCassandreStrategy implements CassandreStrategyInterface {
 
@@ -28,19 +31,19 @@ public abstract class GenericCassandreStrategy implements CassandreStrategyInter
     private PositionService positionService;
 
     /** The accounts owned by the user. */
-    private final Map<String, AccountDTO> accounts = new LinkedHashMap<>();
+    private final Map<String, AccountDTO> accounts = Collections.synchronizedMap(new LinkedHashMap<>());
 
     /** The orders owned by the user. */
-    private final Map<String, OrderDTO> orders = new LinkedHashMap<>();
+    private final Map<String, OrderDTO> orders = Collections.synchronizedMap(new LinkedHashMap<>());
 
     /** The trades owned by the user. */
-    private final Map<String, TradeDTO> trades = new LinkedHashMap<>();
+    private final Map<String, TradeDTO> trades = Collections.synchronizedMap(new LinkedHashMap<>());
 
     /** The positions owned by the user. */
-    private final Map<Long, PositionDTO> positions = new LinkedHashMap<>();
+    private final Map<Long, PositionDTO> positions = Collections.synchronizedMap(new LinkedHashMap<>());
 
     /** Last ticker received. */
-    private final Map<CurrencyPairDTO, TickerDTO> lastTicker = new LinkedHashMap<>();
+    private final Map<CurrencyPairDTO, TickerDTO> lastTicker = Collections.synchronizedMap(new LinkedHashMap<>());
 
     @Override
     public final void setTradeService(final TradeService newTradeService) {
@@ -0,0 +1,531 @@
+package tech.cassandre.trading.bot.strategy;
+
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionService;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+
+/**
+ * Strategy ownership - records which strategy created each order and each position, so their updates are only
+ * dispatched to this strategy.
+ * <p>
+ * Each strategy is given its own trade and position services : they call the shared services and record the orders
+ * and positions created. The orders of a position (open and close orders, sent by the position service) belong to the
+ * strategy owning the position ; they are recorded by {@link #positionUpdate(PositionDTO)}, which must be registered
+ * as a position listener.
+ * <p>
+ * An order may be seen by the order or trade flux before its creation call returns : an order without owner is only
+ * dispatched once the creations started before it was seen are over (the order then belongs to a strategy or was
+ * created outside the strategies). The position service must create its orders with {@link #getTradeService(TradeService)}
+ * so its orders are waited for too. Orders and trades without owner are dispatched to every strategy.
+ * <p>
+ * Entries are bounded : a position owner is removed once the CLOSED position is dispatched
+ * ({@link #positionDispatched(PositionDTO)}) and an order owner once the order has not been open for the retention
+ * period ({@link #openOrdersUpdate(Collection)}), late trades of the order are still dispatched to its owner.
+ */
+public class StrategyOwnership extends Base {
+
+    /** Time an order owner is kept once the order is not open anymore. */
+    public static final Duration DEFAULT_ORDER_RETENTION = Duration.ofHours(1);
+
+    /** Maximum time spent waiting for the owner of an order being created. */
+    private static final long MAXIMUM_OWNER_WAIT = 10_000;
+
+    /** Time an order owner is kept once the order is not open anymore (ms). */
+    private final long orderRetention;
+
+    /** Clock. */
+    private final Clock clock;
+
+    /** Order owners by order id. */
+    private final Map<String, OrderOwner> orderOwners = new ConcurrentHashMap<>();
+
+    /** Strategy name by position id. */
+    private final Map<Long, String> positionOwners = new ConcurrentHashMap<>();
+
+    /** Strategy creating a position on the current thread (position listeners are called during the creation). */
+    private final ThreadLocal<String> positionCreator = new ThreadLocal<>();
+
+    /** Number of order creations started (the ticket of the next creation). */
+    private final AtomicLong creations = new AtomicLong();
+
+    /** Tickets of the order creations in progress. */
+    private final NavigableSet<Long> pendingCreations = new ConcurrentSkipListSet<>();
+
+    /** Lock used to wait for the end of order creations. */
+    private final Object creationLock = new Object();
+
+    /**
+     * Constructor.
+     */
+    public StrategyOwnership() {
+        this(DEFAULT_ORDER_RETENTION, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newOrderRetention time an order owner is kept once the order is not open anymore
+     * @param newClock          clock
+     */
+    public StrategyOwnership(final Duration newOrderRetention, final Clock newClock) {
+        this.orderRetention = newOrderRetention.toMillis();
+        this.clock = newClock;
+    }
+
+    /**
+     * Returns the trade service of a strategy - orders created with it belong to the strategy.
+     *
+     * @param strategyName strategy name
+     * @param tradeService shared trade service
+     * @return trade service of the strategy
+     */
+    public final TradeService getTradeService(final String strategyName, final TradeService tradeService) {
+        return new StrategyTradeService(strategyName, tradeService);
+    }
+
+    /**
+     * Returns a trade service creating orders without owner - used by the position service, whose orders are recorded
+     * by {@link #positionUpdate(PositionDTO)}.
+     *
+     * @param tradeService shared trade service
+     * @return trade service
+     */
+    public final TradeService getTradeService(final TradeService tradeService) {
+        return new StrategyTradeService(null, tradeService);
+    }
+
+    /**
+     * Returns the position service of a strategy - positions created with it belong to the strategy.
+     *
+     * @param strategyName    strategy name
+     * @param positionService shared position service
+     * @return position service of the strategy
+     */
+    public final PositionService getPositionService(final String strategyName, final PositionService positionService) {
+        return new StrategyPositionService(strategyName, positionService);
+    }
+
+    /**
+     * Records the owner of a position being created and the owner of its orders.
+     *
+     * @param position position
+     */
+    public final void positionUpdate(final PositionDTO position) {
+        String owner = positionOwners.get(position.getId());
+        if (owner == null) {
+            owner = positionCreator.get();
+            if (owner == null) {
+                // Position not created by a strategy.
+                return;
+            }
+            positionOwners.put(position.getId(), owner);
+        }
+        recordOrder(position.getOpenOrderId(), owner);
+        recordOrder(position.getCloseOrderId(), owner);
+    }
+
+    /**
+     * Removes the owner of a position once it's CLOSED - must subscribe to the position flux after the strategies.
+     *
+     * @param position position dispatched to the strategies
+     */
+    public final void positionDispatched(final PositionDTO position) {
+        if (position.getStatus() == CLOSED) {
+            positionOwners.remove(position.getId());
+        }
+    }
+
+    /**
+     * Refreshes the owners of the open orders and removes the owners of the orders not open for the retention period.
+     *
+     * @param openOrderIds ids of the open orders
+     */
+    public final void openOrdersUpdate(final Collection<String> openOrderIds) {
+        final long now = clock.millis();
+        openOrderIds.forEach(orderId -> {
+            final OrderOwner orderOwner = orderOwners.get(orderId);
+            if (orderOwner != null) {
+                orderOwner.lastOpen = now;
+            }
+        });
+        orderOwners.values().removeIf(orderOwner -> orderOwner.lastOpen < now - orderRetention);
+    }
+
+    /**
+     * Returns true if the updates of an order (and of its trades) must be dispatched to a strategy.
+     *
+     * @param strategyName strategy name
+     * @param orderId      order id
+     * @return true if the order belongs to the strategy or to no strategy
+     */
+    public final boolean isOrderDispatchedTo(final String strategyName, final String orderId) {
+        return orderId == null || isDispatchedTo(strategyName, getOrderOwner(orderId));
+    }
+
+    /**
+     * Returns the owner of an order - if unknown, waits for the order creations started before.
+     *
+     * @param orderId order id
+     * @return strategy name (null if the order was not created by a strategy)
+     */
+    private String getOrderOwner(final String orderId) {
+        String owner = findOrderOwner(orderId);
+        if (owner == null && !pendingCreations.isEmpty()) {
+            final long seen = creations.get();
+            final long deadline = clock.millis() + MAXIMUM_OWNER_WAIT;
+            synchronized (creationLock) {
+                owner = findOrderOwner(orderId);
+                while (owner == null && isCreationPendingBefore(seen) && clock.millis() < deadline) {
+                    try {
+                        creationLock.wait(Math.max(1, deadline - clock.millis()));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                    owner = findOrderOwner(orderId);
+                }
+            }
+            if (owner == null && isCreationPendingBefore(seen)) {
+                getLogger().warn("StrategyOwnership - Order {} dispatched to every strategy, its creation is still in progress", orderId);
+            }
+        }
+        return owner;
+    }
+
+    /**
+     * Returns the recorded owner of an order.
+     *
+     * @param orderId order id
+     * @return strategy name (null if none recorded)
+     */
+    private String findOrderOwner(final String orderId) {
+        final OrderOwner orderOwner = orderOwners.get(orderId);
+        if (orderOwner == null) {
+            return null;
+        }
+        return orderOwner.owner;
+    }
+
+    /**
+     * Returns true if an order creation started before a ticket is still in progress.
+     *
+     * @param ticket ticket
+     * @return true if a creation is in progress
+     */
+    private boolean isCreationPendingBefore(final long ticket) {
+        final Long oldest = pendingCreations.ceiling(Long.MIN_VALUE);
+        return oldest != null && oldest < ticket;
+    }
+
+    /**
+     * Runs an order creation - orders seen while it runs wait for its end to be dispatched.
+     *
+     * @param creation order creation
+     * @param <T>      result type
+     * @return result
+     */
+    private <T> T create(final Supplier<T> creation) {
+        final long ticket = creationStarted();
+        try {
+            return creation.get();
+        } finally {
+            creationEnded(ticket);
+        }
+    }
+
+    /**
+     * Runs an asynchronous order creation - orders seen until it ends wait for its end to be dispatched.
+     *
+     * @param creation order creation
+     * @param <T>      result type
+     * @return result
+     */
+    private <T> Mono<T> createAsync(final Supplier<Mono<T>> creation) {
+        return Mono.defer(() -> {
+            final long ticket = creationStarted();
+            return creation.get().doFinally(signalType -> creationEnded(ticket));
+        });
+    }
+
+    /**
+     * Records the start of an order creation.
+     *
+     * @return ticket of the creation
+     */
+    private long creationStarted() {
+        final long ticket = creations.getAndIncrement();
+        pendingCreations.add(ticket);
+        return ticket;
+    }
+
+    /**
+     * Records the end of an order creation and wakes up the threads waiting for it.
+     *
+     * @param ticket ticket of the creation
+     */
+    private void creationEnded(final long ticket) {
+        pendingCreations.remove(ticket);
+        synchronized (creationLock) {
+            creationLock.notifyAll();
+        }
+    }
+
+    /**
+     * Returns true if the updates of a position must be dispatched to a strategy.
+     *
+     * @param strategyName strategy name
+     * @param positionId   position id
+     * @return true if the position belongs to the strategy or to no strategy
+     */
+    public final boolean isPositionDispatchedTo(final String strategyName, final long positionId) {
+        return isDispatchedTo(strategyName, positionOwners.get(positionId));
+    }
+
+    /**
+     * Returns true if an update with an owner must be dispatched to a strategy.
+     *
+     * @param strategyName strategy name
+     * @param owner        owner (null if none)
+     * @return true if the strategy is the owner or if there is no owner
+     */
+    private static boolean isDispatchedTo(final String strategyName, final String owner) {
+        return owner == null || owner.equals(strategyName);
+    }
+
+    /**
+     * Records the owner of an order.
+     *
+     * @param orderId order id (ignored if null)
+     * @param owner   strategy name (ignored if null)
+     */
+    private void recordOrder(final String orderId, final String owner) {
+        if (orderId != null && owner != null) {
+            orderOwners.computeIfAbsent(orderId, id -> new OrderOwner(owner, clock.millis()));
+        }
+    }
+
+    /**
+     * Records the owner of a created order.
+     *
+     * @param result order creation result
+     * @param owner  strategy name
+     * @return order creation result
+     */
+    private OrderCreationResultDTO recordOrder(final OrderCreationResultDTO result, final String owner) {
+        if (result.isSuccessful()) {
+            recordOrder(result.getOrderId(), owner);
+        }
+        return result;
+    }
+
+    /**
+     * Owner of an order.
+     */
+    private static final class OrderOwner {
+
+        /** Strategy name. */
+        private final String owner;
+
+        /** Last time the order was open (ms). */
+        private volatile long lastOpen;
+
+        /**
+         * Constructor.
+         *
+         * @param newOwner    strategy name
+         * @param newLastOpen last time the order was open (ms)
+         */
+        private OrderOwner(final String newOwner, final long newLastOpen) {
+            this.owner = newOwner;
+            this.lastOpen = newLastOpen;
+        }
+
+    }
+
+    /**
+     * Trade service of a strategy (orders without owner if the strategy name is null).
+     */
+    private final class StrategyTradeService implements TradeService {
+
+        /** Strategy name (null if orders have no owner). */
+        private final String strategyName;
+
+        /** Shared trade service. */
+        private final TradeService tradeService;
+
+        /**
+         * Constructor.
+         *
+         * @param newStrategyName strategy name
+         * @param newTradeService shared trade service
+         */
+        private StrategyTradeService(final String newStrategyName, final TradeService newTradeService) {
+            this.strategyName = newStrategyName;
+            this.tradeService = newTradeService;
+        }
+
+        @Override
+        public OrderCreationResultDTO createBuyMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+            return create(() -> recordOrder(tradeService.createBuyMarketOrder(currencyPair, amount), strategyName));
+        }
+
+        @Override
+        public OrderCreationResultDTO createSellMarketOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+            return create(() -> recordOrder(tradeService.createSellMarketOrder(currencyPair, amount), strategyName));
+        }
+
+        @Override
+        public OrderCreationResultDTO createBuyLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+            return create(() -> recordOrder(tradeService.createBuyLimitOrder(currencyPair, amount, limitPrice), strategyName));
+        }
+
+        @Override
+        public OrderCreationResultDTO createSellLimitOrder(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+            return create(() -> recordOrder(tradeService.createSellLimitOrder(currencyPair, amount, limitPrice), strategyName));
+        }
+
+        @Override
+        public Mono<OrderCreationResultDTO> createBuyMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+            return createAsync(() -> tradeService.createBuyMarketOrderAsync(currencyPair, amount).map(result -> recordOrder(result, strategyName)));
+        }
+
+        @Override
+        public Mono<OrderCreationResultDTO> createSellMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+            return createAsync(() -> tradeService.createSellMarketOrderAsync(currencyPair, amount).map(result -> recordOrder(result, strategyName)));
+        }
+
+        @Override
+        public Mono<OrderCreationResultDTO> createBuyLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+            return createAsync(() -> tradeService.createBuyLimitOrderAsync(currencyPair, amount, limitPrice).map(result -> recordOrder(result, strategyName)));
+        }
+
+        @Override
+        public Mono<OrderCreationResultDTO> createSellLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+            return createAsync(() -> tradeService.createSellLimitOrderAsync(currencyPair, amount, limitPrice).map(result -> recordOrder(result, strategyName)));
+        }
+
+        @Override
+        public Optional<OrderDTO> getOpenOrderByOrderId(final String orderId) {
+            return tradeService.getOpenOrderByOrderId(orderId);
+        }
+
+        @Override
+        public Set<OrderDTO> getOpenOrders() {
+            return tradeService.getOpenOrders();
+        }
+
+        @Override
+        public boolean cancelOrder(final String orderId) {
+            return tradeService.cancelOrder(orderId);
+        }
+
+        @Override
+        public Mono<Boolean> cancelOrderAsync(final String orderId) {
+            return tradeService.cancelOrderAsync(orderId);
+        }
+
+        @Override
+        public Set<TradeDTO> getTrades() {
+            return tradeService.getTrades();
+        }
+
+        @Override
+        public Set<TradeDTO> getNewTrades() {
+            return tradeService.getNewTrades();
+        }
+
+    }
+
+    /**
+     * Position service of a strategy.
+     */
+    private final class StrategyPositionService implements PositionService {
+
+        /** Strategy name. */
+        private final String strategyName;
+
+        /** Shared position service. */
+        private final PositionService positionService;
+
+        /**
+         * Constructor.
+         *
+         * @param newStrategyName    strategy name
+         * @param newPositionService shared position service
+         */
+        private StrategyPositionService(final String newStrategyName, final PositionService newPositionService) {
+            this.strategyName = newStrategyName;
+            this.positionService = newPositionService;
+        }
+
+        @Override
+        public Set<PositionDTO> getPositions() {
+            return positionService.getPositions();
+        }
+
+        @Override
+        public Optional<PositionDTO> getPositionById(final long id) {
+            return positionService.getPositionById(id);
+        }
+
+        @Override
+        public PositionCreationResultDTO createPosition(final CurrencyPairDTO currencyPair, final BigDecimal amount, final PositionRulesDTO rules) {
+            final PositionCreationResultDTO result;
+            positionCreator.set(strategyName);
+            try {
+                // The open order is recorded by the position listener, before the creation ends.
+                result = create(() -> positionService.createPosition(currencyPair, amount, rules));
+            } finally {
+                positionCreator.remove();
+            }
+            if (result.isSuccessful()) {
+                // Without position listener, the position is recorded once created.
+                positionOwners.putIfAbsent(result.getPositionId(), strategyName);
+                recordOrder(result.getOrderId(), strategyName);
+            }
+            return result;
+        }
+
+        @Override
+        public void tickerUpdate(final TickerDTO ticker) {
+            positionService.tickerUpdate(ticker);
+        }
+
+        @Override
+        public void tickerUpdate(final CompactTickerDTO ticker) {
+            positionService.tickerUpdate(ticker);
+        }
+
+        @Override
+        public void tradeUpdate(final TradeDTO trade) {
+            positionService.tradeUpdate(trade);
+        }
+
+    }
+
+}
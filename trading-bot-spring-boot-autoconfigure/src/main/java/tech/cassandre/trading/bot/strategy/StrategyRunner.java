@@ -0,0 +1,388 @@
+package tech.cassandre.trading.bot.strategy;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.batch.ConflatingTickerBuffer;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.user.AccountDTO;
+import tech.cassandre.trading.bot.util.base.Base;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.parameters.StrategyParameters.DispatchMode;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Strategy runner - hosts a strategy in the shared runtime.
+ * <p>
+ * The runner subscribes the strategy to the shared fluxes. Tickers are filtered on the currency pairs requested by
+ * the strategy, conflated by currency pair and dispatched according to the {@link DispatchMode} : with SINGLE and
+ * BOUNDED_ELASTIC, the strategy runs on its own scheduler, so a slow strategy delays neither the flux updates nor
+ * the other strategies. With BOUNDED_ELASTIC, only tickers are processed in parallel : tickers of different currency
+ * pairs run on different workers (tickers of the same currency pair are always processed in order) while account,
+ * order, trade and position updates are processed one at a time on a single worker. The ticker callback of such a
+ * strategy must then be thread-safe, the other callbacks never run concurrently with each other.
+ * <p>
+ * Orders, trades and positions are only dispatched to the strategy if they belong to it or to no strategy (see
+ * {@link StrategyOwnership}) : a strategy doesn't receive the updates of the orders created by another strategy.
+ * <p>
+ * Metrics are kept for the tickers : queue depth, queue latency (time waiting before dispatch) and dispatch duration
+ * (time spent in the strategy).
+ */
+public class StrategyRunner extends Base {
+
+    /** Thread name prefix. */
+    private static final String THREAD_NAME_PREFIX = "cassandre-strategy-";
+
+    /** Time to live of idle bounded elastic threads (seconds). */
+    private static final int BOUNDED_ELASTIC_TTL = 60;
+
+    /** Strategy name. */
+    private final String name;
+
+    /** Strategy. */
+    private final CassandreStrategyInterface strategy;
+
+    /** Currency pairs requested by the strategy. */
+    private final Set<CurrencyPairDTO> requestedCurrencyPairs;
+
+    /** Dispatch mode. */
+    private final DispatchMode dispatchMode;
+
+    /** Owners of orders and positions. */
+    private final StrategyOwnership strategyOwnership;
+
+    /** Scheduler dispatching tickers to the strategy. */
+    private final Scheduler scheduler;
+
+    /** Scheduler dispatching account, order, trade and position updates to the strategy. */
+    private final Scheduler updateScheduler;
+
+    /** Subscriptions to the shared fluxes. */
+    private final List<Disposable> subscriptions = new LinkedList<>();
+
+    /** Ticker buffers (one per currency pair with BOUNDED_ELASTIC). */
+    private final List<ConflatingTickerBuffer> tickerBuffers = new CopyOnWriteArrayList<>();
+
+    /** Number of tickers dispatched. */
+    private final AtomicLong dispatchedTickers = new AtomicLong();
+
+    /** Number of errors raised by the strategy. */
+    private final AtomicLong dispatchErrors = new AtomicLong();
+
+    /** Total dispatch duration (ns). */
+    private final AtomicLong totalDispatchDuration = new AtomicLong();
+
+    /** Maximum dispatch duration (ns). */
+    private final AtomicLong maximumDispatchDuration = new AtomicLong();
+
+    /**
+     * Constructor (strategy running on its own thread).
+     *
+     * @param newName     strategy name
+     * @param newStrategy strategy
+     */
+    public StrategyRunner(final String newName, final CassandreStrategyInterface newStrategy) {
+        this(newName, newStrategy, DispatchMode.SINGLE);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newName         strategy name
+     * @param newStrategy     strategy
+     * @param newDispatchMode dispatch mode
+     */
+    public StrategyRunner(final String newName, final CassandreStrategyInterface newStrategy, final DispatchMode newDispatchMode) {
+        this(newName, newStrategy, newDispatchMode, new StrategyOwnership());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newName              strategy name
+     * @param newStrategy          strategy
+     * @param newDispatchMode      dispatch mode
+     * @param newStrategyOwnership owners of orders and positions (shared by all the strategies)
+     */
+    public StrategyRunner(final String newName,
+                          final CassandreStrategyInterface newStrategy,
+                          final DispatchMode newDispatchMode,
+                          final StrategyOwnership newStrategyOwnership) {
+        this.name = newName;
+        this.strategyOwnership = newStrategyOwnership;
+        this.strategy = newStrategy;
+        this.requestedCurrencyPairs = Collections.unmodifiableSet(new LinkedHashSet<>(newStrategy.getRequestedCurrencyPairs()));
+        this.dispatchMode = newDispatchMode;
+        switch (newDispatchMode) {
+            case IMMEDIATE:
+                this.scheduler = Schedulers.immediate();
+                break;
+            case BOUNDED_ELASTIC:
+                this.scheduler = Schedulers.newBoundedElastic(Schedulers.DEFAULT_BOUNDED_ELASTIC_SIZE,
+                        Schedulers.DEFAULT_BOUNDED_ELASTIC_QUEUESIZE,
+                        THREAD_NAME_PREFIX + newName,
+                        BOUNDED_ELASTIC_TTL,
+                        true);
+                break;
+            default:
+                this.scheduler = Schedulers.newSingle(THREAD_NAME_PREFIX + newName, true);
+                break;
+        }
+        if (newDispatchMode == DispatchMode.BOUNDED_ELASTIC) {
+            // Only tickers are processed in parallel.
+            this.updateScheduler = Schedulers.newSingle(THREAD_NAME_PREFIX + newName + "-updates", true);
+        } else {
+            this.updateScheduler = scheduler;
+        }
+    }
+
+    /**
+     * Subscribes the strategy to the shared fluxes.
+     *
+     * @param accountFlux  account flux
+     * @param positionFlux position flux
+     * @param orderFlux    order flux
+     * @param tradeFlux    trade flux
+     * @param tickerFlux   ticker flux
+     */
+    public final synchronized void start(final Flux<AccountDTO> accountFlux,
+                                         final Flux<PositionDTO> positionFlux,
+                                         final Flux<OrderDTO> orderFlux,
+                                         final Flux<TradeDTO> tradeFlux,
+                                         final Flux<TickerDTO> tickerFlux) {
+        subscriptions.add(accountFlux.publishOn(updateScheduler).subscribe(account -> call(strategy::accountUpdate, account)));
+        subscriptions.add(positionFlux.filter(position -> strategyOwnership.isPositionDispatchedTo(name, position.getId()))
+                .publishOn(updateScheduler)
+                .subscribe(position -> call(strategy::positionUpdate, position)));
+        subscriptions.add(orderFlux.filter(order -> strategyOwnership.isOrderDispatchedTo(name, order.getId()))
+                .publishOn(updateScheduler)
+                .subscribe(order -> call(strategy::orderUpdate, order)));
+        subscriptions.add(tradeFlux.filter(trade -> strategyOwnership.isOrderDispatchedTo(name, trade.getOrderId()))
+                .publishOn(updateScheduler)
+                .subscribe(trade -> call(strategy::tradeUpdate, trade)));
+
+        // Tickers - only the currency pairs requested by the strategy.
+        final Flux<TickerDTO> requestedTickerFlux = tickerFlux.filter(ticker -> requestedCurrencyPairs.contains(ticker.getCurrencyPair()));
+        switch (dispatchMode) {
+            case IMMEDIATE:
+                // Nothing to conflate as the strategy is called by the thread emitting tickers.
+                subscriptions.add(requestedTickerFlux.subscribe(this::dispatch));
+                break;
+            case BOUNDED_ELASTIC:
+                // One buffer per currency pair, each one dispatched on its own worker.
+                subscriptions.add(requestedTickerFlux
+                        .groupBy(TickerDTO::getCurrencyPair)
+                        .flatMap(currencyPairFlux -> getConflatedTickerFlux(currencyPairFlux).doOnNext(this::dispatch),
+                                Math.max(1, requestedCurrencyPairs.size()))
+                        .subscribe());
+                break;
+            default:
+                subscriptions.add(getConflatedTickerFlux(requestedTickerFlux).subscribe(this::dispatch));
+                break;
+        }
+    }
+
+    /**
+     * Returns a ticker flux conflated by currency pair and published, one ticker at a time, on the scheduler.
+     *
+     * @param source ticker flux
+     * @return conflated ticker flux
+     */
+    private Flux<TickerDTO> getConflatedTickerFlux(final Flux<TickerDTO> source) {
+        final ConflatingTickerBuffer tickerBuffer = new ConflatingTickerBuffer(source);
+        tickerBuffers.add(tickerBuffer);
+        return tickerBuffer.getFlux().publishOn(scheduler, 1);
+    }
+
+    /**
+     * Unsubscribes the strategy from the shared fluxes.
+     */
+    public final synchronized void stop() {
+        subscriptions.forEach(Disposable::dispose);
+        subscriptions.clear();
+        if (dispatchMode != DispatchMode.IMMEDIATE) {
+            scheduler.dispose();
+            updateScheduler.dispose();
+        }
+    }
+
+    /**
+     * Calls the strategy.
+     *
+     * @param callback strategy method
+     * @param value    value
+     * @param <T>      value type
+     */
+    private <T> void call(final Consumer<T> callback, final T value) {
+        try {
+            callback.accept(value);
+        } catch (RuntimeException e) {
+            // An exception would cancel the subscription of the strategy.
+            dispatchErrors.incrementAndGet();
+            getLogger().error("StrategyRunner - Error in strategy {} : {}", name, e.getMessage());
+        }
+    }
+
+    /**
+     * Dispatches a ticker to the strategy and records the dispatch metrics.
+     *
+     * @param ticker ticker
+     */
+    private void dispatch(final TickerDTO ticker) {
+        final long start = System.nanoTime();
+        call(strategy::tickerUpdate, ticker);
+        final long duration = System.nanoTime() - start;
+        dispatchedTickers.incrementAndGet();
+        totalDispatchDuration.addAndGet(duration);
+        maximumDispatchDuration.accumulateAndGet(duration, Math::max);
+    }
+
+    /**
+     * Getter for name.
+     *
+     * @return name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for dispatchMode.
+     *
+     * @return dispatchMode
+     */
+    public final DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * Getter for strategy.
+     *
+     * @return strategy
+     */
+    public final CassandreStrategyInterface getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * Getter for requestedCurrencyPairs.
+     *
+     * @return requested currency pairs
+     */
+    public final Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+        return requestedCurrencyPairs;
+    }
+
+    /**
+     * Returns the number of tickers dispatched to the strategy.
+     *
+     * @return dispatched tickers
+     */
+    public final long getDispatchedTickers() {
+        return dispatchedTickers.get();
+    }
+
+    /**
+     * Returns the number of errors raised by the strategy.
+     *
+     * @return dispatch errors
+     */
+    public final long getDispatchErrors() {
+        return dispatchErrors.get();
+    }
+
+    /**
+     * Returns the number of tickers replaced by a more recent one before being dispatched.
+     *
+     * @return conflated tickers
+     */
+    public final long getConflatedTickers() {
+        return tickerBuffers.stream().mapToLong(ConflatingTickerBuffer::getConflatedTickers).sum();
+    }
+
+    /**
+     * Returns the number of currency pairs waiting to be dispatched.
+     *
+     * @return queue depth
+     */
+    public final int getQueueDepth() {
+        return tickerBuffers.stream().mapToInt(ConflatingTickerBuffer::getPendingTickers).sum();
+    }
+
+    /**
+     * Returns the average time a ticker waits before being dispatched.
+     *
+     * @return average queue latency (ms)
+     */
+    public final long getAverageQueueLatency() {
+        final long delivered = tickerBuffers.stream().mapToLong(ConflatingTickerBuffer::getDeliveredTickers).sum();
+        if (delivered == 0) {
+            return 0;
+        }
+        return tickerBuffers.stream()
+                .mapToLong(tickerBuffer -> tickerBuffer.getAverageLatency() * tickerBuffer.getDeliveredTickers())
+                .sum() / delivered;
+    }
+
+    /**
+     * Returns the maximum time a ticker waited before being dispatched.
+     *
+     * @return maximum queue latency (ms)
+     */
+    public final long getMaximumQueueLatency() {
+        return tickerBuffers.stream().mapToLong(ConflatingTickerBuffer::getMaximumLatency).max().orElse(0);
+    }
+
+    /**
+     * Returns the average time spent by the strategy on a ticker.
+     *
+     * @return average dispatch duration (ms)
+     */
+    public final long getAverageDispatchDuration() {
+        final long dispatched = dispatchedTickers.get();
+        if (dispatched == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalDispatchDuration.get() / dispatched);
+    }
+
+    /**
+     * Returns the maximum time spent by the strategy on a ticker.
+     *
+     * @return maximum dispatch duration (ms)
+     */
+    public final long getMaximumDispatchDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(maximumDispatchDuration.get());
+    }
+
+    @Override
+    public final String toString() {
+        return "StrategyRunner{"
+                + " name='" + name + '\''
+                + ", dispatchMode=" + dispatchMode
+                + ", requestedCurrencyPairs=" + requestedCurrencyPairs
+                + ", dispatchedTickers=" + getDispatchedTickers()
+                + ", conflatedTickers=" + getConflatedTickers()
+                + ", dispatchErrors=" + getDispatchErrors()
+                + ", queueDepth=" + getQueueDepth()
+                + ", averageQueueLatency=" + getAverageQueueLatency()
+                + ", maximumQueueLatency=" + getMaximumQueueLatency()
+                + ", averageDispatchDuration=" + getAverageDispatchDuration()
+                + ", maximumDispatchDuration=" + getMaximumDispatchDuration()
+                + '}';
+    }
+
+}
@@ -1,8 +1,43 @@
 package tech.cassandre.trading.bot.util.base;
 
+import java.time.Duration;
+
 /**
  * Base configuration.
  */
 public abstract class BaseConfiguration extends Base {
 
+    /**
+     * Return rate value.
+     *
+     * @param stringValue string value
+     * @return long value (ms)
+     */
+    protected static long getRateValue(final String stringValue) {
+        if (isNumeric(stringValue)) {
+            return Long.parseLong(stringValue);
+        } else {
+            return Duration.parse(stringValue).toMillis();
+        }
+    }
+
+    /**
+     * Returns true if a string is a number.
+     *
+     * @param string string to test
+     * @return true if numeric
+     */
+    private static boolean isNumeric(final String string) {
+        // null or empty
+        if (string == null || string.length() == 0) {
+            return false;
+        }
+        for (char c : string.toCharArray()) {
+            if (!Character.isDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -1,28 +1,77 @@
 package tech.cassandre.trading.bot.util.base;
 
+import reactor.core.publisher.BufferOverflowStrategy;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.FluxSink;
+import tech.cassandre.trading.bot.util.scheduler.AdaptivePolling;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Base flux.
+ * <p>
+ * New values are emitted one by one ({@link #getFlux()}).
+ * When a subscriber is slower than the flux, the overflow strategy decides what to do with the values waiting :
+ * <ul>
+ *     <li>BUFFER - values are buffered up to the buffer size, the producer then waits for the subscriber : no value is lost.</li>
+ *     <li>LATEST - only the last value is kept.</li>
+ *     <li>DROP - new values are dropped while the subscriber is busy.</li>
+ *     <li>ERROR and IGNORE - same behavior as {@link FluxSink.OverflowStrategy}.</li>
+ * </ul>
+ * Dropped and buffered values are counted.
+ * <p>
+ * With an {@link AdaptivePolling}, updates returning nothing new make the next updates skip their poll.
  *
  * @param <T> flux type
  */
 public abstract class BaseFlux<T> extends Base {
 
+    /** Default buffer size. */
+    public static final int DEFAULT_BUFFER_SIZE = 10_000;
+
+    /** Maximum time spent waiting for the subscriber before checking the buffer again (ms). */
+    private static final long BUFFER_WAIT_TIMEOUT = 100;
+
     /** Flux. */
     private final Flux<T> flux;
 
     /** Flux sink. */
-    private FluxSink<T> fluxSink;
+    private volatile FluxSink<T> fluxSink;
+
+    /** Overflow strategy set by configuration (null to use the flux default). */
+    private FluxSink.OverflowStrategy configuredOverflowStrategy;
+
+    /** Buffer size. */
+    private int bufferSize = DEFAULT_BUFFER_SIZE;
+
+    /** Adaptive polling (null to poll at every update). */
+    private volatile AdaptivePolling adaptivePolling;
+
+    /** Number of values emitted. */
+    private final AtomicLong emittedValues = new AtomicLong();
+
+    /** Number of values delivered to subscribers. */
+    private final AtomicLong deliveredValues = new AtomicLong();
+
+    /** Number of values dropped. */
+    private final AtomicLong droppedValues = new AtomicLong();
+
+    /** Lock used by the producer to wait for the subscriber when the buffer is full. */
+    private final Object bufferLock = new Object();
+
+    /** True when the producer is waiting for the subscriber. */
+    private volatile boolean producerWaiting = false;
 
     /**
      * Constructor.
      */
     public BaseFlux() {
-        flux = Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getOverflowStrategy());
+        // The overflow strategy is applied at subscription, once the configuration is set.
+        flux = Flux.defer(() -> applyOverflowStrategy(Flux.create(newFluxSink -> this.fluxSink = newFluxSink, getSinkOverflowStrategy())))
+                .doOnNext(t -> valueDelivered());
     }
 
     /**
@@ -35,6 +84,62 @@ public abstract class BaseFlux<T> extends Base {
         return FluxSink.OverflowStrategy.LATEST;
     }
 
+    /**
+     * Set the overflow strategy and the buffer size (must be called before subscribing).
+     *
+     * @param newOverflowStrategy overflow strategy (null to keep the flux default)
+     * @param newBufferSize       buffer size
+     */
+    public final void setOverflowStrategy(final FluxSink.OverflowStrategy newOverflowStrategy, final int newBufferSize) {
+        this.configuredOverflowStrategy = newOverflowStrategy;
+        this.bufferSize = newBufferSize;
+    }
+
+    /**
+     * Returns the overflow strategy used (configured one or flux default).
+     *
+     * @return overflow strategy
+     */
+    public final FluxSink.OverflowStrategy getEffectiveOverflowStrategy() {
+        if (configuredOverflowStrategy != null) {
+            return configuredOverflowStrategy;
+        }
+        return getOverflowStrategy();
+    }
+
+    /**
+     * Returns the overflow strategy of the sink - values are buffered by the sink then handled by the overflow stage.
+     *
+     * @return sink overflow strategy
+     */
+    private FluxSink.OverflowStrategy getSinkOverflowStrategy() {
+        switch (getEffectiveOverflowStrategy()) {
+            case ERROR:
+                return FluxSink.OverflowStrategy.ERROR;
+            case IGNORE:
+                return FluxSink.OverflowStrategy.IGNORE;
+            default:
+                return FluxSink.OverflowStrategy.BUFFER;
+        }
+    }
+
+    /**
+     * Applies the overflow strategy to a flux - BUFFER relies on the sink buffer, bounded by {@link #emitValues(Collection)}.
+     *
+     * @param source flux
+     * @return flux with the overflow strategy
+     */
+    private Flux<T> applyOverflowStrategy(final Flux<T> source) {
+        switch (getEffectiveOverflowStrategy()) {
+            case LATEST:
+                return source.onBackpressureBuffer(1, e -> droppedValues.incrementAndGet(), BufferOverflowStrategy.DROP_OLDEST);
+            case DROP:
+                return source.onBackpressureDrop(e -> droppedValues.incrementAndGet());
+            default:
+                return source;
+        }
+    }
+
     /**
      * Implements this method to return all the new values. Those values will be sent to the strategy.
      *
@@ -48,15 +153,93 @@ public abstract class BaseFlux<T> extends Base {
      * @param newValue new value
      */
     public void emitValue(final T newValue) {
-        getLogger().debug("{} flux emits a new value : {}", this.getClass().getName(), newValue);
-        fluxSink.next(newValue);
+        emitValues(Collections.singletonList(newValue));
+    }
+
+    /**
+     * Emit new values - with the BUFFER strategy, waits for the subscriber while the buffer is full.
+     *
+     * @param newValues new values
+     */
+    public final void emitValues(final Collection<T> newValues) {
+        final FluxSink<T> currentFluxSink = fluxSink;
+        if (!newValues.isEmpty() && currentFluxSink != null) {
+            final boolean bounded = getEffectiveOverflowStrategy() == FluxSink.OverflowStrategy.BUFFER;
+            newValues.forEach(newValue -> {
+                if (bounded) {
+                    waitForBufferSpace(currentFluxSink);
+                }
+                getLogger().debug("{} flux emits a new value : {}", this.getClass().getName(), newValue);
+                emittedValues.incrementAndGet();
+                currentFluxSink.next(newValue);
+            });
+        }
+    }
+
+    /**
+     * Waits until the buffer has room for a new value (or until the subscriber cancels or the thread is interrupted).
+     *
+     * @param currentFluxSink flux sink
+     */
+    private void waitForBufferSpace(final FluxSink<T> currentFluxSink) {
+        synchronized (bufferLock) {
+            while (getBufferedValues() >= bufferSize && !currentFluxSink.isCancelled()) {
+                producerWaiting = true;
+                try {
+                    bufferLock.wait(BUFFER_WAIT_TIMEOUT);
+                } catch (InterruptedException e) {
+                    // The value is still buffered, the caller is stopping.
+                    Thread.currentThread().interrupt();
+                    break;
+                } finally {
+                    producerWaiting = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Counts a value delivered and wakes up the producer if it waits for the subscriber.
+     */
+    private void valueDelivered() {
+        deliveredValues.incrementAndGet();
+        if (producerWaiting) {
+            synchronized (bufferLock) {
+                bufferLock.notifyAll();
+            }
+        }
     }
 
     /**
      * Method executed when values must be updated (usually called by the Scheduler).
      */
     public final void update() {
-        getNewValues().forEach(this::emitValue);
+        final AdaptivePolling currentAdaptivePolling = adaptivePolling;
+        if (currentAdaptivePolling == null) {
+            emitValues(getNewValues());
+        } else if (currentAdaptivePolling.isPollDue()) {
+            final Set<T> newValues = getNewValues();
+            emitValues(newValues);
+            currentAdaptivePolling.pollDone(!newValues.isEmpty());
+        }
+    }
+
+    /**
+     * Setter for adaptivePolling.
+     *
+     * @param newAdaptivePolling adaptive polling (null to poll at every update)
+     */
+    public final void setAdaptivePolling(final AdaptivePolling newAdaptivePolling) {
+        this.adaptivePolling = newAdaptivePolling;
+    }
+
+    /**
+     * Getter for adaptivePolling.
+     *
+     * @return adaptive polling (null if the flux polls at every update)
+     */
+    public final AdaptivePolling getAdaptivePolling() {
+        return adaptivePolling;
     }
 
     /**
@@ -68,4 +251,31 @@ public abstract class BaseFlux<T> extends Base {
         return flux;
     }
 
+    /**
+     * Returns the number of values emitted.
+     *
+     * @return emitted values
+     */
+    public final long getEmittedValues() {
+        return emittedValues.get();
+    }
+
+    /**
+     * Returns the number of values dropped by the overflow strategy.
+     *
+     * @return dropped values
+     */
+    public final long getDroppedValues() {
+        return droppedValues.get();
+    }
+
+    /**
+     * Returns the number of values buffered, waiting to be delivered.
+     *
+     * @return buffered values
+     */
+    public final long getBufferedValues() {
+        return Math.max(0, emittedValues.get() - deliveredValues.get() - droppedValues.get());
+    }
+
 }
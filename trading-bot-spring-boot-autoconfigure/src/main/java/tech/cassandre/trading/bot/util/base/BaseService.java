@@ -1,14 +1,10 @@
 package tech.cassandre.trading.bot.util.base;
 
-import io.github.bucket4j.Bandwidth;
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.Bucket4j;
 import org.knowm.xchange.currency.CurrencyPair;
 import org.mapstruct.factory.Mappers;
 import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
 import tech.cassandre.trading.bot.util.mapper.CassandreMapper;
-
-import java.time.Duration;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
 
 /**
  * Base service.
@@ -18,15 +14,14 @@ public abstract class BaseService extends Base {
     /** Mapper. */
     private final CassandreMapper mapper = Mappers.getMapper(CassandreMapper.class);
 
-    /** Bucket. */
-    private final Bucket bucket;
+    /** Rate limiter. */
+    private final RateLimiter rateLimiter;
 
     /**
      * Construct a base service without rate limit.
      */
     public BaseService() {
-        Bandwidth limit = Bandwidth.simple(1, Duration.ofMillis(1));
-        bucket = Bucket4j.builder().addLimit(limit).build();
+        rateLimiter = new RateLimiter(1);
     }
 
     /**
@@ -35,8 +30,16 @@ public abstract class BaseService extends Base {
      * @param rate rate in ms
      */
     public BaseService(final long rate) {
-        Bandwidth limit = Bandwidth.simple(1, Duration.ofMillis(rate));
-        bucket = Bucket4j.builder().addLimit(limit).build();
+        rateLimiter = new RateLimiter(rate);
+    }
+
+    /**
+     * Constructs a base service with a rate limiter.
+     *
+     * @param newRateLimiter rate limiter
+     */
+    public BaseService(final RateLimiter newRateLimiter) {
+        rateLimiter = newRateLimiter;
     }
 
     /**
@@ -49,12 +52,12 @@ public abstract class BaseService extends Base {
     }
 
     /**
-     * Getter for bucket.
+     * Getter for rateLimiter.
      *
-     * @return bucket
+     * @return rateLimiter
      */
-    public final Bucket getBucket() {
-        return bucket;
+    public final RateLimiter getRateLimiter() {
+        return rateLimiter;
     }
 
     /**
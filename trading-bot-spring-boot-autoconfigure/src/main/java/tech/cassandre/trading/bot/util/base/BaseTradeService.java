@@ -0,0 +1,140 @@
+package tech.cassandre.trading.bot.util.base;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Base trade service.
+ * <p>
+ * Asynchronous orders call the blocking methods on a bounded pool of I/O threads : up to "order concurrency" orders
+ * are sent to the exchange at the same time, the next ones wait in a queue.
+ * <p>
+ * Order listeners are called after each order sent or cancelled (for example, to poll open orders again).
+ */
+public abstract class BaseTradeService extends BaseService implements TradeService {
+
+    /** Default order concurrency. */
+    public static final int DEFAULT_ORDER_CONCURRENCY = 10;
+
+    /** Maximum number of orders waiting for an I/O thread. */
+    private static final int ORDER_QUEUE_SIZE = 100_000;
+
+    /** Time to live of an idle I/O thread (seconds). */
+    private static final int ORDER_THREAD_TTL = 60;
+
+    /** Order scheduler. */
+    private volatile Scheduler orderScheduler = getOrderScheduler(DEFAULT_ORDER_CONCURRENCY);
+
+    /** Order listeners. */
+    private final List<Runnable> orderListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Construct a base trade service without rate limit.
+     */
+    public BaseTradeService() {
+        super();
+    }
+
+    /**
+     * Constructs a base trade service with a rate limit.
+     *
+     * @param rate rate in ms
+     */
+    public BaseTradeService(final long rate) {
+        super(rate);
+    }
+
+    /**
+     * Constructs a base trade service with a rate limiter.
+     *
+     * @param newRateLimiter rate limiter
+     */
+    public BaseTradeService(final RateLimiter newRateLimiter) {
+        super(newRateLimiter);
+    }
+
+    /**
+     * Set the maximum number of asynchronous orders sent to the exchange at the same time.
+     *
+     * @param newOrderConcurrency order concurrency
+     */
+    public final void setOrderConcurrency(final int newOrderConcurrency) {
+        final Scheduler previousOrderScheduler = orderScheduler;
+        orderScheduler = getOrderScheduler(newOrderConcurrency);
+        previousOrderScheduler.dispose();
+    }
+
+    /**
+     * Adds a listener called after each order sent or cancelled.
+     *
+     * @param orderListener order listener
+     */
+    public final void addOrderListener(final Runnable orderListener) {
+        orderListeners.add(orderListener);
+    }
+
+    /**
+     * Calls the order listeners - to be called after orders were sent or cancelled, including by services sending
+     * orders on behalf of this one.
+     */
+    public final void notifyOrderListeners() {
+        orderListeners.forEach(Runnable::run);
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return execute(() -> createBuyMarketOrder(currencyPair, amount));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellMarketOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount) {
+        return execute(() -> createSellMarketOrder(currencyPair, amount));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createBuyLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return execute(() -> createBuyLimitOrder(currencyPair, amount, limitPrice));
+    }
+
+    @Override
+    public final Mono<OrderCreationResultDTO> createSellLimitOrderAsync(final CurrencyPairDTO currencyPair, final BigDecimal amount, final BigDecimal limitPrice) {
+        return execute(() -> createSellLimitOrder(currencyPair, amount, limitPrice));
+    }
+
+    @Override
+    public final Mono<Boolean> cancelOrderAsync(final String orderId) {
+        return execute(() -> cancelOrder(orderId));
+    }
+
+    /**
+     * Executes a blocking call on the order scheduler.
+     *
+     * @param call blocking call
+     * @param <T>  result type
+     * @return result
+     */
+    private <T> Mono<T> execute(final Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(orderScheduler);
+    }
+
+    /**
+     * Returns a new order scheduler.
+     *
+     * @param concurrency order concurrency
+     * @return order scheduler
+     */
+    private static Scheduler getOrderScheduler(final int concurrency) {
+        return Schedulers.newBoundedElastic(concurrency, ORDER_QUEUE_SIZE, "cassandre-orders", ORDER_THREAD_TTL, true);
+    }
+
+}
@@ -0,0 +1,253 @@
+package tech.cassandre.trading.bot.util.cache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Change detection cache - keeps the last value seen for each key so a flux only emits new or updated values.
+ * <p>
+ * The cache is bounded : a value not seen for more than the maximum age (for example, an order that is not open
+ * anymore) is evicted and, if the cache is full, the value seen the longest time ago is evicted.
+ * Heap usage is only a rough estimate : the number of entries multiplied by a fixed entry overhead and the estimated
+ * value size given by the cache owner - the objects themselves are not measured.
+ *
+ * @param <K> key type
+ * @param <V> value type
+ */
+public class ChangeDetectionCache<K, V> {
+
+    /** Estimated overhead of a cache entry (map entry, key and timestamp). */
+    private static final long ENTRY_OVERHEAD = 100;
+
+    /** Initial capacity of the entries map. */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /** Load factor of the entries map. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** Maximum number of entries. */
+    private final int maximumSize;
+
+    /** Maximum age of an entry (since the last time it was seen). */
+    private final Duration maximumAge;
+
+    /** Estimated size of a value (bytes). */
+    private final long estimatedValueSize;
+
+    /** Clock. */
+    private final Clock clock;
+
+    /** Entries ordered by the last time they were seen. */
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+
+    /** Number of values seen. */
+    private long requests;
+
+    /** Number of new or updated values. */
+    private long changes;
+
+    /** Number of entries evicted because the cache was full. */
+    private long sizeEvictions;
+
+    /** Number of entries evicted because they were too old. */
+    private long ageEvictions;
+
+    /**
+     * Constructor.
+     *
+     * @param newMaximumSize        maximum number of entries
+     * @param newMaximumAge         maximum age of an entry since the last time it was seen
+     * @param newEstimatedValueSize estimated size of a value (bytes)
+     */
+    public ChangeDetectionCache(final int newMaximumSize, final Duration newMaximumAge, final long newEstimatedValueSize) {
+        this(newMaximumSize, newMaximumAge, newEstimatedValueSize, Clock.systemUTC());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param newMaximumSize        maximum number of entries
+     * @param newMaximumAge         maximum age of an entry since the last time it was seen
+     * @param newEstimatedValueSize estimated size of a value (bytes)
+     * @param newClock              clock
+     */
+    public ChangeDetectionCache(final int newMaximumSize, final Duration newMaximumAge, final long newEstimatedValueSize, final Clock newClock) {
+        this.maximumSize = newMaximumSize;
+        this.maximumAge = newMaximumAge;
+        this.estimatedValueSize = newEstimatedValueSize;
+        this.clock = newClock;
+    }
+
+    /**
+     * Records a value and returns true if it's new or different from the previous value of the same key.
+     *
+     * @param key   key
+     * @param value value
+     * @return true if the value changed
+     */
+    public final synchronized boolean update(final K key, final V value) {
+        final long now = clock.millis();
+        requests++;
+        final Entry<V> previous = entries.put(key, new Entry<>(value, now));
+        evict(now);
+        if (previous == null || !previous.getValue().equals(value)) {
+            changes++;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the last value seen for a key.
+     *
+     * @param key key
+     * @return value
+     */
+    public final synchronized Optional<V> get(final K key) {
+        final Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.getValue());
+    }
+
+    /**
+     * Evicts the entries too old and, if the cache is full, the ones seen the longest time ago.
+     *
+     * @param now now (ms)
+     */
+    private void evict(final long now) {
+        final long oldestAllowed = now - maximumAge.toMillis();
+        final Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            final Entry<V> eldest = iterator.next().getValue();
+            if (eldest.getLastSeen() < oldestAllowed) {
+                iterator.remove();
+                ageEvictions++;
+            } else if (entries.size() > maximumSize) {
+                iterator.remove();
+                sizeEvictions++;
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return size
+     */
+    public final synchronized int getSize() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the number of values recorded.
+     *
+     * @return requests
+     */
+    public final synchronized long getRequests() {
+        return requests;
+    }
+
+    /**
+     * Returns the number of new or updated values recorded.
+     *
+     * @return changes
+     */
+    public final synchronized long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the number of entries evicted because the cache was full.
+     *
+     * @return size evictions
+     */
+    public final synchronized long getSizeEvictions() {
+        return sizeEvictions;
+    }
+
+    /**
+     * Returns the number of entries evicted because they were not seen for more than the maximum age.
+     *
+     * @return age evictions
+     */
+    public final synchronized long getAgeEvictions() {
+        return ageEvictions;
+    }
+
+    /**
+     * Returns a rough estimate of the heap usage of the cache : number of entries * (entry overhead + estimated value size).
+     * Useful to follow the cache growth, not to measure its actual footprint.
+     *
+     * @return estimated heap usage (bytes)
+     */
+    public final synchronized long getEstimatedHeapUsage() {
+        return entries.size() * (ENTRY_OVERHEAD + estimatedValueSize);
+    }
+
+    @Override
+    public final synchronized String toString() {
+        return "ChangeDetectionCache{"
+                + " size=" + entries.size()
+                + ", maximumSize=" + maximumSize
+                + ", maximumAge=" + maximumAge
+                + ", requests=" + requests
+                + ", changes=" + changes
+                + ", sizeEvictions=" + sizeEvictions
+                + ", ageEvictions=" + ageEvictions
+                + ", estimatedHeapUsage=" + getEstimatedHeapUsage()
+                + '}';
+    }
+
+    /**
+     * Cache entry.
+     *
+     * @param <V> value type
+     */
+    private static final class Entry<V> {
+
+        /** Value. */
+        private final V value;
+
+        /** Last time the value was seen (ms). */
+        private final long lastSeen;
+
+        /**
+         * Constructor.
+         *
+         * @param newValue    value
+         * @param newLastSeen last time the value was seen
+         */
+        private Entry(final V newValue, final long newLastSeen) {
+            this.value = newValue;
+            this.lastSeen = newLastSeen;
+        }
+
+        /**
+         * Getter for value.
+         *
+         * @return value
+         */
+        private V getValue() {
+            return value;
+        }
+
+        /**
+         * Getter for lastSeen.
+         *
+         * @return lastSeen
+         */
+        private long getLastSeen() {
+            return lastSeen;
+        }
+
+    }
+
+}
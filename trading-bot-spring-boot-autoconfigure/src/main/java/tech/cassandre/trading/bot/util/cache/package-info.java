@@ -0,0 +1,4 @@
+/**
+ * Cache.
+ */
+package tech.cassandre.trading.bot.util.cache;
@@ -1,21 +1,29 @@
 package tech.cassandre.trading.bot.util.dto;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Objects;
+import java.util.Locale;
 import java.util.Set;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Currency.
+ * <p>
+ * Currencies are registered by code (upper case) : the known ones when the class is initialized and the unknown ones
+ * the first time they are asked for, so each code has one canonical instance. The registry can be read and written
+ * concurrently and looking up an upper case code doesn't allocate.
  */
 public final class CurrencyDTO {
 
+    /** Time the registry initialization started (ns). */
+    private static final long INITIALIZATION_START = System.nanoTime();
+
     /** List of currencies. */
-    private static final Map<String, CurrencyDTO> CURRENCIES = new HashMap<>();
+    private static final ConcurrentMap<String, CurrencyDTO> CURRENCIES = new ConcurrentHashMap<>();
 
     /** United Arab Emirates Dirham. */
     public static final CurrencyDTO AED = createCurrency("AED", "United Arab Emirates Dirham", null);
@@ -844,6 +852,9 @@ public final class CurrencyDTO {
     /** Modum. */
     public static final CurrencyDTO MOD = createCurrency("MOD", "Modum", null);
 
+    /** Time spent registering the known currencies (ns) - must be declared after them. */
+    private static final long INITIALIZATION_DURATION = System.nanoTime() - INITIALIZATION_START;
+
     /** Code. */
     private final String code;
 
@@ -915,8 +926,13 @@ public final class CurrencyDTO {
      * @return currency
      */
     public static CurrencyDTO getInstance(final String currencyCode) {
-        CurrencyDTO currency = getInstanceNoCreate(currencyCode.toUpperCase());
-        return Objects.requireNonNullElseGet(currency, () -> createCurrency(currencyCode.toUpperCase(), null, null));
+        final CurrencyDTO currency = getInstanceNoCreate(currencyCode);
+        if (currency != null) {
+            return currency;
+        }
+        // Unknown currency - registered once, even if several threads ask for it at the same time.
+        return CURRENCIES.computeIfAbsent(currencyCode.toUpperCase(Locale.ROOT),
+                code -> new CurrencyDTO(code, new CurrencyDTO.CurrencyAttributes(code, null, null)));
     }
 
     /**
@@ -926,11 +942,25 @@ public final class CurrencyDTO {
      * @return currency
      */
     public static CurrencyDTO getInstanceNoCreate(final String currencyCode) {
-        return CURRENCIES.get(currencyCode.toUpperCase());
+        // Codes are usually received in upper case : the code is only converted if it's not found as is.
+        final CurrencyDTO currency = CURRENCIES.get(currencyCode);
+        if (currency != null) {
+            return currency;
+        }
+        return CURRENCIES.get(currencyCode.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the time spent registering the known currencies when the class was initialized.
+     *
+     * @return initialization duration
+     */
+    public static Duration getInitializationDuration() {
+        return Duration.ofNanos(INITIALIZATION_DURATION);
     }
 
     /**
-     * Factory.
+     * Factory - only used while the class is initialized.
      *
      * @param commonCode       commonly used code for this currency: "BTC"
      * @param name             Name of the currency: "Bitcoin"
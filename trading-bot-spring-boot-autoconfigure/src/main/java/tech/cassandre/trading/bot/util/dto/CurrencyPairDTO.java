@@ -1,23 +1,44 @@
 package tech.cassandre.trading.bot.util.dto;
 
+import java.util.Locale;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Currency pair for trading.
  * The base currency represents how much of the quote currency to get one unit of the base currency.
  * For example, if you were looking at the CAD/USD currency pair, the Canadian dollar would be the base currency, and the U.S. dollar would be the quote currency.
+ * <p>
+ * Currency pairs are interned : {@link #getInstance(CurrencyDTO, CurrencyDTO)} always returns the same instance for
+ * the same currency codes (case insensitive) and each currency pair gets a small id, shared with the pairs created
+ * with the constructors. Equality only compares ids and the hash code is computed once, so currency pairs are cheap
+ * map keys, and ids can be used as indexes of arrays sized with {@link #getInstanceCount()}.
  */
 public final class CurrencyPairDTO {
 
     /** Currency pair separator. */
     private static final String CURRENCY_PAIR_SEPARATOR = "/";
 
+    /** Interned currency pairs, by base currency code and quote currency code. */
+    private static final ConcurrentMap<String, ConcurrentMap<String, CurrencyPairDTO>> INSTANCES = new ConcurrentHashMap<>();
+
+    /** Number of interned currency pairs (next id). */
+    private static final AtomicInteger INSTANCE_COUNT = new AtomicInteger();
+
     /** The base currency is the first currency appearing in a currency pair quotation. */
     private final CurrencyDTO baseCurrency;
 
     /** The quote currency is the second currency appearing in a currency pair quotation. */
     private final CurrencyDTO quoteCurrency;
 
+    /** Id (the same for all currency pairs with the same currency codes). */
+    private final int id;
+
+    /** Hash code. */
+    private final int hash;
+
     /**
      * Constructor with {@link CurrencyDTO}.
      *
@@ -35,8 +56,35 @@ public final class CurrencyPairDTO {
      * @param newQuoteCurrency The quote currency
      */
     public CurrencyPairDTO(final CurrencyDTO newBaseCurrency, final CurrencyDTO newQuoteCurrency) {
+        this(newBaseCurrency, newQuoteCurrency, getInstance(newBaseCurrency, newQuoteCurrency));
+    }
+
+    /**
+     * Constructor sharing the id of an interned currency pair.
+     *
+     * @param newBaseCurrency  The base currency
+     * @param newQuoteCurrency The quote currency
+     * @param interned         interned currency pair
+     */
+    private CurrencyPairDTO(final CurrencyDTO newBaseCurrency, final CurrencyDTO newQuoteCurrency, final CurrencyPairDTO interned) {
         this.baseCurrency = newBaseCurrency;
         this.quoteCurrency = newQuoteCurrency;
+        this.id = interned.id;
+        this.hash = interned.hash;
+    }
+
+    /**
+     * Constructor of an interned currency pair.
+     *
+     * @param baseCode  normalized base currency code
+     * @param quoteCode normalized quote currency code
+     * @param newId     id
+     */
+    private CurrencyPairDTO(final String baseCode, final String quoteCode, final int newId) {
+        this.baseCurrency = CurrencyDTO.getInstance(baseCode);
+        this.quoteCurrency = CurrencyDTO.getInstance(quoteCode);
+        this.id = newId;
+        this.hash = Objects.hash(baseCode, quoteCode);
     }
 
     /**
@@ -48,6 +96,78 @@ public final class CurrencyPairDTO {
         this(builder.baseCurrency, builder.quoteCurrency);
     }
 
+    /**
+     * Returns the interned currency pair of two currencies.
+     *
+     * @param baseCurrency  The base currency
+     * @param quoteCurrency The quote currency
+     * @return currency pair
+     */
+    public static CurrencyPairDTO getInstance(final String baseCurrency, final String quoteCurrency) {
+        return intern(getNormalizedCode(baseCurrency), getNormalizedCode(quoteCurrency));
+    }
+
+    /**
+     * Returns the interned currency pair of two currencies.
+     *
+     * @param baseCurrency  The base currency
+     * @param quoteCurrency The quote currency
+     * @return currency pair
+     */
+    public static CurrencyPairDTO getInstance(final CurrencyDTO baseCurrency, final CurrencyDTO quoteCurrency) {
+        Objects.requireNonNull(baseCurrency, "Base currency is mandatory");
+        Objects.requireNonNull(quoteCurrency, "Quote currency is mandatory");
+        return intern(getNormalizedCode(baseCurrency.getCode()), getNormalizedCode(quoteCurrency.getCode()));
+    }
+
+    /**
+     * Returns the interned currency pair of two normalized currency codes, creating it if needed.
+     *
+     * @param baseCode  normalized base currency code
+     * @param quoteCode normalized quote currency code
+     * @return currency pair
+     */
+    private static CurrencyPairDTO intern(final String baseCode, final String quoteCode) {
+        ConcurrentMap<String, CurrencyPairDTO> quotes = INSTANCES.get(baseCode);
+        if (quotes == null) {
+            quotes = INSTANCES.computeIfAbsent(baseCode, code -> new ConcurrentHashMap<>());
+        }
+        final CurrencyPairDTO currencyPair = quotes.get(quoteCode);
+        if (currencyPair != null) {
+            return currencyPair;
+        }
+        return quotes.computeIfAbsent(quoteCode, code -> new CurrencyPairDTO(baseCode, quoteCode, INSTANCE_COUNT.getAndIncrement()));
+    }
+
+    /**
+     * Returns a normalized currency code (upper case).
+     *
+     * @param code currency code
+     * @return normalized currency code
+     */
+    private static String getNormalizedCode(final String code) {
+        Objects.requireNonNull(code, "Currency code is mandatory");
+        return code.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Returns the number of interned currency pairs - all ids are lower.
+     *
+     * @return number of interned currency pairs
+     */
+    public static int getInstanceCount() {
+        return INSTANCE_COUNT.get();
+    }
+
+    /**
+     * Getter for id.
+     *
+     * @return id
+     */
+    public int getId() {
+        return id;
+    }
+
     /**
      * Getter for baseCurrency.
      *
@@ -112,10 +232,10 @@ public final class CurrencyPairDTO {
         /**
          * Creator.
          *
-         * @return Account
+         * @return interned currency pair
          */
         public CurrencyPairDTO create() {
-            return new CurrencyPairDTO(this);
+            return getInstance(baseCurrency, quoteCurrency);
         }
 
     }
@@ -130,17 +250,15 @@ public final class CurrencyPairDTO {
         if (this == o) {
             return true;
         }
-        if (o == null || getClass() != o.getClass()) {
+        if (!(o instanceof CurrencyPairDTO)) {
             return false;
         }
-        final CurrencyPairDTO that = (CurrencyPairDTO) o;
-        return getBaseCurrency().getCode().equalsIgnoreCase(that.getBaseCurrency().getCode())
-                && getQuoteCurrency().getCode().equalsIgnoreCase(that.getQuoteCurrency().getCode());
+        return id == ((CurrencyPairDTO) o).id;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(getBaseCurrency().getCode(), getQuoteCurrency().getCode());
+        return hash;
     }
 
 }
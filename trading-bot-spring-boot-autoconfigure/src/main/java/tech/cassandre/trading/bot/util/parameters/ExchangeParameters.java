@@ -135,6 +135,18 @@ public class ExchangeParameters {
         /** Rate for order parameter. */
         public static final String PARAMETER_RATE_ORDER = "cassandre.trading.bot.exchange.rates.trade";
 
+        /** Rate for position parameter. */
+        public static final String PARAMETER_RATE_POSITION = "cassandre.trading.bot.exchange.rates.position";
+
+        /** Rate for metadata parameter. */
+        public static final String PARAMETER_RATE_METADATA = "cassandre.trading.bot.exchange.rates.metadata";
+
+        /** Default delay between two position updates. */
+        public static final String DEFAULT_RATE_POSITION = "1000";
+
+        /** Default delay between two exchange metadata refreshes (one hour). */
+        public static final String DEFAULT_RATE_METADATA = "3600000";
+
         /** Delay between calls to account API. */
         @NotNull(message = "Delay between calls to account API is mandatory")
         @Rate(message = "Invalid account rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
@@ -150,6 +162,14 @@ public class ExchangeParameters {
         @Rate(message = "Invalid trade rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
         private String trade;
 
+        /** Delay between two position updates (positions are computed locally, no API call). */
+        @Rate(message = "Invalid position rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
+        private String position = DEFAULT_RATE_POSITION;
+
+        /** Delay between two exchange metadata refreshes (currency pairs, precision, fees). */
+        @Rate(message = "Invalid metadata rate - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
+        private String metadata = DEFAULT_RATE_METADATA;
+
         /**
          * Getter for account.
          *
@@ -204,12 +224,50 @@ public class ExchangeParameters {
             trade = newOrder;
         }
 
+        /**
+         * Getter for position.
+         *
+         * @return position
+         */
+        public String getPosition() {
+            return position;
+        }
+
+        /**
+         * Setter for position.
+         *
+         * @param newPosition the position to set
+         */
+        public void setPosition(final String newPosition) {
+            position = newPosition;
+        }
+
+        /**
+         * Getter for metadata.
+         *
+         * @return metadata
+         */
+        public String getMetadata() {
+            return metadata;
+        }
+
+        /**
+         * Setter for metadata.
+         *
+         * @param newMetadata the metadata to set
+         */
+        public void setMetadata(final String newMetadata) {
+            metadata = newMetadata;
+        }
+
         @Override
         public final String toString() {
             return "Rate{"
                     + " account=" + getAccount()
                     + ", ticker=" + getTicker()
                     + ", order=" + getTrade()
+                    + ", position=" + getPosition()
+                    + ", metadata=" + getMetadata()
                     + '}';
         }
 
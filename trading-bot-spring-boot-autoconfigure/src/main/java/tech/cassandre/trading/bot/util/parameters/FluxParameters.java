@@ -0,0 +1,230 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.FluxSink;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.util.base.BaseFlux;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Flux parameters from application.properties.
+ * Overflow strategies are optional : by default, tickers use LATEST and the other flux use BUFFER.
+ * Adaptive polling is optional : by default, accounts and orders are polled at every rate.
+ * Ticker parallelism is optional : by default, {@link TickerFlux#DEFAULT_PARALLELISM} tickers are retrieved in parallel.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.flux")
+public class FluxParameters {
+
+    /** Buffer size parameter. */
+    public static final String PARAMETER_BUFFER_SIZE = "cassandre.trading.bot.flux.buffer-size";
+
+    /** Account overflow strategy parameter. */
+    public static final String PARAMETER_ACCOUNT_OVERFLOW_STRATEGY = "cassandre.trading.bot.flux.account-overflow-strategy";
+
+    /** Ticker overflow strategy parameter. */
+    public static final String PARAMETER_TICKER_OVERFLOW_STRATEGY = "cassandre.trading.bot.flux.ticker-overflow-strategy";
+
+    /** Order overflow strategy parameter. */
+    public static final String PARAMETER_ORDER_OVERFLOW_STRATEGY = "cassandre.trading.bot.flux.order-overflow-strategy";
+
+    /** Trade overflow strategy parameter. */
+    public static final String PARAMETER_TRADE_OVERFLOW_STRATEGY = "cassandre.trading.bot.flux.trade-overflow-strategy";
+
+    /** Position overflow strategy parameter. */
+    public static final String PARAMETER_POSITION_OVERFLOW_STRATEGY = "cassandre.trading.bot.flux.position-overflow-strategy";
+
+    /** Maximum polling backoff parameter. */
+    public static final String PARAMETER_MAXIMUM_POLLING_BACKOFF = "cassandre.trading.bot.flux.maximum-polling-backoff";
+
+    /** Ticker parallelism parameter. */
+    public static final String PARAMETER_TICKER_PARALLELISM = "cassandre.trading.bot.flux.ticker-parallelism";
+
+    /** Maximum number of values buffered by a flux using the BUFFER overflow strategy (the flux then waits for its subscribers). */
+    @Min(value = 1, message = "Buffer size must be positive")
+    private int bufferSize = BaseFlux.DEFAULT_BUFFER_SIZE;
+
+    /** Account flux overflow strategy. */
+    private FluxSink.OverflowStrategy accountOverflowStrategy;
+
+    /** Ticker flux overflow strategy. */
+    private FluxSink.OverflowStrategy tickerOverflowStrategy;
+
+    /** Order flux overflow strategy. */
+    private FluxSink.OverflowStrategy orderOverflowStrategy;
+
+    /** Trade flux overflow strategy. */
+    private FluxSink.OverflowStrategy tradeOverflowStrategy;
+
+    /** Position flux overflow strategy. */
+    private FluxSink.OverflowStrategy positionOverflowStrategy;
+
+    /** Maximum number of rates between two account or order polls when nothing changes (1 to poll at every rate, only the account flux in dry mode). */
+    @Min(value = 1, message = "Maximum polling backoff must be positive")
+    private int maximumPollingBackoff = 1;
+
+    /** Number of tickers retrieved in parallel by the ticker flux (their requests still wait for the market service rate limiter). */
+    @Min(value = 1, message = "Ticker parallelism must be positive")
+    private int tickerParallelism = TickerFlux.DEFAULT_PARALLELISM;
+
+    /**
+     * Getter for bufferSize.
+     *
+     * @return bufferSize
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Setter for bufferSize.
+     *
+     * @param newBufferSize the bufferSize to set
+     */
+    public void setBufferSize(final int newBufferSize) {
+        bufferSize = newBufferSize;
+    }
+
+    /**
+     * Getter for accountOverflowStrategy.
+     *
+     * @return accountOverflowStrategy
+     */
+    public FluxSink.OverflowStrategy getAccountOverflowStrategy() {
+        return accountOverflowStrategy;
+    }
+
+    /**
+     * Setter for accountOverflowStrategy.
+     *
+     * @param newAccountOverflowStrategy the accountOverflowStrategy to set
+     */
+    public void setAccountOverflowStrategy(final FluxSink.OverflowStrategy newAccountOverflowStrategy) {
+        accountOverflowStrategy = newAccountOverflowStrategy;
+    }
+
+    /**
+     * Getter for tickerOverflowStrategy.
+     *
+     * @return tickerOverflowStrategy
+     */
+    public FluxSink.OverflowStrategy getTickerOverflowStrategy() {
+        return tickerOverflowStrategy;
+    }
+
+    /**
+     * Setter for tickerOverflowStrategy.
+     *
+     * @param newTickerOverflowStrategy the tickerOverflowStrategy to set
+     */
+    public void setTickerOverflowStrategy(final FluxSink.OverflowStrategy newTickerOverflowStrategy) {
+        tickerOverflowStrategy = newTickerOverflowStrategy;
+    }
+
+    /**
+     * Getter for orderOverflowStrategy.
+     *
+     * @return orderOverflowStrategy
+     */
+    public FluxSink.OverflowStrategy getOrderOverflowStrategy() {
+        return orderOverflowStrategy;
+    }
+
+    /**
+     * Setter for orderOverflowStrategy.
+     *
+     * @param newOrderOverflowStrategy the orderOverflowStrategy to set
+     */
+    public void setOrderOverflowStrategy(final FluxSink.OverflowStrategy newOrderOverflowStrategy) {
+        orderOverflowStrategy = newOrderOverflowStrategy;
+    }
+
+    /**
+     * Getter for tradeOverflowStrategy.
+     *
+     * @return tradeOverflowStrategy
+     */
+    public FluxSink.OverflowStrategy getTradeOverflowStrategy() {
+        return tradeOverflowStrategy;
+    }
+
+    /**
+     * Setter for tradeOverflowStrategy.
+     *
+     * @param newTradeOverflowStrategy the tradeOverflowStrategy to set
+     */
+    public void setTradeOverflowStrategy(final FluxSink.OverflowStrategy newTradeOverflowStrategy) {
+        tradeOverflowStrategy = newTradeOverflowStrategy;
+    }
+
+    /**
+     * Getter for positionOverflowStrategy.
+     *
+     * @return positionOverflowStrategy
+     */
+    public FluxSink.OverflowStrategy getPositionOverflowStrategy() {
+        return positionOverflowStrategy;
+    }
+
+    /**
+     * Setter for positionOverflowStrategy.
+     *
+     * @param newPositionOverflowStrategy the positionOverflowStrategy to set
+     */
+    public void setPositionOverflowStrategy(final FluxSink.OverflowStrategy newPositionOverflowStrategy) {
+        positionOverflowStrategy = newPositionOverflowStrategy;
+    }
+
+    /**
+     * Getter for maximumPollingBackoff.
+     *
+     * @return maximumPollingBackoff
+     */
+    public int getMaximumPollingBackoff() {
+        return maximumPollingBackoff;
+    }
+
+    /**
+     * Setter for maximumPollingBackoff.
+     *
+     * @param newMaximumPollingBackoff the maximumPollingBackoff to set
+     */
+    public void setMaximumPollingBackoff(final int newMaximumPollingBackoff) {
+        maximumPollingBackoff = newMaximumPollingBackoff;
+    }
+
+    /**
+     * Getter for tickerParallelism.
+     *
+     * @return tickerParallelism
+     */
+    public int getTickerParallelism() {
+        return tickerParallelism;
+    }
+
+    /**
+     * Setter for tickerParallelism.
+     *
+     * @param newTickerParallelism the tickerParallelism to set
+     */
+    public void setTickerParallelism(final int newTickerParallelism) {
+        tickerParallelism = newTickerParallelism;
+    }
+
+    @Override
+    public final String toString() {
+        return "FluxParameters{"
+                + " bufferSize=" + bufferSize
+                + ", accountOverflowStrategy=" + accountOverflowStrategy
+                + ", tickerOverflowStrategy=" + tickerOverflowStrategy
+                + ", orderOverflowStrategy=" + orderOverflowStrategy
+                + ", tradeOverflowStrategy=" + tradeOverflowStrategy
+                + ", positionOverflowStrategy=" + positionOverflowStrategy
+                + ", maximumPollingBackoff=" + maximumPollingBackoff
+                + ", tickerParallelism=" + tickerParallelism
+                + '}';
+    }
+
+}
@@ -0,0 +1,105 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import tech.cassandre.trading.bot.util.base.BaseTradeService;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Order parameters from application.properties.
+ * All parameters are optional : by default, up to ten asynchronous orders are sent to the exchange at the same time
+ * and orders are not batched.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.order")
+public class OrderParameters {
+
+    /** Concurrency parameter. */
+    public static final String PARAMETER_CONCURRENCY = "cassandre.trading.bot.order.concurrency";
+
+    /** Batch window parameter. */
+    public static final String PARAMETER_BATCH_WINDOW = "cassandre.trading.bot.order.batch-window";
+
+    /** Batch size parameter. */
+    public static final String PARAMETER_BATCH_SIZE = "cassandre.trading.bot.order.batch-size";
+
+    /** Default batch size. */
+    private static final int DEFAULT_BATCH_SIZE = 20;
+
+    /** Maximum number of asynchronous orders (creations and cancellations) sent to the exchange at the same time. */
+    @Min(value = 1, message = "Order concurrency must be positive")
+    private int concurrency = BaseTradeService.DEFAULT_ORDER_CONCURRENCY;
+
+    /** Time (ms) waited for other orders after an order, to send them in one batch (0 to disable batching). */
+    @Min(value = 0, message = "Batch window can't be negative")
+    private long batchWindow;
+
+    /** Maximum number of orders in a batch. */
+    @Min(value = 1, message = "Batch size must be positive")
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    /**
+     * Getter for concurrency.
+     *
+     * @return concurrency
+     */
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    /**
+     * Setter for concurrency.
+     *
+     * @param newConcurrency the concurrency to set
+     */
+    public void setConcurrency(final int newConcurrency) {
+        concurrency = newConcurrency;
+    }
+
+    /**
+     * Getter for batchWindow.
+     *
+     * @return batchWindow
+     */
+    public long getBatchWindow() {
+        return batchWindow;
+    }
+
+    /**
+     * Setter for batchWindow.
+     *
+     * @param newBatchWindow the batchWindow to set
+     */
+    public void setBatchWindow(final long newBatchWindow) {
+        batchWindow = newBatchWindow;
+    }
+
+    /**
+     * Getter for batchSize.
+     *
+     * @return batchSize
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Setter for batchSize.
+     *
+     * @param newBatchSize the batchSize to set
+     */
+    public void setBatchSize(final int newBatchSize) {
+        batchSize = newBatchSize;
+    }
+
+    @Override
+    public final String toString() {
+        return "OrderParameters{"
+                + " concurrency=" + concurrency
+                + ", batchWindow=" + batchWindow
+                + ", batchSize=" + batchSize
+                + '}';
+    }
+
+}
@@ -0,0 +1,202 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import tech.cassandre.trading.bot.repository.WriteBehindQueue;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Persistence parameters from application.properties.
+ * All parameters are optional : by default, positions, orders and trades are not stored. When they are, the journal is
+ * forced to the disk every second and compacted in a snapshot every 100 000 records.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.persistence")
+public class PersistenceParameters {
+
+    /** Enabled parameter. */
+    public static final String PARAMETER_ENABLED = "cassandre.trading.bot.persistence.enabled";
+
+    /** Directory parameter. */
+    public static final String PARAMETER_DIRECTORY = "cassandre.trading.bot.persistence.directory";
+
+    /** Queue capacity parameter. */
+    public static final String PARAMETER_QUEUE_CAPACITY = "cassandre.trading.bot.persistence.queue-capacity";
+
+    /** Batch size parameter. */
+    public static final String PARAMETER_BATCH_SIZE = "cassandre.trading.bot.persistence.batch-size";
+
+    /** Fsync policy parameter. */
+    public static final String PARAMETER_FSYNC_POLICY = "cassandre.trading.bot.persistence.fsync-policy";
+
+    /** Snapshot records parameter. */
+    public static final String PARAMETER_SNAPSHOT_RECORDS = "cassandre.trading.bot.persistence.snapshot-records";
+
+    /** Default directory. */
+    private static final String DEFAULT_DIRECTORY = "cassandre-data";
+
+    /** Default number of journal records between two snapshots. */
+    private static final long DEFAULT_SNAPSHOT_RECORDS = 100_000;
+
+    /**
+     * When the journal is forced to the disk (records are always flushed to the operating system after each batch, so
+     * they survive a crash of the application, not of the machine).
+     */
+    public enum FsyncPolicy {
+
+        /** Never - the operating system decides. */
+        NEVER,
+
+        /** At most once per second, after a batch. */
+        PERIODIC,
+
+        /** After each batch - the slowest. */
+        BATCH
+
+    }
+
+    /** True to store positions, orders and trades (and to restore positions at startup). */
+    private boolean enabled;
+
+    /** Directory of the repository files. */
+    @NotEmpty(message = "Persistence directory can't be empty")
+    private String directory = DEFAULT_DIRECTORY;
+
+    /** Maximum number of updates waiting to be written (updates wait for a free slot when the queue is full). */
+    @Min(value = 1, message = "Queue capacity must be positive")
+    private int queueCapacity = WriteBehindQueue.DEFAULT_CAPACITY;
+
+    /** Maximum number of updates written in a batch. */
+    @Min(value = 1, message = "Batch size must be positive")
+    private int batchSize = WriteBehindQueue.DEFAULT_BATCH_SIZE;
+
+    /** When the journal is forced to the disk. */
+    private FsyncPolicy fsyncPolicy = FsyncPolicy.PERIODIC;
+
+    /** Number of records written in a journal before it's compacted in a snapshot. */
+    @Min(value = 1, message = "Snapshot records must be positive")
+    private long snapshotRecords = DEFAULT_SNAPSHOT_RECORDS;
+
+    /**
+     * Getter for enabled.
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Setter for enabled.
+     *
+     * @param newEnabled the enabled to set
+     */
+    public void setEnabled(final boolean newEnabled) {
+        enabled = newEnabled;
+    }
+
+    /**
+     * Getter for directory.
+     *
+     * @return directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Setter for directory.
+     *
+     * @param newDirectory the directory to set
+     */
+    public void setDirectory(final String newDirectory) {
+        directory = newDirectory;
+    }
+
+    /**
+     * Getter for queueCapacity.
+     *
+     * @return queueCapacity
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Setter for queueCapacity.
+     *
+     * @param newQueueCapacity the queueCapacity to set
+     */
+    public void setQueueCapacity(final int newQueueCapacity) {
+        queueCapacity = newQueueCapacity;
+    }
+
+    /**
+     * Getter for batchSize.
+     *
+     * @return batchSize
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Setter for batchSize.
+     *
+     * @param newBatchSize the batchSize to set
+     */
+    public void setBatchSize(final int newBatchSize) {
+        batchSize = newBatchSize;
+    }
+
+    /**
+     * Getter for fsyncPolicy.
+     *
+     * @return fsyncPolicy
+     */
+    public FsyncPolicy getFsyncPolicy() {
+        return fsyncPolicy;
+    }
+
+    /**
+     * Setter for fsyncPolicy.
+     *
+     * @param newFsyncPolicy the fsyncPolicy to set
+     */
+    public void setFsyncPolicy(final FsyncPolicy newFsyncPolicy) {
+        fsyncPolicy = newFsyncPolicy;
+    }
+
+    /**
+     * Getter for snapshotRecords.
+     *
+     * @return snapshotRecords
+     */
+    public long getSnapshotRecords() {
+        return snapshotRecords;
+    }
+
+    /**
+     * Setter for snapshotRecords.
+     *
+     * @param newSnapshotRecords the snapshotRecords to set
+     */
+    public void setSnapshotRecords(final long newSnapshotRecords) {
+        snapshotRecords = newSnapshotRecords;
+    }
+
+    @Override
+    public final String toString() {
+        return "PersistenceParameters{"
+                + " enabled=" + enabled
+                + ", directory='" + directory + '\''
+                + ", queueCapacity=" + queueCapacity
+                + ", batchSize=" + batchSize
+                + ", fsyncPolicy=" + fsyncPolicy
+                + ", snapshotRecords=" + snapshotRecords
+                + '}';
+    }
+
+}
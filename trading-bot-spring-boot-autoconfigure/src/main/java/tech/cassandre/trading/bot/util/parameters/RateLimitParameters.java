@@ -0,0 +1,133 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint;
+import tech.cassandre.trading.bot.util.validator.Rate;
+
+import javax.validation.constraints.Min;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Rate limit parameters from application.properties.
+ * All parameters are optional : by default, each service calls the exchange once per rate (see
+ * cassandre.trading.bot.exchange.rates), every call weights 1 and there is no account-wide budget.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.rate-limit")
+public class RateLimitParameters {
+
+    /** Burst parameter. */
+    public static final String PARAMETER_BURST = "cassandre.trading.bot.rate-limit.burst";
+
+    /** Account limit parameter. */
+    public static final String PARAMETER_ACCOUNT_LIMIT = "cassandre.trading.bot.rate-limit.account-limit";
+
+    /** Account period parameter. */
+    public static final String PARAMETER_ACCOUNT_PERIOD = "cassandre.trading.bot.rate-limit.account-period";
+
+    /** Weights parameter (ex: cassandre.trading.bot.rate-limit.weights.trades=5). */
+    public static final String PARAMETER_WEIGHTS = "cassandre.trading.bot.rate-limit.weights";
+
+    /** Default account period (one minute). */
+    public static final String DEFAULT_ACCOUNT_PERIOD = "60000";
+
+    /** Number of calls a service can make in a row before its rate applies. */
+    @Min(value = 1, message = "Burst must be positive")
+    private long burst = 1;
+
+    /** Number of weighted calls allowed per account period for all the services (0 for no account-wide budget). */
+    @Min(value = 0, message = "Account limit can't be negative")
+    private long accountLimit;
+
+    /** Account period. */
+    @Rate(message = "Invalid account period - Enter a long value (ex: 123) or a standard ISO 8601 duration (ex: PT10H)")
+    private String accountPeriod = DEFAULT_ACCOUNT_PERIOD;
+
+    /** Endpoint weights (1 if missing). */
+    private Map<RateLimitedEndpoint, @Min(value = 1, message = "Weights must be positive") Integer> weights = new EnumMap<>(RateLimitedEndpoint.class);
+
+    /**
+     * Getter for burst.
+     *
+     * @return burst
+     */
+    public long getBurst() {
+        return burst;
+    }
+
+    /**
+     * Setter for burst.
+     *
+     * @param newBurst the burst to set
+     */
+    public void setBurst(final long newBurst) {
+        burst = newBurst;
+    }
+
+    /**
+     * Getter for accountLimit.
+     *
+     * @return accountLimit
+     */
+    public long getAccountLimit() {
+        return accountLimit;
+    }
+
+    /**
+     * Setter for accountLimit.
+     *
+     * @param newAccountLimit the accountLimit to set
+     */
+    public void setAccountLimit(final long newAccountLimit) {
+        accountLimit = newAccountLimit;
+    }
+
+    /**
+     * Getter for accountPeriod.
+     *
+     * @return accountPeriod
+     */
+    public String getAccountPeriod() {
+        return accountPeriod;
+    }
+
+    /**
+     * Setter for accountPeriod.
+     *
+     * @param newAccountPeriod the accountPeriod to set
+     */
+    public void setAccountPeriod(final String newAccountPeriod) {
+        accountPeriod = newAccountPeriod;
+    }
+
+    /**
+     * Getter for weights.
+     *
+     * @return weights
+     */
+    public Map<RateLimitedEndpoint, Integer> getWeights() {
+        return weights;
+    }
+
+    /**
+     * Setter for weights.
+     *
+     * @param newWeights the weights to set
+     */
+    public void setWeights(final Map<RateLimitedEndpoint, Integer> newWeights) {
+        weights = newWeights;
+    }
+
+    @Override
+    public final String toString() {
+        return "RateLimitParameters{"
+                + " burst=" + burst
+                + ", accountLimit=" + accountLimit
+                + ", accountPeriod=" + accountPeriod
+                + ", weights=" + weights
+                + '}';
+    }
+
+}
@@ -0,0 +1,64 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+/**
+ * Strategy parameters from application.properties.
+ * The dispatch mode is optional : by default, each strategy receives its updates on its own thread.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.strategy")
+public class StrategyParameters {
+
+    /** Dispatch mode parameter. */
+    public static final String PARAMETER_DISPATCH_MODE = "cassandre.trading.bot.strategy.dispatch-mode";
+
+    /**
+     * How updates are dispatched to a strategy.
+     */
+    public enum DispatchMode {
+
+        /** On the thread emitting the update (the flux scheduler) - a slow strategy delays the next update. */
+        IMMEDIATE,
+
+        /** On a thread dedicated to the strategy - updates are processed one at a time, in order. */
+        SINGLE,
+
+        /**
+         * On a bounded elastic pool - tickers of different currency pairs are processed in parallel, tickers of a currency pair in order.
+         * Account, order, trade and position updates are processed one at a time, in order, on a thread of their own.
+         */
+        BOUNDED_ELASTIC
+
+    }
+
+    /** Dispatch mode. */
+    private DispatchMode dispatchMode = DispatchMode.SINGLE;
+
+    /**
+     * Getter for dispatchMode.
+     *
+     * @return dispatchMode
+     */
+    public DispatchMode getDispatchMode() {
+        return dispatchMode;
+    }
+
+    /**
+     * Setter for dispatchMode.
+     *
+     * @param newDispatchMode the dispatchMode to set
+     */
+    public void setDispatchMode(final DispatchMode newDispatchMode) {
+        dispatchMode = newDispatchMode;
+    }
+
+    @Override
+    public final String toString() {
+        return "StrategyParameters{"
+                + " dispatchMode=" + dispatchMode
+                + '}';
+    }
+
+}
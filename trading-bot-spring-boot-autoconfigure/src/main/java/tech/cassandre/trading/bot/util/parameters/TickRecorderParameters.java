@@ -0,0 +1,76 @@
+package tech.cassandre.trading.bot.util.parameters;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.constraints.NotEmpty;
+
+/**
+ * Tick recorder parameters from application.properties.
+ * All parameters are optional : by default, ticks are not recorded.
+ */
+@Validated
+@ConfigurationProperties(prefix = "cassandre.trading.bot.tick-recorder")
+public class TickRecorderParameters {
+
+    /** Enabled parameter. */
+    public static final String PARAMETER_ENABLED = "cassandre.trading.bot.tick-recorder.enabled";
+
+    /** Directory parameter. */
+    public static final String PARAMETER_DIRECTORY = "cassandre.trading.bot.tick-recorder.directory";
+
+    /** Default directory. */
+    private static final String DEFAULT_DIRECTORY = "cassandre-ticks";
+
+    /** True to record every tick received. */
+    private boolean enabled;
+
+    /** Directory of the tick files (one sub directory per currency pair, one file per day). */
+    @NotEmpty(message = "Tick recorder directory can't be empty")
+    private String directory = DEFAULT_DIRECTORY;
+
+    /**
+     * Getter for enabled.
+     *
+     * @return enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Setter for enabled.
+     *
+     * @param newEnabled the enabled to set
+     */
+    public void setEnabled(final boolean newEnabled) {
+        enabled = newEnabled;
+    }
+
+    /**
+     * Getter for directory.
+     *
+     * @return directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Setter for directory.
+     *
+     * @param newDirectory the directory to set
+     */
+    public void setDirectory(final String newDirectory) {
+        directory = newDirectory;
+    }
+
+    @Override
+    public final String toString() {
+        return "TickRecorderParameters{"
+                + " enabled=" + enabled
+                + ", directory='" + directory + '\''
+                + '}';
+    }
+
+}
@@ -0,0 +1,105 @@
+package tech.cassandre.trading.bot.util.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Account rate limit - budget shared by all the services calling the exchange with the same account (for example,
+ * 1200 weighted calls per minute, refilled at once at the end of each minute as exchanges do), and priority lane shared
+ * by their callers : while a call to a priority endpoint is waiting for tokens, the other calls don't take any.
+ */
+public class AccountRateLimit {
+
+    /** Account bucket (null if the account has no budget). */
+    private final Bucket bucket;
+
+    /** Account bucket capacity. */
+    private final long capacity;
+
+    /** Number of calls to priority endpoints waiting for tokens. */
+    private final AtomicInteger priorityWaiters = new AtomicInteger();
+
+    /**
+     * Constructs an account rate limit without budget (only the priority lane is shared).
+     */
+    public AccountRateLimit() {
+        this(0, 1);
+    }
+
+    /**
+     * Constructs an account rate limit.
+     *
+     * @param limit  number of weighted calls allowed per period (0 for no budget)
+     * @param period period in ms
+     */
+    public AccountRateLimit(final long limit, final long period) {
+        if (limit > 0) {
+            bucket = Bucket4j.builder()
+                    .addLimit(Bandwidth.classic(limit, Refill.intervally(limit, Duration.ofMillis(period))))
+                    .build();
+        } else {
+            bucket = null;
+        }
+        capacity = limit;
+    }
+
+    /**
+     * Returns the number of tokens available in the account budget.
+     *
+     * @return available tokens (empty if the account has no budget)
+     */
+    public OptionalLong getAvailableTokens() {
+        if (bucket == null) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(bucket.getAvailableTokens());
+    }
+
+    /**
+     * Tries to consume tokens from the account budget.
+     *
+     * @param weight weight of the call
+     * @return 0 if tokens were consumed, time to wait (ns) before trying again otherwise
+     */
+    long tryConsume(final long weight) {
+        if (bucket == null) {
+            return 0;
+        }
+        final ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(Math.min(weight, capacity));
+        if (probe.isConsumed()) {
+            return 0;
+        }
+        return Math.max(1, probe.getNanosToWaitForRefill());
+    }
+
+    /**
+     * Returns true if a call to a priority endpoint is waiting for tokens.
+     *
+     * @return true if a priority call is waiting
+     */
+    boolean isPriorityCallWaiting() {
+        return priorityWaiters.get() > 0;
+    }
+
+    /**
+     * Registers a call to a priority endpoint waiting for tokens.
+     */
+    void priorityCallWaiting() {
+        priorityWaiters.incrementAndGet();
+    }
+
+    /**
+     * Unregisters a call to a priority endpoint waiting for tokens.
+     */
+    void priorityCallServed() {
+        priorityWaiters.decrementAndGet();
+    }
+
+}
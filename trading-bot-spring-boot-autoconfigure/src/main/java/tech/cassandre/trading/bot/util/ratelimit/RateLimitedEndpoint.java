@@ -0,0 +1,59 @@
+package tech.cassandre.trading.bot.util.ratelimit;
+
+/**
+ * Exchange endpoints called under a rate limit.
+ * <p>
+ * Calls to priority endpoints (order creations and cancellations) are served before the calls to the other endpoints
+ * (background polling) waiting for tokens.
+ */
+public enum RateLimitedEndpoint {
+
+    /** Account information. */
+    ACCOUNT(false),
+
+    /** Ticker. */
+    TICKER(false),
+
+    /** Open orders. */
+    OPEN_ORDERS(false),
+
+    /** Trade history. */
+    TRADES(false),
+
+    /** Exchange metadata refresh (can call several exchange endpoints). */
+    METADATA(false),
+
+    /** Order creation. */
+    ORDER_CREATION(true),
+
+    /** Order cancellation. */
+    ORDER_CANCELLATION(true),
+
+    /** Batch of order creations (one call for the whole batch). */
+    ORDER_BATCH_CREATION(true),
+
+    /** Batch of order cancellations (one call for the whole batch). */
+    ORDER_BATCH_CANCELLATION(true);
+
+    /** True if calls to this endpoint are served first. */
+    private final boolean priority;
+
+    /**
+     * Constructor.
+     *
+     * @param newPriority true if calls to this endpoint are served first
+     */
+    RateLimitedEndpoint(final boolean newPriority) {
+        this.priority = newPriority;
+    }
+
+    /**
+     * Getter for priority.
+     *
+     * @return true if calls to this endpoint are served first
+     */
+    public boolean isPriority() {
+        return priority;
+    }
+
+}
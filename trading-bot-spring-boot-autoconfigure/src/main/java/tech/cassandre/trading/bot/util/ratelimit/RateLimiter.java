@@ -0,0 +1,187 @@
+package tech.cassandre.trading.bot.util.ratelimit;
+
+import io.github.bucket4j.Bandwidth;
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.Bucket4j;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.Refill;
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter of a service - each call to the exchange consumes tokens (the weight of its endpoint) from two buckets :
+ * <ul>
+ *     <li>The service bucket : one token every "rate" ms, up to "burst" tokens.</li>
+ *     <li>The account budget, shared by all the services (see {@link AccountRateLimit}).</li>
+ * </ul>
+ * If a bucket doesn't have enough tokens, the call waits for the refill. Calls to order endpoints are served before
+ * the polling calls waiting for tokens. Wait times are recorded per endpoint.
+ */
+public class RateLimiter extends Base {
+
+    /** Maximum time waited before trying again (ms) - another caller may give tokens back. */
+    private static final long MAXIMUM_WAIT = 10;
+
+    /** Time waited by a polling call while a priority call is waiting (ns). */
+    private static final long PRIORITY_WAIT = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /** Service bucket. */
+    private final Bucket bucket;
+
+    /** Service bucket capacity. */
+    private final long burst;
+
+    /** Endpoint weights. */
+    private final Map<RateLimitedEndpoint, Integer> weights;
+
+    /** Account rate limit. */
+    private final AccountRateLimit accountRateLimit;
+
+    /** Wait times per endpoint. */
+    private final Map<RateLimitedEndpoint, WaitTimeHistogram> waitTimes = new EnumMap<>(RateLimitedEndpoint.class);
+
+    /**
+     * Constructs a rate limiter allowing one call every "rate" ms, without burst, weights or account budget.
+     *
+     * @param rate rate in ms
+     */
+    public RateLimiter(final long rate) {
+        this(rate, 1, Collections.emptyMap(), new AccountRateLimit());
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param rate                rate in ms
+     * @param newBurst            number of calls allowed in a row before the rate applies
+     * @param newWeights          endpoint weights (1 if missing)
+     * @param newAccountRateLimit account rate limit
+     */
+    public RateLimiter(final long rate, final long newBurst, final Map<RateLimitedEndpoint, Integer> newWeights, final AccountRateLimit newAccountRateLimit) {
+        this.bucket = Bucket4j.builder()
+                .addLimit(Bandwidth.classic(newBurst, Refill.greedy(1, Duration.ofMillis(rate))))
+                .build();
+        this.burst = newBurst;
+        this.weights = new EnumMap<>(RateLimitedEndpoint.class);
+        this.weights.putAll(newWeights);
+        this.accountRateLimit = newAccountRateLimit;
+        for (RateLimitedEndpoint endpoint : RateLimitedEndpoint.values()) {
+            waitTimes.put(endpoint, new WaitTimeHistogram());
+        }
+    }
+
+    /**
+     * Waits until a call to an endpoint is allowed and consumes its tokens.
+     *
+     * @param endpoint endpoint called
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public final void acquire(final RateLimitedEndpoint endpoint) throws InterruptedException {
+        final long start = System.nanoTime();
+        final long weight = getWeight(endpoint);
+        if (endpoint.isPriority()) {
+            accountRateLimit.priorityCallWaiting();
+        }
+        try {
+            long wait = tryConsume(weight, endpoint.isPriority());
+            while (wait > 0) {
+                TimeUnit.NANOSECONDS.sleep(Math.min(wait, TimeUnit.MILLISECONDS.toNanos(MAXIMUM_WAIT)));
+                wait = tryConsume(weight, endpoint.isPriority());
+            }
+        } finally {
+            if (endpoint.isPriority()) {
+                accountRateLimit.priorityCallServed();
+            }
+        }
+        final long waitTime = System.nanoTime() - start;
+        waitTimes.get(endpoint).record(waitTime);
+        getLogger().debug("RateLimiter - Call to {} allowed after {} ms", endpoint, TimeUnit.NANOSECONDS.toMillis(waitTime));
+    }
+
+    /**
+     * Tries to consume the tokens of a call from the service bucket and the account budget.
+     *
+     * @param weight   weight of the call
+     * @param priority true if it's a call to a priority endpoint
+     * @return 0 if tokens were consumed, time to wait (ns) before trying again otherwise
+     */
+    private long tryConsume(final long weight, final boolean priority) {
+        if (!priority && accountRateLimit.isPriorityCallWaiting()) {
+            return PRIORITY_WAIT;
+        }
+        // A call heavier than a bucket empties it.
+        final long serviceWeight = Math.min(weight, burst);
+        final ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(serviceWeight);
+        if (!probe.isConsumed()) {
+            return Math.max(1, probe.getNanosToWaitForRefill());
+        }
+        final long accountWait = accountRateLimit.tryConsume(weight);
+        if (accountWait > 0) {
+            // Tokens are given back to the service bucket until the account budget allows the call.
+            bucket.addTokens(serviceWeight);
+        }
+        return accountWait;
+    }
+
+    /**
+     * Adds tokens to the service bucket (for example, the budget freed by another service), up to its capacity.
+     *
+     * @param tokens tokens
+     */
+    public final void addTokens(final long tokens) {
+        bucket.addTokens(tokens);
+    }
+
+    /**
+     * Returns the weight of an endpoint.
+     *
+     * @param endpoint endpoint
+     * @return weight
+     */
+    public final int getWeight(final RateLimitedEndpoint endpoint) {
+        return weights.getOrDefault(endpoint, 1);
+    }
+
+    /**
+     * Returns the number of tokens available in the service bucket.
+     *
+     * @return available tokens
+     */
+    public final long getAvailableTokens() {
+        return bucket.getAvailableTokens();
+    }
+
+    /**
+     * Getter for accountRateLimit.
+     *
+     * @return accountRateLimit
+     */
+    public final AccountRateLimit getAccountRateLimit() {
+        return accountRateLimit;
+    }
+
+    /**
+     * Returns the histogram of the time spent waiting for tokens by the calls to an endpoint.
+     *
+     * @param endpoint endpoint
+     * @return wait time histogram
+     */
+    public final WaitTimeHistogram getWaitTimeHistogram(final RateLimitedEndpoint endpoint) {
+        return waitTimes.get(endpoint);
+    }
+
+    @Override
+    public final String toString() {
+        return "RateLimiter{"
+                + " availableTokens=" + getAvailableTokens()
+                + ", accountAvailableTokens=" + accountRateLimit.getAvailableTokens()
+                + ", waitTimes=" + waitTimes
+                + '}';
+    }
+
+}
@@ -0,0 +1,101 @@
+package tech.cassandre.trading.bot.util.ratelimit;
+
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogram of the time spent waiting for tokens - counts calls per wait time range (less than 1 ms, 10 ms, 100 ms,
+ * 1 s and more).
+ */
+public class WaitTimeHistogram {
+
+    /** Upper bounds of the ranges (ms) - the last range has no upper bound. */
+    private static final long[] UPPER_BOUNDS = {1, 10, 100, 1000};
+
+    /** Number of calls per range. */
+    private final LongAdder[] counts = new LongAdder[UPPER_BOUNDS.length + 1];
+
+    /** Total wait time (ns). */
+    private final LongAdder totalWaitTime = new LongAdder();
+
+    /**
+     * Constructor.
+     */
+    public WaitTimeHistogram() {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a wait time.
+     *
+     * @param nanos wait time (ns)
+     */
+    void record(final long nanos) {
+        final long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        int range = 0;
+        while (range < UPPER_BOUNDS.length && millis >= UPPER_BOUNDS[range]) {
+            range++;
+        }
+        counts[range].increment();
+        totalWaitTime.add(nanos);
+    }
+
+    /**
+     * Returns the upper bounds of the ranges (ms) - the last range (1 s and more) has no upper bound.
+     *
+     * @return upper bounds
+     */
+    public static long[] getUpperBounds() {
+        return UPPER_BOUNDS.clone();
+    }
+
+    /**
+     * Returns the number of calls per range.
+     *
+     * @return counts (one more than upper bounds)
+     */
+    public long[] getCounts() {
+        final long[] result = new long[counts.length];
+        for (int i = 0; i < counts.length; i++) {
+            result[i] = counts[i].sum();
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of calls.
+     *
+     * @return number of calls
+     */
+    public long getCount() {
+        long count = 0;
+        for (LongAdder c : counts) {
+            count += c.sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the total time spent waiting for tokens.
+     *
+     * @return total wait time (ms)
+     */
+    public long getTotalWaitTime() {
+        return TimeUnit.NANOSECONDS.toMillis(totalWaitTime.sum());
+    }
+
+    @Override
+    public final String toString() {
+        final StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        final long[] values = getCounts();
+        for (int i = 0; i < UPPER_BOUNDS.length; i++) {
+            joiner.add("<" + UPPER_BOUNDS[i] + "ms=" + values[i]);
+        }
+        joiner.add(">=" + UPPER_BOUNDS[UPPER_BOUNDS.length - 1] + "ms=" + values[UPPER_BOUNDS.length]);
+        return joiner.toString();
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Rate limit.
+ */
+package tech.cassandre.trading.bot.util.ratelimit;
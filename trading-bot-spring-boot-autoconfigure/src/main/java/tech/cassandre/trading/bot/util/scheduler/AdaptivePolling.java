@@ -0,0 +1,138 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import tech.cassandre.trading.bot.util.base.Base;
+
+/**
+ * Adaptive polling - when a poll returns nothing new, the next polls are skipped : one cycle out of two, then three out
+ * of four... up to the maximum backoff. The first poll returning something, or a wake-up (for example, after an order
+ * was sent), brings back the polling to every cycle.
+ * <p>
+ * Each skipped poll is counted as a poll saved and reported to the skipped poll listener, which can give the API budget
+ * freed to another flux.
+ */
+public class AdaptivePolling extends Base {
+
+    /** Name. */
+    private final String name;
+
+    /** Maximum backoff (maximum number of cycles between two polls). */
+    private final int maximumBackoff;
+
+    /** Skipped poll listener. */
+    private final Runnable skippedPollListener;
+
+    /** Current backoff (number of cycles between two polls). */
+    private int backoff = 1;
+
+    /** Number of cycles to skip before the next poll. */
+    private int cyclesToSkip;
+
+    /** Number of polls. */
+    private long polls;
+
+    /** Number of polls saved. */
+    private long savedPolls;
+
+    /**
+     * Constructor.
+     *
+     * @param newName                name
+     * @param newMaximumBackoff      maximum number of cycles between two polls
+     * @param newSkippedPollListener listener called for each skipped poll
+     */
+    public AdaptivePolling(final String newName, final int newMaximumBackoff, final Runnable newSkippedPollListener) {
+        this.name = newName;
+        this.maximumBackoff = Math.max(1, newMaximumBackoff);
+        this.skippedPollListener = newSkippedPollListener;
+    }
+
+    /**
+     * Returns true if the poll of this cycle must be done - if not, the poll is counted as saved.
+     *
+     * @return true if the poll must be done
+     */
+    public final boolean isPollDue() {
+        synchronized (this) {
+            if (cyclesToSkip == 0) {
+                polls++;
+                return true;
+            }
+            cyclesToSkip--;
+            savedPolls++;
+        }
+        skippedPollListener.run();
+        return false;
+    }
+
+    /**
+     * Records the result of a poll - the backoff doubles if nothing changed.
+     *
+     * @param changed true if the poll returned something new
+     */
+    public final synchronized void pollDone(final boolean changed) {
+        if (changed) {
+            backoff = 1;
+        } else {
+            backoff = Math.min(backoff * 2, maximumBackoff);
+        }
+        cyclesToSkip = backoff - 1;
+    }
+
+    /**
+     * Brings back the polling to every cycle, starting with the next one.
+     */
+    public final synchronized void wakeUp() {
+        if (backoff > 1) {
+            getLogger().debug("AdaptivePolling - {} polling woken up", name);
+        }
+        backoff = 1;
+        cyclesToSkip = 0;
+    }
+
+    /**
+     * Getter for name.
+     *
+     * @return name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for backoff.
+     *
+     * @return current number of cycles between two polls
+     */
+    public final synchronized int getBackoff() {
+        return backoff;
+    }
+
+    /**
+     * Getter for polls.
+     *
+     * @return number of polls
+     */
+    public final synchronized long getPolls() {
+        return polls;
+    }
+
+    /**
+     * Getter for savedPolls.
+     *
+     * @return number of polls saved
+     */
+    public final synchronized long getSavedPolls() {
+        return savedPolls;
+    }
+
+    @Override
+    public final synchronized String toString() {
+        return "AdaptivePolling{"
+                + " name='" + name + '\''
+                + ", backoff=" + backoff
+                + ", polls=" + polls
+                + ", savedPolls=" + savedPolls
+                + '}';
+    }
+
+}
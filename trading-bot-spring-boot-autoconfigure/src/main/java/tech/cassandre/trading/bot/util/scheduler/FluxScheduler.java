@@ -0,0 +1,189 @@
+package tech.cassandre.trading.bot.util.scheduler;
+
+import tech.cassandre.trading.bot.util.base.Base;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Flux scheduler - runs the update of a flux periodically on its own thread, so a slow flux (for example, a long
+ * trade history query) never delays the others.
+ * <p>
+ * The period is counted from the end of the previous cycle : after a slow cycle, missed cycles are not made up, the
+ * exchange is never called several times in a row to catch up.
+ * <p>
+ * Metrics are kept for every cycle : the cycle duration and the number of overruns (cycles longer than the period).
+ */
+public class FluxScheduler extends Base {
+
+    /** Thread name prefix. */
+    private static final String THREAD_NAME_PREFIX = "cassandre-";
+
+    /** Name. */
+    private final String name;
+
+    /** Period between two cycles (ms). */
+    private final long period;
+
+    /** Task executed at every cycle. */
+    private final Runnable task;
+
+    /** Executor. */
+    private final ScheduledExecutorService executor;
+
+    /** Number of cycles. */
+    private final AtomicLong cycles = new AtomicLong();
+
+    /** Number of overruns. */
+    private final AtomicLong overruns = new AtomicLong();
+
+    /** Duration of the last cycle (ns). */
+    private final AtomicLong lastCycleDuration = new AtomicLong();
+
+    /** Maximum cycle duration (ns). */
+    private final AtomicLong maximumCycleDuration = new AtomicLong();
+
+    /** Total duration of all cycles (ns). */
+    private final AtomicLong totalCycleDuration = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param newName   name
+     * @param newPeriod period between two cycles (ms)
+     * @param newTask   task executed at every cycle
+     */
+    public FluxScheduler(final String newName, final long newPeriod, final Runnable newTask) {
+        this.name = newName;
+        this.period = Math.max(1, newPeriod);
+        this.task = newTask;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + newName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts the scheduler.
+     *
+     * @param initialDelay delay before the first cycle (ms)
+     */
+    public final void start(final long initialDelay) {
+        getLogger().info("FluxScheduler - Scheduling {} flux every {} ms", name, period);
+        executor.scheduleWithFixedDelay(this::runCycle, initialDelay, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the scheduler.
+     */
+    public final void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a cycle and records its metrics.
+     */
+    private void runCycle() {
+        final long start = System.nanoTime();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // An exception would cancel the next cycles.
+            getLogger().error("FluxScheduler - Error in {} flux : {}", name, e.getMessage());
+        } finally {
+            final long duration = System.nanoTime() - start;
+            cycles.incrementAndGet();
+            lastCycleDuration.set(duration);
+            maximumCycleDuration.accumulateAndGet(duration, Math::max);
+            totalCycleDuration.addAndGet(duration);
+            if (duration > TimeUnit.MILLISECONDS.toNanos(period)) {
+                overruns.incrementAndGet();
+                getLogger().debug("FluxScheduler - {} flux cycle took {} ms (period is {} ms)", name, TimeUnit.NANOSECONDS.toMillis(duration), period);
+            }
+        }
+    }
+
+    /**
+     * Getter for name.
+     *
+     * @return name
+     */
+    public final String getName() {
+        return name;
+    }
+
+    /**
+     * Getter for period.
+     *
+     * @return period (ms)
+     */
+    public final long getPeriod() {
+        return period;
+    }
+
+    /**
+     * Getter for cycles.
+     *
+     * @return number of cycles
+     */
+    public final long getCycles() {
+        return cycles.get();
+    }
+
+    /**
+     * Getter for overruns.
+     *
+     * @return number of cycles longer than the period
+     */
+    public final long getOverruns() {
+        return overruns.get();
+    }
+
+    /**
+     * Getter for lastCycleDuration.
+     *
+     * @return duration of the last cycle (ms)
+     */
+    public final long getLastCycleDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(lastCycleDuration.get());
+    }
+
+    /**
+     * Getter for maximumCycleDuration.
+     *
+     * @return maximum cycle duration (ms)
+     */
+    public final long getMaximumCycleDuration() {
+        return TimeUnit.NANOSECONDS.toMillis(maximumCycleDuration.get());
+    }
+
+    /**
+     * Returns the average cycle duration.
+     *
+     * @return average cycle duration (ms)
+     */
+    public final long getAverageCycleDuration() {
+        final long numberOfCycles = cycles.get();
+        if (numberOfCycles == 0) {
+            return 0;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(totalCycleDuration.get() / numberOfCycles);
+    }
+
+    @Override
+    public final String toString() {
+        return "FluxScheduler{"
+                + " name='" + name + '\''
+                + ", period=" + period
+                + ", cycles=" + getCycles()
+                + ", overruns=" + getOverruns()
+                + ", lastCycleDuration=" + getLastCycleDuration()
+                + ", averageCycleDuration=" + getAverageCycleDuration()
+                + ", maximumCycleDuration=" + getMaximumCycleDuration()
+                + '}';
+    }
+
+}
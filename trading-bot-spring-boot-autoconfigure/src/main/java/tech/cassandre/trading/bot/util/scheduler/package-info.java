@@ -0,0 +1,4 @@
+/**
+ * Scheduler.
+ */
+package tech.cassandre.trading.bot.util.scheduler;
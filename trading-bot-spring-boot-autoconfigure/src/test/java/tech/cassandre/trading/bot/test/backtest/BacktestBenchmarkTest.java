@@ -0,0 +1,137 @@
+package tech.cassandre.trading.bot.test.backtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.backtest.Backtest;
+import tech.cassandre.trading.bot.backtest.TickSeries;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.strategy.BasicCassandreStrategy;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.XRP;
+
+@Tag("benchmark")
+@DisplayName("Backtest benchmark")
+public class BacktestBenchmarkTest extends BaseTest {
+
+    /** Number of ticks replayed. */
+    private static final int TICKS = 1_000_000;
+
+    /** Minimum number of ticks replayed per second. */
+    private static final long MINIMUM_TICKS_PER_SECOND = 200_000;
+
+    /** Currency pairs (only the first one is requested by the strategy). */
+    private final CurrencyPairDTO[] currencyPairs = {CurrencyPairDTO.getInstance(BTC, USDT),
+            CurrencyPairDTO.getInstance(ETH, BTC),
+            CurrencyPairDTO.getInstance(ETH, USDT),
+            CurrencyPairDTO.getInstance(XRP, BTC)};
+
+    @Test
+    @DisplayName("1M ticks replayed")
+    public void replay() {
+        final TickSeries tickSeries = getTickSeries();
+
+        // Warm-up.
+        new Backtest(new PositionStrategy()).run(tickSeries);
+
+        getLogger().info("Run | Ticks | Tickers sent to the strategy | Positions | Duration (ms) | Ticks/s");
+        final Backtest backtest = new Backtest(new PositionStrategy());
+        final long start = System.nanoTime();
+        backtest.run(tickSeries);
+        final long duration = System.nanoTime() - start;
+        final long ticksPerSecond = TICKS * TimeUnit.SECONDS.toNanos(1) / duration;
+        final int positions = backtest.getPositionService().getPositions().size();
+        getLogger().info("backtest | {} | {} | {} | {} | {}", backtest.getTicks(), backtest.getDispatchedTickers(), positions, TimeUnit.NANOSECONDS.toMillis(duration), ticksPerSecond);
+
+        assertEquals(TICKS, backtest.getTicks());
+        assertEquals(TICKS / currencyPairs.length, backtest.getDispatchedTickers());
+        assertEquals(0, backtest.getDispatchErrors());
+        assertTrue(positions > 1);
+        assertTrue(ticksPerSecond > MINIMUM_TICKS_PER_SECOND);
+    }
+
+    /**
+     * Returns the ticks : the currency pairs in turn, one tick per millisecond, prices moving randomly around 100.
+     *
+     * @return tick series
+     */
+    private TickSeries getTickSeries() {
+        final Random random = new Random(1);
+        final long start = TimeUnit.DAYS.toNanos(LocalDate.of(2020, 1, 1).toEpochDay());
+        final long[] prices = new long[currencyPairs.length];
+        final long initialPrice = 100 * (long) Math.pow(10, CompactTickerConverter.DEFAULT_SCALE);
+        Arrays.fill(prices, initialPrice);
+        final List<CompactTickerDTO> tickers = new ArrayList<>(TICKS);
+        for (int i = 0; i < TICKS; i++) {
+            final int index = i % currencyPairs.length;
+            prices[index] = Math.max(initialPrice / 2, prices[index] + (random.nextInt(201) - 100) * initialPrice / 100_000);
+            tickers.add(CompactTickerDTO.builder()
+                    .currencyPair(currencyPairs[index])
+                    .priceScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .amountScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .last(prices[index])
+                    .bid(prices[index])
+                    .ask(prices[index])
+                    .timestamp(start + TimeUnit.MILLISECONDS.toNanos(i))
+                    .create());
+        }
+        return TickSeries.ofCompactTickers(tickers);
+    }
+
+    /**
+     * Strategy opening a position (stop gain 1%, stop loss 1%) when no position is opened.
+     */
+    private final class PositionStrategy extends BasicCassandreStrategy {
+
+        /** Position rules. */
+        private final PositionRulesDTO rules = PositionRulesDTO.builder()
+                .stopGainPercentage(1)
+                .stopLossPercentage(1)
+                .create();
+
+        /** True if a position is opened. */
+        private boolean opened;
+
+        @Override
+        public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+            return Set.of(currencyPairs[0]);
+        }
+
+        @Override
+        public void onTickerUpdate(final TickerDTO ticker) {
+            if (!opened) {
+                opened = getPositionService().createPosition(currencyPairs[0], BigDecimal.ONE, rules).isSuccessful();
+            }
+        }
+
+        @Override
+        public void onPositionUpdate(final PositionDTO position) {
+            if (position.getStatus() == CLOSED) {
+                opened = false;
+            }
+        }
+
+    }
+
+}
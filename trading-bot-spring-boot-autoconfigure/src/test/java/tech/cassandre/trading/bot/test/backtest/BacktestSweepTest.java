@@ -0,0 +1,240 @@
+package tech.cassandre.trading.bot.test.backtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.backtest.Backtest;
+import tech.cassandre.trading.bot.backtest.BacktestResult;
+import tech.cassandre.trading.bot.backtest.BacktestSweep;
+import tech.cassandre.trading.bot.backtest.TickSeries;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.strategy.BasicCassandreStrategy;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Backtest sweep")
+public class BacktestSweepTest extends BaseTest {
+
+    /** Number of ticks replayed by each backtest of the scaling test. */
+    private static final int TICKS = 200_000;
+
+    /** Number of threads of the parallel sweep. */
+    private static final int THREADS = 4;
+
+    /** Minimum speedup of the parallel sweep, by thread used. */
+    private static final double MINIMUM_EFFICIENCY = 0.5;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(BTC, USDT);
+
+    @Test
+    @DisplayName("Results are the ones of isolated backtests, ranked")
+    public void ranking() {
+        final TickSeries tickSeries = getRandomTickSeries(TICKS / 4);
+        final List<PositionRulesDTO> grid = getGrid();
+        final List<BacktestResult<PositionRulesDTO>> results = new BacktestSweep<>(tickSeries, RulesStrategy::new, new CompactTickerConverter(), THREADS).run(grid);
+        assertEquals(grid.size(), results.size());
+
+        // Ranked by total gain, then drawdown.
+        for (int i = 1; i < results.size(); i++) {
+            final BacktestResult<PositionRulesDTO> previous = results.get(i - 1);
+            final BacktestResult<PositionRulesDTO> current = results.get(i);
+            assertTrue(previous.getTotalGainPercentage() > current.getTotalGainPercentage()
+                    || (previous.getTotalGainPercentage() == current.getTotalGainPercentage() && previous.getMaxDrawdownPercentage() <= current.getMaxDrawdownPercentage()));
+        }
+
+        // Each result is the one of a backtest run alone.
+        for (BacktestResult<PositionRulesDTO> result : results) {
+            final Backtest backtest = new Backtest(new RulesStrategy(result.getParameters()));
+            backtest.run(tickSeries);
+            final List<PositionDTO> positions = new ArrayList<>(backtest.getPositionService().getPositions());
+            assertEquals(positions.size(), result.getPositions());
+            assertEquals(positions.stream().filter(p -> p.getStatus() == CLOSED).count(), result.getClosedPositions());
+            assertEquals(positions.stream().filter(p -> p.getStatus() == CLOSED).mapToDouble(p -> p.getGain().getPercentage()).sum(),
+                    result.getTotalGainPercentage(), 0.000_001);
+            assertEquals(TICKS / 4, result.getTicks());
+        }
+    }
+
+    @Test
+    @DisplayName("Drawdown is the largest fall of the total gain")
+    public void drawdown() {
+        // Price goes from 100 to 130 then back to 90 : two positions with +10%, then five with about -5%.
+        final List<TickerDTO> tickers = new ArrayList<>();
+        int i = 0;
+        for (int price = 100; price < 130; price++) {
+            tickers.add(getTicker(i++, price));
+        }
+        for (int price = 130; price >= 90; price--) {
+            tickers.add(getTicker(i++, price));
+        }
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10).stopLossPercentage(5).create();
+        final List<BacktestResult<PositionRulesDTO>> results = new BacktestSweep<>(TickSeries.of(tickers), RulesStrategy::new).run(List.of(rules));
+
+        final BacktestResult<PositionRulesDTO> result = results.get(0);
+        assertEquals(8, result.getPositions());
+        assertEquals(7, result.getClosedPositions());
+        assertEquals(2, result.getWinningPositions());
+        assertTrue(result.getTotalGainPercentage() < -5);
+        assertEquals(20 - result.getTotalGainPercentage(), result.getMaxDrawdownPercentage(), 0.000_001);
+        // 100->110 + 110->121 + 121->114 + 114->108 + 108->102 + 102->96 + 96->91.
+        assertEquals(0, new BigDecimal("-9").compareTo(result.getTotalGains().get(USDT)));
+    }
+
+    @Test
+    @Tag("benchmark")
+    @DisplayName("Backtests scale with threads")
+    public void scaling() {
+        final TickSeries tickSeries = getRandomTickSeries(TICKS);
+        final List<PositionRulesDTO> grid = getGrid();
+
+        // Warm-up.
+        new BacktestSweep<>(tickSeries, RulesStrategy::new, new CompactTickerConverter(), THREADS).run(grid);
+
+        getLogger().info("Threads | Backtests | Ticks | Duration (ms) | Ticks/s | Speedup");
+        final long sequentialDuration = sweep(tickSeries, grid, 1, 0);
+        final long parallelDuration = sweep(tickSeries, grid, THREADS, sequentialDuration);
+
+        // On a machine with less processors than threads, the speedup is limited by the processors.
+        final int processors = Math.min(THREADS, Runtime.getRuntime().availableProcessors());
+        assertTrue((double) sequentialDuration / parallelDuration > MINIMUM_EFFICIENCY * processors);
+    }
+
+    /**
+     * Runs a sweep and logs its duration.
+     *
+     * @param tickSeries         tick series
+     * @param grid               parameters
+     * @param threads            threads
+     * @param sequentialDuration duration of the sequential sweep (0 if not known)
+     * @return duration (ns)
+     */
+    private long sweep(final TickSeries tickSeries, final List<PositionRulesDTO> grid, final int threads, final long sequentialDuration) {
+        final long start = System.nanoTime();
+        final List<BacktestResult<PositionRulesDTO>> results = new BacktestSweep<>(tickSeries, RulesStrategy::new, new CompactTickerConverter(), threads).run(grid);
+        final long duration = System.nanoTime() - start;
+        final long ticks = results.stream().mapToLong(BacktestResult::getTicks).sum();
+        String speedup = "-";
+        if (sequentialDuration > 0) {
+            speedup = String.format("%.2f", (double) sequentialDuration / duration);
+        }
+        getLogger().info("{} | {} | {} | {} | {} | {}", threads, results.size(), ticks, TimeUnit.NANOSECONDS.toMillis(duration), ticks * TimeUnit.SECONDS.toNanos(1) / duration, speedup);
+        return duration;
+    }
+
+    /**
+     * Returns the grid : stop gains and stop losses from 1% to 4%.
+     *
+     * @return parameters
+     */
+    private List<PositionRulesDTO> getGrid() {
+        final List<PositionRulesDTO> grid = new ArrayList<>();
+        for (int stopGain = 1; stopGain <= 4; stopGain++) {
+            for (int stopLoss = 1; stopLoss <= 4; stopLoss++) {
+                grid.add(PositionRulesDTO.builder().stopGainPercentage(stopGain).stopLossPercentage(stopLoss).create());
+            }
+        }
+        return grid;
+    }
+
+    /**
+     * Returns a tick series : one tick per millisecond, price moving randomly around 100.
+     *
+     * @param ticks number of ticks
+     * @return tick series
+     */
+    private TickSeries getRandomTickSeries(final int ticks) {
+        final Random random = new Random(1);
+        final long start = TimeUnit.DAYS.toNanos(LocalDate.of(2020, 1, 1).toEpochDay());
+        final long initialPrice = 100 * (long) Math.pow(10, CompactTickerConverter.DEFAULT_SCALE);
+        long price = initialPrice;
+        final List<CompactTickerDTO> tickers = new ArrayList<>(ticks);
+        for (int i = 0; i < ticks; i++) {
+            price = Math.max(initialPrice / 2, price + (random.nextInt(201) - 100) * initialPrice / 100_000);
+            tickers.add(CompactTickerDTO.builder()
+                    .currencyPair(cp)
+                    .priceScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .amountScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .last(price)
+                    .bid(price)
+                    .ask(price)
+                    .timestamp(start + TimeUnit.MILLISECONDS.toNanos(i))
+                    .create());
+        }
+        return TickSeries.ofCompactTickers(tickers);
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param second second of the ticker
+     * @param price  price
+     * @return ticker
+     */
+    private TickerDTO getTicker(final int second, final int price) {
+        final BigDecimal value = new BigDecimal(price);
+        return TickerDTO.builder().currencyPair(cp).last(value).bid(value).ask(value).timestamp(new Date(TimeUnit.SECONDS.toMillis(second))).create();
+    }
+
+    /**
+     * Strategy opening a position with its rules when no position is opened.
+     */
+    private final class RulesStrategy extends BasicCassandreStrategy {
+
+        /** Position rules. */
+        private final PositionRulesDTO rules;
+
+        /** True if a position is opened. */
+        private boolean opened;
+
+        /**
+         * Constructor.
+         *
+         * @param newRules position rules
+         */
+        private RulesStrategy(final PositionRulesDTO newRules) {
+            this.rules = newRules;
+        }
+
+        @Override
+        public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+            return Set.of(cp);
+        }
+
+        @Override
+        public void onTickerUpdate(final TickerDTO ticker) {
+            if (!opened) {
+                opened = getPositionService().createPosition(cp, BigDecimal.ONE, rules).isSuccessful();
+            }
+        }
+
+        @Override
+        public void onPositionUpdate(final PositionDTO position) {
+            if (position.getStatus() == CLOSED) {
+                opened = false;
+            }
+        }
+
+    }
+
+}
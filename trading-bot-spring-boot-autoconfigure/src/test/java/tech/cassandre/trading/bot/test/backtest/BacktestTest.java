@@ -0,0 +1,231 @@
+package tech.cassandre.trading.bot.test.backtest;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.backtest.Backtest;
+import tech.cassandre.trading.bot.backtest.TickSeries;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.strategy.BasicCassandreStrategy;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.FILLED;
+import static tech.cassandre.trading.bot.dto.trade.OrderStatusDTO.NEW;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Backtest")
+public class BacktestTest extends BaseTest {
+
+    /** First tick time (ms). */
+    private static final long START = 1_577_836_800_000L;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(BTC, USDT);
+
+    /** Currency pair not requested by the strategies. */
+    private final CurrencyPairDTO otherCp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    @Test
+    @DisplayName("Positions are opened and closed on the ticks")
+    public void positions() {
+        final TickSeries tickSeries = getTickSeries();
+        final PositionStrategy strategy = new PositionStrategy();
+        final Backtest backtest = new Backtest(strategy);
+        backtest.run(tickSeries);
+
+        // Ticks of the other currency pair are not sent to the strategy.
+        assertEquals(tickSeries.size(), backtest.getTicks());
+        assertEquals(tickSeries.size() / 2, backtest.getDispatchedTickers());
+        assertEquals(tickSeries.size() / 2, strategy.tickersReceived.size());
+        assertEquals(0, backtest.getDispatchErrors());
+
+        // Price goes from 100 to 130 then back to 90 : opened at 100 (closed at 110, +10%), at 110 (closed at 121, +10%),
+        // at 121 (closed at 114, -5%), at 114 (closed at 108, -5%), at 108 (closed at 102, -5%), at 102 (closed at 96,
+        // -5%), at 96 (closed at 91, -5%) and at 91 (still opened).
+        final List<PositionDTO> positions = new ArrayList<>(backtest.getPositionService().getPositions());
+        assertEquals(8, positions.size());
+        final List<String> gains = positions.stream()
+                .filter(p -> p.getStatus() == CLOSED)
+                .map(p -> p.getOpenTrade().getPrice().stripTrailingZeros().toPlainString() + "->" + p.getCloseTrade().getPrice().stripTrailingZeros().toPlainString())
+                .collect(Collectors.toList());
+        assertEquals(List.of("100->110", "110->121", "121->114", "114->108", "108->102", "102->96", "96->91"), gains);
+        assertEquals(10, positions.get(0).getGain().getPercentage(), 0.000_1);
+        assertEquals(OPENED, positions.get(7).getStatus());
+
+        // The strategy received the position updates, trades and orders.
+        assertEquals(8, strategy.getPositions().size());
+        assertEquals(15, strategy.getTrades().size());
+        assertEquals(15, strategy.getOrders().size());
+        assertTrue(strategy.getOrders().values().stream().allMatch(o -> o.getStatus() == FILLED));
+        assertEquals(CLOSED, strategy.getPositions().get(1L).getStatus());
+
+        // Trades are done at the time of the tick.
+        final TradeDTO closeTrade = positions.get(0).getCloseTrade();
+        assertEquals(START + 10 * 1_000, closeTrade.getTimestamp().toInstant().toEpochMilli());
+        assertEquals(START + (tickSeries.size() / 2 - 1) * 1_000, backtest.getClock().millis());
+    }
+
+    @Test
+    @DisplayName("Backtests give the same results every time")
+    public void deterministic() {
+        final TickSeries tickSeries = getTickSeries();
+        final Backtest backtest1 = new Backtest(new PositionStrategy());
+        final Backtest backtest2 = new Backtest(new PositionStrategy());
+        backtest1.run(tickSeries);
+        backtest2.run(tickSeries);
+
+        assertEquals(getTrades(backtest1), getTrades(backtest2));
+        assertEquals(getPositions(backtest1), getPositions(backtest2));
+    }
+
+    @Test
+    @DisplayName("Limit orders are filled when their price is crossed")
+    public void limitOrders() {
+        final List<OrderDTO> orders = new LinkedList<>();
+        final BasicCassandreStrategy strategy = new BasicCassandreStrategy() {
+            @Override
+            public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+                return Set.of(cp);
+            }
+
+            @Override
+            public void onTickerUpdate(final TickerDTO ticker) {
+                if (getOrders().isEmpty()) {
+                    getTradeService().createBuyLimitOrder(cp, BigDecimal.ONE, new BigDecimal("95"));
+                }
+            }
+
+            @Override
+            public void onOrderUpdate(final OrderDTO order) {
+                orders.add(order);
+            }
+        };
+        final Backtest backtest = new Backtest(strategy);
+        backtest.run(getTickSeries());
+
+        // Created at 100, filled at 95 when the price goes down.
+        assertEquals(2, orders.size());
+        assertEquals(NEW, orders.get(0).getStatus());
+        assertEquals(FILLED, orders.get(1).getStatus());
+        assertEquals(0, new BigDecimal("95").compareTo(orders.get(1).getAveragePrice()));
+        assertEquals(1, backtest.getTradeService().getTrades().size());
+        final TradeDTO trade = backtest.getTradeService().getTrades().iterator().next();
+        assertEquals(0, new BigDecimal("95").compareTo(trade.getPrice()));
+        assertEquals(START + 65 * 1_000, trade.getTimestamp().toInstant().toEpochMilli());
+        assertTrue(backtest.getTradeService().getOpenOrders().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Errors in the strategy don't stop the backtest")
+    public void errors() {
+        final BasicCassandreStrategy strategy = new BasicCassandreStrategy() {
+            @Override
+            public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+                return Set.of(cp);
+            }
+
+            @Override
+            public void onTickerUpdate(final TickerDTO ticker) {
+                throw new IllegalStateException("Strategy error");
+            }
+        };
+        final TickSeries tickSeries = getTickSeries();
+        final Backtest backtest = new Backtest(strategy);
+        backtest.run(tickSeries);
+
+        assertEquals(tickSeries.size(), backtest.getTicks());
+        assertEquals(tickSeries.size() / 2, backtest.getDispatchErrors());
+    }
+
+    /**
+     * Returns the ticks : one tick per second, from 100 to 130 then back to 90, with the ticks of another currency pair
+     * (given in reverse order to check they are sorted).
+     *
+     * @return tick series
+     */
+    private TickSeries getTickSeries() {
+        final List<Integer> prices = new ArrayList<>();
+        for (int price = 100; price < 130; price++) {
+            prices.add(price);
+        }
+        for (int price = 130; price >= 90; price--) {
+            prices.add(price);
+        }
+        final List<TickerDTO> tickers = new LinkedList<>();
+        for (int i = 0; i < prices.size(); i++) {
+            final BigDecimal price = new BigDecimal(prices.get(i));
+            tickers.add(0, TickerDTO.builder().currencyPair(cp).last(price).bid(price).ask(price).timestamp(new Date(START + i * 1_000)).create());
+            tickers.add(0, TickerDTO.builder().currencyPair(otherCp).last(BigDecimal.ONE).bid(BigDecimal.ONE).ask(BigDecimal.ONE).timestamp(new Date(START + i * 1_000)).create());
+        }
+        return TickSeries.of(tickers);
+    }
+
+    /**
+     * Returns the trades of a backtest (id, price and time).
+     *
+     * @param backtest backtest
+     * @return trades
+     */
+    private List<String> getTrades(final Backtest backtest) {
+        return backtest.getTradeService().getTrades().stream()
+                .map(t -> t.getId() + " " + t.getType() + " " + t.getPrice() + " " + t.getTimestamp())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the positions of a backtest (id, status and gain).
+     *
+     * @param backtest backtest
+     * @return positions
+     */
+    private List<String> getPositions(final Backtest backtest) {
+        return backtest.getPositionService().getPositions().stream()
+                .map(p -> p.getId() + " " + p.getStatus() + " " + p.getGain().getPercentage())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Strategy opening a position (stop gain 10%, stop loss 5%) when no position is opened.
+     */
+    private final class PositionStrategy extends BasicCassandreStrategy {
+
+        /** Tickers received. */
+        private final List<TickerDTO> tickersReceived = new LinkedList<>();
+
+        @Override
+        public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+            return Set.of(cp);
+        }
+
+        @Override
+        public void onTickerUpdate(final TickerDTO ticker) {
+            tickersReceived.add(ticker);
+            if (getPositions().values().stream().allMatch(p -> p.getStatus() == CLOSED)) {
+                getPositionService().createPosition(cp, BigDecimal.ONE, PositionRulesDTO.builder()
+                        .stopGainPercentage(10)
+                        .stopLossPercentage(5)
+                        .create());
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.dto.trade.MarketOrder;
+import tech.cassandre.trading.bot.batch.OrderFlux;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.service.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.AccountRateLimit;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+import tech.cassandre.trading.bot.util.scheduler.AdaptivePolling;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.TICKER;
+
+@DisplayName("Adaptive polling")
+public class AdaptivePollingTest extends BaseTest {
+
+    /** Maximum backoff. */
+    private static final int MAXIMUM_BACKOFF = 8;
+
+    /** Ticker rate (ms). */
+    private static final long TICKER_RATE = 60_000;
+
+    /** Ticker burst. */
+    private static final long TICKER_BURST = 10;
+
+    @Test
+    @DisplayName("Backs off when nothing changes and wakes up after an order")
+    public void adaptivePolling() throws IOException, InterruptedException {
+        // Ticker rate limiter without tokens left.
+        final RateLimiter tickerRateLimiter = new RateLimiter(TICKER_RATE, TICKER_BURST, Collections.emptyMap(), new AccountRateLimit());
+        for (int i = 0; i < TICKER_BURST; i++) {
+            tickerRateLimiter.acquire(TICKER);
+        }
+        assertEquals(0, tickerRateLimiter.getAvailableTokens());
+
+        // Order flux without open orders.
+        final TradeService tradeService = mock(TradeService.class);
+        given(tradeService.getOpenOrders()).willReturn(Collections.emptySet());
+        final OrderFlux orderFlux = new OrderFlux(tradeService);
+        orderFlux.getFlux().subscribe();
+        final AdaptivePolling orderPolling = new AdaptivePolling("order", MAXIMUM_BACKOFF, () -> tickerRateLimiter.addTokens(1));
+        orderFlux.setAdaptivePolling(orderPolling);
+
+        // 30 cycles : polls at cycles 1, 3, 7, 15 and 23 (the backoff doubles up to 8 cycles).
+        for (int i = 0; i < 30; i++) {
+            orderFlux.update();
+        }
+        verify(tradeService, times(5)).getOpenOrders();
+        assertEquals(5, orderPolling.getPolls());
+        assertEquals(25, orderPolling.getSavedPolls());
+        assertEquals(MAXIMUM_BACKOFF, orderPolling.getBackoff());
+        getLogger().info("{}", orderPolling);
+
+        // The budget freed is given to the ticker flux.
+        assertEquals(TICKER_BURST, tickerRateLimiter.getAvailableTokens());
+
+        // An order is sent : the next cycle polls and finds the new order.
+        final org.knowm.xchange.service.trade.TradeService exchange = mock(org.knowm.xchange.service.trade.TradeService.class);
+        given(exchange.placeMarketOrder(any(MarketOrder.class))).willReturn("ORDER_1");
+        final TradeServiceXChangeImplementation tradeServiceXChangeImplementation = new TradeServiceXChangeImplementation(1, exchange);
+        tradeServiceXChangeImplementation.addOrderListener(orderPolling::wakeUp);
+        assertEquals("ORDER_1", tradeServiceXChangeImplementation.createBuyMarketOrder(new CurrencyPairDTO(BTC, USDT), BigDecimal.ONE).getOrderId());
+        assertEquals(1, orderPolling.getBackoff());
+        given(tradeService.getOpenOrders()).willReturn(Set.of(OrderDTO.builder().id("ORDER_1").status(OrderStatusDTO.NEW).create()));
+        orderFlux.update();
+        verify(tradeService, times(6)).getOpenOrders();
+        assertEquals(1, orderFlux.getEmittedValues());
+
+        // Something changed : the next cycle polls again, then the backoff starts again.
+        orderFlux.update();
+        orderFlux.update();
+        verify(tradeService, times(7)).getOpenOrders();
+        assertEquals(2, orderPolling.getBackoff());
+    }
+
+}
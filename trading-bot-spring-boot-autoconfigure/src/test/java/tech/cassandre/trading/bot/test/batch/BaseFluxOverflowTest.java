@@ -0,0 +1,158 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.base.BaseFlux;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Flux overflow strategies")
+public class BaseFluxOverflowTest extends BaseTest {
+
+    /** Number of updates. */
+    private static final int UPDATES = 20;
+
+    /** Number of values per update. */
+    private static final int VALUES_PER_UPDATE = 10;
+
+    /** Time spent by the slow subscriber on each value (ms). */
+    private static final long SUBSCRIBER_DELAY = 2;
+
+    @Test
+    @DisplayName("BUFFER keeps every value for a slow subscriber")
+    public void bufferStrategy() {
+        final TestFlux flux = new TestFlux(FluxSink.OverflowStrategy.BUFFER);
+        final List<Integer> received = subscribeSlowly(flux);
+        updates(flux);
+
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == UPDATES * VALUES_PER_UPDATE);
+        assertEquals(IntStream.range(0, UPDATES * VALUES_PER_UPDATE).boxed().collect(Collectors.toList()), received);
+        assertEquals(UPDATES * VALUES_PER_UPDATE, flux.getEmittedValues());
+        assertEquals(0, flux.getDroppedValues());
+        assertEquals(0, flux.getBufferedValues());
+    }
+
+    @Test
+    @DisplayName("BUFFER makes the producer wait when the buffer is full")
+    public void boundedBufferStrategy() {
+        final TestFlux flux = new TestFlux(null);
+        flux.setOverflowStrategy(FluxSink.OverflowStrategy.BUFFER, VALUES_PER_UPDATE);
+        final List<Integer> received = subscribeSlowly(flux);
+        updates(flux);
+
+        // The buffer never grows over its size and no value is lost.
+        assertTrue(flux.getMaximumBufferedValues() <= VALUES_PER_UPDATE);
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == UPDATES * VALUES_PER_UPDATE);
+        assertEquals(IntStream.range(0, UPDATES * VALUES_PER_UPDATE).boxed().collect(Collectors.toList()), received);
+        assertEquals(0, flux.getDroppedValues());
+        assertEquals(0, flux.getBufferedValues());
+    }
+
+    @Test
+    @DisplayName("LATEST only keeps the last value for a slow subscriber")
+    public void latestStrategy() {
+        final TestFlux flux = new TestFlux(FluxSink.OverflowStrategy.LATEST);
+        final List<Integer> received = subscribeSlowly(flux);
+        updates(flux);
+
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() + flux.getDroppedValues() == UPDATES * VALUES_PER_UPDATE);
+        assertTrue(flux.getDroppedValues() > 0);
+        assertEquals(0, flux.getBufferedValues());
+        assertEquals(UPDATES * VALUES_PER_UPDATE - 1, (int) received.get(received.size() - 1));
+    }
+
+    /**
+     * Subscribes to a flux with a slow subscriber.
+     *
+     * @param flux flux
+     * @return values received
+     */
+    private List<Integer> subscribeSlowly(final TestFlux flux) {
+        final List<Integer> received = new CopyOnWriteArrayList<>();
+        final Scheduler scheduler = Schedulers.newSingle("slow-subscriber");
+        flux.getFlux().publishOn(scheduler, 1).subscribe(value -> {
+            try {
+                Thread.sleep(SUBSCRIBER_DELAY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            received.add(value);
+        });
+        return received;
+    }
+
+    /**
+     * Updates the flux.
+     *
+     * @param flux flux
+     */
+    private void updates(final TestFlux flux) {
+        for (int i = 0; i < UPDATES; i++) {
+            flux.update();
+        }
+    }
+
+    /**
+     * Flux returning VALUES_PER_UPDATE new integers at each update.
+     */
+    private static final class TestFlux extends BaseFlux<Integer> {
+
+        /** Default overflow strategy. */
+        private final FluxSink.OverflowStrategy overflowStrategy;
+
+        /** Next value. */
+        private int next = 0;
+
+        /** Maximum number of values buffered seen by an update. */
+        private long maximumBufferedValues = 0;
+
+        /**
+         * Constructor.
+         *
+         * @param newOverflowStrategy default overflow strategy
+         */
+        private TestFlux(final FluxSink.OverflowStrategy newOverflowStrategy) {
+            this.overflowStrategy = newOverflowStrategy;
+        }
+
+        @Override
+        protected FluxSink.OverflowStrategy getOverflowStrategy() {
+            return overflowStrategy;
+        }
+
+        @Override
+        protected Set<Integer> getNewValues() {
+            maximumBufferedValues = Math.max(maximumBufferedValues, getBufferedValues());
+            final Set<Integer> values = new LinkedHashSet<>();
+            for (int i = 0; i < VALUES_PER_UPDATE; i++) {
+                values.add(next++);
+            }
+            return values;
+        }
+
+        /**
+         * Getter for maximumBufferedValues.
+         *
+         * @return maximum number of values buffered seen by an update
+         */
+        private long getMaximumBufferedValues() {
+            return maximumBufferedValues;
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.DirectProcessor;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import tech.cassandre.trading.bot.batch.ConflatingTickerBuffer;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Conflating ticker buffer")
+public class ConflatingTickerBufferTest extends BaseTest {
+
+    /** Number of currency pairs. */
+    private static final int NUMBER_OF_PAIRS = 50;
+
+    /** Number of rounds (each round is a burst on the first pair followed by one ticker for every pair). */
+    private static final int ROUNDS = 100;
+
+    /** Size of a burst on the first pair. */
+    private static final int BURST_SIZE = 100;
+
+    /** Time spent by the slow strategy on each ticker (ms). */
+    private static final long STRATEGY_DURATION = 2;
+
+    @Test
+    @DisplayName("No currency pair starves with a slow strategy")
+    public void noStarvationWithSlowStrategy() throws Exception {
+        final List<CurrencyPairDTO> currencyPairs = new ArrayList<>();
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            currencyPairs.add(new CurrencyPairDTO("C" + i, "USDT"));
+        }
+
+        // Single slot (LATEST) versus conflation by currency pair.
+        final Map<CurrencyPairDTO, List<Long>> latestReceived = run(currencyPairs, source -> source.onBackpressureLatest());
+        final ConflatingTickerBuffer[] buffer = new ConflatingTickerBuffer[1];
+        final Map<CurrencyPairDTO, List<Long>> conflatedReceived = run(currencyPairs, source -> {
+            buffer[0] = new ConflatingTickerBuffer(source);
+            return buffer[0].getFlux();
+        });
+        getLogger().info("Currency pairs received - LATEST : {} / {}, conflating buffer : {} / {}",
+                latestReceived.size(), NUMBER_OF_PAIRS, conflatedReceived.size(), NUMBER_OF_PAIRS);
+
+        // Every currency pair receives its last ticker, whatever the burst.
+        assertEquals(NUMBER_OF_PAIRS, conflatedReceived.size());
+        conflatedReceived.values().forEach(timestamps -> assertEquals(ROUNDS, (long) timestamps.get(timestamps.size() - 1)));
+        final int minimum = conflatedReceived.values().stream().mapToInt(List::size).min().orElse(0);
+        final int maximum = conflatedReceived.values().stream().mapToInt(List::size).max().orElse(0);
+        getLogger().info("Tickers received by currency pair - minimum : {}, maximum : {}", minimum, maximum);
+        assertTrue(minimum > 0);
+
+        // Counters.
+        assertEquals(ROUNDS * (BURST_SIZE + NUMBER_OF_PAIRS), buffer[0].getReceivedTickers());
+        assertEquals(0, buffer[0].getPendingTickers());
+        assertEquals(buffer[0].getReceivedTickers(), buffer[0].getDeliveredTickers() + buffer[0].getConflatedTickers());
+    }
+
+    /**
+     * Publishes bursts of tickers to a slow strategy and returns the number of tickers received by currency pair.
+     *
+     * @param currencyPairs currency pairs
+     * @param operator      operator between the ticker flux and the strategy
+     * @return timestamps of the tickers received by currency pair
+     * @throws Exception exception
+     */
+    private Map<CurrencyPairDTO, List<Long>> run(final List<CurrencyPairDTO> currencyPairs,
+                                                     final Function<Flux<TickerDTO>, Flux<TickerDTO>> operator) throws Exception {
+        final DirectProcessor<TickerDTO> source = DirectProcessor.create();
+        final Scheduler scheduler = Schedulers.newSingle("slow-strategy");
+        final Map<CurrencyPairDTO, List<Long>> received = new ConcurrentHashMap<>();
+        final Disposable subscription = operator.apply(source)
+                .publishOn(scheduler, 1)
+                .subscribe(ticker -> {
+                    received.computeIfAbsent(ticker.getCurrencyPair(), cp -> new CopyOnWriteArrayList<>()).add(ticker.getTimestamp().toInstant().toEpochMilli());
+                    try {
+                        Thread.sleep(STRATEGY_DURATION);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+
+        // A burst on the first currency pair, then one ticker for each currency pair.
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (int i = 0; i < BURST_SIZE; i++) {
+                source.onNext(getTicker(currencyPairs.get(0), 0));
+            }
+            for (CurrencyPairDTO currencyPair : currencyPairs) {
+                source.onNext(getTicker(currencyPair, round));
+            }
+        }
+
+        // Waiting for the strategy to be idle.
+        final AtomicInteger total = new AtomicInteger(-1);
+        await().pollInterval(100, TimeUnit.MILLISECONDS).atMost(30, TimeUnit.SECONDS).until(() -> {
+            final int current = received.values().stream().mapToInt(List::size).sum();
+            return total.getAndSet(current) == current;
+        });
+        subscription.dispose();
+        scheduler.dispose();
+        return received;
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param cp        currency pair
+     * @param timestamp timestamp
+     * @return ticker
+     */
+    private static TickerDTO getTicker(final CurrencyPairDTO cp, final long timestamp) {
+        return TickerDTO.builder()
+                .currencyPair(cp)
+                .timestamp(new Date(timestamp))
+                .last(BigDecimal.ONE)
+                .create();
+    }
+
+}
@@ -0,0 +1,116 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.batch.PositionFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.BID;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Position flux - closed positions")
+public class PositionFluxClosedPositionsTest extends BaseTest {
+
+    /** Number of closed positions. */
+    private static final int CLOSED_POSITIONS = 12_000;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(BTC, USDT);
+
+    /** Close order counter. */
+    private final AtomicInteger closeOrders = new AtomicInteger();
+
+    @Test
+    @DisplayName("Closed positions are emitted once and not kept by the flux")
+    public void closedPositionsEmittedOnce() {
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(getTradeService());
+        final PositionFlux positionFlux = new PositionFlux(positionService);
+        final List<PositionDTO> received = new CopyOnWriteArrayList<>();
+        positionFlux.getFlux().subscribe(received::add);
+
+        // Many positions opened and closed between two updates, each one is emitted once, closed.
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10).create();
+        for (int i = 0; i < CLOSED_POSITIONS; i++) {
+            final PositionCreationResultDTO result = positionService.createPosition(cp, BigDecimal.ONE, rules);
+            positionService.tradeUpdate(getTrade(result.getOrderId(), BID, "1"));
+            positionService.tickerUpdate(TickerDTO.builder().currencyPair(cp).ask(new BigDecimal("2")).create());
+            positionService.tradeUpdate(getTrade("C" + closeOrders.get(), ASK, "2"));
+        }
+        positionFlux.update();
+        assertEquals(CLOSED_POSITIONS, received.size());
+        received.forEach(position -> assertEquals(CLOSED, position.getStatus()));
+        assertEquals(0, positionFlux.getChangedPositions());
+
+        // Nothing changed : nothing emitted.
+        positionFlux.update();
+        assertEquals(CLOSED_POSITIONS, received.size());
+
+        // Only the position changed is emitted.
+        final PositionCreationResultDTO result = positionService.createPosition(cp, BigDecimal.ONE, rules);
+        positionService.tradeUpdate(getTrade(result.getOrderId(), BID, "1"));
+        positionFlux.update();
+        assertEquals(CLOSED_POSITIONS + 1, received.size());
+        assertEquals(OPENED, received.get(received.size() - 1).getStatus());
+
+        // The flux doesn't keep the positions emitted.
+        assertEquals(0, positionFlux.getChangedPositions());
+        assertEquals(0, positionFlux.getPreviousValues().getSize());
+    }
+
+    /**
+     * Returns a trade service creating orders O1, O2... and C1, C2...
+     *
+     * @return trade service
+     */
+    private TradeService getTradeService() {
+        final AtomicInteger openOrders = new AtomicInteger();
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("O" + openOrders.incrementAndGet()));
+        when(tradeService.createSellMarketOrderAsync(any(), any())).thenAnswer(invocation -> Mono.just(new OrderCreationResultDTO("C" + closeOrders.incrementAndGet())));
+        return tradeService;
+    }
+
+    /**
+     * Returns a trade for an order.
+     *
+     * @param orderId order id
+     * @param type    order type
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String orderId, final OrderTypeDTO type, final String price) {
+        return TradeDTO.builder()
+                .id("TRADE_" + orderId)
+                .orderId(orderId)
+                .type(type)
+                .originalAmount(BigDecimal.ONE)
+                .currencyPair(cp)
+                .price(new BigDecimal(price))
+                .create();
+    }
+
+}
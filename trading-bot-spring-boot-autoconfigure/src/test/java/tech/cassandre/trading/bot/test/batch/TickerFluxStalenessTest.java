@@ -0,0 +1,152 @@
+package tech.cassandre.trading.bot.test.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.marketdata.Ticker;
+import org.knowm.xchange.service.marketdata.MarketDataService;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.service.MarketServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Ticker flux staleness")
+public class TickerFluxStalenessTest extends BaseTest {
+
+    /** Simulated exchange latency (ms). */
+    private static final long EXCHANGE_LATENCY = 5;
+
+    /** Market service rate (ms). */
+    private static final long MARKET_SERVICE_RATE = 1;
+
+    /** Number of currency pairs requested while polling. */
+    private static final int PAIRS_REQUESTED_WHILE_POLLING = 100;
+
+    /** Number of cycles measured for each configuration. */
+    private static final int CYCLES = 2;
+
+    @Test
+    @DisplayName("Staleness per currency pair")
+    public void stalenessPerCurrencyPair() throws Exception {
+        getLogger().info("Pairs | Sequential staleness (ms) | Parallel staleness (ms)");
+        for (int numberOfPairs : new int[]{1, 10, 50, 200}) {
+            final long sequential = getStaleness(numberOfPairs, 1);
+            final long parallel = getStaleness(numberOfPairs, TickerFlux.DEFAULT_PARALLELISM);
+            getLogger().info("{} | {} | {}", numberOfPairs, sequential, parallel);
+
+            // Sequential retrieval is at least number of pairs * latency, parallel retrieval must be well under it.
+            assertTrue(sequential >= numberOfPairs * EXCHANGE_LATENCY);
+            if (numberOfPairs >= TickerFlux.DEFAULT_PARALLELISM) {
+                assertTrue(parallel < sequential / 2);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Ticker threads are stopped")
+    public void stop() throws Exception {
+        final TickerFlux tickerFlux = new TickerFlux(new MarketServiceXChangeImplementation(MARKET_SERVICE_RATE, getMarketDataService()), 2);
+        tickerFlux.updateRequestedCurrencyPairs(Set.of(new CurrencyPairDTO("C0", "USDT"), new CurrencyPairDTO("C1", "USDT")));
+        final List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+        assertEquals(2, tickerFlux.getParallelism());
+
+        tickerFlux.update();
+        assertEquals(2, received.size());
+
+        // Once stopped, updates retrieve nothing.
+        tickerFlux.stop();
+        tickerFlux.update();
+        assertEquals(2, received.size());
+    }
+
+    @Test
+    @DisplayName("Currency pairs requested while polling")
+    public void currencyPairsRequestedWhilePolling() throws Exception {
+        final TickerFlux tickerFlux = new TickerFlux(new MarketServiceXChangeImplementation(MARKET_SERVICE_RATE, getMarketDataService()), 2);
+        final Set<CurrencyPairDTO> received = ConcurrentHashMap.newKeySet();
+        tickerFlux.getFlux().subscribe(t -> received.add(t.getCurrencyPair()));
+
+        // The polling thread updates the flux while currency pairs are requested from another thread.
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleWithFixedDelay(tickerFlux::update, 0, 1, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < PAIRS_REQUESTED_WHILE_POLLING; i++) {
+            tickerFlux.updateRequestedCurrencyPairs(Set.of(new CurrencyPairDTO("P" + i, "USDT")));
+        }
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(10, TimeUnit.SECONDS).until(() -> received.size() == PAIRS_REQUESTED_WHILE_POLLING);
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        tickerFlux.stop();
+    }
+
+    /**
+     * Returns the staleness of a currency pair : time between two updates of the same currency pair.
+     *
+     * @param numberOfPairs number of requested currency pairs
+     * @param parallelism   ticker flux parallelism
+     * @return staleness in milliseconds
+     * @throws Exception exception
+     */
+    private long getStaleness(final int numberOfPairs, final int parallelism) throws Exception {
+        // Creating the flux with a mocked exchange.
+        final TickerFlux tickerFlux = new TickerFlux(new MarketServiceXChangeImplementation(MARKET_SERVICE_RATE, getMarketDataService()), parallelism);
+        final Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        for (int i = 0; i < numberOfPairs; i++) {
+            currencyPairs.add(new CurrencyPairDTO("C" + i, "USDT"));
+        }
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        final List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+
+        // Every update retrieves all the currency pairs.
+        final long start = System.nanoTime();
+        for (int i = 0; i < CYCLES; i++) {
+            tickerFlux.update();
+        }
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertEquals(numberOfPairs * CYCLES, received.size());
+        tickerFlux.stop();
+        return duration / CYCLES;
+    }
+
+    /**
+     * Returns a XChange market data service with a simulated latency.
+     *
+     * @return market data service
+     * @throws Exception exception
+     */
+    private MarketDataService getMarketDataService() throws Exception {
+        MarketDataService marketDataService = mock(MarketDataService.class);
+        final AtomicLong timestamp = new AtomicLong();
+        when(marketDataService.getTicker(any(CurrencyPair.class))).thenAnswer(invocation -> {
+            Thread.sleep(EXCHANGE_LATENCY);
+            return new Ticker.Builder()
+                    .currencyPair(invocation.getArgument(0))
+                    .last(BigDecimal.ONE)
+                    .timestamp(new Date(timestamp.incrementAndGet()))
+                    .build();
+        });
+        return marketDataService;
+    }
+
+}
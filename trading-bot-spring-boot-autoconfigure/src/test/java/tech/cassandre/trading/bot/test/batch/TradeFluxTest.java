@@ -75,7 +75,7 @@ public class TradeFluxTest extends BaseTest {
         final int numberOfTradeServiceCalls = 4;
 
         // Waiting for the trade service to have been called with all the test data.
-        await().untilAsserted(() -> verify(tradeService, atLeast(numberOfTradeServiceCalls)).getTrades());
+        await().untilAsserted(() -> verify(tradeService, atLeast(numberOfTradeServiceCalls)).getNewTrades());
 
         // Checking that somme tickers have already been treated (to verify we work on a single thread).
         assertTrue(strategy.getTradesUpdateReceived().size() <= numberOfTradeExpected);
@@ -106,7 +106,7 @@ public class TradeFluxTestMock {
 
         // =========================================================================================================
         // Creating the mock.
-        given(tradeService.getTrades())
+        given(tradeService.getNewTrades())
                 .willReturn(reply01,
                         new LinkedHashSet<>(),
                         reply02,
@@ -22,6 +22,7 @@ import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_SANDBOX_DE
 import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_SECRET_DEFAULT_VALUE;
 import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_TESTABLE_STRATEGY_DEFAULT_VALUE;
 import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_TESTABLE_STRATEGY_ENABLED;
+import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED;
 import static tech.cassandre.trading.bot.test.util.BaseTest.PARAMETER_USERNAME_DEFAULT_VALUE;
 import static tech.cassandre.trading.bot.util.parameters.ExchangeParameters.Modes.PARAMETER_DRY;
 import static tech.cassandre.trading.bot.util.parameters.ExchangeParameters.PARAMETER_KEY;
@@ -80,6 +81,22 @@ public class CassandreStrategyAutoConfigurationTest {
     @Test
     @DisplayName("Two strategies found")
     public void twoStrategiesFound() {
+        try {
+            System.setProperty(PARAMETER_TESTABLE_STRATEGY_ENABLED, "true");
+            System.setProperty(PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED, "true");
+            System.setProperty(PARAMETER_INVALID_STRATEGY_ENABLED, "false");
+            SpringApplication application = new SpringApplication(CassandreTradingBot.class);
+            application.run();
+        } catch (Exception e) {
+            fail("Exception raised for two valid strategies" + e);
+        } finally {
+            System.clearProperty(PARAMETER_TESTABLE_TA4J_STRATEGY_ENABLED);
+        }
+    }
+
+    @Test
+    @DisplayName("Valid and invalid strategies found")
+    public void validAndInvalidStrategiesFound() {
         try {
             System.setProperty(PARAMETER_TESTABLE_STRATEGY_ENABLED, "true");
             System.setProperty(PARAMETER_INVALID_STRATEGY_ENABLED, "true");
@@ -88,7 +105,7 @@ public class CassandreStrategyAutoConfigurationTest {
             fail("Exception not raised");
         } catch (Exception e) {
             assertTrue(e.getCause() instanceof ConfigurationException);
-            assertTrue(e.getCause().getMessage().contains("Several strategies found"));
+            assertTrue(e.getCause().getMessage().contains("Your strategy doesn't extend BasicCassandreStrategy"));
         }
     }
 
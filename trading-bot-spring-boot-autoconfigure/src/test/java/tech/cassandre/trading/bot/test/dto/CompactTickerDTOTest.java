@@ -0,0 +1,201 @@
+package tech.cassandre.trading.bot.test.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.market.CompactTickerDTO.NO_VALUE;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Compact ticker DTO")
+public class CompactTickerDTOTest {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    @Test
+    @DisplayName("Conversion from and to ticker")
+    public void conversion() {
+        final TickerDTO ticker = TickerDTO.builder()
+                .currencyPair(cp)
+                .open("0.031")
+                .last("0.0325")
+                .bid("0.0324")
+                .ask("0.03256")
+                .high("0.034")
+                .low("0.03")
+                .vwap("0.032155555")
+                .volume("1500.25")
+                .quoteVolume("48.1")
+                .bidSize("12")
+                .timestamp(new Date(1_600_000_000_123L))
+                .create();
+
+        // Prices with 5 decimals, amounts with 2 decimals.
+        final CompactTickerDTO compactTicker = CompactTickerDTO.fromTickerDTO(ticker, 5, 2);
+        assertEquals(cp, compactTicker.getCurrencyPair());
+        assertEquals(5, compactTicker.getPriceScale());
+        assertEquals(2, compactTicker.getAmountScale());
+        assertEquals(3100, compactTicker.getOpen());
+        assertEquals(3250, compactTicker.getLast());
+        assertEquals(3240, compactTicker.getBid());
+        assertEquals(3256, compactTicker.getAsk());
+        assertEquals(3400, compactTicker.getHigh());
+        assertEquals(3000, compactTicker.getLow());
+        assertEquals(3216, compactTicker.getVwap());
+        assertEquals(150025, compactTicker.getVolume());
+        assertEquals(4810, compactTicker.getQuoteVolume());
+        assertEquals(1200, compactTicker.getBidSize());
+        assertEquals(NO_VALUE, compactTicker.getAskSize());
+        assertEquals(1_600_000_000_123_000_000L, compactTicker.getTimestamp());
+
+        // Back to a ticker (the vwap was rounded).
+        final TickerDTO convertedTicker = compactTicker.toTickerDTO();
+        assertEquals(ticker, convertedTicker);
+        assertEquals(new BigDecimal("0.031"), convertedTicker.getOpen());
+        assertEquals(new BigDecimal("0.03256"), convertedTicker.getAsk());
+        assertEquals(new BigDecimal("0.03216"), convertedTicker.getVwap());
+        assertEquals(new BigDecimal("1500.25"), convertedTicker.getVolume());
+        assertEquals(new BigDecimal("48.1"), convertedTicker.getQuoteVolume());
+        assertEquals(new BigDecimal("12"), convertedTicker.getBidSize());
+        assertNull(convertedTicker.getAskSize());
+        assertEquals(compactTicker, CompactTickerDTO.fromTickerDTO(convertedTicker, 5, 2));
+    }
+
+    @Test
+    @DisplayName("Out of range values")
+    public void outOfRangeValues() {
+        final TickerDTO ticker = TickerDTO.builder()
+                .currencyPair(cp)
+                .last("0.0325")
+                .bid("0.0324")
+                .ask("0.03256")
+                .volume("1E20")
+                .quoteVolume("1E18")
+                .timestamp(new Date(1_600_000_000_123L))
+                .create();
+
+        // Auxiliary values out of range are ignored.
+        final CompactTickerDTO compactTicker = CompactTickerDTO.fromTickerDTO(ticker, 5, 2);
+        assertEquals(3256, compactTicker.getAsk());
+        assertEquals(NO_VALUE, compactTicker.getVolume());
+        assertEquals(NO_VALUE, compactTicker.getQuoteVolume());
+
+        // Prices out of range can't be converted.
+        final TickerDTO tickerWithAskOutOfRange = TickerDTO.builder()
+                .currencyPair(cp)
+                .ask("1E15")
+                .timestamp(new Date(1_600_000_000_123L))
+                .create();
+        assertThrows(ArithmeticException.class, () -> CompactTickerDTO.fromTickerDTO(tickerWithAskOutOfRange, 5, 2));
+        assertThrows(ArithmeticException.class, () -> CompactTickerDTO.fromTickerDTOPrices(tickerWithAskOutOfRange, 5, 2));
+    }
+
+    @Test
+    @DisplayName("Conversion of prices only")
+    public void pricesConversion() {
+        final TickerDTO ticker = TickerDTO.builder()
+                .currencyPair(cp)
+                .open("0.031")
+                .last("0.0325")
+                .bid("0.0324")
+                .ask("0.03256")
+                .volume("1E20")
+                .timestamp(new Date(1_600_000_000_123L))
+                .create();
+
+        final CompactTickerDTO compactTicker = CompactTickerDTO.fromTickerDTOPrices(ticker, 5, 2);
+        assertEquals(cp, compactTicker.getCurrencyPair());
+        assertEquals(3250, compactTicker.getLast());
+        assertEquals(3240, compactTicker.getBid());
+        assertEquals(3256, compactTicker.getAsk());
+        assertEquals(NO_VALUE, compactTicker.getOpen());
+        assertEquals(NO_VALUE, compactTicker.getVolume());
+        assertEquals(1_600_000_000_123_000_000L, compactTicker.getTimestamp());
+    }
+
+    @Test
+    @DisplayName("Unscaled values")
+    public void unscaledValues() {
+        assertEquals(NO_VALUE, CompactTickerDTO.toUnscaledValue(null, 2, RoundingMode.HALF_EVEN));
+        assertEquals(1235, CompactTickerDTO.toUnscaledValue(new BigDecimal("12.345"), 2, RoundingMode.CEILING));
+        assertEquals(1234, CompactTickerDTO.toUnscaledValue(new BigDecimal("12.345"), 2, RoundingMode.FLOOR));
+        assertThrows(ArithmeticException.class, () -> CompactTickerDTO.toUnscaledValue(new BigDecimal("1E20"), 2, RoundingMode.HALF_EVEN));
+        assertNull(CompactTickerDTO.toBigDecimal(NO_VALUE, 2));
+        assertEquals(new BigDecimal("12.3"), CompactTickerDTO.toBigDecimal(1230, 2));
+        assertEquals(new BigDecimal("100"), CompactTickerDTO.toBigDecimal(10000, 2));
+    }
+
+    @Test
+    @DisplayName("Position rules checked on unscaled prices")
+    public void positionRules() {
+        // Position opened at 5 with a stop gain at 10% (5.5) and a stop loss at 15% (4.25).
+        final PositionDTO p = new PositionDTO(1, "ORDER_1", PositionRulesDTO.builder()
+                .stopGainPercentage(10)
+                .stopLossPercentage(15)
+                .create());
+        assertFalse(p.shouldBeClosed(getCompactTicker(cp, 60000)));
+        p.tradeUpdate(TradeDTO.builder()
+                .id("TRADE_1")
+                .orderId("ORDER_1")
+                .type(OrderTypeDTO.BID)
+                .currencyPair(cp)
+                .originalAmount(BigDecimal.TEN)
+                .price(new BigDecimal("5"))
+                .create());
+        assertEquals(55000, p.getStopGainPrice(4));
+        assertEquals(42500, p.getStopLossPrice(4));
+
+        // Same results as with tickers.
+        for (long ask = 40000; ask <= 60000; ask += 100) {
+            final CompactTickerDTO compactTicker = getCompactTicker(cp, ask);
+            assertEquals(p.shouldBeClosed(compactTicker.toTickerDTO()), p.shouldBeClosed(compactTicker));
+        }
+        assertTrue(p.shouldBeClosed(getCompactTicker(cp, 55000)));
+        assertFalse(p.shouldBeClosed(getCompactTicker(cp, 54999)));
+        assertTrue(p.shouldBeClosed(getCompactTicker(cp, 42500)));
+        assertFalse(p.shouldBeClosed(getCompactTicker(cp, 42501)));
+
+        // Stop gain at 5.5 with a scale of 0 : 6 is the first price crossing it.
+        assertEquals(6, p.getStopGainPrice(0));
+        assertEquals(4, p.getStopLossPrice(0));
+
+        // Other currency pair or no ask.
+        assertFalse(p.shouldBeClosed(getCompactTicker(CurrencyPairDTO.getInstance(ETH, USDT), 60000)));
+        assertFalse(p.shouldBeClosed(getCompactTicker(cp, NO_VALUE)));
+    }
+
+    /**
+     * Returns a compact ticker with 4 decimals for prices.
+     *
+     * @param currencyPair currency pair
+     * @param ask          unscaled ask price
+     * @return compact ticker
+     */
+    private static CompactTickerDTO getCompactTicker(final CurrencyPairDTO currencyPair, final long ask) {
+        return CompactTickerDTO.builder()
+                .currencyPair(currencyPair)
+                .priceScale(4)
+                .amountScale(4)
+                .ask(ask)
+                .create();
+    }
+
+}
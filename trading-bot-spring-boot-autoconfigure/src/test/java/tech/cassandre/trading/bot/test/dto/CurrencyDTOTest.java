@@ -0,0 +1,78 @@
+package tech.cassandre.trading.bot.test.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Currency DTO")
+public class CurrencyDTOTest {
+
+    @Test
+    @DisplayName("Registry")
+    public void registry() {
+        // Known currencies.
+        assertSame(CurrencyDTO.BTC, CurrencyDTO.getInstance("BTC"));
+        assertSame(CurrencyDTO.BTC, CurrencyDTO.getInstance("btc"));
+        assertSame(CurrencyDTO.XBT, CurrencyDTO.getInstanceNoCreate("xbt"));
+        assertEquals(CurrencyDTO.BTC, CurrencyDTO.XBT);
+        assertEquals("Bitcoin", CurrencyDTO.getInstance("Btc").getDisplayName());
+        assertTrue(CurrencyDTO.getAvailableCurrencyCodes().size() > 250);
+        assertFalse(CurrencyDTO.getInitializationDuration().isNegative());
+        assertFalse(CurrencyDTO.getInitializationDuration().isZero());
+
+        // Unknown currency.
+        assertNull(CurrencyDTO.getInstanceNoCreate("REGISTRY"));
+        final CurrencyDTO unknown = CurrencyDTO.getInstance("registry");
+        assertEquals("REGISTRY", unknown.getCode());
+        assertSame(unknown, CurrencyDTO.getInstance("REGISTRY"));
+        assertSame(unknown, CurrencyDTO.getInstanceNoCreate("Registry"));
+        assertTrue(CurrencyDTO.getAvailableCurrencyCodes().contains("REGISTRY"));
+    }
+
+    @Test
+    @DisplayName("Concurrent registration")
+    public void concurrentRegistration() {
+        // 8 threads asking for the same unknown currencies at the same time.
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<CompletableFuture<List<CurrencyDTO>>> results = IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.supplyAsync(() -> {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return IntStream.range(0, 1000)
+                            .mapToObj(i -> CurrencyDTO.getInstance("CONCURRENT" + i))
+                            .collect(Collectors.toList());
+                }, executor))
+                .collect(Collectors.toList());
+        start.countDown();
+
+        // One instance per currency.
+        final List<CurrencyDTO> first = results.get(0).join();
+        results.forEach(result -> {
+            final List<CurrencyDTO> currencies = result.join();
+            for (int i = 0; i < currencies.size(); i++) {
+                assertSame(first.get(i), currencies.get(i));
+                assertSame(first.get(i), CurrencyDTO.getInstanceNoCreate("CONCURRENT" + i));
+            }
+        });
+        executor.shutdown();
+    }
+
+}
@@ -0,0 +1,84 @@
+package tech.cassandre.trading.bot.test.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.XBT;
+
+@DisplayName("Currency pair DTO")
+public class CurrencyPairDTOTest {
+
+    @Test
+    @DisplayName("Interning")
+    public void interning() {
+        // Same currency codes, same instance - whatever the case.
+        final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+        assertSame(cp, CurrencyPairDTO.getInstance("eth", "btc"));
+        assertSame(cp, CurrencyPairDTO.builder().baseCurrency(ETH).quoteCurrency(BTC).create());
+        assertSame(ETH, cp.getBaseCurrency());
+        assertSame(BTC, cp.getQuoteCurrency());
+        assertEquals("ETH/BTC", cp.toString());
+
+        // Constructors create new instances sharing the id of the interned one.
+        final CurrencyPairDTO created = new CurrencyPairDTO("eth", "btc");
+        assertNotSame(cp, created);
+        assertEquals(cp.getId(), created.getId());
+        assertEquals(cp, created);
+        assertEquals(created, cp);
+        assertEquals(cp.hashCode(), created.hashCode());
+        assertEquals(cp, new CurrencyPairDTO(new CurrencyDTO("eth"), BTC));
+
+        // Different currency pairs, different ids.
+        final CurrencyPairDTO other = CurrencyPairDTO.getInstance(BTC, ETH);
+        assertNotEquals(cp, other);
+        assertNotEquals(cp.getId(), other.getId());
+        assertNotEquals(cp, CurrencyPairDTO.getInstance(ETH, USDT));
+        assertNotEquals(CurrencyPairDTO.getInstance(BTC, USDT), CurrencyPairDTO.getInstance(XBT, USDT));
+        assertTrue(cp.getId() < CurrencyPairDTO.getInstanceCount());
+        assertTrue(other.getId() < CurrencyPairDTO.getInstanceCount());
+    }
+
+    @Test
+    @DisplayName("Concurrent interning")
+    public void concurrentInterning() {
+        // 8 threads asking for the same new currency pairs.
+        final List<CurrencyDTO> currencies = IntStream.range(0, 100)
+                .mapToObj(i -> CurrencyDTO.getInstance("INTERNING" + i))
+                .collect(Collectors.toList());
+        final int countBefore = CurrencyPairDTO.getInstanceCount();
+        final List<CompletableFuture<List<CurrencyPairDTO>>> results = IntStream.range(0, 8)
+                .mapToObj(thread -> CompletableFuture.supplyAsync(() -> currencies.stream()
+                        .map(currency -> CurrencyPairDTO.getInstance(currency, USDT))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+
+        // Each currency pair was only interned once.
+        final List<CurrencyPairDTO> first = results.get(0).join();
+        results.forEach(result -> {
+            final List<CurrencyPairDTO> currencyPairs = result.join();
+            for (int i = 0; i < currencyPairs.size(); i++) {
+                assertSame(first.get(i), currencyPairs.get(i));
+            }
+        });
+        final Set<Integer> ids = first.stream().map(CurrencyPairDTO::getId).collect(Collectors.toSet());
+        assertEquals(100, ids.size());
+        assertTrue(ids.stream().allMatch(id -> id >= countBefore && id < CurrencyPairDTO.getInstanceCount()));
+    }
+
+}
@@ -0,0 +1,144 @@
+package tech.cassandre.trading.bot.test.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyDTO;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Tag("benchmark")
+@DisplayName("Currency pair lookup benchmark")
+public class CurrencyPairLookupBenchmarkTest extends BaseTest {
+
+    /** Number of currency pairs. */
+    private static final int NUMBER_OF_PAIRS = 50;
+
+    /** Number of lookups per measure. */
+    private static final int LOOKUPS = 2_000_000;
+
+    /** Number of measures (the best one is kept). */
+    private static final int MEASURES = 5;
+
+    @Test
+    @DisplayName("Ticker lookups by currency pair")
+    public void tickerLookups() {
+        // Currency pairs received with tickers and the last ticker of each one.
+        final List<CurrencyDTO> currencies = IntStream.range(0, NUMBER_OF_PAIRS)
+                .mapToObj(i -> CurrencyDTO.getInstance("LOOKUP" + i))
+                .collect(Collectors.toList());
+        final List<CurrencyPairDTO> currencyPairs = currencies.stream()
+                .map(currency -> CurrencyPairDTO.getInstance(currency, CurrencyDTO.USDT))
+                .collect(Collectors.toList());
+        final List<LegacyCurrencyPairDTO> legacyCurrencyPairs = currencies.stream()
+                .map(currency -> new LegacyCurrencyPairDTO(currency, CurrencyDTO.USDT))
+                .collect(Collectors.toList());
+        final List<TickerDTO> tickers = currencyPairs.stream()
+                .map(cp -> TickerDTO.builder().currencyPair(cp).last(BigDecimal.ONE).create())
+                .collect(Collectors.toList());
+
+        // Before : currency pairs compared on their codes.
+        final Map<LegacyCurrencyPairDTO, TickerDTO> legacyMap = new HashMap<>();
+        // After : interned currency pairs in a map or ids used as array indexes.
+        final Map<CurrencyPairDTO, TickerDTO> internedMap = new HashMap<>();
+        final TickerDTO[] array = new TickerDTO[CurrencyPairDTO.getInstanceCount()];
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            legacyMap.put(new LegacyCurrencyPairDTO(currencies.get(i), CurrencyDTO.USDT), tickers.get(i));
+            internedMap.put(currencyPairs.get(i), tickers.get(i));
+            array[currencyPairs.get(i).getId()] = tickers.get(i);
+        }
+        assertSame(tickers.get(1), legacyMap.get(legacyCurrencyPairs.get(1)));
+        assertSame(tickers.get(1), internedMap.get(new CurrencyPairDTO(currencies.get(1), CurrencyDTO.USDT)));
+
+        getLogger().info("Lookup | Duration per lookup (ns)");
+        final long legacy = measure("Legacy map", legacyCurrencyPairs, legacyMap::get);
+        final long interned = measure("Interned map", currencyPairs, internedMap::get);
+        final long dense = measure("Array by id", currencyPairs, cp -> array[cp.getId()]);
+
+        assertTrue(interned < legacy);
+        assertTrue(dense < legacy);
+    }
+
+    /**
+     * Looks up the tickers of the currency pairs and returns the best duration.
+     *
+     * @param name          lookup name
+     * @param currencyPairs currency pairs
+     * @param lookup        lookup
+     * @param <K>           currency pair type
+     * @return duration of the lookups (ns)
+     */
+    private <K> long measure(final String name, final List<K> currencyPairs, final Function<K, TickerDTO> lookup) {
+        long best = Long.MAX_VALUE;
+        long found = 0;
+        for (int measure = 0; measure < MEASURES; measure++) {
+            final long start = System.nanoTime();
+            for (int i = 0; i < LOOKUPS; i++) {
+                if (lookup.apply(currencyPairs.get(i % NUMBER_OF_PAIRS)) != null) {
+                    found++;
+                }
+            }
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        assertEquals((long) LOOKUPS * MEASURES, found);
+        getLogger().info("{} | {}", name, (double) best / LOOKUPS);
+        return best;
+    }
+
+    /**
+     * Currency pair as it was before interning - equality on currency codes.
+     */
+    private static final class LegacyCurrencyPairDTO {
+
+        /** Base currency. */
+        private final CurrencyDTO baseCurrency;
+
+        /** Quote currency. */
+        private final CurrencyDTO quoteCurrency;
+
+        /**
+         * Constructor.
+         *
+         * @param newBaseCurrency  base currency
+         * @param newQuoteCurrency quote currency
+         */
+        private LegacyCurrencyPairDTO(final CurrencyDTO newBaseCurrency, final CurrencyDTO newQuoteCurrency) {
+            this.baseCurrency = newBaseCurrency;
+            this.quoteCurrency = newQuoteCurrency;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final LegacyCurrencyPairDTO that = (LegacyCurrencyPairDTO) o;
+            return baseCurrency.getCode().equalsIgnoreCase(that.baseCurrency.getCode())
+                    && quoteCurrency.getCode().equalsIgnoreCase(that.quoteCurrency.getCode());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(baseCurrency.getCode(), quoteCurrency.getCode());
+        }
+
+    }
+
+}
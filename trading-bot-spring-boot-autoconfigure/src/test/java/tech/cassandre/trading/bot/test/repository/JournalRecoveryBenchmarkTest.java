@@ -0,0 +1,235 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.domain.Position;
+import tech.cassandre.trading.bot.domain.Trade;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.repository.WriteBehindQueue;
+import tech.cassandre.trading.bot.service.PersistenceService;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+
+@Tag("benchmark")
+@DisplayName("Journal recovery benchmark")
+public class JournalRecoveryBenchmarkTest extends BaseTest {
+
+    /** Number of positions (each position gives 4 position updates, 2 orders and 2 trades : 8 events). */
+    private static final int POSITIONS = 125_000;
+
+    /** Number of events. */
+    private static final int EVENTS = POSITIONS * 8;
+
+    /** Number of events written at once. */
+    private static final int BATCH_SIZE = 500;
+
+    /** Maximum recovery duration (ms). */
+    private static final long MAXIMUM_RECOVERY_DURATION = 1_000;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    /** Timestamp. */
+    private final ZonedDateTime timestamp = ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC"));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("1M events recovered from the journal and from a snapshot")
+    public void recovery() {
+        // Warm-up.
+        recover("warm-up", Long.MAX_VALUE);
+
+        getLogger().info("Run | Events | Journal records | Snapshots | Files size (MB) | Load (ms) | Restore (ms) | Total (ms)");
+        // Journal only.
+        final long journalOnly = recover("journal", Long.MAX_VALUE);
+        // Snapshot and journal (snapshot every 100 000 records).
+        final long snapshotAndJournal = recover("snapshot", 100_000);
+        assertTrue(journalOnly < MAXIMUM_RECOVERY_DURATION);
+        assertTrue(snapshotAndJournal < MAXIMUM_RECOVERY_DURATION);
+    }
+
+    /**
+     * Writes the events of all positions, then measures the time needed to restore them.
+     *
+     * @param name            run name
+     * @param snapshotRecords number of journal records written before a snapshot
+     * @return recovery duration (ms)
+     */
+    private long recover(final String name, final long snapshotRecords) {
+        final Path runDirectory = directory.resolve(name);
+        final long snapshots = write(runDirectory, snapshotRecords);
+
+        // Loading the repositories then restoring the positions.
+        final long start = System.nanoTime();
+        final PersistenceService persistenceService = new PersistenceService(runDirectory,
+                WriteBehindQueue.DEFAULT_CAPACITY,
+                WriteBehindQueue.DEFAULT_BATCH_SIZE,
+                FsyncPolicy.NEVER,
+                snapshotRecords);
+        final long loadEnd = System.nanoTime();
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.getOpenOrders()).thenReturn(Collections.emptySet());
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        final List<PositionDTO> restoredPositions = persistenceService.loadPositions();
+        positionService.restorePositions(restoredPositions, persistenceService.loadTradesByOrderId(restoredPositions), persistenceService);
+        final long end = System.nanoTime();
+
+        assertEquals(POSITIONS, positionService.getPositions().size());
+        assertEquals(CLOSED, positionService.getPositionById(POSITIONS).orElseThrow().getStatus());
+        final long journalRecords = persistenceService.getPositionRepository().getJournalRecords()
+                + persistenceService.getOrderRepository().getJournalRecords()
+                + persistenceService.getTradeRepository().getJournalRecords();
+        persistenceService.close(TEN_SECONDS);
+
+        final long duration = TimeUnit.NANOSECONDS.toMillis(end - start);
+        getLogger().info("{} | {} | {} | {} | {} | {} | {} | {}",
+                name,
+                EVENTS,
+                journalRecords,
+                snapshots,
+                getSize(runDirectory) / 1_000_000,
+                TimeUnit.NANOSECONDS.toMillis(loadEnd - start),
+                TimeUnit.NANOSECONDS.toMillis(end - loadEnd),
+                duration);
+        return duration;
+    }
+
+    /**
+     * Writes the events of all positions : opening, opened, closing and closed.
+     *
+     * @param runDirectory    directory
+     * @param snapshotRecords number of journal records written before a snapshot
+     * @return number of snapshots written
+     */
+    private long write(final Path runDirectory, final long snapshotRecords) {
+        final PersistenceService persistenceService = new PersistenceService(runDirectory,
+                WriteBehindQueue.DEFAULT_CAPACITY,
+                WriteBehindQueue.DEFAULT_BATCH_SIZE,
+                FsyncPolicy.NEVER,
+                snapshotRecords);
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10).stopLossPercentage(5).create();
+        final List<Position> positions = new ArrayList<>(BATCH_SIZE);
+        final List<Order> orders = new ArrayList<>(BATCH_SIZE);
+        final List<Trade> trades = new ArrayList<>(BATCH_SIZE);
+        for (int i = 1; i <= POSITIONS; i++) {
+            final PositionDTO position = new PositionDTO(i, "O" + i, rules);
+            positions.add(PersistenceService.toPosition(position));
+            orders.add(PersistenceService.toOrder(getOrder("O" + i, OrderTypeDTO.BID)));
+            final TradeDTO openTrade = getTrade("O" + i, OrderTypeDTO.BID, "1");
+            trades.add(PersistenceService.toTrade(openTrade));
+            position.tradeUpdate(openTrade);
+            positions.add(PersistenceService.toPosition(position));
+            position.setCloseOrderId("C" + i);
+            positions.add(PersistenceService.toPosition(position));
+            orders.add(PersistenceService.toOrder(getOrder("C" + i, OrderTypeDTO.ASK)));
+            final TradeDTO closeTrade = getTrade("C" + i, OrderTypeDTO.ASK, "2");
+            trades.add(PersistenceService.toTrade(closeTrade));
+            position.tradeUpdate(closeTrade);
+            positions.add(PersistenceService.toPosition(position));
+            if (positions.size() >= BATCH_SIZE) {
+                persistenceService.getPositionRepository().saveAll(positions);
+                persistenceService.getOrderRepository().saveAll(orders);
+                persistenceService.getTradeRepository().saveAll(trades);
+                positions.clear();
+                orders.clear();
+                trades.clear();
+            }
+        }
+        persistenceService.getPositionRepository().saveAll(positions);
+        persistenceService.getOrderRepository().saveAll(orders);
+        persistenceService.getTradeRepository().saveAll(trades);
+        final long snapshots = persistenceService.getPositionRepository().getSnapshots()
+                + persistenceService.getOrderRepository().getSnapshots()
+                + persistenceService.getTradeRepository().getSnapshots();
+        persistenceService.close(TEN_SECONDS);
+        return snapshots;
+    }
+
+    /**
+     * Returns the size of the files of a directory.
+     *
+     * @param runDirectory directory
+     * @return size (bytes)
+     */
+    private long getSize(final Path runDirectory) {
+        try (Stream<Path> files = Files.list(runDirectory)) {
+            return files.mapToLong(file -> file.toFile().length()).sum();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Returns an order.
+     *
+     * @param id   order id
+     * @param type type
+     * @return order
+     */
+    private OrderDTO getOrder(final String id, final OrderTypeDTO type) {
+        return OrderDTO.builder()
+                .id(id)
+                .type(type)
+                .originalAmount(BigDecimal.ONE)
+                .currencyPair(cp)
+                .timestamp(timestamp)
+                .status(OrderStatusDTO.FILLED)
+                .create();
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param orderId order id
+     * @param type    type
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String orderId, final OrderTypeDTO type, final String price) {
+        return TradeDTO.builder()
+                .id("T" + orderId)
+                .orderId(orderId)
+                .type(type)
+                .originalAmount(BigDecimal.ONE)
+                .currencyPair(cp)
+                .price(new BigDecimal(price))
+                .timestamp(timestamp)
+                .feeAmount(new BigDecimal("0.01"))
+                .feeCurrency(BTC)
+                .create();
+    }
+
+}
@@ -0,0 +1,136 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.domain.Trade;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.repository.TradeRepository;
+import tech.cassandre.trading.bot.util.parameters.PersistenceParameters.FsyncPolicy;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Journal and snapshot repository")
+public class JournalRepositoryTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Journal compacted in a snapshot")
+    public void snapshot() throws Exception {
+        final Path file = directory.resolve("trades.dat");
+
+        // Snapshot every 10 records, 25 records written in 5 batches (trade 0 to 9 updated).
+        final TradeRepository repository = new TradeRepository(file, FsyncPolicy.NEVER, 10);
+        for (int i = 0; i < 5; i++) {
+            final List<Trade> trades = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                trades.add(getTrade("TRADE_" + ((i * 5 + j) % 15), Integer.toString(i * 5 + j)));
+            }
+            repository.saveAll(trades);
+        }
+        assertEquals(2, repository.getSnapshots());
+        assertEquals(5, repository.getJournalRecords());
+        assertEquals(15, repository.count());
+        assertTrue(Files.exists(repository.getSnapshotFile()));
+        repository.close();
+
+        // Reloaded from the snapshot and the journal - the last update of each trade wins, in the first save order.
+        final TradeRepository reloadedRepository = new TradeRepository(file, FsyncPolicy.NEVER, 10);
+        assertEquals(15, reloadedRepository.count());
+        assertEquals("TRADE_0", reloadedRepository.findAll().get(0).getId());
+        assertEquals("TRADE_14", reloadedRepository.findAll().get(14).getId());
+        assertEquals(new BigDecimal("15"), reloadedRepository.findById("TRADE_0").orElseThrow().getPrice());
+        assertEquals(new BigDecimal("24"), reloadedRepository.findById("TRADE_9").orElseThrow().getPrice());
+        assertEquals(new BigDecimal("14"), reloadedRepository.findById("TRADE_14").orElseThrow().getPrice());
+        assertEquals(ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")), reloadedRepository.findById("TRADE_0").orElseThrow().getTimestamp());
+        assertEquals(5, reloadedRepository.getJournalRecords());
+
+        // A snapshot on demand empties the journal.
+        reloadedRepository.snapshot();
+        assertEquals(0, reloadedRepository.getJournalRecords());
+        reloadedRepository.close();
+        try (TradeRepository snapshotRepository = new TradeRepository(file)) {
+            assertEquals(15, snapshotRepository.count());
+            assertEquals(0, snapshotRepository.getJournalRecords());
+        }
+    }
+
+    @Test
+    @DisplayName("Truncated journal record removed")
+    public void truncatedRecord() throws Exception {
+        final Path file = directory.resolve("trades.dat");
+        final TradeRepository repository = new TradeRepository(file, FsyncPolicy.BATCH, 100);
+        repository.saveAll(List.of(getTrade("TRADE_1", "1")));
+        repository.close();
+        final long size = Files.size(file);
+
+        // A record cut by a crash is removed from the journal - the next records are written after the valid ones.
+        try (OutputStream out = Files.newOutputStream(file, StandardOpenOption.APPEND)) {
+            out.write(new byte[]{0, 0, 0, 100, 1, 2});
+        }
+        final TradeRepository reloadedRepository = new TradeRepository(file, FsyncPolicy.BATCH, 100);
+        assertEquals(size, Files.size(file));
+        reloadedRepository.saveAll(List.of(getTrade("TRADE_2", "2")));
+        reloadedRepository.close();
+
+        final TradeRepository reloadedAgainRepository = new TradeRepository(file, FsyncPolicy.BATCH, 100);
+        assertEquals(2, reloadedAgainRepository.count());
+        assertEquals(new BigDecimal("2"), reloadedAgainRepository.findById("TRADE_2").orElseThrow().getPrice());
+        reloadedAgainRepository.close();
+    }
+
+    @Test
+    @DisplayName("Same content whatever the fsync policy")
+    public void fsyncPolicies() throws Exception {
+        for (FsyncPolicy fsyncPolicy : FsyncPolicy.values()) {
+            final Path file = directory.resolve(fsyncPolicy + ".dat");
+            final TradeRepository repository = new TradeRepository(file, fsyncPolicy, 100);
+            for (int i = 0; i < 10; i++) {
+                repository.saveAll(List.of(getTrade("TRADE_" + i, Integer.toString(i))));
+            }
+            repository.close();
+            assertFalse(Files.exists(repository.getSnapshotFile()));
+
+            final TradeRepository reloadedRepository = new TradeRepository(file, fsyncPolicy, 100);
+            assertEquals(10, reloadedRepository.count());
+            assertEquals(10, reloadedRepository.getJournalRecords());
+            reloadedRepository.close();
+        }
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param id    trade id
+     * @param price price
+     * @return trade
+     */
+    private Trade getTrade(final String id, final String price) {
+        final Trade trade = new Trade();
+        trade.setId(id);
+        trade.setOrderId("ORDER_" + id);
+        trade.setType(OrderTypeDTO.BID);
+        trade.setOriginalAmount(new BigDecimal("0.5"));
+        trade.setCurrencyPair("ETH/BTC");
+        trade.setPrice(new BigDecimal(price));
+        trade.setTimestamp(ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")));
+        trade.setFeeAmount(new BigDecimal("0.01"));
+        trade.setFeeCurrency("BTC");
+        return trade;
+    }
+
+}
@@ -0,0 +1,145 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.repository.TickReader;
+import tech.cassandre.trading.bot.repository.TickRecorder;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.XRP;
+
+@Tag("benchmark")
+@DisplayName("Tick recorder benchmark")
+public class TickRecorderBenchmarkTest extends BaseTest {
+
+    /** Number of ticks recorded. */
+    private static final int TICKS = 1_000_000;
+
+    /** Number of tickers received from the fluxes and recorded. */
+    private static final int FLUX_TICKS = 100_000;
+
+    /** Number of different tickers (recorded in turn). */
+    private static final int TICKERS = 1_000;
+
+    /** Minimum number of ticks recorded per second. */
+    private static final long MINIMUM_TICKS_PER_SECOND = 200_000;
+
+    /** Currency pairs. */
+    private final CurrencyPairDTO[] currencyPairs = {CurrencyPairDTO.getInstance(ETH, BTC),
+            CurrencyPairDTO.getInstance(BTC, USDT),
+            CurrencyPairDTO.getInstance(ETH, USDT),
+            CurrencyPairDTO.getInstance(XRP, BTC)};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("1M ticks recorded and read")
+    public void recordAndRead() {
+        // Tickers of the four currency pairs, one tick per millisecond.
+        final long start = TimeUnit.DAYS.toNanos(LocalDate.of(2020, 1, 1).toEpochDay());
+        final CompactTickerDTO[] tickers = new CompactTickerDTO[TICKERS];
+        for (int i = 0; i < TICKERS; i++) {
+            tickers[i] = CompactTickerDTO.builder()
+                    .currencyPair(currencyPairs[i % currencyPairs.length])
+                    .priceScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .amountScale(CompactTickerConverter.DEFAULT_SCALE)
+                    .open(i)
+                    .last(i)
+                    .bid(i)
+                    .ask(i)
+                    .high(i)
+                    .low(i)
+                    .vwap(i)
+                    .volume(i)
+                    .quoteVolume(i)
+                    .bidSize(i)
+                    .askSize(i)
+                    .timestamp(start + TimeUnit.MILLISECONDS.toNanos(i))
+                    .create();
+        }
+
+        // Warm-up.
+        record(directory.resolve("warm-up"), tickers);
+
+        getLogger().info("Run | Ticks | Duration (ms) | Ticks/s | Allocated bytes per tick");
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long recordStart = System.nanoTime();
+        record(directory.resolve("ticks"), tickers);
+        final long recordDuration = System.nanoTime() - recordStart;
+        final long allocatedBytesPerTick = (threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytes) / TICKS;
+        final long recordedTicksPerSecond = TICKS * TimeUnit.SECONDS.toNanos(1) / recordDuration;
+        getLogger().info("record | {} | {} | {} | {}", TICKS, TimeUnit.NANOSECONDS.toMillis(recordDuration), recordedTicksPerSecond, allocatedBytesPerTick);
+
+        // Tickers received from the fluxes - converted to compact tickers before being recorded.
+        final TickerDTO[] fluxTickers = new TickerDTO[TICKERS];
+        for (int i = 0; i < TICKERS; i++) {
+            fluxTickers[i] = tickers[i].toTickerDTO();
+        }
+        final TickRecorder fluxRecorder = new TickRecorder(directory.resolve("flux-ticks"), new CompactTickerConverter());
+        final long fluxAllocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId);
+        final long fluxStart = System.nanoTime();
+        for (int i = 0; i < FLUX_TICKS; i++) {
+            fluxRecorder.tickerUpdate(fluxTickers[i % TICKERS]);
+        }
+        final long fluxDuration = System.nanoTime() - fluxStart;
+        final long fluxAllocatedBytesPerTick = (threadMXBean.getThreadAllocatedBytes(threadId) - fluxAllocatedBytes) / FLUX_TICKS;
+        fluxRecorder.close();
+        getLogger().info("tickerUpdate | {} | {} | {} | {}", FLUX_TICKS, TimeUnit.NANOSECONDS.toMillis(fluxDuration),
+                FLUX_TICKS * TimeUnit.SECONDS.toNanos(1) / fluxDuration, fluxAllocatedBytesPerTick);
+        assertEquals(FLUX_TICKS, fluxRecorder.getRecordedTicks());
+
+        // Reading the last prices, without creating tickers.
+        final long readStart = System.nanoTime();
+        long readTicks = 0;
+        long sum = 0;
+        for (CurrencyPairDTO currencyPair : currencyPairs) {
+            try (TickReader reader = new TickReader(directory.resolve("ticks"), currencyPair)) {
+                while (reader.next()) {
+                    sum += reader.getLast();
+                }
+                readTicks += reader.getReadTicks();
+            }
+        }
+        final long readDuration = System.nanoTime() - readStart;
+        getLogger().info("read | {} | {} | {} | -", readTicks, TimeUnit.NANOSECONDS.toMillis(readDuration), readTicks * TimeUnit.SECONDS.toNanos(1) / readDuration);
+
+        assertEquals(TICKS, readTicks);
+        assertEquals((long) TICKERS * (TICKERS - 1) / 2 * (TICKS / TICKERS), sum);
+        assertTrue(recordedTicksPerSecond > MINIMUM_TICKS_PER_SECOND);
+        assertEquals(0, allocatedBytesPerTick);
+    }
+
+    /**
+     * Records the ticks - the tickers are recorded in turn, with a timestamp moving forward.
+     *
+     * @param runDirectory directory
+     * @param tickers      tickers
+     */
+    private void record(final Path runDirectory, final CompactTickerDTO[] tickers) {
+        final TickRecorder recorder = new TickRecorder(runDirectory, new CompactTickerConverter());
+        for (int i = 0; i < TICKS; i++) {
+            recorder.record(tickers[i % TICKERS]);
+        }
+        recorder.close();
+    }
+
+}
@@ -0,0 +1,197 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.repository.TickReader;
+import tech.cassandre.trading.bot.repository.TickRecorder;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Tick recorder")
+public class TickRecorderTest {
+
+    /** First day. */
+    private static final LocalDate DAY = LocalDate.of(2020, 1, 1);
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp1 = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp2 = CurrencyPairDTO.getInstance(BTC, USDT);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Ticks recorded and read by currency pair")
+    public void recordAndRead() {
+        final TickRecorder recorder = new TickRecorder(directory, new CompactTickerConverter());
+        final TickerDTO ticker = TickerDTO.builder()
+                .currencyPair(cp1)
+                .last(new BigDecimal("0.0251"))
+                .bid(new BigDecimal("0.025"))
+                .ask(new BigDecimal("0.0252"))
+                .volume(new BigDecimal("1500.5"))
+                .timestamp(Date.from(DAY.atStartOfDay().toInstant(ZoneOffset.UTC)))
+                .create();
+        recorder.tickerUpdate(ticker);
+        for (int i = 1; i <= 9; i++) {
+            recorder.record(getTicker(cp1, DAY, i));
+            recorder.record(getTicker(cp2, DAY, i));
+        }
+        // A ticker with a value that doesn't fit in a long with its scale is not recorded.
+        recorder.tickerUpdate(TickerDTO.builder().currencyPair(cp1).last(new BigDecimal("1E20")).create());
+        assertEquals(19, recorder.getRecordedTicks());
+        assertEquals(1, recorder.getFailedTicks());
+
+        // Ticks read while the files are open, then after the files are closed.
+        assertEquals(10, count(new TickReader(directory, cp1)));
+        recorder.close();
+        assertEquals(10, count(new TickReader(directory, cp1)));
+
+        // Ticks received after the close are not recorded (no file opened again) and closing twice changes nothing.
+        recorder.record(getTicker(cp1, DAY, 10));
+        recorder.close();
+        assertEquals(19, recorder.getRecordedTicks());
+        assertEquals(2, recorder.getFailedTicks());
+        assertEquals(10, count(new TickReader(directory, cp1)));
+        assertEquals(9, count(new TickReader(directory, cp2)));
+        assertEquals(0, count(new TickReader(directory, CurrencyPairDTO.getInstance(ETH, USDT))));
+
+        try (TickReader reader = new TickReader(directory, cp1)) {
+            // The ticker is read as it was received.
+            assertTrue(reader.next());
+            assertEquals(ticker, reader.toTickerDTO());
+            assertEquals(new BigDecimal("0.0251"), reader.toTickerDTO().getLast());
+            assertEquals(new BigDecimal("1500.5"), reader.toTickerDTO().getVolume());
+            assertNull(reader.toTickerDTO().getOpen());
+            assertEquals(CompactTickerDTO.NO_VALUE, reader.getOpen());
+
+            // The values of the compact tickers are read without conversion.
+            for (int i = 1; i <= 9; i++) {
+                assertTrue(reader.next());
+                assertEquals(getTicker(cp1, DAY, i), reader.toCompactTickerDTO());
+                assertEquals(i, reader.getLast());
+                assertEquals(2L * i, reader.getVolume());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    @DisplayName("Ticks recorded in a file per day, appended after a restart")
+    public void dailyFiles() throws Exception {
+        final TickRecorder recorder = new TickRecorder(directory, new CompactTickerConverter());
+        for (int day = 0; day < 3; day++) {
+            for (int i = 1; i <= 5; i++) {
+                recorder.record(getTicker(cp1, DAY.plusDays(day), i));
+            }
+        }
+        recorder.close();
+        for (int day = 0; day < 3; day++) {
+            final Path file = TickRecorder.getFile(directory, cp1, DAY.plusDays(day));
+            assertEquals(TickRecorder.HEADER_SIZE + 5 * TickRecorder.RECORD_SIZE, Files.size(file));
+        }
+
+        // After a restart, ticks of the last day are appended.
+        final TickRecorder restartedRecorder = new TickRecorder(directory, new CompactTickerConverter());
+        restartedRecorder.record(getTicker(cp1, DAY.plusDays(2), 6));
+        restartedRecorder.close();
+        assertEquals(16, count(new TickReader(directory, cp1)));
+        assertEquals(6, count(new TickReader(directory, cp1, DAY.plusDays(2), DAY.plusDays(2))));
+        assertEquals(11, count(new TickReader(directory, cp1, DAY.plusDays(1), LocalDate.MAX)));
+
+        // Ticks are read in the order of the days.
+        try (TickReader reader = new TickReader(directory, cp1)) {
+            long timestamp = 0;
+            while (reader.next()) {
+                assertTrue(reader.getTimestamp() > timestamp);
+                timestamp = reader.getTimestamp();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Ticks recorded before a crash read and appended")
+    public void crash() throws Exception {
+        final TickRecorder recorder = new TickRecorder(directory, new CompactTickerConverter());
+        for (int i = 1; i <= 5; i++) {
+            recorder.record(getTicker(cp1, DAY, i));
+        }
+        recorder.flush();
+
+        // The recorder is not closed : the file ends with the zeros of the mapped region.
+        final Path file = TickRecorder.getFile(directory, cp1, DAY);
+        assertEquals(TickRecorder.HEADER_SIZE + TickRecorder.REGION_SIZE, Files.size(file));
+        assertEquals(5, count(new TickReader(directory, cp1)));
+
+        // A new recorder (the first one is never closed) appends after the last tick.
+        final TickRecorder restartedRecorder = new TickRecorder(directory, new CompactTickerConverter());
+        restartedRecorder.record(getTicker(cp1, DAY, 6));
+        restartedRecorder.close();
+        assertEquals(TickRecorder.HEADER_SIZE + 6 * TickRecorder.RECORD_SIZE, Files.size(file));
+        try (TickReader reader = new TickReader(directory, cp1)) {
+            for (int i = 1; i <= 6; i++) {
+                assertTrue(reader.next());
+                assertEquals(i, reader.getLast());
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    /**
+     * Returns a compact ticker.
+     *
+     * @param currencyPair currency pair
+     * @param day          day
+     * @param i            tick number (second of the day)
+     * @return compact ticker
+     */
+    private CompactTickerDTO getTicker(final CurrencyPairDTO currencyPair, final LocalDate day, final int i) {
+        return CompactTickerDTO.builder()
+                .currencyPair(currencyPair)
+                .priceScale(CompactTickerConverter.DEFAULT_SCALE)
+                .amountScale(CompactTickerConverter.DEFAULT_SCALE)
+                .last(i)
+                .bid(i - 1)
+                .ask(i + 1)
+                .volume(2L * i)
+                .timestamp(TimeUnit.SECONDS.toNanos(day.toEpochDay() * TimeUnit.DAYS.toSeconds(1) + i))
+                .create();
+    }
+
+    /**
+     * Returns the number of ticks of a reader.
+     *
+     * @param reader reader
+     * @return number of ticks
+     */
+    private long count(final TickReader reader) {
+        try (reader) {
+            while (reader.next()) {
+                assertTrue(reader.getTimestamp() > 0);
+            }
+            return reader.getReadTicks();
+        }
+    }
+
+}
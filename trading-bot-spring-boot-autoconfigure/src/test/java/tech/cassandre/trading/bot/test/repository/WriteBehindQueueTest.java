@@ -0,0 +1,269 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.domain.Order;
+import tech.cassandre.trading.bot.domain.Position;
+import tech.cassandre.trading.bot.domain.Trade;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.repository.EntityRepository;
+import tech.cassandre.trading.bot.repository.WriteBehindQueue;
+import tech.cassandre.trading.bot.service.PersistenceService;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+
+@DisplayName("Write-behind queue")
+public class WriteBehindQueueTest {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Positions, orders and trades stored and reloaded")
+    public void storeAndReload() throws Exception {
+        final PersistenceService persistenceService = new PersistenceService(directory, 100, 10);
+
+        // A position going through all its states.
+        final PositionDTO position = new PositionDTO(1, "ORDER_1", PositionRulesDTO.builder().stopGainPercentage(10).create());
+        persistenceService.positionUpdate(position);
+        position.tradeUpdate(getTrade("TRADE_1", "ORDER_1", OrderTypeDTO.BID, "5"));
+        persistenceService.positionUpdate(position);
+        position.setCloseOrderId("ORDER_2");
+        persistenceService.positionUpdate(position);
+        position.tradeUpdate(getTrade("TRADE_2", "ORDER_2", OrderTypeDTO.ASK, "6"));
+        persistenceService.positionUpdate(position);
+
+        // Orders and trades.
+        persistenceService.orderUpdate(getOrder("ORDER_1", OrderStatusDTO.NEW));
+        persistenceService.orderUpdate(getOrder("ORDER_1", OrderStatusDTO.FILLED));
+        persistenceService.tradeUpdate(getTrade("TRADE_1", "ORDER_1", OrderTypeDTO.BID, "5"));
+        persistenceService.tradeUpdate(getTrade("TRADE_2", "ORDER_2", OrderTypeDTO.ASK, "6"));
+        assertTrue(persistenceService.getWriteBehindQueue().flush(10_000));
+        assertEquals(8, persistenceService.getWriteBehindQueue().getWrittenEntities());
+        persistenceService.close(10_000);
+
+        // Reloaded from the files - the last update of each entity wins.
+        final PersistenceService reloadedPersistenceService = new PersistenceService(directory, 100, 10);
+        assertEquals(1, reloadedPersistenceService.getPositionRepository().count());
+        final Position reloadedPosition = reloadedPersistenceService.getPositionRepository().findById("1").orElseThrow();
+        assertEquals(CLOSED, reloadedPosition.getStatus());
+        assertEquals(10f, reloadedPosition.getStopGainPercentage());
+        assertNull(reloadedPosition.getStopLossPercentage());
+        assertEquals("ORDER_1", reloadedPosition.getOpenOrderId());
+        assertEquals("TRADE_1", reloadedPosition.getOpenTradeId());
+        assertEquals("ORDER_2", reloadedPosition.getCloseOrderId());
+        assertEquals("TRADE_2", reloadedPosition.getCloseTradeId());
+
+        assertEquals(1, reloadedPersistenceService.getOrderRepository().count());
+        final Order reloadedOrder = reloadedPersistenceService.getOrderRepository().findById("ORDER_1").orElseThrow();
+        assertEquals(OrderStatusDTO.FILLED, reloadedOrder.getStatus());
+        assertEquals(OrderTypeDTO.BID, reloadedOrder.getType());
+        assertEquals("ETH/BTC", reloadedOrder.getCurrencyPair());
+        assertEquals(new BigDecimal("0.5"), reloadedOrder.getOriginalAmount());
+        assertEquals(ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")), reloadedOrder.getTimestamp());
+        assertNull(reloadedOrder.getLimitPrice());
+
+        assertEquals(2, reloadedPersistenceService.getTradeRepository().count());
+        final Trade reloadedTrade = reloadedPersistenceService.getTradeRepository().findById("TRADE_2").orElseThrow();
+        assertEquals("ORDER_2", reloadedTrade.getOrderId());
+        assertEquals(OrderTypeDTO.ASK, reloadedTrade.getType());
+        assertEquals(new BigDecimal("6"), reloadedTrade.getPrice());
+        assertEquals(new BigDecimal("0.01"), reloadedTrade.getFeeAmount());
+        assertEquals("BTC", reloadedTrade.getFeeCurrency());
+        reloadedPersistenceService.close(10_000);
+    }
+
+    @Test
+    @DisplayName("Truncated record ignored")
+    public void truncatedRecord() throws Exception {
+        final PersistenceService persistenceService = new PersistenceService(directory, 100, 10);
+        persistenceService.tradeUpdate(getTrade("TRADE_1", "ORDER_1", OrderTypeDTO.BID, "5"));
+        persistenceService.close(10_000);
+
+        // A record cut by a crash.
+        try (OutputStream out = Files.newOutputStream(directory.resolve(PersistenceService.TRADES_FILE), StandardOpenOption.APPEND)) {
+            out.write(new byte[]{0, 0, 0, 100, 1, 2});
+        }
+        final PersistenceService reloadedPersistenceService = new PersistenceService(directory, 100, 10);
+        assertEquals(1, reloadedPersistenceService.getTradeRepository().count());
+        assertTrue(reloadedPersistenceService.getTradeRepository().findById("TRADE_1").isPresent());
+        reloadedPersistenceService.close(10_000);
+    }
+
+    @Test
+    @DisplayName("Back-pressure when the queue is full")
+    public void backPressure() throws Exception {
+        // Writes taking 5 ms, at most 10 entities waiting and 2 entities per batch.
+        final SlowRepository repository = new SlowRepository(5);
+        final WriteBehindQueue queue = new WriteBehindQueue(10, 2);
+        for (int i = 0; i < 100; i++) {
+            queue.save(repository, "ENTITY_" + i);
+        }
+        assertTrue(queue.getBlockedSaves() > 0);
+        assertTrue(queue.getTotalBlockedTime() > 0);
+        assertTrue(queue.getMaximumQueueSize() <= 10);
+
+        // Nothing lost, written in order.
+        assertTrue(queue.flush(10_000));
+        assertEquals(100, queue.getQueuedEntities());
+        assertEquals(100, queue.getWrittenEntities());
+        assertEquals(0, queue.getFailedEntities());
+        assertTrue(queue.getBatches() >= 50);
+        assertEquals(100, repository.count());
+        assertEquals("ENTITY_0", repository.findAll().get(0));
+        assertEquals("ENTITY_99", repository.findAll().get(99));
+        queue.close(10_000);
+    }
+
+    @Test
+    @DisplayName("Entities saved while closing are written or rejected")
+    public void saveWhileClosing() throws Exception {
+        final SlowRepository repository = new SlowRepository(1);
+        final WriteBehindQueue queue = new WriteBehindQueue(10, 2);
+        final List<Thread> savers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            final int saver = i;
+            final Thread thread = new Thread(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    queue.save(repository, "ENTITY_" + saver + "_" + j);
+                }
+            });
+            thread.start();
+            savers.add(thread);
+        }
+        Thread.sleep(50);
+        queue.close(10_000);
+        for (Thread saver : savers) {
+            saver.join(10_000);
+            assertFalse(saver.isAlive());
+        }
+
+        // Every entity queued before the close is written, the others are not counted.
+        assertTrue(queue.flush(1_000));
+        assertEquals(0, queue.getQueueSize());
+        assertEquals(queue.getQueuedEntities(), queue.getWrittenEntities());
+        assertEquals(queue.getQueuedEntities(), repository.count());
+        assertTrue(queue.getQueuedEntities() < 4_000);
+
+        // Saves after the close are rejected.
+        queue.save(repository, "ENTITY_AFTER_CLOSE");
+        assertEquals(repository.count(), queue.getQueuedEntities());
+        assertTrue(queue.flush(1_000));
+    }
+
+    /**
+     * Returns an order.
+     *
+     * @param id     order id
+     * @param status status
+     * @return order
+     */
+    private OrderDTO getOrder(final String id, final OrderStatusDTO status) {
+        return OrderDTO.builder()
+                .id(id)
+                .type(OrderTypeDTO.BID)
+                .originalAmount(new BigDecimal("0.5"))
+                .currencyPair(cp)
+                .timestamp(ZonedDateTime.of(2020, 1, 1, 0, 0, 0, 0, ZoneId.of("UTC")))
+                .status(status)
+                .create();
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param id      trade id
+     * @param orderId order id
+     * @param type    type
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String id, final String orderId, final OrderTypeDTO type, final String price) {
+        return TradeDTO.builder()
+                .id(id)
+                .orderId(orderId)
+                .type(type)
+                .originalAmount(new BigDecimal("0.5"))
+                .currencyPair(cp)
+                .price(new BigDecimal(price))
+                .feeAmount(new BigDecimal("0.01"))
+                .feeCurrency(BTC)
+                .create();
+    }
+
+    /**
+     * Repository keeping strings in memory, slowly.
+     */
+    private static final class SlowRepository implements EntityRepository<String> {
+
+        /** Duration of a write (ms). */
+        private final long writeDuration;
+
+        /** Entities. */
+        private final List<String> entities = new ArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param newWriteDuration duration of a write (ms)
+         */
+        private SlowRepository(final long newWriteDuration) {
+            this.writeDuration = newWriteDuration;
+        }
+
+        @Override
+        public synchronized void saveAll(final Collection<String> newEntities) {
+            try {
+                Thread.sleep(writeDuration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            entities.addAll(newEntities);
+        }
+
+        @Override
+        public synchronized Optional<String> findById(final String id) {
+            return entities.stream().filter(id::equals).findFirst();
+        }
+
+        @Override
+        public synchronized List<String> findAll() {
+            return new ArrayList<>(entities);
+        }
+
+        @Override
+        public synchronized long count() {
+            return entities.size();
+        }
+
+    }
+
+}
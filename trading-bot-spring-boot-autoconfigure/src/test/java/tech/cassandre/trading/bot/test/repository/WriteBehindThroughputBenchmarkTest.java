@@ -0,0 +1,184 @@
+package tech.cassandre.trading.bot.test.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.repository.WriteBehindQueue;
+import tech.cassandre.trading.bot.service.PersistenceService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+
+@Tag("benchmark")
+@DisplayName("Write-behind throughput benchmark")
+public class WriteBehindThroughputBenchmarkTest extends BaseTest {
+
+    /** Sustained rate (writes per second). */
+    private static final int SUSTAINED_RATE = 1_000;
+
+    /** Duration of the sustained run (seconds). */
+    private static final int SUSTAINED_DURATION = 3;
+
+    /** Number of writes of the burst run. */
+    private static final int BURST_WRITES = 100_000;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Sustained 1k writes/s and burst throughput")
+    public void throughput() throws Exception {
+        // Warm-up.
+        run("warm-up", BURST_WRITES, 0, WriteBehindQueue.DEFAULT_CAPACITY);
+
+        getLogger().info("Run | Writes | Writes/s | Average save (µs) | Maximum save (µs) | Maximum queue size | Batches | Blocked saves");
+
+        // Sustained - the callers never wait.
+        final Result sustained = run("sustained", SUSTAINED_RATE * SUSTAINED_DURATION, SUSTAINED_RATE, WriteBehindQueue.DEFAULT_CAPACITY);
+        assertEquals(0, sustained.blockedSaves);
+        assertTrue(sustained.maximumQueueSize < WriteBehindQueue.DEFAULT_CAPACITY);
+
+        // Burst with a small queue - back-pressure slows callers down to the disk speed, nothing is lost.
+        final Result burst = run("burst", BURST_WRITES, 0, 1_000);
+        assertTrue(burst.writesPerSecond > SUSTAINED_RATE);
+    }
+
+    /**
+     * Writes orders and trades, alternately, and waits until they are stored.
+     *
+     * @param name          run name
+     * @param writes        number of writes
+     * @param rate          writes per second (0 for no limit)
+     * @param queueCapacity queue capacity
+     * @return result
+     * @throws InterruptedException if interrupted
+     */
+    private Result run(final String name, final int writes, final int rate, final int queueCapacity) throws InterruptedException {
+        final PersistenceService persistenceService = new PersistenceService(directory.resolve(name), queueCapacity, WriteBehindQueue.DEFAULT_BATCH_SIZE);
+        final long interval = rate > 0 ? TimeUnit.SECONDS.toNanos(1) / rate : 0;
+        long totalSaveDuration = 0;
+        long maximumSaveDuration = 0;
+
+        final long start = System.nanoTime();
+        for (int i = 0; i < writes; i++) {
+            // Waiting for the next slot.
+            final long slot = start + i * interval;
+            while (System.nanoTime() < slot) {
+                LockSupport.parkNanos(slot - System.nanoTime());
+            }
+            final long saveStart = System.nanoTime();
+            if (i % 2 == 0) {
+                persistenceService.orderUpdate(getOrder(i));
+            } else {
+                persistenceService.tradeUpdate(getTrade(i));
+            }
+            final long saveDuration = System.nanoTime() - saveStart;
+            totalSaveDuration += saveDuration;
+            maximumSaveDuration = Math.max(maximumSaveDuration, saveDuration);
+        }
+        assertTrue(persistenceService.getWriteBehindQueue().flush(TEN_SECONDS));
+        final long duration = System.nanoTime() - start;
+
+        final WriteBehindQueue queue = persistenceService.getWriteBehindQueue();
+        assertEquals(writes, queue.getWrittenEntities());
+        assertEquals(writes, persistenceService.getOrderRepository().count() + persistenceService.getTradeRepository().count());
+        final Result result = new Result(writes * TimeUnit.SECONDS.toNanos(1) / duration, queue.getMaximumQueueSize(), queue.getBlockedSaves());
+        getLogger().info("{} | {} | {} | {} | {} | {} | {} | {}",
+                name,
+                writes,
+                result.writesPerSecond,
+                TimeUnit.NANOSECONDS.toMicros(totalSaveDuration / writes),
+                TimeUnit.NANOSECONDS.toMicros(maximumSaveDuration),
+                result.maximumQueueSize,
+                queue.getBatches(),
+                result.blockedSaves);
+        persistenceService.close(TEN_SECONDS);
+        return result;
+    }
+
+    /**
+     * Returns an order.
+     *
+     * @param i write number
+     * @return order
+     */
+    private OrderDTO getOrder(final int i) {
+        return OrderDTO.builder()
+                .id("ORDER_" + i)
+                .type(OrderTypeDTO.BID)
+                .originalAmount(new BigDecimal("0.5"))
+                .currencyPair(cp)
+                .timestamp(ZonedDateTime.now())
+                .status(OrderStatusDTO.NEW)
+                .limitPrice(new BigDecimal("0.03"))
+                .create();
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param i write number
+     * @return trade
+     */
+    private TradeDTO getTrade(final int i) {
+        return TradeDTO.builder()
+                .id("TRADE_" + i)
+                .orderId("ORDER_" + (i - 1))
+                .type(OrderTypeDTO.BID)
+                .originalAmount(new BigDecimal("0.5"))
+                .currencyPair(cp)
+                .price(new BigDecimal("0.03"))
+                .timestamp(ZonedDateTime.now())
+                .feeAmount(new BigDecimal("0.0001"))
+                .feeCurrency(BTC)
+                .create();
+    }
+
+    /**
+     * Result of a run.
+     */
+    private static final class Result {
+
+        /** Writes per second. */
+        private final long writesPerSecond;
+
+        /** Maximum queue size. */
+        private final long maximumQueueSize;
+
+        /** Number of saves that waited. */
+        private final long blockedSaves;
+
+        /**
+         * Constructor.
+         *
+         * @param newWritesPerSecond  writes per second
+         * @param newMaximumQueueSize maximum queue size
+         * @param newBlockedSaves     number of saves that waited
+         */
+        private Result(final long newWritesPerSecond, final long newMaximumQueueSize, final long newBlockedSaves) {
+            this.writesPerSecond = newWritesPerSecond;
+            this.maximumQueueSize = newMaximumQueueSize;
+            this.blockedSaves = newBlockedSaves;
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Repository tests.
+ */
+package tech.cassandre.trading.bot.test.repository;
@@ -0,0 +1,174 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.market.CompactTickerDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.service.TradeServiceInDryMode;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.service.CompactTickerConverter.DEFAULT_SCALE;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@Tag("benchmark")
+@DisplayName("Compact ticker allocation benchmark")
+public class CompactTickerAllocationBenchmarkTest extends BaseTest {
+
+    /** Number of opened positions. */
+    private static final int OPENED_POSITIONS = 100;
+
+    /** Number of ticks measured. */
+    private static final int TICKS = 100_000;
+
+    /** Unscaled open price (100). */
+    private static final long OPEN_PRICE = 100 * (long) Math.pow(10, DEFAULT_SCALE);
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(BTC, USDT);
+
+    @Test
+    @DisplayName("Allocations per tick in the position service and the dry mode")
+    public void allocationsPerTick() {
+        final PositionServiceImplementation positionService = getPositionService();
+        final TradeServiceInDryMode tradeService = new TradeServiceInDryMode();
+
+        // Tickers moving between the triggers of the positions, as received from the exchange or as compact tickers.
+        final LongConsumer tickers = i -> {
+            final TickerDTO ticker = TickerDTO.builder()
+                    .currencyPair(cp)
+                    .open(getPrice(i))
+                    .last(getPrice(i))
+                    .bid(getPrice(i))
+                    .ask(getPrice(i))
+                    .high(getPrice(i))
+                    .low(getPrice(i))
+                    .vwap(getPrice(i))
+                    .volume(getPrice(i))
+                    .quoteVolume(getPrice(i))
+                    .bidSize(getPrice(i))
+                    .askSize(getPrice(i))
+                    .timestamp(new Date(i))
+                    .create();
+            positionService.tickerUpdate(ticker);
+            tradeService.tickerUpdate(ticker);
+        };
+        final LongConsumer compactTickers = i -> {
+            final CompactTickerDTO ticker = CompactTickerDTO.builder()
+                    .currencyPair(cp)
+                    .priceScale(DEFAULT_SCALE)
+                    .amountScale(DEFAULT_SCALE)
+                    .open(getUnscaledPrice(i))
+                    .last(getUnscaledPrice(i))
+                    .bid(getUnscaledPrice(i))
+                    .ask(getUnscaledPrice(i))
+                    .high(getUnscaledPrice(i))
+                    .low(getUnscaledPrice(i))
+                    .vwap(getUnscaledPrice(i))
+                    .volume(getUnscaledPrice(i))
+                    .quoteVolume(getUnscaledPrice(i))
+                    .bidSize(getUnscaledPrice(i))
+                    .askSize(getUnscaledPrice(i))
+                    .timestamp(TimeUnit.MILLISECONDS.toNanos(i))
+                    .create();
+            positionService.tickerUpdate(ticker);
+            tradeService.tickerUpdate(ticker);
+        };
+
+        // Warm-up.
+        getAllocatedBytesPerTick(tickers);
+        getAllocatedBytesPerTick(compactTickers);
+
+        final long tickerAllocations = getAllocatedBytesPerTick(tickers);
+        final long compactTickerAllocations = getAllocatedBytesPerTick(compactTickers);
+        getLogger().info("Allocated bytes per tick with {} opened positions - TickerDTO : {}, CompactTickerDTO : {}",
+                OPENED_POSITIONS,
+                tickerAllocations,
+                compactTickerAllocations);
+        assertTrue(compactTickerAllocations < tickerAllocations / 2);
+    }
+
+    /**
+     * Returns a position service with opened positions - stop gains from 1% to 10% and stop losses from 1% to 10%.
+     *
+     * @return position service
+     */
+    private PositionServiceImplementation getPositionService() {
+        final AtomicInteger orders = new AtomicInteger();
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("O" + orders.incrementAndGet()));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        for (int i = 0; i < OPENED_POSITIONS; i++) {
+            final PositionRulesDTO rules = PositionRulesDTO.builder()
+                    .stopGainPercentage(1 + i % 10)
+                    .stopLossPercentage(1 + i % 10)
+                    .create();
+            final String orderId = positionService.createPosition(cp, BigDecimal.ONE, rules).getOrderId();
+            positionService.tradeUpdate(TradeDTO.builder()
+                    .id("T" + orderId)
+                    .orderId(orderId)
+                    .type(OrderTypeDTO.BID)
+                    .currencyPair(cp)
+                    .originalAmount(BigDecimal.ONE)
+                    .price(CompactTickerDTO.toBigDecimal(OPEN_PRICE, DEFAULT_SCALE))
+                    .create());
+        }
+        return positionService;
+    }
+
+    /**
+     * Returns the unscaled price of a tick - between 99.5 and 100.5, no trigger is crossed.
+     *
+     * @param tick tick number
+     * @return unscaled price
+     */
+    private static long getUnscaledPrice(final long tick) {
+        return OPEN_PRICE - OPEN_PRICE / 200 + tick % (OPEN_PRICE / 100);
+    }
+
+    /**
+     * Returns the price of a tick.
+     *
+     * @param tick tick number
+     * @return price
+     */
+    private static BigDecimal getPrice(final long tick) {
+        return BigDecimal.valueOf(getUnscaledPrice(tick), DEFAULT_SCALE);
+    }
+
+    /**
+     * Sends ticks and returns the number of bytes allocated per tick by the current thread.
+     *
+     * @param ticks ticks
+     * @return allocated bytes per tick
+     */
+    private static long getAllocatedBytesPerTick(final LongConsumer ticks) {
+        final com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        final long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        for (long i = 0; i < TICKS; i++) {
+            ticks.accept(i);
+        }
+        return (threadMXBean.getThreadAllocatedBytes(threadId) - start) / TICKS;
+    }
+
+}
@@ -0,0 +1,203 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.Exchange;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.account.Fee;
+import org.knowm.xchange.dto.meta.CurrencyPairMetaData;
+import org.knowm.xchange.dto.meta.ExchangeMetaData;
+import org.knowm.xchange.dto.meta.FeeTier;
+import tech.cassandre.trading.bot.dto.market.CurrencyPairMetaDataDTO;
+import tech.cassandre.trading.bot.dto.market.FeeTierDTO;
+import tech.cassandre.trading.bot.service.ExchangeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.METADATA;
+
+@DisplayName("Exchange service - metadata")
+public class ExchangeServiceMetaDataTest extends BaseTest {
+
+    /** Metadata time to live. */
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    /** Clock. */
+    private final TestClock clock = new TestClock();
+
+    @Test
+    @DisplayName("Metadata is mapped once")
+    public void metaData() {
+        final Exchange exchange = mock(Exchange.class);
+        given(exchange.getExchangeMetaData()).willReturn(getExchangeMetaData(new BigDecimal("0.001")));
+        final ExchangeServiceXChangeImplementation exchangeService = new ExchangeServiceXChangeImplementation(exchange, TTL, clock);
+
+        // Currency pairs.
+        final Set<CurrencyPairDTO> currencyPairs = exchangeService.getAvailableCurrencyPairs();
+        assertEquals(Set.of(new CurrencyPairDTO(BTC, USDT), new CurrencyPairDTO(ETH, BTC)), currencyPairs);
+        assertThrows(UnsupportedOperationException.class, () -> currencyPairs.add(new CurrencyPairDTO(ETH, USDT)));
+
+        // BTC/USDT metadata.
+        final CurrencyPairMetaDataDTO btcUsdt = exchangeService.getCurrencyPairMetaData(new CurrencyPairDTO(BTC, USDT)).orElseThrow();
+        assertEquals(new CurrencyPairDTO(BTC, USDT), btcUsdt.getCurrencyPair());
+        assertEquals(2, btcUsdt.getPriceScale());
+        assertEquals(6, btcUsdt.getBaseScale());
+        assertEquals(0, new BigDecimal("0.001").compareTo(btcUsdt.getMinimumAmount()));
+        assertEquals(0, new BigDecimal("100").compareTo(btcUsdt.getMaximumAmount()));
+        assertEquals(0, new BigDecimal("0.000001").compareTo(btcUsdt.getAmountStepSize()));
+        assertEquals(0, new BigDecimal("0.001").compareTo(btcUsdt.getTradingFee()));
+        assertEquals(List.of(new FeeTierDTO(BigDecimal.ZERO, new BigDecimal("0.001"), new BigDecimal("0.002")),
+                new FeeTierDTO(new BigDecimal("50"), new BigDecimal("0.0005"), new BigDecimal("0.001"))),
+                btcUsdt.getFeeTiers());
+        assertThrows(UnsupportedOperationException.class, () -> btcUsdt.getFeeTiers().clear());
+
+        // ETH/BTC has no metadata on this exchange.
+        final CurrencyPairMetaDataDTO ethBtc = exchangeService.getCurrencyPairMetaData(new CurrencyPairDTO(ETH, BTC)).orElseThrow();
+        assertNull(ethBtc.getMinimumAmount());
+        assertTrue(ethBtc.getFeeTiers().isEmpty());
+
+        // Unknown currency pair.
+        assertTrue(exchangeService.getCurrencyPairMetaData(new CurrencyPairDTO(ETH, USDT)).isEmpty());
+
+        // Lookups don't call the exchange and always return the same snapshot.
+        for (int i = 0; i < 1_000; i++) {
+            assertSame(btcUsdt, exchangeService.getCurrencyPairMetaData(new CurrencyPairDTO(BTC, USDT)).orElseThrow());
+            assertSame(currencyPairs, exchangeService.getAvailableCurrencyPairs());
+        }
+        verify(exchange, times(1)).getExchangeMetaData();
+    }
+
+    @Test
+    @DisplayName("Metadata is refreshed in the background after its time to live")
+    public void refresh() throws IOException {
+        final Exchange exchange = mock(Exchange.class);
+        given(exchange.getExchangeMetaData()).willReturn(getExchangeMetaData(new BigDecimal("0.001")));
+        final RateLimiter rateLimiter = new RateLimiter(1);
+        final ExchangeServiceXChangeImplementation exchangeService = new ExchangeServiceXChangeImplementation(rateLimiter, exchange, TTL, clock);
+        final CurrencyPairDTO btcUsdt = new CurrencyPairDTO(BTC, USDT);
+        assertEquals(0, new BigDecimal("0.001").compareTo(exchangeService.getCurrencyPairMetaData(btcUsdt).orElseThrow().getMinimumAmount()));
+
+        // Not expired.
+        clock.add(TTL.minusSeconds(1));
+        exchangeService.getCurrencyPairMetaData(btcUsdt);
+        verify(exchange, times(0)).remoteInit();
+
+        // Expired : the current snapshot is returned until the new one is loaded.
+        given(exchange.getExchangeMetaData()).willReturn(getExchangeMetaData(new BigDecimal("0.01")));
+        clock.add(Duration.ofSeconds(1));
+        assertTrue(exchangeService.getCurrencyPairMetaData(btcUsdt).isPresent());
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS)
+                .until(() -> new BigDecimal("0.01").compareTo(exchangeService.getCurrencyPairMetaData(btcUsdt).orElseThrow().getMinimumAmount()) == 0);
+        verify(exchange, times(1)).remoteInit();
+
+        // A failed refresh keeps the current snapshot until the next expiry.
+        willThrow(new IOException("Exchange unavailable")).given(exchange).remoteInit();
+        clock.add(TTL);
+        exchangeService.getCurrencyPairMetaData(btcUsdt);
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).untilAsserted(() -> verify(exchange, times(2)).remoteInit());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, new BigDecimal("0.01").compareTo(exchangeService.getCurrencyPairMetaData(btcUsdt).orElseThrow().getMinimumAmount()));
+        }
+        verify(exchange, times(2)).remoteInit();
+
+        // Each refresh waited for the rate limiter.
+        assertEquals(2, rateLimiter.getWaitTimeHistogram(METADATA).getCount());
+    }
+
+    /**
+     * Returns exchange metadata with BTC/USDT (with metadata) and ETH/BTC (without metadata).
+     *
+     * @param minimumAmount BTC/USDT minimum amount
+     * @return exchange metadata
+     */
+    private ExchangeMetaData getExchangeMetaData(final BigDecimal minimumAmount) {
+        final FeeTier[] feeTiers = {
+                new FeeTier(new BigDecimal("50"), new Fee(new BigDecimal("0.0005"), new BigDecimal("0.001"))),
+                new FeeTier(BigDecimal.ZERO, new Fee(new BigDecimal("0.001"), new BigDecimal("0.002")))
+        };
+        final Map<CurrencyPair, CurrencyPairMetaData> currencyPairs = new LinkedHashMap<>();
+        currencyPairs.put(CurrencyPair.BTC_USDT, new CurrencyPairMetaData(new BigDecimal("0.001"),
+                minimumAmount,
+                new BigDecimal("100"),
+                null,
+                null,
+                6,
+                2,
+                feeTiers,
+                new BigDecimal("0.000001"),
+                null,
+                true));
+        currencyPairs.put(CurrencyPair.ETH_BTC, null);
+        return new ExchangeMetaData(currencyPairs, Collections.emptyMap(), null, null, false);
+    }
+
+    /**
+     * Clock moved by the test.
+     */
+    private static final class TestClock extends Clock {
+
+        /** Current time (ms). */
+        private final AtomicLong millis = new AtomicLong(Instant.parse("2020-09-01T00:00:00Z").toEpochMilli());
+
+        /**
+         * Moves the clock forward.
+         *
+         * @param duration duration
+         */
+        private void add(final Duration duration) {
+            millis.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis.get());
+        }
+
+        @Override
+        public long millis() {
+            return millis.get();
+        }
+
+    }
+
+}
@@ -0,0 +1,294 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.EmitterProcessor;
+import reactor.core.publisher.Flux;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.configuration.StrategyAutoConfiguration;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.service.MarketDataSource;
+import tech.cassandre.trading.bot.service.MarketDataSourceInPollingMode;
+import tech.cassandre.trading.bot.service.MarketDataSourceInStreamingMode;
+import tech.cassandre.trading.bot.service.MarketService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Market data source")
+public class MarketDataSourceTest extends BaseTest {
+
+    /** Number of tickers published by the stub exchange. */
+    private static final int NUMBER_OF_TICKERS = 50;
+
+    /** Delay between two tickers published by the stub exchange (ms). */
+    private static final long PUBLICATION_DELAY = 10;
+
+    /** Polling rate used by the scheduler (ms). */
+    private static final long POLLING_RATE = 50;
+
+    /** Requested currency pair. */
+    private final CurrencyPairDTO cp1 = new CurrencyPairDTO(BTC, USDT);
+
+    /** Currency pair not requested. */
+    private final CurrencyPairDTO cp2 = new CurrencyPairDTO(ETH, USDT);
+
+    @Test
+    @DisplayName("Tick-to-strategy latency in polling and streaming mode")
+    public void tickToStrategyLatency() throws Exception {
+        // Polling mode - the scheduler calls update() at the polling rate.
+        final StubExchange pollingExchange = new StubExchange();
+        final TickerFlux pollingTickerFlux = new TickerFlux(pollingExchange.getMarketService());
+        final MarketDataSource pollingSource = new MarketDataSourceInPollingMode(pollingTickerFlux);
+        pollingTickerFlux.getFlux().subscribe(pollingExchange::receive);
+        pollingSource.start(Collections.singleton(cp1));
+        assertTrue(pollingSource.isPolling());
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        scheduler.scheduleAtFixedRate(pollingSource::update, 0, POLLING_RATE, TimeUnit.MILLISECONDS);
+        pollingExchange.publishTickers();
+        scheduler.shutdown();
+        assertTrue(scheduler.awaitTermination(1, TimeUnit.SECONDS));
+        pollingSource.stop();
+
+        // Streaming mode - tickers are pushed by the stub exchange.
+        final StubExchange streamingExchange = new StubExchange();
+        final TickerFlux streamingTickerFlux = new TickerFlux(streamingExchange.getMarketService());
+        final MarketDataSource streamingSource = new MarketDataSourceInStreamingMode(streamingTickerFlux, streamingExchange::stream);
+        streamingTickerFlux.getFlux().subscribe(streamingExchange::receive);
+        streamingSource.start(Collections.singleton(cp1));
+        assertFalse(streamingSource.isPolling());
+        streamingExchange.publishTickers();
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> streamingExchange.getReceptionTimes().size() == NUMBER_OF_TICKERS);
+        streamingSource.stop();
+
+        // Streaming receives every ticker, faster than polling.
+        final double pollingLatency = pollingExchange.getMeanLatency();
+        final double streamingLatency = streamingExchange.getMeanLatency();
+        getLogger().info("Polling : {} tickers received, mean latency {} µs", pollingExchange.getReceptionTimes().size(), pollingLatency);
+        getLogger().info("Streaming : {} tickers received, mean latency {} µs", streamingExchange.getReceptionTimes().size(), streamingLatency);
+        assertTrue(pollingExchange.getReceptionTimes().size() < NUMBER_OF_TICKERS);
+        assertTrue(streamingLatency < pollingLatency);
+        assertTrue(streamingLatency < TimeUnit.MILLISECONDS.toMicros(POLLING_RATE));
+    }
+
+    @Test
+    @DisplayName("Streaming mode filters tickers and reconnects")
+    public void streamingFiltersAndReconnects() {
+        final StubExchange exchange = new StubExchange();
+        final TickerFlux tickerFlux = new TickerFlux(exchange.getMarketService());
+        final AtomicInteger connections = new AtomicInteger();
+        final MarketDataSource source = new MarketDataSourceInStreamingMode(tickerFlux, currencyPairs -> {
+            connections.incrementAndGet();
+            return exchange.stream(currencyPairs);
+        });
+        final List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+        source.start(Collections.singleton(cp1));
+
+        // Duplicated tickers and tickers of not requested currency pairs are ignored.
+        exchange.publish(getTicker(cp1, 1));
+        exchange.publish(getTicker(cp1, 1));
+        exchange.publish(getTicker(cp2, 2));
+        exchange.publish(getTicker(cp1, 3));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 2);
+        assertEquals(cp1, received.get(0).getCurrencyPair());
+        assertEquals(cp1, received.get(1).getCurrencyPair());
+
+        // The source reconnects if the stream fails.
+        exchange.fail();
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(MarketDataSourceInStreamingMode.RECONNECTION_DELAY.multipliedBy(5).toMillis(), TimeUnit.MILLISECONDS)
+                .until(() -> connections.get() == 2);
+        exchange.publish(getTicker(cp1, 4));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 3);
+
+        // The source also reconnects if the exchange closes the stream.
+        exchange.close();
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(MarketDataSourceInStreamingMode.RECONNECTION_DELAY.multipliedBy(5).toMillis(), TimeUnit.MILLISECONDS)
+                .until(() -> connections.get() == 3);
+        exchange.publish(getTicker(cp1, 5));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 4);
+
+        // Nothing is received once stopped.
+        source.stop();
+        exchange.publish(getTicker(cp1, 6));
+        assertEquals(4, received.size());
+    }
+
+    @Test
+    @DisplayName("Streaming mode stops with the strategies")
+    public void streamingStopsWithStrategies() {
+        final StubExchange exchange = new StubExchange();
+        final TickerFlux tickerFlux = new TickerFlux(exchange.getMarketService());
+        final MarketDataSource source = new MarketDataSourceInStreamingMode(tickerFlux, exchange::stream);
+        final List<TickerDTO> received = new CopyOnWriteArrayList<>();
+        tickerFlux.getFlux().subscribe(received::add);
+        source.start(Collections.singleton(cp1));
+        exchange.publish(getTicker(cp1, 1));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> received.size() == 1);
+
+        // Shutting down the strategies stops the stream.
+        final StrategyAutoConfiguration strategyAutoConfiguration = new StrategyAutoConfiguration(null,
+                null, null, source, null, tickerFlux, null, null, null, null, null, null, null);
+        strategyAutoConfiguration.shutdown();
+        exchange.publish(getTicker(cp1, 2));
+        assertEquals(1, received.size());
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param cp        currency pair
+     * @param timestamp timestamp
+     * @return ticker
+     */
+    private static TickerDTO getTicker(final CurrencyPairDTO cp, final long timestamp) {
+        return TickerDTO.builder()
+                .currencyPair(cp)
+                .timestamp(new Date(timestamp))
+                .create();
+    }
+
+    /**
+     * In-process stub exchange : publishes tickers in a stream and through a market service.
+     */
+    private final class StubExchange {
+
+        /** Exchange stream. */
+        private EmitterProcessor<TickerDTO> stream = EmitterProcessor.create(false);
+
+        /** Last published ticker. */
+        private final AtomicReference<TickerDTO> lastTicker = new AtomicReference<>();
+
+        /** Publication time of each ticker (ns). */
+        private final Map<Long, Long> publicationTimes = new ConcurrentHashMap<>();
+
+        /** Reception time of each ticker received by the strategy (ns). */
+        private final Map<Long, Long> receptionTimes = new ConcurrentSkipListMap<>();
+
+        /**
+         * Returns the exchange stream.
+         *
+         * @param currencyPairs requested currency pairs
+         * @return stream
+         */
+        private synchronized Flux<TickerDTO> stream(final Set<CurrencyPairDTO> currencyPairs) {
+            return stream;
+        }
+
+        /**
+         * Returns a market service answering the last published ticker.
+         *
+         * @return market service
+         */
+        private MarketService getMarketService() {
+            MarketService marketService = mock(MarketService.class);
+            when(marketService.getTicker(any())).thenAnswer(invocation -> Optional.ofNullable(lastTicker.get()));
+            return marketService;
+        }
+
+        /**
+         * Publishes a ticker.
+         *
+         * @param ticker ticker
+         */
+        private synchronized void publish(final TickerDTO ticker) {
+            publicationTimes.put(ticker.getTimestamp().toInstant().toEpochMilli(), System.nanoTime());
+            lastTicker.set(ticker);
+            stream.onNext(ticker);
+        }
+
+        /**
+         * Publishes tickers at the publication rate.
+         *
+         * @throws InterruptedException exception
+         */
+        private void publishTickers() throws InterruptedException {
+            for (int i = 1; i <= NUMBER_OF_TICKERS; i++) {
+                publish(getTicker(cp1, i));
+                Thread.sleep(PUBLICATION_DELAY);
+            }
+        }
+
+        /**
+         * Closes the stream with an error and opens a new one.
+         */
+        private synchronized void fail() {
+            final EmitterProcessor<TickerDTO> failedStream = stream;
+            stream = EmitterProcessor.create(false);
+            failedStream.onError(new IllegalStateException("Connection lost"));
+        }
+
+        /**
+         * Closes the stream normally and opens a new one.
+         */
+        private synchronized void close() {
+            final EmitterProcessor<TickerDTO> closedStream = stream;
+            stream = EmitterProcessor.create(false);
+            closedStream.onComplete();
+        }
+
+        /**
+         * Records the reception of a ticker by the strategy.
+         *
+         * @param ticker ticker
+         */
+        private void receive(final TickerDTO ticker) {
+            receptionTimes.put(ticker.getTimestamp().toInstant().toEpochMilli(), System.nanoTime());
+        }
+
+        /**
+         * Getter for receptionTimes.
+         *
+         * @return receptionTimes
+         */
+        private Map<Long, Long> getReceptionTimes() {
+            return receptionTimes;
+        }
+
+        /**
+         * Returns the mean tick-to-strategy latency : for every published ticker, the time until the strategy
+         * receives it or a more recent one.
+         *
+         * @return latency (µs)
+         */
+        private double getMeanLatency() {
+            final NavigableMap<Long, Long> received = new TreeMap<>(receptionTimes);
+            return publicationTimes.entrySet()
+                    .stream()
+                    .filter(publication -> received.ceilingEntry(publication.getKey()) != null)
+                    .mapToLong(publication -> received.ceilingEntry(publication.getKey()).getValue() - publication.getValue())
+                    .map(TimeUnit.NANOSECONDS::toMicros)
+                    .average()
+                    .orElse(Double.MAX_VALUE);
+        }
+
+    }
+
+}
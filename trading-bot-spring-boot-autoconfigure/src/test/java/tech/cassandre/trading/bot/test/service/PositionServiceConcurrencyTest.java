@@ -0,0 +1,204 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Position service - concurrency")
+public class PositionServiceConcurrencyTest extends BaseTest {
+
+    /** Number of threads creating positions. */
+    private static final int CREATOR_THREADS = 4;
+
+    /** Number of positions created by each thread. */
+    private static final int POSITIONS_PER_THREAD = 500;
+
+    /** Number of threads sending tickers. */
+    private static final int TICKER_THREADS = 4;
+
+    /** Number of threads sending trades. */
+    private static final int TRADE_THREADS = 4;
+
+    /** Maximum delay between an order creation and its trade (ms). */
+    private static final int TRADE_DELAY = 2;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = new CurrencyPairDTO(BTC, USDT);
+
+    @Test
+    @DisplayName("Strategy, ticker and trade threads update positions in parallel")
+    public void parallelUpdates() throws Exception {
+        final int numberOfPositions = CREATOR_THREADS * POSITIONS_PER_THREAD;
+        final List<Throwable> errors = new CopyOnWriteArrayList<>();
+
+        // Exchange : every trade is sent twice by the trade threads, sometimes before the order creation returns.
+        final ScheduledExecutorService tradeThreads = Executors.newScheduledThreadPool(TRADE_THREADS);
+        final AtomicInteger orders = new AtomicInteger();
+        final Set<String> sellOrders = ConcurrentHashMap.newKeySet();
+        final PositionServiceImplementation[] positionService = new PositionServiceImplementation[1];
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> {
+            final String orderId = "O" + orders.incrementAndGet();
+            sendTrade(tradeThreads, positionService[0], getTrade(orderId, "100"), errors);
+            return new OrderCreationResultDTO(orderId);
+        });
+        when(tradeService.createSellMarketOrder(any(), any())).thenAnswer(invocation -> {
+            final String orderId = "C" + orders.incrementAndGet();
+            sellOrders.add(orderId);
+            sendTrade(tradeThreads, positionService[0], getTrade(orderId, "110"), errors);
+            return new OrderCreationResultDTO(orderId);
+        });
+        when(tradeService.createSellMarketOrderAsync(any(), any())).thenAnswer(invocation -> Mono.fromCallable(() -> tradeService.createSellMarketOrder(invocation.getArgument(0), invocation.getArgument(1))));
+        positionService[0] = new PositionServiceImplementation(tradeService);
+
+        // Ticker threads : prices cross the stop gain and the stop loss of every position until the end of the test.
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final ExecutorService tickerThreads = Executors.newFixedThreadPool(TICKER_THREADS);
+        for (int i = 0; i < TICKER_THREADS; i++) {
+            final boolean stopGain = i % 2 == 0;
+            tickerThreads.submit(() -> {
+                try {
+                    while (running.get()) {
+                        positionService[0].tickerUpdate(getTicker(stopGain));
+                        positionService[0].getPositions().forEach(PositionDTO::getGain);
+                        Thread.sleep(1);
+                    }
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            });
+        }
+
+        // Strategy threads : creating positions opened at 100, with a stop gain and a stop loss at 10%.
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService creatorThreads = Executors.newFixedThreadPool(CREATOR_THREADS);
+        for (int i = 0; i < CREATOR_THREADS; i++) {
+            creatorThreads.submit(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < POSITIONS_PER_THREAD; j++) {
+                        final PositionCreationResultDTO result = positionService[0].createPosition(cp,
+                                BigDecimal.ONE,
+                                PositionRulesDTO.builder().stopGainPercentage(10).stopLossPercentage(10).create());
+                        assertTrue(result.isSuccessful());
+                    }
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            });
+        }
+        start.countDown();
+
+        // Every position is opened then closed exactly once.
+        try {
+            await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(30, TimeUnit.SECONDS).until(() ->
+                    positionService[0].getPositions().size() == numberOfPositions
+                            && positionService[0].getPositions().stream().allMatch(p -> p.getStatus() == CLOSED));
+        } finally {
+            running.set(false);
+            creatorThreads.shutdown();
+            tickerThreads.shutdown();
+            tradeThreads.shutdown();
+        }
+        assertTrue(tickerThreads.awaitTermination(5, TimeUnit.SECONDS));
+        assertTrue(errors.isEmpty(), () -> "Errors : " + errors);
+        assertEquals(numberOfPositions, sellOrders.size());
+        positionService[0].getPositions().forEach(p -> {
+            assertTrue(sellOrders.contains(p.getCloseOrderId()));
+            assertEquals(new BigDecimal("100"), p.getOpenTrade().getPrice());
+            assertEquals(new BigDecimal("110"), p.getCloseTrade().getPrice());
+        });
+        getLogger().info("{} positions opened and closed by {} strategy threads, {} ticker threads and {} trade threads",
+                numberOfPositions, CREATOR_THREADS, TICKER_THREADS, TRADE_THREADS);
+    }
+
+    /**
+     * Sends a trade twice to the position service, after a random delay.
+     *
+     * @param tradeThreads    trade threads
+     * @param positionService position service
+     * @param trade           trade
+     * @param errors          errors
+     */
+    private static void sendTrade(final ScheduledExecutorService tradeThreads,
+                                  final PositionServiceImplementation positionService,
+                                  final TradeDTO trade,
+                                  final List<Throwable> errors) {
+        for (int i = 0; i < 2; i++) {
+            tradeThreads.schedule(() -> {
+                try {
+                    positionService.tradeUpdate(trade);
+                } catch (Throwable t) {
+                    errors.add(t);
+                }
+            }, ThreadLocalRandom.current().nextInt(TRADE_DELAY + 1), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param orderId order id
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String orderId, final String price) {
+        return TradeDTO.builder()
+                .id("T" + orderId)
+                .orderId(orderId)
+                .type(OrderTypeDTO.BID)
+                .currencyPair(cp)
+                .originalAmount(BigDecimal.ONE)
+                .price(new BigDecimal(price))
+                .create();
+    }
+
+    /**
+     * Returns a ticker crossing the stop gain or the stop loss.
+     *
+     * @param stopGain true to cross the stop gain
+     * @return ticker
+     */
+    private TickerDTO getTicker(final boolean stopGain) {
+        if (stopGain) {
+            return TickerDTO.builder().currencyPair(cp).ask(new BigDecimal("120")).create();
+        }
+        return TickerDTO.builder().currencyPair(cp).ask(new BigDecimal("80")).create();
+    }
+
+}
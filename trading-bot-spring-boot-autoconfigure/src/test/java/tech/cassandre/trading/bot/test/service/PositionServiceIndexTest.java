@@ -0,0 +1,210 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.CurrencyPairMetaDataDTO;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionCreationResultDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.CompactTickerConverter;
+import tech.cassandre.trading.bot.service.ExchangeService;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Position service - indexes")
+public class PositionServiceIndexTest extends BaseTest {
+
+    /** Number of archived positions. */
+    private static final int ARCHIVED_POSITIONS = 10_000;
+
+    /** Number of ticks and trades measured. */
+    private static final int MEASURES = 1_000;
+
+    /** Currency pair 1. */
+    private final CurrencyPairDTO cp1 = new CurrencyPairDTO(ETH, BTC);
+
+    /** Currency pair 2. */
+    private final CurrencyPairDTO cp2 = new CurrencyPairDTO(BTC, USDT);
+
+    /** Open order counter. */
+    private final AtomicInteger openOrders = new AtomicInteger();
+
+    /** Close order counter. */
+    private final AtomicInteger closeOrders = new AtomicInteger();
+
+    @Test
+    @DisplayName("Ticks and trades only touch the positions concerned")
+    public void indexedPositions() {
+        final TradeService tradeService = getTradeService();
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10).create();
+
+        // Thousands of positions opened and closed.
+        for (int i = 0; i < ARCHIVED_POSITIONS; i++) {
+            final PositionCreationResultDTO result = positionService.createPosition(cp1, BigDecimal.ONE, rules);
+            positionService.tradeUpdate(getTrade(result.getOrderId(), cp1, "1"));
+            positionService.tickerUpdate(getTicker(cp1, "2"));
+            positionService.tradeUpdate(getTrade("C" + closeOrders.get(), cp1, "2"));
+            assertEquals(CLOSED, positionService.getPositionById(result.getPositionId()).orElseThrow().getStatus());
+        }
+
+        // An opening position on cp1, an opened position on cp1 and on cp2.
+        final long opening = positionService.createPosition(cp1, BigDecimal.ONE, rules).getPositionId();
+        final PositionCreationResultDTO opened1 = positionService.createPosition(cp1, BigDecimal.ONE, rules);
+        positionService.tradeUpdate(getTrade(opened1.getOrderId(), cp1, "1"));
+        final PositionCreationResultDTO opened2 = positionService.createPosition(cp2, BigDecimal.ONE, rules);
+        positionService.tradeUpdate(getTrade(opened2.getOrderId(), cp2, "1"));
+        assertEquals(ARCHIVED_POSITIONS + 3, positionService.getPositions().size());
+
+        // Ticks below the stop gain and trades of unknown orders don't cost more than the open positions.
+        final long start = System.nanoTime();
+        for (int i = 0; i < MEASURES; i++) {
+            positionService.tickerUpdate(getTicker(cp1, "1"));
+            positionService.tradeUpdate(getTrade("UNKNOWN", cp1, "1"));
+        }
+        getLogger().info("Average tick and trade duration with {} archived positions : {} µs",
+                ARCHIVED_POSITIONS,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start) / MEASURES);
+
+        // A tick on cp2 only closes the position on cp2.
+        positionService.tickerUpdate(getTicker(cp2, "2"));
+        assertEquals(OPENING, positionService.getPositionById(opening).orElseThrow().getStatus());
+        assertEquals(OPENED, positionService.getPositionById(opened1.getPositionId()).orElseThrow().getStatus());
+        assertEquals(CLOSING, positionService.getPositionById(opened2.getPositionId()).orElseThrow().getStatus());
+        verify(tradeService, times(1)).createSellMarketOrder(eq(cp2), any());
+
+        // A closing position is not closed twice, and its close trade archives it.
+        positionService.tickerUpdate(getTicker(cp2, "3"));
+        verify(tradeService, times(1)).createSellMarketOrder(eq(cp2), any());
+        positionService.tradeUpdate(getTrade("C" + closeOrders.get(), cp2, "2"));
+        assertEquals(CLOSED, positionService.getPositionById(opened2.getPositionId()).orElseThrow().getStatus());
+        assertEquals(ARCHIVED_POSITIONS + 3, positionService.getPositions().size());
+    }
+
+    @Test
+    @DisplayName("Tickers with values out of range are ignored")
+    public void outOfRangeTickers() {
+        final TradeService tradeService = getTradeService();
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        final PositionCreationResultDTO result = positionService.createPosition(cp1, BigDecimal.ONE, PositionRulesDTO.builder().stopGainPercentage(10).create());
+        positionService.tradeUpdate(getTrade(result.getOrderId(), cp1, "1"));
+
+        // An ask price out of range is ignored, an auxiliary value out of range doesn't prevent the position from closing.
+        positionService.tickerUpdate(getTicker(cp1, "1E20"));
+        assertEquals(OPENED, positionService.getPositionById(result.getPositionId()).orElseThrow().getStatus());
+        positionService.tickerUpdate(TickerDTO.builder()
+                .currencyPair(cp1)
+                .ask(new BigDecimal("2"))
+                .volume(new BigDecimal("1E20"))
+                .create());
+        assertEquals(CLOSING, positionService.getPositionById(result.getPositionId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Ask prices with more decimals than the price scale are not rounded to a trigger")
+    public void offScaleTickers() {
+        // Prices of cp2 with 2 decimals.
+        final ExchangeService exchangeService = mock(ExchangeService.class);
+        when(exchangeService.getCurrencyPairMetaData(cp2)).thenReturn(Optional.of(CurrencyPairMetaDataDTO.builder()
+                .currencyPair(cp2)
+                .priceScale(2)
+                .baseScale(2)
+                .create()));
+        final TradeService tradeService = getTradeService();
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService, new CompactTickerConverter(exchangeService));
+
+        // Positions opened at 100 : one with a stop gain at 105, one with a stop loss at 95.
+        final PositionCreationResultDTO gain = positionService.createPosition(cp2, BigDecimal.ONE, PositionRulesDTO.builder().stopGainPercentage(5).create());
+        positionService.tradeUpdate(getTrade(gain.getOrderId(), cp2, "100"));
+        final PositionCreationResultDTO loss = positionService.createPosition(cp2, BigDecimal.ONE, PositionRulesDTO.builder().stopLossPercentage(5).create());
+        positionService.tradeUpdate(getTrade(loss.getOrderId(), cp2, "100"));
+
+        // Just below the stop gain and just above the stop loss : 105.00 and 95.00 once rounded, but not crossed.
+        positionService.tickerUpdate(getTicker(cp2, "104.996"));
+        positionService.tickerUpdate(getTicker(cp2, "95.004"));
+        assertEquals(OPENED, positionService.getPositionById(gain.getPositionId()).orElseThrow().getStatus());
+        assertEquals(OPENED, positionService.getPositionById(loss.getPositionId()).orElseThrow().getStatus());
+        verify(tradeService, times(0)).createSellMarketOrder(eq(cp2), any());
+
+        // Just above the stop gain and just below the stop loss : 105.00 and 95.00 once rounded, crossed.
+        positionService.tickerUpdate(getTicker(cp2, "105.001"));
+        assertEquals(CLOSING, positionService.getPositionById(gain.getPositionId()).orElseThrow().getStatus());
+        assertEquals(OPENED, positionService.getPositionById(loss.getPositionId()).orElseThrow().getStatus());
+        positionService.tickerUpdate(getTicker(cp2, "94.999"));
+        assertEquals(CLOSING, positionService.getPositionById(loss.getPositionId()).orElseThrow().getStatus());
+        verify(tradeService, times(2)).createSellMarketOrder(eq(cp2), any());
+    }
+
+    /**
+     * Returns a trade service creating orders O1, O2... and C1, C2...
+     *
+     * @return trade service
+     */
+    private TradeService getTradeService() {
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("O" + openOrders.incrementAndGet()));
+        when(tradeService.createSellMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("C" + closeOrders.incrementAndGet()));
+        when(tradeService.createSellMarketOrderAsync(any(), any())).thenAnswer(invocation -> Mono.fromCallable(() -> tradeService.createSellMarketOrder(invocation.getArgument(0), invocation.getArgument(1))));
+        return tradeService;
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param orderId order id
+     * @param cp      currency pair
+     * @param price   price
+     * @return trade
+     */
+    private static TradeDTO getTrade(final String orderId, final CurrencyPairDTO cp, final String price) {
+        return TradeDTO.builder()
+                .id("T" + orderId)
+                .orderId(orderId)
+                .type(OrderTypeDTO.BID)
+                .currencyPair(cp)
+                .originalAmount(BigDecimal.ONE)
+                .price(new BigDecimal(price))
+                .create();
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param cp  currency pair
+     * @param ask ask price
+     * @return ticker
+     */
+    private static TickerDTO getTicker(final CurrencyPairDTO cp, final String ask) {
+        return TickerDTO.builder()
+                .currencyPair(cp)
+                .ask(new BigDecimal(ask))
+                .create();
+    }
+
+}
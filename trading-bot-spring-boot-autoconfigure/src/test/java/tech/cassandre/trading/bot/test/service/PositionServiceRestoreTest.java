@@ -0,0 +1,156 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PersistenceService;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENING;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+
+@DisplayName("Position service - restore")
+public class PositionServiceRestoreTest extends BaseTest {
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = CurrencyPairDTO.getInstance(ETH, BTC);
+
+    /** Rules. */
+    private final PositionRulesDTO rules = PositionRulesDTO.builder().stopGainPercentage(10).create();
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Positions restored and reconciled with the open orders")
+    public void restoreAndReconcile() {
+        // Before the restart, five positions are stored.
+        final PersistenceService persistenceService = new PersistenceService(directory, 100, 10);
+        // Position 1 - opening, its order is still open.
+        persistenceService.positionUpdate(new PositionDTO(1, "O1", rules));
+        // Position 2 - opening, its order was filled (the trade was stored, not the position).
+        persistenceService.positionUpdate(new PositionDTO(2, "O2", rules));
+        persistenceService.tradeUpdate(getTrade("O2", "1"));
+        // Position 3 - opened.
+        final PositionDTO position3 = new PositionDTO(3, "O3", rules);
+        position3.tradeUpdate(getTrade("O3", "1"));
+        persistenceService.tradeUpdate(getTrade("O3", "1"));
+        persistenceService.positionUpdate(position3);
+        // Position 4 - closing, its order was filled (the trade was stored, not the position).
+        final PositionDTO position4 = new PositionDTO(4, "O4", rules);
+        position4.tradeUpdate(getTrade("O4", "1"));
+        position4.setCloseOrderId("C4");
+        persistenceService.tradeUpdate(getTrade("O4", "1"));
+        persistenceService.tradeUpdate(getTrade("C4", "2"));
+        persistenceService.positionUpdate(position4);
+        // Position 5 - closed.
+        final PositionDTO position5 = new PositionDTO(5, "O5", rules);
+        position5.tradeUpdate(getTrade("O5", "1"));
+        position5.setCloseOrderId("C5");
+        position5.tradeUpdate(getTrade("C5", "2"));
+        persistenceService.tradeUpdate(getTrade("O5", "1"));
+        persistenceService.tradeUpdate(getTrade("C5", "2"));
+        persistenceService.positionUpdate(position5);
+        persistenceService.close(TEN_SECONDS);
+
+        // After the restart, only O1 is still open.
+        final TradeService tradeService = mock(TradeService.class);
+        final OrderDTO openOrder = OrderDTO.builder().id("O1").type(OrderTypeDTO.BID).currencyPair(cp).create();
+        when(tradeService.getOpenOrders()).thenReturn(Set.of(openOrder));
+        when(tradeService.createSellMarketOrder(any(), any())).thenReturn(new OrderCreationResultDTO("C3"));
+        when(tradeService.createSellMarketOrderAsync(any(), any())).thenReturn(Mono.just(new OrderCreationResultDTO("C3")));
+        when(tradeService.createBuyMarketOrder(any(), any())).thenReturn(new OrderCreationResultDTO("O6"));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        final List<PositionDTO> updatedPositions = new ArrayList<>();
+        positionService.addPositionListener(updatedPositions::add);
+
+        final PersistenceService restartedPersistenceService = new PersistenceService(directory, 100, 10);
+        final List<PositionDTO> restoredPositions = restartedPersistenceService.loadPositions();
+        positionService.restorePositions(restoredPositions, restartedPersistenceService.loadTradesByOrderId(restoredPositions), restartedPersistenceService);
+        restartedPersistenceService.close(TEN_SECONDS);
+
+        // Positions 2 and 4 updated with their stored trades, position 5 read from the archive.
+        assertEquals(4, restoredPositions.size());
+        assertEquals(5, positionService.getPositions().size());
+        assertEquals(OPENING, positionService.getPositionById(1).orElseThrow().getStatus());
+        assertEquals(OPENED, positionService.getPositionById(2).orElseThrow().getStatus());
+        assertEquals(OPENED, positionService.getPositionById(3).orElseThrow().getStatus());
+        assertEquals(CLOSED, positionService.getPositionById(4).orElseThrow().getStatus());
+        assertEquals(CLOSED, positionService.getPositionById(5).orElseThrow().getStatus());
+        assertEquals(2, updatedPositions.size());
+        assertEquals(new BigDecimal("2"), positionService.getPositionById(4).orElseThrow().getCloseTrade().getPrice());
+
+        // The restored positions work as usual : the trade of O1 opens position 1, a tick closes position 3.
+        positionService.tradeUpdate(getTrade("O1", "1"));
+        assertEquals(OPENED, positionService.getPositionById(1).orElseThrow().getStatus());
+        positionService.tickerUpdate(TickerDTO.builder().currencyPair(cp).ask(new BigDecimal("2")).create());
+        assertEquals(CLOSING, positionService.getPositionById(3).orElseThrow().getStatus());
+
+        // New positions get new ids.
+        assertTrue(positionService.createPosition(cp, BigDecimal.ONE, rules).getPositionId() > 5);
+    }
+
+    @Test
+    @DisplayName("Positions restored without reconciliation when open orders are not available")
+    public void restoreWithoutOpenOrders() {
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.getOpenOrders()).thenThrow(new IllegalStateException("Exchange not available"));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+
+        final PositionDTO position = new PositionDTO(1, "O1", rules);
+        positionService.restorePositions(List.of(position), Map.of("O1", getTrade("O1", "1")));
+        assertEquals(OPENING, positionService.getPositionById(1).orElseThrow().getStatus());
+
+        // The trade arriving later still opens the position.
+        positionService.tradeUpdate(getTrade("O1", "1"));
+        assertEquals(OPENED, positionService.getPositionById(1).orElseThrow().getStatus());
+    }
+
+    /**
+     * Returns a trade.
+     *
+     * @param orderId order id
+     * @param price   price
+     * @return trade
+     */
+    private TradeDTO getTrade(final String orderId, final String price) {
+        return TradeDTO.builder()
+                .id("T" + orderId)
+                .orderId(orderId)
+                .type(OrderTypeDTO.BID)
+                .currencyPair(cp)
+                .originalAmount(BigDecimal.ONE)
+                .price(new BigDecimal(price))
+                .feeAmount(new BigDecimal("0.01"))
+                .feeCurrency(BTC)
+                .create();
+    }
+
+}
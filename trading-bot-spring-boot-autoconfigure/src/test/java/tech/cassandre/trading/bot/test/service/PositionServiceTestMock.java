@@ -3,6 +3,7 @@ package tech.cassandre.trading.bot.test.service;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import reactor.core.publisher.Mono;
 import tech.cassandre.trading.bot.batch.AccountFlux;
 import tech.cassandre.trading.bot.batch.OrderFlux;
 import tech.cassandre.trading.bot.batch.TickerFlux;
@@ -80,6 +81,8 @@ public class PositionServiceTestMock {
         // Position 1 closed reply (ORDER00011).
         given(service.createSellMarketOrder(PositionServiceTest.cp1, new BigDecimal("0.0001")))
                 .willReturn(new OrderCreationResultDTO("ORDER00011"));
+        given(service.createSellMarketOrderAsync(PositionServiceTest.cp1, new BigDecimal("0.0001")))
+                .willReturn(Mono.just(new OrderCreationResultDTO("ORDER00011")));
 
         return service;
     }
@@ -0,0 +1,137 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.OPENED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Position service - stop trigger index")
+public class PositionTriggerIndexTest extends BaseTest {
+
+    /** Number of opened positions. */
+    private static final int OPENED_POSITIONS = 10_000;
+
+    /** Number of ticks measured. */
+    private static final int TICKS = 1_000;
+
+    /** Open price. */
+    private static final BigDecimal OPEN_PRICE = new BigDecimal("100");
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = new CurrencyPairDTO(BTC, USDT);
+
+    @Test
+    @DisplayName("Ticks only touch the positions whose trigger is crossed")
+    public void triggeredPositions() {
+        // 10 000 positions opened at 100, with stop gains from 1% to 50% and stop losses from 1% to 40%.
+        final AtomicInteger orders = new AtomicInteger();
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("O" + orders.incrementAndGet()));
+        when(tradeService.createSellMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("C" + orders.incrementAndGet()));
+        when(tradeService.createSellMarketOrderAsync(any(), any())).thenAnswer(invocation -> Mono.fromCallable(() -> tradeService.createSellMarketOrder(invocation.getArgument(0), invocation.getArgument(1))));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        for (int i = 0; i < OPENED_POSITIONS; i++) {
+            final PositionRulesDTO rules = PositionRulesDTO.builder()
+                    .stopGainPercentage(1 + i % 50)
+                    .stopLossPercentage(1 + i % 40)
+                    .create();
+            final String orderId = positionService.createPosition(cp, BigDecimal.ONE, rules).getOrderId();
+            positionService.tradeUpdate(TradeDTO.builder()
+                    .id("T" + orderId)
+                    .orderId(orderId)
+                    .type(OrderTypeDTO.BID)
+                    .currencyPair(cp)
+                    .originalAmount(BigDecimal.ONE)
+                    .price(OPEN_PRICE)
+                    .create());
+        }
+        final Set<PositionDTO> positions = positionService.getPositions();
+        assertTrue(positions.stream().allMatch(p -> p.getStatus() == OPENED));
+
+        // Ticks between the triggers : a full scan computes the gain of every position, the index touches none.
+        final TickerDTO ticker = getTicker("100.5");
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            assertEquals(0, positions.stream().filter(p -> getGain(p, ticker) >= 1 || getGain(p, ticker) <= -1).count());
+        }
+        final long scanDuration = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            positionService.tickerUpdate(ticker);
+        }
+        final long indexDuration = System.nanoTime() - start;
+        getLogger().info("Average tick duration with {} opened positions - full scan : {} µs, trigger index : {} µs",
+                OPENED_POSITIONS,
+                TimeUnit.NANOSECONDS.toMicros(scanDuration / TICKS),
+                TimeUnit.NANOSECONDS.toMicros(indexDuration / TICKS));
+        assertTrue(indexDuration < scanDuration / 10);
+        assertTrue(positions.stream().allMatch(p -> p.getStatus() == OPENED));
+
+        // Price going up to 105 : the positions with a stop gain up to 5% are closed, and only them.
+        final Set<Long> expected = positions.stream().filter(p -> p.shouldBeClosed(getTicker("105"))).map(PositionDTO::getId).collect(Collectors.toSet());
+        positionService.tickerUpdate(getTicker("105"));
+        assertEquals(OPENED_POSITIONS / 50 * 5, expected.size());
+        assertEquals(expected, positionService.getPositions().stream().filter(p -> p.getStatus() == CLOSING).map(PositionDTO::getId).collect(Collectors.toSet()));
+
+        // Price going down to 97 : the positions with a stop loss up to 3% are closed, unless already closing.
+        final Set<Long> closing = positionService.getPositions().stream()
+                .filter(p -> p.getStatus() == CLOSING || p.shouldBeClosed(getTicker("97")))
+                .map(PositionDTO::getId)
+                .collect(Collectors.toSet());
+        positionService.tickerUpdate(getTicker("97"));
+        assertEquals(closing, positionService.getPositions().stream().filter(p -> p.getStatus() == CLOSING).map(PositionDTO::getId).collect(Collectors.toSet()));
+    }
+
+    /**
+     * Returns the gain percentage of a position as it was computed on each tick before the trigger index.
+     *
+     * @param p      position
+     * @param ticker ticker
+     * @return gain percentage
+     */
+    private static float getGain(final PositionDTO p, final TickerDTO ticker) {
+        return (ticker.getAsk().subtract(p.getOpenTrade().getPrice()))
+                .divide(p.getOpenTrade().getPrice(), 4, RoundingMode.FLOOR)
+                .floatValue() * 100;
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param ask ask price
+     * @return ticker
+     */
+    private TickerDTO getTicker(final String ask) {
+        return TickerDTO.builder()
+                .currencyPair(cp)
+                .ask(new BigDecimal(ask))
+                .create();
+    }
+
+}
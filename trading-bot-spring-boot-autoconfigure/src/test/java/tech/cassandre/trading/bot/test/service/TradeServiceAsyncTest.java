@@ -0,0 +1,158 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.dto.Order;
+import org.knowm.xchange.dto.trade.LimitOrder;
+import org.knowm.xchange.dto.trade.MarketOrder;
+import org.knowm.xchange.service.trade.TradeService;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderTypeDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSING;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Trade service - asynchronous orders")
+public class TradeServiceAsyncTest extends BaseTest {
+
+    /** Number of positions stopped by the same ticker. */
+    private static final int SIMULTANEOUS_STOPS = 10;
+
+    /** Exchange latency to create a sell order (ms). */
+    private static final long EXCHANGE_LATENCY = 100;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = new CurrencyPairDTO(BTC, USDT);
+
+    /** Duration of the last ticker update (ms). */
+    private long tickerUpdateDuration;
+
+    @Test
+    @DisplayName("Stop loss exits fire in parallel")
+    public void parallelExits() throws Exception {
+        // Warm up (class loading and I/O threads creation).
+        getExitLatency(SIMULTANEOUS_STOPS);
+
+        // Blocking orders : the exit latency grows with the number of stops.
+        final TradeServiceXChangeImplementation blockingTradeService = getTradeService();
+        long start = System.nanoTime();
+        for (int i = 0; i < SIMULTANEOUS_STOPS; i++) {
+            assertTrue(blockingTradeService.createSellMarketOrder(cp, BigDecimal.ONE).isSuccessful());
+        }
+        final long blockingExitLatency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // Asynchronous orders : the stops are sent at the same time.
+        final long asynchronousExitLatency = getExitLatency(SIMULTANEOUS_STOPS);
+        // The ticker thread doesn't wait for the exchange.
+        assertTrue(tickerUpdateDuration < EXCHANGE_LATENCY);
+
+        // Asynchronous orders with a concurrency of 1 : one stop at a time again.
+        final long serializedExitLatency = getExitLatency(1);
+
+        getLogger().info("Exit latency for {} simultaneous stops - blocking : {} ms, asynchronous : {} ms, asynchronous with a concurrency of 1 : {} ms",
+                SIMULTANEOUS_STOPS, blockingExitLatency, asynchronousExitLatency, serializedExitLatency);
+        assertTrue(blockingExitLatency >= SIMULTANEOUS_STOPS * EXCHANGE_LATENCY);
+        assertTrue(asynchronousExitLatency < SIMULTANEOUS_STOPS * EXCHANGE_LATENCY / 2);
+        assertTrue(serializedExitLatency >= SIMULTANEOUS_STOPS * EXCHANGE_LATENCY);
+    }
+
+    @Test
+    @DisplayName("Asynchronous orders and cancellations")
+    public void asynchronousOrders() {
+        final TradeServiceXChangeImplementation tradeService = getTradeService();
+
+        // The call returns at once, the order is sent when subscribed.
+        final long start = System.nanoTime();
+        final List<CompletableFuture<OrderCreationResultDTO>> orders = IntStream.range(0, SIMULTANEOUS_STOPS)
+                .mapToObj(i -> tradeService.createSellMarketOrderAsync(cp, BigDecimal.ONE).toFuture())
+                .collect(Collectors.toList());
+        final List<OrderCreationResultDTO> results = orders.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < SIMULTANEOUS_STOPS * EXCHANGE_LATENCY / 2);
+        assertEquals(SIMULTANEOUS_STOPS, results.stream().filter(OrderCreationResultDTO::isSuccessful).map(OrderCreationResultDTO::getOrderId).distinct().count());
+
+        // Exchange errors are returned as results.
+        final OrderCreationResultDTO error = tradeService.createBuyLimitOrderAsync(cp, BigDecimal.ONE, BigDecimal.ONE).block();
+        assertTrue(error != null && !error.isSuccessful());
+        assertEquals(Boolean.FALSE, tradeService.cancelOrderAsync("UNKNOWN").block());
+    }
+
+    /**
+     * Opens positions, sends a ticker crossing their stop loss and returns the time needed to close them all.
+     *
+     * @param concurrency order concurrency
+     * @return exit latency (ms)
+     */
+    private long getExitLatency(final int concurrency) {
+        final TradeServiceXChangeImplementation tradeService = getTradeService();
+        tradeService.setOrderConcurrency(concurrency);
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        for (int i = 0; i < SIMULTANEOUS_STOPS; i++) {
+            final String orderId = positionService.createPosition(cp, BigDecimal.ONE, PositionRulesDTO.builder().stopLossPercentage(10).create()).getOrderId();
+            positionService.tradeUpdate(TradeDTO.builder()
+                    .id("T" + orderId)
+                    .orderId(orderId)
+                    .type(OrderTypeDTO.BID)
+                    .currencyPair(cp)
+                    .originalAmount(BigDecimal.ONE)
+                    .price(new BigDecimal("100"))
+                    .create());
+        }
+
+        // Stop loss for all the positions.
+        final long start = System.nanoTime();
+        positionService.tickerUpdate(TickerDTO.builder().currencyPair(cp).ask(new BigDecimal("80")).create());
+        tickerUpdateDuration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        await().pollInterval(1, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS)
+                .until(() -> positionService.getPositions().stream().allMatch(p -> p.getStatus() == CLOSING));
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * Returns a trade service on an exchange taking 100 ms to create a sell market order.
+     *
+     * @return trade service
+     */
+    private static TradeServiceXChangeImplementation getTradeService() {
+        final AtomicInteger orders = new AtomicInteger();
+        final TradeService exchange = mock(TradeService.class);
+        try {
+            when(exchange.placeMarketOrder(any(MarketOrder.class))).thenAnswer(invocation -> {
+                if (((MarketOrder) invocation.getArgument(0)).getType() == Order.OrderType.ASK) {
+                    Thread.sleep(EXCHANGE_LATENCY);
+                }
+                return "ORDER_" + orders.incrementAndGet();
+            });
+            when(exchange.placeLimitOrder(any(LimitOrder.class))).thenThrow(new IOException("Limit orders not supported"));
+            when(exchange.cancelOrder(any(String.class))).thenReturn(false);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+        return new TradeServiceXChangeImplementation(1, exchange);
+    }
+
+}
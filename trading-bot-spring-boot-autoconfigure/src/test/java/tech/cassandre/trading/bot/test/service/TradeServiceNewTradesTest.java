@@ -0,0 +1,150 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.knowm.xchange.currency.CurrencyPair;
+import org.knowm.xchange.dto.Order;
+import org.knowm.xchange.dto.trade.UserTrade;
+import org.knowm.xchange.dto.trade.UserTrades;
+import org.knowm.xchange.service.trade.TradeService;
+import org.knowm.xchange.service.trade.params.TradeHistoryParams;
+import org.knowm.xchange.service.trade.params.TradeHistoryParamsAll;
+import tech.cassandre.trading.bot.backtest.VirtualClock;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.service.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Trade service - new trades")
+public class TradeServiceNewTradesTest extends BaseTest {
+
+    /** Number of trades in the history. */
+    private static final int NUMBER_OF_TRADES = 100_000;
+
+    /** Number of trades executed between two polls. */
+    private static final int TRADES_PER_POLL = 100;
+
+    /** Delay between two trades (ms). */
+    private static final long DELAY_BETWEEN_TRADES = 1_000;
+
+    /** Trades in the overlap between two queries (one minute). */
+    private static final int TRADES_IN_OVERLAP = 60;
+
+    @Test
+    @DisplayName("Per-poll cost doesn't grow with history")
+    public void constantPerPollCost() throws Exception {
+        // Trade history : one trade per second.
+        final List<UserTrade> history = new ArrayList<>(NUMBER_OF_TRADES);
+        final long firstTradeTimestamp = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1) - NUMBER_OF_TRADES * DELAY_BETWEEN_TRADES;
+        for (int i = 0; i < NUMBER_OF_TRADES; i++) {
+            history.add(new UserTrade.Builder()
+                    .type(Order.OrderType.BID)
+                    .originalAmount(BigDecimal.ONE)
+                    .currencyPair(CurrencyPair.BTC_USDT)
+                    .price(BigDecimal.TEN)
+                    .timestamp(new Date(firstTradeTimestamp + i * DELAY_BETWEEN_TRADES))
+                    .id("TRADE_" + i)
+                    .orderId("ORDER_" + i)
+                    .build());
+        }
+
+        // Exchange replaying the history : every query sees TRADES_PER_POLL more trades.
+        final AtomicInteger executedTrades = new AtomicInteger();
+        final List<Integer> tradesSentByExchange = new ArrayList<>();
+        final TradeService exchange = mock(TradeService.class);
+        when(exchange.getTradeHistory(any(TradeHistoryParams.class))).thenAnswer(invocation -> {
+            final Date startTime = ((TradeHistoryParamsAll) invocation.getArgument(0)).getStartTime();
+            final long elapsed = Math.max(0, startTime.getTime() - firstTradeTimestamp);
+            final int firstIndex = (int) ((elapsed + DELAY_BETWEEN_TRADES - 1) / DELAY_BETWEEN_TRADES);
+            final List<UserTrade> trades = new ArrayList<>(history.subList(firstIndex, executedTrades.addAndGet(TRADES_PER_POLL)));
+            tradesSentByExchange.add(trades.size());
+            return new UserTrades(trades, UserTrades.TradeSortType.SortByTimestamp);
+        });
+        final VirtualClock clock = new VirtualClock(ZoneId.systemDefault(), TimeUnit.MILLISECONDS.toNanos(firstTradeTimestamp));
+        final TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(new RateLimiter(1), exchange, clock);
+
+        // Replaying the history : each poll happens when the last trade it receives is executed.
+        final Set<String> receivedTradeIds = new HashSet<>();
+        final long[] pollDurations = new long[NUMBER_OF_TRADES / TRADES_PER_POLL];
+        for (int i = 0; i < pollDurations.length; i++) {
+            clock.setTime(TimeUnit.MILLISECONDS.toNanos(history.get((i + 1) * TRADES_PER_POLL - 1).getTimestamp().getTime()));
+            final long start = System.nanoTime();
+            final Set<TradeDTO> newTrades = tradeService.getNewTrades();
+            pollDurations[i] = System.nanoTime() - start;
+            assertEquals(TRADES_PER_POLL, newTrades.size());
+            newTrades.forEach(trade -> assertTrue(receivedTradeIds.add(trade.getId())));
+        }
+        assertEquals(NUMBER_OF_TRADES, receivedTradeIds.size());
+
+        // The exchange never sends more than the new trades and the overlap, whatever the history size.
+        assertEquals(TRADES_PER_POLL, (int) tradesSentByExchange.get(0));
+        assertTrue(tradesSentByExchange.stream().allMatch(size -> size <= TRADES_PER_POLL + TRADES_IN_OVERLAP + 1));
+        getLogger().info("Average poll duration - first 100 polls : {} µs, last 100 polls : {} µs",
+                TimeUnit.NANOSECONDS.toMicros(average(pollDurations, 0)),
+                TimeUnit.NANOSECONDS.toMicros(average(pollDurations, pollDurations.length - 100)));
+
+        // Nothing new.
+        executedTrades.addAndGet(-TRADES_PER_POLL);
+        assertTrue(tradeService.getNewTrades().isEmpty());
+    }
+
+    @Test
+    @DisplayName("History mark advances when a poll returns nothing")
+    public void markAdvancesWithoutTrades() throws Exception {
+        final TradeService exchange = mock(TradeService.class);
+        when(exchange.getTradeHistory(any(TradeHistoryParams.class))).thenReturn(new UserTrades(new ArrayList<>(), UserTrades.TradeSortType.SortByTimestamp));
+        final long firstPollTime = TimeUnit.DAYS.toMillis(1);
+        final VirtualClock clock = new VirtualClock(ZoneId.systemDefault(), TimeUnit.MILLISECONDS.toNanos(firstPollTime));
+        final TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(new RateLimiter(1), exchange, clock);
+
+        // First poll : one week of history, nothing found.
+        assertTrue(tradeService.getNewTrades().isEmpty());
+        // Second poll : starts from the end of the first one (minus the overlap), not one week back.
+        clock.setTime(TimeUnit.MILLISECONDS.toNanos(firstPollTime + DELAY_BETWEEN_TRADES));
+        assertTrue(tradeService.getNewTrades().isEmpty());
+
+        final ArgumentCaptor<TradeHistoryParams> params = ArgumentCaptor.forClass(TradeHistoryParams.class);
+        verify(exchange, times(2)).getTradeHistory(params.capture());
+        final TradeHistoryParamsAll firstQuery = (TradeHistoryParamsAll) params.getAllValues().get(0);
+        final TradeHistoryParamsAll secondQuery = (TradeHistoryParamsAll) params.getAllValues().get(1);
+        assertEquals(firstPollTime - TimeUnit.DAYS.toMillis(7), firstQuery.getStartTime().getTime());
+        assertEquals(firstPollTime, firstQuery.getEndTime().getTime());
+        assertEquals(firstPollTime - TimeUnit.SECONDS.toMillis(TRADES_IN_OVERLAP), secondQuery.getStartTime().getTime());
+        assertEquals(firstPollTime + DELAY_BETWEEN_TRADES, secondQuery.getEndTime().getTime());
+    }
+
+    /**
+     * Returns the average of 100 values.
+     *
+     * @param values values
+     * @param from   first value index
+     * @return average
+     */
+    private static long average(final long[] values, final int from) {
+        long total = 0;
+        for (int i = from; i < from + 100; i++) {
+            total += values[i];
+        }
+        return total / 100;
+    }
+
+}
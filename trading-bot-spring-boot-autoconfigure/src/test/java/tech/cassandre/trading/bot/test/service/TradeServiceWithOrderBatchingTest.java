@@ -0,0 +1,272 @@
+package tech.cassandre.trading.bot.test.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.knowm.xchange.dto.trade.LimitOrder;
+import org.knowm.xchange.dto.trade.MarketOrder;
+import org.knowm.xchange.service.trade.TradeService;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.service.OrderBatchEndpoint;
+import tech.cassandre.trading.bot.service.TradeServiceWithOrderBatching;
+import tech.cassandre.trading.bot.service.TradeServiceXChangeImplementation;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.trade.OrderTypeDTO.ASK;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_BATCH_CANCELLATION;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_BATCH_CREATION;
+
+@DisplayName("Trade service - order batching")
+public class TradeServiceWithOrderBatchingTest extends BaseTest {
+
+    /** Number of orders sent at the same time. */
+    private static final int ORDERS = 25;
+
+    /** Maximum number of orders accepted by the stub exchange batch endpoint. */
+    private static final int EXCHANGE_MAXIMUM_BATCH_SIZE = 10;
+
+    /** Batch window. */
+    private static final Duration BATCH_WINDOW = Duration.ofMillis(20);
+
+    /** Exchange latency (ms). */
+    private static final long EXCHANGE_LATENCY = 100;
+
+    /** Currency pair. */
+    private final CurrencyPairDTO cp = new CurrencyPairDTO(BTC, USDT);
+
+    /** Orders received one by one by the stub exchange. */
+    private final AtomicInteger singleOrders = new AtomicInteger();
+
+    @Test
+    @DisplayName("Orders sent with the batch endpoint")
+    public void batchEndpoint() {
+        final StubOrderBatchEndpoint endpoint = new StubOrderBatchEndpoint(false);
+        final TradeServiceXChangeImplementation tradeServiceXChangeImplementation = getTradeService();
+        final RateLimiter rateLimiter = tradeServiceXChangeImplementation.getRateLimiter();
+        final TradeServiceWithOrderBatching tradeService = new TradeServiceWithOrderBatching(tradeServiceXChangeImplementation, () -> endpoint, BATCH_WINDOW, ORDERS, 2);
+
+        // 25 orders, amounts 1 to 25, sent in 3 batches (10, 10 and 5 orders) - the order with an amount of 13 is refused.
+        final long start = System.nanoTime();
+        final List<OrderCreationResultDTO> results = getResults(tradeService);
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        getLogger().info("{} orders sent in {} batches in {} ms", ORDERS, endpoint.batchSizes.size(), duration);
+        assertEquals(0, singleOrders.get());
+        assertEquals(3, endpoint.batchSizes.size());
+        assertEquals(ORDERS, endpoint.batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(endpoint.batchSizes.stream().allMatch(size -> size <= EXCHANGE_MAXIMUM_BATCH_SIZE));
+
+        // Each order gets its own result.
+        for (int i = 0; i < ORDERS; i++) {
+            if (i + 1 == 13) {
+                assertFalse(results.get(i).isSuccessful());
+            } else {
+                assertTrue(results.get(i).isSuccessful());
+                assertEquals("BATCH_ORDER_" + (i + 1), results.get(i).getOrderId());
+            }
+        }
+
+        // A lone order is not worth a batch - it's sent with the trade service.
+        assertEquals("ORDER_1", tradeService.createBuyLimitOrder(cp, new BigDecimal("7"), BigDecimal.ONE).getOrderId());
+        assertEquals(3, endpoint.batchSizes.size());
+
+        // Cancellations.
+        final List<CompletableFuture<Boolean>> cancellations = IntStream.rangeClosed(1, 5)
+                .mapToObj(i -> tradeService.cancelOrderAsync("BATCH_ORDER_" + i).toFuture())
+                .collect(Collectors.toList());
+        assertTrue(cancellations.stream().allMatch(CompletableFuture::join));
+        assertEquals(1, endpoint.cancelBatchSizes.size());
+        assertEquals(5, (int) endpoint.cancelBatchSizes.get(0));
+        assertFalse(tradeService.cancelOrder("UNKNOWN"));
+
+        // Each batch call waited for the rate limiter.
+        assertEquals(3, rateLimiter.getWaitTimeHistogram(ORDER_BATCH_CREATION).getCount());
+        assertEquals(1, rateLimiter.getWaitTimeHistogram(ORDER_BATCH_CANCELLATION).getCount());
+
+        // Once stopped, orders are not sent anymore.
+        tradeService.dispose();
+        assertFalse(tradeService.createSellMarketOrder(cp, BigDecimal.ONE).isSuccessful());
+        assertEquals(3, endpoint.batchSizes.size());
+    }
+
+    @Test
+    @DisplayName("Orders sent in parallel without batch endpoint")
+    public void noBatchEndpoint() {
+        final TradeServiceWithOrderBatching tradeService = new TradeServiceWithOrderBatching(getTradeService(), () -> null, BATCH_WINDOW, ORDERS, 2);
+
+        // 25 orders sent one by one but at the same time.
+        final long start = System.nanoTime();
+        final List<OrderCreationResultDTO> results = getResults(tradeService);
+        final long duration = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        getLogger().info("{} orders sent one by one in {} ms", ORDERS, duration);
+        assertEquals(ORDERS, singleOrders.get());
+        assertTrue(results.stream().allMatch(OrderCreationResultDTO::isSuccessful));
+        assertEquals(ORDERS, results.stream().map(OrderCreationResultDTO::getOrderId).distinct().count());
+        assertTrue(duration < ORDERS * EXCHANGE_LATENCY / 2);
+    }
+
+    @Test
+    @DisplayName("Batch failure")
+    public void batchFailure() {
+        final StubOrderBatchEndpoint endpoint = new StubOrderBatchEndpoint(true);
+        final TradeServiceWithOrderBatching tradeService = new TradeServiceWithOrderBatching(getTradeService(), () -> endpoint, BATCH_WINDOW, ORDERS, 2);
+
+        // Orders of a failed batch are not sent again one by one.
+        final List<OrderCreationResultDTO> results = getResults(tradeService);
+        assertTrue(results.stream().noneMatch(OrderCreationResultDTO::isSuccessful));
+        assertEquals(0, singleOrders.get());
+    }
+
+    @Test
+    @DisplayName("Orders submitted while stopping")
+    public void ordersSubmittedWhileStopping() throws Exception {
+        final StubOrderBatchEndpoint endpoint = new StubOrderBatchEndpoint(false);
+        final TradeServiceWithOrderBatching tradeService = new TradeServiceWithOrderBatching(getTradeService(), () -> endpoint, BATCH_WINDOW, EXCHANGE_MAXIMUM_BATCH_SIZE, 1);
+
+        // Orders are submitted by another thread while the service stops - none of them waits forever.
+        final List<CompletableFuture<OrderCreationResultDTO>> orders = new CopyOnWriteArrayList<>();
+        final Thread submitter = new Thread(() -> IntStream.rangeClosed(1, ORDERS * 10)
+                .forEach(i -> orders.add(tradeService.createSellMarketOrderAsync(cp, new BigDecimal(i)).toFuture())));
+        submitter.start();
+        await().pollInterval(1, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> orders.size() > ORDERS);
+        tradeService.dispose();
+        submitter.join();
+        for (CompletableFuture<OrderCreationResultDTO> order : orders) {
+            assertNotNull(order.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(ORDERS * 10, orders.size());
+        assertFalse(orders.get(orders.size() - 1).get().isSuccessful());
+    }
+
+    /**
+     * Sends orders with amounts from 1 to 25 at the same time and returns their results.
+     *
+     * @param tradeService trade service
+     * @return results
+     */
+    private List<OrderCreationResultDTO> getResults(final TradeServiceWithOrderBatching tradeService) {
+        final List<CompletableFuture<OrderCreationResultDTO>> orders = IntStream.rangeClosed(1, ORDERS)
+                .mapToObj(i -> tradeService.createSellMarketOrderAsync(cp, new BigDecimal(i)).toFuture())
+                .collect(Collectors.toList());
+        return orders.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a trade service on a stub exchange taking 100 ms to create an order.
+     *
+     * @return trade service
+     */
+    private TradeServiceXChangeImplementation getTradeService() {
+        final TradeService exchange = mock(TradeService.class);
+        try {
+            when(exchange.placeMarketOrder(any(MarketOrder.class))).thenAnswer(invocation -> {
+                Thread.sleep(EXCHANGE_LATENCY);
+                return "ORDER_" + singleOrders.incrementAndGet();
+            });
+            when(exchange.placeLimitOrder(any(LimitOrder.class))).thenAnswer(invocation -> {
+                Thread.sleep(EXCHANGE_LATENCY);
+                return "ORDER_" + singleOrders.incrementAndGet();
+            });
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        final TradeServiceXChangeImplementation tradeService = new TradeServiceXChangeImplementation(1, exchange);
+        tradeService.setOrderConcurrency(ORDERS);
+        return tradeService;
+    }
+
+    /**
+     * Stub exchange batch endpoint - order ids are built from order amounts, the order with an amount of 13 is refused.
+     */
+    private static final class StubOrderBatchEndpoint implements OrderBatchEndpoint {
+
+        /** True if every batch fails. */
+        private final boolean failing;
+
+        /** Sizes of the order batches received. */
+        private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+        /** Sizes of the cancel batches received. */
+        private final List<Integer> cancelBatchSizes = new CopyOnWriteArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param newFailing true if every batch fails
+         */
+        private StubOrderBatchEndpoint(final boolean newFailing) {
+            this.failing = newFailing;
+        }
+
+        @Override
+        public int getMaximumBatchSize() {
+            return EXCHANGE_MAXIMUM_BATCH_SIZE;
+        }
+
+        @Override
+        public List<OrderCreationResultDTO> placeOrders(final List<OrderDTO> orders) throws IOException {
+            sleep();
+            batchSizes.add(orders.size());
+            if (failing) {
+                throw new IOException("Exchange unavailable");
+            }
+            return orders.stream()
+                    .map(order -> {
+                        assertEquals(ASK, order.getType());
+                        assertNull(order.getLimitPrice());
+                        if (order.getOriginalAmount().intValue() == 13) {
+                            return new OrderCreationResultDTO("Insufficient funds", new Exception("Insufficient funds"));
+                        }
+                        return new OrderCreationResultDTO("BATCH_ORDER_" + order.getOriginalAmount());
+                    })
+                    .collect(Collectors.toList());
+        }
+
+        @Override
+        public List<Boolean> cancelOrders(final List<String> orderIds) throws IOException {
+            sleep();
+            cancelBatchSizes.add(orderIds.size());
+            return orderIds.stream()
+                    .map(orderId -> orderId.startsWith("BATCH_ORDER_"))
+                    .collect(Collectors.toList());
+        }
+
+        /**
+         * Simulates the exchange latency.
+         */
+        private static void sleep() {
+            try {
+                Thread.sleep(EXCHANGE_LATENCY);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+}
@@ -145,12 +145,12 @@ public class BasicCassandreStrategyTestMock extends BaseTest {
         replyGetOpenOrders.add(OrderDTO.builder().id("000003").create());   // Order 03.
         given(service.getOpenOrders()).willReturn(replyGetOpenOrders);
 
-        // Returns three values for getTrades().
+        // Returns three values for getNewTrades().
         Set<TradeDTO> replyGetTrades = new LinkedHashSet<>();
         replyGetTrades.add(TradeDTO.builder().id("0000001").create());      // Trade 01.
         replyGetTrades.add(TradeDTO.builder().id("0000002").create());      // Trade 02.
         replyGetTrades.add(TradeDTO.builder().id("0000003").create());      // Trade 03.
-        given(service.getTrades()).willReturn(replyGetTrades);
+        given(service.getNewTrades()).willReturn(replyGetTrades);
 
         return service;
     }
@@ -243,12 +243,12 @@ public class BasicTa4jCassandreStrategyTestMock extends BaseTest {
         reply.add(OrderDTO.builder().id("000004").create());    // Order 04.
         given(service.getOpenOrders()).willReturn(reply);
 
-        // Returns three values for getTrades().
+        // Returns three values for getNewTrades().
         Set<TradeDTO> replyGetTrades = new LinkedHashSet<>();
         replyGetTrades.add(TradeDTO.builder().id("0000001").create());      // Trade 01.
         replyGetTrades.add(TradeDTO.builder().id("0000002").create());      // Trade 02.
         replyGetTrades.add(TradeDTO.builder().id("0000003").create());      // Trade 03.
-        given(service.getTrades()).willReturn(replyGetTrades);
+        given(service.getNewTrades()).willReturn(replyGetTrades);
 
         return service;
     }
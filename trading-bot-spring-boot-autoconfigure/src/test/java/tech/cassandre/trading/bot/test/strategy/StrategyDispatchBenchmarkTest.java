@@ -0,0 +1,252 @@
+package tech.cassandre.trading.bot.test.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.Disposable;
+import reactor.core.publisher.ConnectableFlux;
+import reactor.core.publisher.DirectProcessor;
+import tech.cassandre.trading.bot.batch.TickerFlux;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.service.MarketService;
+import tech.cassandre.trading.bot.strategy.BasicCassandreStrategy;
+import tech.cassandre.trading.bot.strategy.StrategyRunner;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.parameters.StrategyParameters.DispatchMode;
+
+import java.math.BigDecimal;
+import java.util.Date;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@Tag("benchmark")
+@DisplayName("Strategy dispatch benchmark")
+public class StrategyDispatchBenchmarkTest extends BaseTest {
+
+    /** Number of currency pairs. */
+    private static final int NUMBER_OF_PAIRS = 5;
+
+    /** Number of ticker flux updates. */
+    private static final int CYCLES = 20;
+
+    /** Delay between two ticker flux updates (ms). */
+    private static final long POLLING_RATE = 10;
+
+    /** Time spent by the slow strategy on each ticker (ms). */
+    private static final long STRATEGY_DURATION = 20;
+
+    @Test
+    @DisplayName("End-to-end tick latency with and without a slow strategy")
+    public void endToEndTickLatency() throws Exception {
+        // Warm-up.
+        run(null, 0);
+
+        getLogger().info("Mode | Update duration (µs) | Position service latency (µs) | Strategy latency (µs) | Tickers processed by strategy");
+        final Result withoutStrategy = run(null, 0);
+        final Result immediate = run(DispatchMode.IMMEDIATE, STRATEGY_DURATION);
+        final Result single = run(DispatchMode.SINGLE, STRATEGY_DURATION);
+        final Result boundedElastic = run(DispatchMode.BOUNDED_ELASTIC, STRATEGY_DURATION);
+
+        // With the strategy on the emitting thread, the flux update and the position service wait for the strategy.
+        assertTrue(immediate.updateDuration >= TimeUnit.MILLISECONDS.toMicros(STRATEGY_DURATION * NUMBER_OF_PAIRS));
+        assertTrue(immediate.positionServiceLatency > TimeUnit.MILLISECONDS.toMicros(STRATEGY_DURATION));
+
+        // On its own scheduler, the strategy doesn't delay them anymore.
+        assertTrue(single.updateDuration < TimeUnit.MILLISECONDS.toMicros(STRATEGY_DURATION));
+        assertTrue(single.positionServiceLatency < immediate.positionServiceLatency / 2);
+        assertTrue(boundedElastic.updateDuration < TimeUnit.MILLISECONDS.toMicros(STRATEGY_DURATION));
+        assertTrue(boundedElastic.positionServiceLatency < immediate.positionServiceLatency / 2);
+        assertTrue(withoutStrategy.positionServiceLatency < immediate.positionServiceLatency / 2);
+
+        // Processing currency pairs in parallel, the strategy keeps up with more tickers.
+        assertTrue(boundedElastic.processedTickers > single.processedTickers);
+    }
+
+    /**
+     * Updates the ticker flux at the polling rate and measures the latencies.
+     *
+     * @param dispatchMode     dispatch mode (null for no strategy)
+     * @param strategyDuration time spent by the strategy on each ticker (ms)
+     * @return result
+     * @throws Exception exception
+     */
+    private Result run(final DispatchMode dispatchMode, final long strategyDuration) throws Exception {
+        // Ticker flux - every ticker has a unique timestamp and we keep its creation time.
+        final Map<Long, Long> creationTimes = new ConcurrentHashMap<>();
+        final AtomicLong timestamps = new AtomicLong();
+        final MarketService marketService = mock(MarketService.class);
+        when(marketService.getTicker(any())).thenAnswer(invocation -> {
+            final long timestamp = timestamps.incrementAndGet();
+            creationTimes.put(timestamp, System.nanoTime());
+            return Optional.of(TickerDTO.builder()
+                    .currencyPair(invocation.getArgument(0))
+                    .timestamp(new Date(timestamp))
+                    .last(BigDecimal.ONE)
+                    .create());
+        });
+        final Set<CurrencyPairDTO> currencyPairs = new LinkedHashSet<>();
+        for (int i = 0; i < NUMBER_OF_PAIRS; i++) {
+            currencyPairs.add(new CurrencyPairDTO("C" + i, "USDT"));
+        }
+        final TickerFlux tickerFlux = new TickerFlux(marketService);
+        tickerFlux.updateRequestedCurrencyPairs(currencyPairs);
+        final ConnectableFlux<TickerDTO> connectableTickerFlux = tickerFlux.getFlux().publish();
+
+        // Strategy subscribed first, then the position service (as in StrategyAutoConfiguration).
+        final List<Long> strategyLatencies = new CopyOnWriteArrayList<>();
+        StrategyRunner runner = null;
+        if (dispatchMode != null) {
+            runner = new StrategyRunner(dispatchMode.toString(), new SlowStrategy(currencyPairs, strategyDuration, creationTimes, strategyLatencies), dispatchMode);
+            runner.start(DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), connectableTickerFlux);
+        }
+        final List<Long> positionServiceLatencies = new CopyOnWriteArrayList<>();
+        final Disposable positionService = connectableTickerFlux.subscribe(ticker -> positionServiceLatencies.add(getLatency(creationTimes, ticker)));
+        connectableTickerFlux.connect();
+
+        // Updating the flux.
+        long totalUpdateDuration = 0;
+        for (int i = 0; i < CYCLES; i++) {
+            final long start = System.nanoTime();
+            tickerFlux.update();
+            totalUpdateDuration += System.nanoTime() - start;
+            Thread.sleep(POLLING_RATE);
+        }
+        positionService.dispose();
+        if (runner != null) {
+            runner.stop();
+        }
+
+        final Result result = new Result(TimeUnit.NANOSECONDS.toMicros(totalUpdateDuration / CYCLES),
+                average(positionServiceLatencies),
+                average(strategyLatencies),
+                strategyLatencies.size());
+        getLogger().info("{} | {} | {} | {} | {}",
+                Optional.ofNullable(dispatchMode).map(Enum::toString).orElse("NO STRATEGY"),
+                result.updateDuration,
+                result.positionServiceLatency,
+                result.strategyLatency,
+                result.processedTickers);
+        return result;
+    }
+
+    /**
+     * Returns the time since a ticker was created.
+     *
+     * @param creationTimes creation time of each ticker
+     * @param ticker        ticker
+     * @return latency (µs)
+     */
+    private static long getLatency(final Map<Long, Long> creationTimes, final TickerDTO ticker) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - creationTimes.get(ticker.getTimestamp().toInstant().toEpochMilli()));
+    }
+
+    /**
+     * Returns the average of values.
+     *
+     * @param values values
+     * @return average
+     */
+    private static long average(final List<Long> values) {
+        return (long) values.stream().mapToLong(Long::longValue).average().orElse(0);
+    }
+
+    /**
+     * Benchmark result.
+     */
+    private static final class Result {
+
+        /** Average ticker flux update duration (µs). */
+        private final long updateDuration;
+
+        /** Average latency between a ticker creation and its reception by the position service (µs). */
+        private final long positionServiceLatency;
+
+        /** Average latency between a ticker creation and its reception by the strategy (µs). */
+        private final long strategyLatency;
+
+        /** Number of tickers processed by the strategy. */
+        private final int processedTickers;
+
+        /**
+         * Constructor.
+         *
+         * @param newUpdateDuration          update duration
+         * @param newPositionServiceLatency position service latency
+         * @param newStrategyLatency         strategy latency
+         * @param newProcessedTickers        tickers processed by the strategy
+         */
+        private Result(final long newUpdateDuration, final long newPositionServiceLatency, final long newStrategyLatency, final int newProcessedTickers) {
+            this.updateDuration = newUpdateDuration;
+            this.positionServiceLatency = newPositionServiceLatency;
+            this.strategyLatency = newStrategyLatency;
+            this.processedTickers = newProcessedTickers;
+        }
+
+    }
+
+    /**
+     * Strategy spending a fixed time on each ticker.
+     */
+    private static final class SlowStrategy extends BasicCassandreStrategy {
+
+        /** Requested currency pairs. */
+        private final Set<CurrencyPairDTO> requestedCurrencyPairs;
+
+        /** Time spent on each ticker (ms). */
+        private final long duration;
+
+        /** Creation time of each ticker. */
+        private final Map<Long, Long> creationTimes;
+
+        /** Latency of each ticker received (µs). */
+        private final List<Long> latencies;
+
+        /**
+         * Constructor.
+         *
+         * @param newRequestedCurrencyPairs requested currency pairs
+         * @param newDuration               time spent on each ticker (ms)
+         * @param newCreationTimes          creation time of each ticker
+         * @param newLatencies              latency of each ticker received
+         */
+        private SlowStrategy(final Set<CurrencyPairDTO> newRequestedCurrencyPairs,
+                             final long newDuration,
+                             final Map<Long, Long> newCreationTimes,
+                             final List<Long> newLatencies) {
+            this.requestedCurrencyPairs = newRequestedCurrencyPairs;
+            this.duration = newDuration;
+            this.creationTimes = newCreationTimes;
+            this.latencies = newLatencies;
+        }
+
+        @Override
+        public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+            return requestedCurrencyPairs;
+        }
+
+        @Override
+        public void onTickerUpdate(final TickerDTO ticker) {
+            latencies.add(getLatency(creationTimes, ticker));
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+    }
+
+}
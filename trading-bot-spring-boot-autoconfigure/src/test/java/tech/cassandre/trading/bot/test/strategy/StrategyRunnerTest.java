@@ -0,0 +1,479 @@
+package tech.cassandre.trading.bot.test.strategy;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.DirectProcessor;
+import tech.cassandre.trading.bot.dto.market.TickerDTO;
+import tech.cassandre.trading.bot.dto.position.PositionDTO;
+import tech.cassandre.trading.bot.dto.position.PositionRulesDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderCreationResultDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.TradeDTO;
+import tech.cassandre.trading.bot.dto.user.AccountDTO;
+import tech.cassandre.trading.bot.service.PositionServiceImplementation;
+import tech.cassandre.trading.bot.service.TradeService;
+import tech.cassandre.trading.bot.strategy.BasicCassandreStrategy;
+import tech.cassandre.trading.bot.strategy.StrategyOwnership;
+import tech.cassandre.trading.bot.strategy.StrategyRunner;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.dto.CurrencyPairDTO;
+import tech.cassandre.trading.bot.util.parameters.StrategyParameters.DispatchMode;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Date;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static tech.cassandre.trading.bot.dto.position.PositionStatusDTO.CLOSED;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.BTC;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.ETH;
+import static tech.cassandre.trading.bot.util.dto.CurrencyDTO.USDT;
+
+@DisplayName("Strategy runner")
+public class StrategyRunnerTest extends BaseTest {
+
+    /** Number of tickers published for each currency pair. */
+    private static final int NUMBER_OF_TICKERS = 20;
+
+    /** Time spent by the slow strategy on each ticker (ms). */
+    private static final long SLOW_STRATEGY_DURATION = 50;
+
+    /** Time spent by the exchange to create an order (ms). */
+    private static final long ORDER_CREATION_DURATION = 200;
+
+    /** Currency pair 1. */
+    private final CurrencyPairDTO cp1 = new CurrencyPairDTO(BTC, USDT);
+
+    /** Currency pair 2. */
+    private final CurrencyPairDTO cp2 = new CurrencyPairDTO(ETH, USDT);
+
+    @Test
+    @DisplayName("Strategies share the fluxes and only receive their currency pairs")
+    public void severalStrategies() {
+        final DirectProcessor<AccountDTO> accountFlux = DirectProcessor.create();
+        final DirectProcessor<PositionDTO> positionFlux = DirectProcessor.create();
+        final DirectProcessor<OrderDTO> orderFlux = DirectProcessor.create();
+        final DirectProcessor<TradeDTO> tradeFlux = DirectProcessor.create();
+        final DirectProcessor<TickerDTO> tickerFlux = DirectProcessor.create();
+
+        // A fast strategy on cp1 and a slow strategy on cp1 and cp2.
+        final RecordingStrategy fastStrategy = new RecordingStrategy(Set.of(cp1), 0);
+        final RecordingStrategy slowStrategy = new RecordingStrategy(Set.of(cp1, cp2), SLOW_STRATEGY_DURATION);
+        final StrategyRunner fastRunner = new StrategyRunner("fast", fastStrategy);
+        final StrategyRunner slowRunner = new StrategyRunner("slow", slowStrategy);
+        fastRunner.start(accountFlux, positionFlux, orderFlux, tradeFlux, tickerFlux);
+        slowRunner.start(accountFlux, positionFlux, orderFlux, tradeFlux, tickerFlux);
+
+        // Publishing tickers.
+        for (int i = 1; i <= NUMBER_OF_TICKERS; i++) {
+            tickerFlux.onNext(getTicker(cp1, i));
+            tickerFlux.onNext(getTicker(cp2, i));
+        }
+
+        // The fast strategy receives the last ticker of cp1 without waiting for the slow strategy.
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> fastStrategy.hasReceived(cp1, NUMBER_OF_TICKERS)
+                && fastRunner.getDispatchedTickers() + fastRunner.getConflatedTickers() == NUMBER_OF_TICKERS);
+        assertTrue(fastStrategy.getReceived().stream().allMatch(ticker -> ticker.getCurrencyPair().equals(cp1)));
+        assertFalse(slowStrategy.hasReceived(cp1, NUMBER_OF_TICKERS) && slowStrategy.hasReceived(cp2, NUMBER_OF_TICKERS));
+        assertEquals(NUMBER_OF_TICKERS, fastRunner.getDispatchedTickers() + fastRunner.getConflatedTickers());
+        assertEquals(0, fastRunner.getQueueDepth());
+
+        // The slow strategy receives the last ticker of each currency pair, the others are conflated.
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> slowStrategy.hasReceived(cp1, NUMBER_OF_TICKERS)
+                && slowStrategy.hasReceived(cp2, NUMBER_OF_TICKERS)
+                && slowRunner.getDispatchedTickers() + slowRunner.getConflatedTickers() == NUMBER_OF_TICKERS * 2);
+        assertTrue(slowRunner.getConflatedTickers() > 0);
+        assertTrue(slowRunner.getMaximumDispatchDuration() >= SLOW_STRATEGY_DURATION);
+        assertTrue(slowRunner.getMaximumQueueLatency() >= SLOW_STRATEGY_DURATION);
+        getLogger().info("{}", fastRunner);
+        getLogger().info("{}", slowRunner);
+
+        // Other fluxes are sent to all strategies.
+        accountFlux.onNext(AccountDTO.builder().id("01").name("Account").create());
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> fastStrategy.getAccounts().size() == 1
+                && slowStrategy.getAccounts().size() == 1);
+
+        // Nothing is received once stopped.
+        fastRunner.stop();
+        slowRunner.stop();
+        final int receivedTickers = fastStrategy.getReceived().size();
+        tickerFlux.onNext(getTicker(cp1, NUMBER_OF_TICKERS + 1));
+        assertEquals(receivedTickers, fastStrategy.getReceived().size());
+    }
+
+    @Test
+    @DisplayName("Orders, trades and positions are only sent to the strategy that created them")
+    public void ownership() {
+        final DirectProcessor<PositionDTO> positionFlux = DirectProcessor.create();
+        final DirectProcessor<OrderDTO> orderFlux = DirectProcessor.create();
+        final DirectProcessor<TradeDTO> tradeFlux = DirectProcessor.create();
+
+        // Shared services.
+        final AtomicInteger orderCounter = new AtomicInteger(1);
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("ORDER_" + orderCounter.getAndIncrement()));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(tradeService);
+        final StrategyOwnership strategyOwnership = new StrategyOwnership();
+        positionService.addPositionListener(strategyOwnership::positionUpdate);
+
+        // Two strategies, each one with its own services.
+        final RecordingStrategy strategy1 = new RecordingStrategy(Set.of(cp1), 0);
+        final RecordingStrategy strategy2 = new RecordingStrategy(Set.of(cp1), 0);
+        strategy1.setTradeService(strategyOwnership.getTradeService("strategy1", tradeService));
+        strategy1.setPositionService(strategyOwnership.getPositionService("strategy1", positionService));
+        strategy2.setTradeService(strategyOwnership.getTradeService("strategy2", tradeService));
+        strategy2.setPositionService(strategyOwnership.getPositionService("strategy2", positionService));
+        final StrategyRunner runner1 = new StrategyRunner("strategy1", strategy1, DispatchMode.IMMEDIATE, strategyOwnership);
+        final StrategyRunner runner2 = new StrategyRunner("strategy2", strategy2, DispatchMode.IMMEDIATE, strategyOwnership);
+        runner1.start(DirectProcessor.create(), positionFlux, orderFlux, tradeFlux, DirectProcessor.create());
+        runner2.start(DirectProcessor.create(), positionFlux, orderFlux, tradeFlux, DirectProcessor.create());
+
+        // Strategy 1 creates an order, strategy 2 creates a position.
+        assertEquals("ORDER_1", strategy1.getTradeService().createBuyMarketOrder(cp1, BigDecimal.ONE).getOrderId());
+        final long positionId = strategy2.getPositionService().createPosition(cp1, BigDecimal.ONE, PositionRulesDTO.builder().create()).getPositionId();
+        final PositionDTO position = positionService.getPositionById(positionId).orElseThrow();
+        assertEquals("ORDER_2", position.getOpenOrderId());
+
+        // Updates of orders and trades created outside the strategies are sent to both strategies.
+        for (String orderId : List.of("ORDER_1", "ORDER_2", "ORDER_3")) {
+            orderFlux.onNext(OrderDTO.builder().id(orderId).currencyPair(cp1).create());
+            tradeFlux.onNext(TradeDTO.builder().id("TRADE_" + orderId).orderId(orderId).currencyPair(cp1).create());
+        }
+        positionFlux.onNext(position);
+        positionFlux.onNext(new PositionDTO(positionId + 1, "ORDER_4", PositionRulesDTO.builder().create()));
+
+        assertEquals(Set.of("ORDER_1", "ORDER_3"), strategy1.getOrders().keySet());
+        assertEquals(Set.of("TRADE_ORDER_1", "TRADE_ORDER_3"), strategy1.getTrades().keySet());
+        assertEquals(Set.of(positionId + 1), strategy1.getPositions().keySet());
+        assertEquals(Set.of("ORDER_2", "ORDER_3"), strategy2.getOrders().keySet());
+        assertEquals(Set.of("TRADE_ORDER_2", "TRADE_ORDER_3"), strategy2.getTrades().keySet());
+        assertEquals(Set.of(positionId, positionId + 1), strategy2.getPositions().keySet());
+        runner1.stop();
+        runner2.stop();
+    }
+
+    @Test
+    @DisplayName("An order seen before its creation returns is only sent to the strategy that created it")
+    public void orderSeenDuringCreation() throws InterruptedException {
+        final DirectProcessor<OrderDTO> orderFlux = DirectProcessor.create();
+        final DirectProcessor<TradeDTO> tradeFlux = DirectProcessor.create();
+        final StrategyOwnership strategyOwnership = new StrategyOwnership();
+
+        // The exchange reports the order and its trade before the creation call returns.
+        final TradeService tradeService = mock(TradeService.class);
+        final Thread exchangePoll = new Thread(() -> {
+            orderFlux.onNext(OrderDTO.builder().id("ORDER_1").currencyPair(cp1).create());
+            tradeFlux.onNext(TradeDTO.builder().id("TRADE_1").orderId("ORDER_1").currencyPair(cp1).create());
+        });
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> {
+            exchangePoll.start();
+            Thread.sleep(ORDER_CREATION_DURATION);
+            return new OrderCreationResultDTO("ORDER_1");
+        });
+
+        final RecordingStrategy strategy1 = new RecordingStrategy(Set.of(cp1), 0);
+        final RecordingStrategy strategy2 = new RecordingStrategy(Set.of(cp1), 0);
+        strategy1.setTradeService(strategyOwnership.getTradeService("strategy1", tradeService));
+        strategy2.setTradeService(strategyOwnership.getTradeService("strategy2", tradeService));
+        final StrategyRunner runner1 = new StrategyRunner("strategy1", strategy1, DispatchMode.IMMEDIATE, strategyOwnership);
+        final StrategyRunner runner2 = new StrategyRunner("strategy2", strategy2, DispatchMode.IMMEDIATE, strategyOwnership);
+        runner1.start(DirectProcessor.create(), DirectProcessor.create(), orderFlux, tradeFlux, DirectProcessor.create());
+        runner2.start(DirectProcessor.create(), DirectProcessor.create(), orderFlux, tradeFlux, DirectProcessor.create());
+
+        // The order and its trade wait for the creation to return.
+        assertEquals("ORDER_1", strategy1.getTradeService().createBuyMarketOrder(cp1, BigDecimal.ONE).getOrderId());
+        exchangePoll.join();
+        assertEquals(Set.of("ORDER_1"), strategy1.getOrders().keySet());
+        assertEquals(Set.of("TRADE_1"), strategy1.getTrades().keySet());
+        assertTrue(strategy2.getOrders().isEmpty());
+        assertTrue(strategy2.getTrades().isEmpty());
+        runner1.stop();
+        runner2.stop();
+    }
+
+    @Test
+    @DisplayName("Owners are removed once orders are not open anymore and once positions are closed")
+    public void ownershipPruning() {
+        final TestClock clock = new TestClock();
+        final StrategyOwnership strategyOwnership = new StrategyOwnership(Duration.ofHours(1), clock);
+        final AtomicInteger orderCounter = new AtomicInteger(1);
+        final TradeService tradeService = mock(TradeService.class);
+        when(tradeService.createBuyMarketOrder(any(), any())).thenAnswer(invocation -> new OrderCreationResultDTO("ORDER_" + orderCounter.getAndIncrement()));
+        final PositionServiceImplementation positionService = new PositionServiceImplementation(strategyOwnership.getTradeService(tradeService));
+        positionService.addPositionListener(strategyOwnership::positionUpdate);
+
+        // Strategy 1 creates an order and a position.
+        final String orderId = strategyOwnership.getTradeService("strategy1", tradeService).createBuyMarketOrder(cp1, BigDecimal.ONE).getOrderId();
+        final long positionId = strategyOwnership.getPositionService("strategy1", positionService)
+                .createPosition(cp1, BigDecimal.ONE, PositionRulesDTO.builder().create())
+                .getPositionId();
+        final PositionDTO position = positionService.getPositionById(positionId).orElseThrow();
+        assertFalse(strategyOwnership.isOrderDispatchedTo("strategy2", orderId));
+        assertFalse(strategyOwnership.isOrderDispatchedTo("strategy2", position.getOpenOrderId()));
+        assertFalse(strategyOwnership.isPositionDispatchedTo("strategy2", positionId));
+
+        // An order open for a long time keeps its owner.
+        clock.add(Duration.ofHours(2));
+        strategyOwnership.openOrdersUpdate(Set.of(orderId));
+        assertFalse(strategyOwnership.isOrderDispatchedTo("strategy2", orderId));
+        assertTrue(strategyOwnership.isOrderDispatchedTo("strategy2", position.getOpenOrderId()));
+
+        // Once not open anymore, the owner is kept for the retention period (late trades).
+        clock.add(Duration.ofMinutes(30));
+        strategyOwnership.openOrdersUpdate(Set.of());
+        assertFalse(strategyOwnership.isOrderDispatchedTo("strategy2", orderId));
+        clock.add(Duration.ofMinutes(31));
+        strategyOwnership.openOrdersUpdate(Set.of());
+        assertTrue(strategyOwnership.isOrderDispatchedTo("strategy2", orderId));
+
+        // The position owner is removed once the closed position is dispatched.
+        positionService.tradeUpdate(TradeDTO.builder().id("TRADE_1").orderId(position.getOpenOrderId()).currencyPair(cp1).originalAmount(BigDecimal.ONE).price(BigDecimal.ONE).create());
+        strategyOwnership.positionDispatched(position);
+        assertFalse(strategyOwnership.isPositionDispatchedTo("strategy2", positionId));
+        position.setCloseOrderId("ORDER_CLOSE");
+        position.tradeUpdate(TradeDTO.builder().id("TRADE_2").orderId("ORDER_CLOSE").currencyPair(cp1).originalAmount(BigDecimal.ONE).price(BigDecimal.ONE).create());
+        assertEquals(CLOSED, position.getStatus());
+        assertFalse(strategyOwnership.isPositionDispatchedTo("strategy2", positionId));
+        strategyOwnership.positionDispatched(position);
+        assertTrue(strategyOwnership.isPositionDispatchedTo("strategy2", positionId));
+    }
+
+    @Test
+    @DisplayName("Tickers of a currency pair are processed in order with a bounded elastic scheduler")
+    public void boundedElasticOrdering() {
+        final DirectProcessor<TickerDTO> tickerFlux = DirectProcessor.create();
+        final RecordingStrategy strategy = new RecordingStrategy(Set.of(cp1, cp2), 1);
+        final StrategyRunner runner = new StrategyRunner("parallel", strategy, DispatchMode.BOUNDED_ELASTIC);
+        runner.start(DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), tickerFlux);
+        for (int i = 1; i <= NUMBER_OF_TICKERS; i++) {
+            tickerFlux.onNext(getTicker(cp1, i));
+            tickerFlux.onNext(getTicker(cp2, i));
+        }
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> strategy.hasReceived(cp1, NUMBER_OF_TICKERS)
+                && strategy.hasReceived(cp2, NUMBER_OF_TICKERS));
+        for (CurrencyPairDTO cp : Set.of(cp1, cp2)) {
+            final long[] timestamps = strategy.getReceived().stream()
+                    .filter(ticker -> ticker.getCurrencyPair().equals(cp))
+                    .mapToLong(ticker -> ticker.getTimestamp().toInstant().toEpochMilli())
+                    .toArray();
+            for (int i = 1; i < timestamps.length; i++) {
+                assertTrue(timestamps[i - 1] < timestamps[i]);
+            }
+        }
+        runner.stop();
+    }
+
+    @Test
+    @DisplayName("Only tickers are processed in parallel with a bounded elastic scheduler")
+    public void boundedElasticUpdates() {
+        final DirectProcessor<AccountDTO> accountFlux = DirectProcessor.create();
+        final DirectProcessor<OrderDTO> orderFlux = DirectProcessor.create();
+        final DirectProcessor<TradeDTO> tradeFlux = DirectProcessor.create();
+        final DirectProcessor<TickerDTO> tickerFlux = DirectProcessor.create();
+
+        // Strategy recording the threads and the number of callbacks running at the same time.
+        final Set<String> updateThreads = ConcurrentHashMap.newKeySet();
+        final AtomicInteger runningUpdates = new AtomicInteger();
+        final AtomicInteger maximumRunningUpdates = new AtomicInteger();
+        final AtomicInteger updates = new AtomicInteger();
+        final RecordingStrategy strategy = new RecordingStrategy(Set.of(cp1, cp2), 1) {
+            @Override
+            public void onAccountUpdate(final AccountDTO account) {
+                update();
+            }
+
+            @Override
+            public void onOrderUpdate(final OrderDTO order) {
+                update();
+            }
+
+            @Override
+            public void onTradeUpdate(final TradeDTO trade) {
+                update();
+            }
+
+            /**
+             * Records an update.
+             */
+            private void update() {
+                updateThreads.add(Thread.currentThread().getName());
+                maximumRunningUpdates.accumulateAndGet(runningUpdates.incrementAndGet(), Math::max);
+                try {
+                    Thread.sleep(1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                runningUpdates.decrementAndGet();
+                updates.incrementAndGet();
+            }
+        };
+        final StrategyRunner runner = new StrategyRunner("parallel", strategy, DispatchMode.BOUNDED_ELASTIC);
+        runner.start(accountFlux, DirectProcessor.create(), orderFlux, tradeFlux, tickerFlux);
+        for (int i = 1; i <= NUMBER_OF_TICKERS; i++) {
+            tickerFlux.onNext(getTicker(cp1, i));
+            tickerFlux.onNext(getTicker(cp2, i));
+            accountFlux.onNext(AccountDTO.builder().id("ACCOUNT_" + i).create());
+            orderFlux.onNext(OrderDTO.builder().id("ORDER_" + i).create());
+            tradeFlux.onNext(TradeDTO.builder().id("TRADE_" + i).orderId("ORDER_" + i).create());
+        }
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> updates.get() == NUMBER_OF_TICKERS * 3
+                && strategy.hasReceived(cp1, NUMBER_OF_TICKERS)
+                && strategy.hasReceived(cp2, NUMBER_OF_TICKERS));
+
+        // Account, order and trade updates never run concurrently, on a single thread.
+        assertEquals(1, maximumRunningUpdates.get());
+        assertEquals(1, updateThreads.size());
+        assertTrue(updateThreads.iterator().next().startsWith("cassandre-strategy-parallel-updates"));
+        runner.stop();
+    }
+
+    @Test
+    @DisplayName("A strategy error doesn't stop the dispatch")
+    public void strategyError() {
+        final DirectProcessor<TickerDTO> tickerFlux = DirectProcessor.create();
+        final RecordingStrategy strategy = new RecordingStrategy(Set.of(cp1), 0) {
+            @Override
+            public void onTickerUpdate(final TickerDTO ticker) {
+                super.onTickerUpdate(ticker);
+                throw new IllegalStateException("Strategy error");
+            }
+        };
+        final StrategyRunner runner = new StrategyRunner("error", strategy);
+        runner.start(DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), DirectProcessor.create(), tickerFlux);
+        tickerFlux.onNext(getTicker(cp1, 1));
+        tickerFlux.onNext(getTicker(cp1, 2));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> runner.getDispatchErrors() + runner.getConflatedTickers() == 2);
+        tickerFlux.onNext(getTicker(cp1, 3));
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> strategy.getReceived().size() + runner.getConflatedTickers() == 3);
+        runner.stop();
+    }
+
+    /**
+     * Returns a ticker.
+     *
+     * @param cp        currency pair
+     * @param timestamp timestamp
+     * @return ticker
+     */
+    private static TickerDTO getTicker(final CurrencyPairDTO cp, final long timestamp) {
+        return TickerDTO.builder()
+                .currencyPair(cp)
+                .timestamp(new Date(timestamp))
+                .last(BigDecimal.ONE)
+                .create();
+    }
+
+    /**
+     * Strategy recording the tickers received.
+     */
+    private static class RecordingStrategy extends BasicCassandreStrategy {
+
+        /** Requested currency pairs. */
+        private final Set<CurrencyPairDTO> requestedCurrencyPairs;
+
+        /** Time spent on each ticker (ms). */
+        private final long duration;
+
+        /** Tickers received. */
+        private final List<TickerDTO> received = new CopyOnWriteArrayList<>();
+
+        /**
+         * Constructor.
+         *
+         * @param newRequestedCurrencyPairs requested currency pairs
+         * @param newDuration               time spent on each ticker (ms)
+         */
+        RecordingStrategy(final Set<CurrencyPairDTO> newRequestedCurrencyPairs, final long newDuration) {
+            this.requestedCurrencyPairs = newRequestedCurrencyPairs;
+            this.duration = newDuration;
+        }
+
+        @Override
+        public Set<CurrencyPairDTO> getRequestedCurrencyPairs() {
+            return requestedCurrencyPairs;
+        }
+
+        @Override
+        public void onTickerUpdate(final TickerDTO ticker) {
+            received.add(ticker);
+            try {
+                Thread.sleep(duration);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        /**
+         * Returns true if the ticker of a currency pair with this timestamp was received.
+         *
+         * @param cp        currency pair
+         * @param timestamp timestamp
+         * @return true if received
+         */
+        boolean hasReceived(final CurrencyPairDTO cp, final long timestamp) {
+            return received.stream().anyMatch(ticker -> ticker.getCurrencyPair().equals(cp) && ticker.getTimestamp().toInstant().toEpochMilli() == timestamp);
+        }
+
+        /**
+         * Getter for received.
+         *
+         * @return received
+         */
+        List<TickerDTO> getReceived() {
+            return received;
+        }
+
+    }
+
+    /**
+     * Clock that can be moved forward.
+     */
+    private static final class TestClock extends Clock {
+
+        /** Current time (ms). */
+        private final AtomicLong now = new AtomicLong();
+
+        /**
+         * Moves the clock forward.
+         *
+         * @param duration duration
+         */
+        private void add(final Duration duration) {
+            now.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now.get());
+        }
+
+    }
+
+}
@@ -0,0 +1,117 @@
+package tech.cassandre.trading.bot.test.util.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.dto.trade.OrderDTO;
+import tech.cassandre.trading.bot.dto.trade.OrderStatusDTO;
+import tech.cassandre.trading.bot.util.cache.ChangeDetectionCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Change detection cache")
+public class ChangeDetectionCacheTest {
+
+    /** Maximum age. */
+    private static final Duration MAXIMUM_AGE = Duration.ofMinutes(10);
+
+    /** Estimated value size. */
+    private static final long VALUE_SIZE = 500;
+
+    /** Clock. */
+    private final TestClock clock = new TestClock();
+
+    @Test
+    @DisplayName("Detects new and updated values")
+    public void changeDetection() {
+        final ChangeDetectionCache<String, OrderDTO> cache = new ChangeDetectionCache<>(10, MAXIMUM_AGE, VALUE_SIZE, clock);
+        assertTrue(cache.update("1", OrderDTO.builder().id("1").status(OrderStatusDTO.NEW).create()));
+        assertFalse(cache.update("1", OrderDTO.builder().id("1").status(OrderStatusDTO.NEW).create()));
+        assertTrue(cache.update("1", OrderDTO.builder().id("1").status(OrderStatusDTO.FILLED).create()));
+        assertTrue(cache.update("2", OrderDTO.builder().id("2").status(OrderStatusDTO.NEW).create()));
+        assertEquals(OrderStatusDTO.FILLED, cache.get("1").orElseThrow().getStatus());
+        assertEquals(2, cache.getSize());
+        assertEquals(4, cache.getRequests());
+        assertEquals(3, cache.getChanges());
+        assertEquals(2 * (100 + VALUE_SIZE), cache.getEstimatedHeapUsage());
+    }
+
+    @Test
+    @DisplayName("Evicts values not seen for more than the maximum age")
+    public void ageEviction() {
+        final ChangeDetectionCache<String, OrderDTO> cache = new ChangeDetectionCache<>(10, MAXIMUM_AGE, VALUE_SIZE, clock);
+        final OrderDTO openOrder = OrderDTO.builder().id("1").status(OrderStatusDTO.NEW).create();
+        final OrderDTO closedOrder = OrderDTO.builder().id("2").status(OrderStatusDTO.NEW).create();
+        cache.update("1", openOrder);
+        cache.update("2", closedOrder);
+
+        // The open order is seen at every poll, the closed order is not returned anymore.
+        for (int i = 0; i < 15; i++) {
+            clock.add(Duration.ofMinutes(1));
+            assertFalse(cache.update("1", openOrder));
+        }
+        assertTrue(cache.get("1").isPresent());
+        assertFalse(cache.get("2").isPresent());
+        assertEquals(1, cache.getAgeEvictions());
+        assertEquals(0, cache.getSizeEvictions());
+    }
+
+    @Test
+    @DisplayName("Never grows over the maximum size")
+    public void sizeEviction() {
+        final ChangeDetectionCache<Long, OrderDTO> cache = new ChangeDetectionCache<>(1_000, MAXIMUM_AGE, VALUE_SIZE, clock);
+        for (long i = 0; i < 1_000_000; i++) {
+            assertTrue(cache.update(i, OrderDTO.builder().id(Long.toString(i)).create()));
+        }
+        assertEquals(1_000, cache.getSize());
+        assertEquals(999_000, cache.getSizeEvictions());
+        assertEquals(1_000 * (100 + VALUE_SIZE), cache.getEstimatedHeapUsage());
+
+        // The most recent values are kept.
+        assertTrue(cache.get(999_999L).isPresent());
+        assertFalse(cache.get(0L).isPresent());
+    }
+
+    /**
+     * Clock that can be moved forward.
+     */
+    private static final class TestClock extends Clock {
+
+        /** Current time (ms). */
+        private final AtomicLong now = new AtomicLong();
+
+        /**
+         * Moves the clock forward.
+         *
+         * @param duration duration
+         */
+        private void add(final Duration duration) {
+            now.addAndGet(duration.toMillis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(final ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(now.get());
+        }
+
+    }
+
+}
@@ -0,0 +1,4 @@
+/**
+ * Cache tests.
+ */
+package tech.cassandre.trading.bot.test.util.cache;
@@ -0,0 +1,128 @@
+package tech.cassandre.trading.bot.test.util.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.util.ratelimit.AccountRateLimit;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint;
+import tech.cassandre.trading.bot.util.ratelimit.RateLimiter;
+import tech.cassandre.trading.bot.util.ratelimit.WaitTimeHistogram;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.OPEN_ORDERS;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.ORDER_CREATION;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.TICKER;
+import static tech.cassandre.trading.bot.util.ratelimit.RateLimitedEndpoint.TRADES;
+
+@DisplayName("Rate limiter")
+public class RateLimiterTest {
+
+    /** Rate (ms). */
+    private static final long RATE = 100;
+
+    @Test
+    @DisplayName("Burst capacity")
+    public void burst() throws InterruptedException {
+        final RateLimiter rateLimiter = new RateLimiter(RATE, 5, Collections.emptyMap(), new AccountRateLimit());
+
+        // 5 calls allowed in a row.
+        assertEquals(5, rateLimiter.getAvailableTokens());
+        assertTrue(getDuration(rateLimiter, TICKER, 5) < RATE / 2);
+        assertEquals(0, rateLimiter.getAvailableTokens());
+
+        // Then one call every 100 ms.
+        assertTrue(getDuration(rateLimiter, TICKER, 1) >= RATE / 2);
+        final WaitTimeHistogram histogram = rateLimiter.getWaitTimeHistogram(TICKER);
+        assertEquals(6, histogram.getCount());
+        assertEquals(5, histogram.getCounts()[0]);
+        assertEquals(1, histogram.getCounts()[2] + histogram.getCounts()[3]);
+        assertEquals(0, rateLimiter.getWaitTimeHistogram(TRADES).getCount());
+    }
+
+    @Test
+    @DisplayName("Endpoint weights")
+    public void weights() throws InterruptedException {
+        final RateLimiter rateLimiter = new RateLimiter(RATE, 6, Map.of(TRADES, 3), new AccountRateLimit());
+        assertEquals(3, rateLimiter.getWeight(TRADES));
+        assertEquals(1, rateLimiter.getWeight(TICKER));
+
+        // Two trade history calls empty the bucket, the third one waits for three tokens.
+        assertTrue(getDuration(rateLimiter, TRADES, 2) < RATE / 2);
+        assertTrue(getDuration(rateLimiter, TRADES, 1) >= RATE * 2);
+    }
+
+    @Test
+    @DisplayName("Account budget shared by services")
+    public void accountBudget() throws InterruptedException {
+        final AccountRateLimit accountRateLimit = new AccountRateLimit(4, RATE * 5);
+        final RateLimiter marketRateLimiter = new RateLimiter(1, 10, Collections.emptyMap(), accountRateLimit);
+        final RateLimiter tradeRateLimiter = new RateLimiter(1, 10, Collections.emptyMap(), accountRateLimit);
+
+        // 4 calls allowed for the account, whatever the service.
+        assertTrue(getDuration(marketRateLimiter, TICKER, 2) < RATE / 2);
+        assertTrue(getDuration(tradeRateLimiter, OPEN_ORDERS, 2) < RATE / 2);
+        assertEquals(0, accountRateLimit.getAvailableTokens().orElseThrow());
+
+        // The next call waits for the account refill (4 tokens every 500 ms), without consuming service tokens.
+        assertTrue(getDuration(tradeRateLimiter, OPEN_ORDERS, 1) >= RATE);
+        assertTrue(tradeRateLimiter.getAvailableTokens() >= 7);
+        assertTrue(new AccountRateLimit().getAvailableTokens().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Orders served before polling")
+    public void priority() throws InterruptedException {
+        final RateLimiter rateLimiter = new RateLimiter(RATE, 1, Collections.emptyMap(), new AccountRateLimit());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final AtomicBoolean polling = new AtomicBoolean(true);
+        final AtomicInteger polls = new AtomicInteger();
+
+        // 4 threads polling as fast as the rate limiter allows.
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> {
+                while (polling.get()) {
+                    rateLimiter.acquire(OPEN_ORDERS);
+                    polls.incrementAndGet();
+                }
+                return null;
+            });
+        }
+        TimeUnit.MILLISECONDS.sleep(RATE * 3);
+
+        // Each order takes the next token.
+        for (int i = 0; i < 3; i++) {
+            final int pollsBefore = polls.get();
+            assertTrue(getDuration(rateLimiter, ORDER_CREATION, 1) <= RATE + RATE / 2);
+            assertTrue(polls.get() - pollsBefore <= 1);
+        }
+        polling.set(false);
+        executor.shutdownNow();
+        assertTrue(rateLimiter.getWaitTimeHistogram(ORDER_CREATION).getTotalWaitTime() <= RATE * 3 + RATE / 2);
+    }
+
+    /**
+     * Calls an endpoint several times and returns the time spent.
+     *
+     * @param rateLimiter rate limiter
+     * @param endpoint    endpoint
+     * @param calls       number of calls
+     * @return duration (ms)
+     * @throws InterruptedException if interrupted
+     */
+    private long getDuration(final RateLimiter rateLimiter, final RateLimitedEndpoint endpoint, final int calls) throws InterruptedException {
+        final long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            rateLimiter.acquire(endpoint);
+        }
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+}
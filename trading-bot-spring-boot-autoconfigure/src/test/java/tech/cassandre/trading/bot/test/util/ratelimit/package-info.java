@@ -0,0 +1,4 @@
+/**
+ * Rate limit tests.
+ */
+package tech.cassandre.trading.bot.test.util.ratelimit;
@@ -0,0 +1,102 @@
+package tech.cassandre.trading.bot.test.util.scheduler;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tech.cassandre.trading.bot.test.util.BaseTest;
+import tech.cassandre.trading.bot.util.scheduler.FluxScheduler;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DisplayName("Flux scheduler")
+public class FluxSchedulerTest extends BaseTest {
+
+    /** Ticker flux period (ms). */
+    private static final long TICKER_PERIOD = 10;
+
+    /** Trade flux period (ms). */
+    private static final long TRADE_PERIOD = 50;
+
+    /** Duration of a trade history query (ms). */
+    private static final long TRADE_QUERY_DURATION = 500;
+
+    @Test
+    @DisplayName("A slow flux doesn't delay the others")
+    public void fluxIsolation() throws InterruptedException {
+        final AtomicInteger tickerUpdates = new AtomicInteger();
+        final AtomicInteger tradeUpdates = new AtomicInteger();
+        final FluxScheduler tickerScheduler = new FluxScheduler("ticker", TICKER_PERIOD, tickerUpdates::incrementAndGet);
+        final FluxScheduler tradeScheduler = new FluxScheduler("trade", TRADE_PERIOD, () -> {
+            tradeUpdates.incrementAndGet();
+            try {
+                Thread.sleep(TRADE_QUERY_DURATION);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        tickerScheduler.start(0);
+        tradeScheduler.start(0);
+
+        // While the trade flux is stuck in its first query, the ticker flux keeps its rate.
+        Thread.sleep(TRADE_QUERY_DURATION / 2);
+        assertEquals(1, tradeUpdates.get());
+        assertTrue(tickerUpdates.get() >= 3);
+
+        // The slow cycle is counted as an overrun.
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> tradeScheduler.getCycles() >= 1);
+        assertTrue(tradeScheduler.getOverruns() >= 1);
+        assertTrue(tradeScheduler.getMaximumCycleDuration() >= TRADE_QUERY_DURATION);
+        // The ticker flux does nothing : on a loaded machine, only a few of its cycles can be longer than its period.
+        assertTrue(tickerScheduler.getOverruns() <= tickerScheduler.getCycles() / 2, tickerScheduler.toString());
+
+        tickerScheduler.stop();
+        tradeScheduler.stop();
+        getLogger().info("{}", tickerScheduler);
+        getLogger().info("{}", tradeScheduler);
+    }
+
+    @Test
+    @DisplayName("Cycles missed during a slow cycle are not made up")
+    public void noCatchUp() {
+        final List<Long> cycleStarts = new CopyOnWriteArrayList<>();
+        final FluxScheduler scheduler = new FluxScheduler("trade", TRADE_PERIOD, () -> {
+            cycleStarts.add(System.nanoTime());
+            if (cycleStarts.size() == 1) {
+                try {
+                    Thread.sleep(TRADE_QUERY_DURATION);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        scheduler.start(0);
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> cycleStarts.size() >= 3);
+        scheduler.stop();
+
+        // After the slow cycle, the next cycles still wait for the period.
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(cycleStarts.get(1) - cycleStarts.get(0)) >= TRADE_QUERY_DURATION + TRADE_PERIOD);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(cycleStarts.get(2) - cycleStarts.get(1)) >= TRADE_PERIOD);
+        assertTrue(scheduler.getOverruns() >= 1);
+    }
+
+    @Test
+    @DisplayName("An error doesn't stop the scheduler")
+    public void errorInCycle() {
+        final AtomicInteger updates = new AtomicInteger();
+        final FluxScheduler scheduler = new FluxScheduler("account", TICKER_PERIOD, () -> {
+            updates.incrementAndGet();
+            throw new IllegalStateException("Exchange unavailable");
+        });
+        scheduler.start(0);
+        await().pollInterval(10, TimeUnit.MILLISECONDS).atMost(5, TimeUnit.SECONDS).until(() -> updates.get() >= 3);
+        assertTrue(scheduler.getCycles() >= 2);
+        scheduler.stop();
+    }
+
+}